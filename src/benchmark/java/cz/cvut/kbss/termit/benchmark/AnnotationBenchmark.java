@@ -0,0 +1,188 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import cz.cvut.kbss.termit.dto.TextAnalysisInput;
+import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.service.document.html.EmbeddedTermAnnotator;
+import cz.cvut.kbss.termit.service.document.html.HtmlTermOccurrenceResolver;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of text analysis of a document and of resolution of term occurrences in the analyzed document.
+ * <p>
+ * The {@code annotator} parameter selects the text analysis implementation:
+ * <ul>
+ *     <li>{@code EMBEDDED} - the embedded dictionary-based {@link EmbeddedTermAnnotator},</li>
+ *     <li>{@code REMOTE} - invocation of a remote text analysis service the way {@code TextAnalysisService} does it.
+ *     The real service cannot access the in-memory repository of the benchmark environment, so the request is sent to
+ *     a local mock endpoint, which analyzes the received content using the embedded annotator. The difference between
+ *     the two variants is thus the overhead of the remote invocation.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AnnotationBenchmark {
+
+    public enum Annotator {
+        EMBEDDED, REMOTE
+    }
+
+    @Param({"EMBEDDED", "REMOTE"})
+    public Annotator annotator;
+
+    private BenchmarkEnvironment environment;
+
+    private Configuration config;
+
+    private EmbeddedTermAnnotator embeddedAnnotator;
+
+    private RestTemplate restTemplate;
+
+    private HttpServer remoteAnnotator;
+
+    private String remoteAnnotatorUrl;
+
+    private String document;
+
+    private Set<URI> vocabularyContexts;
+
+    private String annotatedDocument;
+
+    private File file;
+
+    @Setup
+    public void setUp(RepositoryState state) throws IOException {
+        this.environment = state.environment;
+        this.config = environment.getBean(Configuration.class);
+        this.embeddedAnnotator = environment.getBean(EmbeddedTermAnnotator.class);
+        this.restTemplate = environment.getBean(RestTemplate.class);
+        this.document = state.repository.document();
+        // Generated vocabularies are stored in contexts matching their identifiers
+        this.vocabularyContexts = new HashSet<>(state.repository.vocabularies());
+        this.annotatedDocument = annotateEmbedded();
+        this.file = new File();
+        file.setUri(URI.create(SyntheticRepositoryGenerator.NAMESPACE + "file/benchmark"));
+        file.setLabel("benchmark.html");
+        if (annotator == Annotator.REMOTE) {
+            startRemoteAnnotator();
+        }
+    }
+
+    /**
+     * Starts a local HTTP endpoint mocking the remote text analysis service.
+     */
+    private void startRemoteAnnotator() throws IOException {
+        final ObjectMapper objectMapper = environment.getBean("objectMapper", ObjectMapper.class);
+        this.remoteAnnotator = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        remoteAnnotator.createContext("/annotate", exchange -> {
+            final TextAnalysisInput input;
+            try (final InputStream in = exchange.getRequestBody()) {
+                input = objectMapper.readValue(in, TextAnalysisInput.class);
+            }
+            final Set<URI> contexts = input.getVocabularyContexts() != null ? input.getVocabularyContexts() : Set.of();
+            final byte[] result = embeddedAnnotator.annotate(input.getContent(), input.getLanguage(), contexts)
+                                                   .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_XML_VALUE);
+            exchange.sendResponseHeaders(200, result.length);
+            try (final OutputStream out = exchange.getResponseBody()) {
+                out.write(result);
+            }
+        });
+        remoteAnnotator.start();
+        this.remoteAnnotatorUrl = "http://" + remoteAnnotator.getAddress().getHostString() + ":" +
+                remoteAnnotator.getAddress().getPort() + "/annotate";
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (remoteAnnotator != null) {
+            remoteAnnotator.stop(0);
+        }
+    }
+
+    private String annotateEmbedded() {
+        return embeddedAnnotator.annotate(document, config.getPersistence().getLanguage(), vocabularyContexts);
+    }
+
+    private String annotateRemote() throws IOException {
+        final TextAnalysisInput input = new TextAnalysisInput(document, config.getPersistence().getLanguage(),
+                                                              URI.create(config.getRepository().getUrl()));
+        input.setVocabularyContexts(vocabularyContexts);
+        final HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.ACCEPT, MediaType.APPLICATION_XML_VALUE);
+        final Resource result = restTemplate.exchange(remoteAnnotatorUrl, HttpMethod.POST,
+                                                      new HttpEntity<>(input, headers), Resource.class).getBody();
+        assert result != null;
+        try (final InputStream in = result.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public String annotate() throws IOException {
+        return annotator == Annotator.EMBEDDED ? annotateEmbedded() : annotateRemote();
+    }
+
+    @Benchmark
+    public void resolveOccurrences(Blackhole bh) {
+        environment.readOnlyTransactional(() -> {
+            final HtmlTermOccurrenceResolver resolver = environment.getBean("html", HtmlTermOccurrenceResolver.class);
+            resolver.parseContent(new ByteArrayInputStream(annotatedDocument.getBytes(StandardCharsets.UTF_8)),
+                                  file);
+            resolver.findTermOccurrences(bh::consume);
+        });
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.benchmark;
+
+import cz.cvut.kbss.termit.environment.config.TestPersistenceConfig;
+import cz.cvut.kbss.termit.environment.config.TestServiceConfig;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.aspectj.EnableSpringConfigured;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+/**
+ * Spring configuration of the benchmark environment.
+ * <p>
+ * Uses the same persistence and service setup as service tests, i.e., an in-memory RDF4J repository with RDFS
+ * inference.
+ */
+@org.springframework.context.annotation.Configuration
+@EnableAspectJAutoProxy(proxyTargetClass = true)
+@EnableTransactionManagement
+@EnableSpringConfigured
+@EnableConfigurationProperties({Configuration.class})
+@Import({TestPersistenceConfig.class, TestServiceConfig.class})
+public class BenchmarkConfig {
+}
@@ -0,0 +1,72 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.benchmark;
+
+import cz.cvut.kbss.termit.environment.Transaction;
+import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Application context in which benchmarks are run.
+ * <p>
+ * The context is backed by an in-memory repository, so every instance starts with an empty repository.
+ * <p>
+ * The context uses the {@code benchmark} profile instead of {@code test}, so that components disabled in tests (e.g.,
+ * the vocabulary topology registry or the term facet index) take part in the benchmarks.
+ */
+public class BenchmarkEnvironment implements AutoCloseable {
+
+    private final AnnotationConfigApplicationContext context;
+
+    private final PlatformTransactionManager txManager;
+
+    public BenchmarkEnvironment() {
+        this.context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setActiveProfiles("benchmark");
+        new ConfigDataApplicationContextInitializer().initialize(context);
+        context.register(BenchmarkConfig.class);
+        context.refresh();
+        this.txManager = context.getBean(PlatformTransactionManager.class);
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public <T> T getBean(String name, Class<T> type) {
+        return context.getBean(name, type);
+    }
+
+    public void publishEvent(Object event) {
+        context.publishEvent(event);
+    }
+
+    public void transactional(Runnable procedure) {
+        Transaction.execute(txManager, procedure);
+    }
+
+    public void readOnlyTransactional(Runnable procedure) {
+        Transaction.executeReadOnly(txManager, procedure);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.benchmark;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.EntityManagerFactory;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.changetracking.UpdateChangeRecord;
+import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
+import cz.cvut.kbss.termit.service.changetracking.MetamodelBasedChangeCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Benchmark of calculation of changes made to a term, which runs on every term update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ChangeCalculatorBenchmark {
+
+    private MetamodelBasedChangeCalculator calculator;
+
+    private Term original;
+
+    private Term changed;
+
+    @Setup
+    public void setUp(RepositoryState state) {
+        this.calculator = new MetamodelBasedChangeCalculator(state.environment.getBean(EntityManagerFactory.class));
+        final URI vocabulary = state.repository.firstVocabulary();
+        final URI termUri = state.repository.terms().get(vocabulary).get(0);
+        this.original = loadTerm(state.environment, vocabulary, termUri);
+        this.changed = loadTerm(state.environment, vocabulary, termUri);
+        final String language = SyntheticRepositoryGenerator.LANGUAGE;
+        changed.setLabel(MultilingualString.create(original.getLabel().get(language) + " updated", language));
+        changed.getDefinition().set("cs", "Definice");
+    }
+
+    private static Term loadTerm(BenchmarkEnvironment environment, URI vocabulary, URI termUri) {
+        final EntityManager em = environment.getBean(EntityManager.class);
+        final DescriptorFactory descriptorFactory = environment.getBean(DescriptorFactory.class);
+        final AtomicReference<Term> result = new AtomicReference<>();
+        environment.readOnlyTransactional(
+                () -> result.set(em.find(Term.class, termUri, descriptorFactory.termDescriptor(vocabulary))));
+        return result.get();
+    }
+
+    @Benchmark
+    public Collection<UpdateChangeRecord> calculateChanges() {
+        return calculator.calculateChanges(changed, original);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.benchmark;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
+import cz.cvut.kbss.termit.service.export.ExportConfig;
+import cz.cvut.kbss.termit.service.export.ExportType;
+import cz.cvut.kbss.termit.service.export.VocabularyExporter;
+import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.TypeAwareStreamingResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Benchmark of SKOS export of the vocabulary importing the most other vocabularies.
+ * <p>
+ * The exported data are discarded, so that the benchmark measures only the export itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExportBenchmark {
+
+    @Param({"SKOS", "SKOS_FULL"})
+    public ExportType type;
+
+    private VocabularyExporter exporter;
+
+    private Vocabulary vocabulary;
+
+    @Setup
+    public void setUp(RepositoryState state) {
+        this.exporter = state.environment.getBean("skos-turtle", VocabularyExporter.class);
+        final EntityManager em = state.environment.getBean(EntityManager.class);
+        final DescriptorFactory descriptorFactory = state.environment.getBean(DescriptorFactory.class);
+        final AtomicReference<Vocabulary> result = new AtomicReference<>();
+        state.environment.readOnlyTransactional(() -> result.set(
+                em.find(Vocabulary.class, state.repository.lastVocabulary(),
+                        descriptorFactory.vocabularyDescriptor(state.repository.lastVocabulary()))));
+        this.vocabulary = result.get();
+    }
+
+    @Benchmark
+    public void exportTurtle() throws IOException {
+        final TypeAwareStreamingResource resource = (TypeAwareStreamingResource) exporter.exportGlossary(
+                vocabulary, new ExportConfig(type, Constants.MediaType.TURTLE));
+        resource.writeTo(OutputStream.nullOutputStream());
+    }
+}
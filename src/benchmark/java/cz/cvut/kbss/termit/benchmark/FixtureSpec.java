@@ -0,0 +1,44 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.benchmark;
+
+/**
+ * Shape of a synthetic repository generated by {@link SyntheticRepositoryGenerator}.
+ *
+ * @param vocabularies         Number of vocabularies
+ * @param termsPerVocabulary   Number of terms in each vocabulary
+ * @param hierarchyDepth       Number of levels of the term hierarchy in each vocabulary (1 means only root terms)
+ * @param importsPerVocabulary Number of vocabularies imported by each vocabulary (if there are enough of them)
+ * @param filesPerVocabulary   Number of files with term occurrences in each vocabulary
+ * @param occurrencesPerFile   Number of term occurrences in each file
+ * @param changesPerTerm       Number of change records of each term (the first one records its creation)
+ * @param seed                 Seed of the random generator, the same seed always yields the same repository
+ */
+public record FixtureSpec(int vocabularies, int termsPerVocabulary, int hierarchyDepth, int importsPerVocabulary,
+                          int filesPerVocabulary, int occurrencesPerFile, int changesPerTerm, long seed) {
+
+    public FixtureSpec {
+        if (vocabularies < 1 || termsPerVocabulary < 1 || hierarchyDepth < 1) {
+            throw new IllegalArgumentException(
+                    "At least one vocabulary with at least one term and one hierarchy level is required.");
+        }
+        if (importsPerVocabulary < 0 || filesPerVocabulary < 0 || occurrencesPerFile < 0 || changesPerTerm < 0) {
+            throw new IllegalArgumentException("Counts must not be negative.");
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.benchmark;
+
+import cz.cvut.kbss.termit.persistence.dao.SearchDao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of full-text search over the generated vocabularies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FullTextSearchBenchmark {
+
+    private BenchmarkEnvironment environment;
+
+    private SearchDao searchDao;
+
+    private List<String> searchStrings;
+
+    private int next;
+
+    @Setup
+    public void setUp(RepositoryState state) {
+        this.environment = state.environment;
+        this.searchDao = environment.getBean(SearchDao.class);
+        this.searchStrings = state.repository.searchStrings();
+    }
+
+    @Benchmark
+    public void fullTextSearch(Blackhole bh) {
+        final String searchString = searchStrings.get(next++ % searchStrings.size());
+        environment.readOnlyTransactional(() -> bh.consume(searchDao.fullTextSearch(searchString)));
+    }
+}
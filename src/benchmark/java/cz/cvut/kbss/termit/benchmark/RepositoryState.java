@@ -0,0 +1,76 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark state holding the application context and the generated synthetic repository.
+ * <p>
+ * The repository is generated once per trial. Its shape can be changed using JMH parameters, e.g.,
+ * {@code -p terms=5000 -p depth=6}.
+ */
+@State(Scope.Benchmark)
+public class RepositoryState {
+
+    @Param("5")
+    public int vocabularies;
+
+    @Param("500")
+    public int terms;
+
+    @Param("4")
+    public int depth;
+
+    @Param("1")
+    public int imports;
+
+    @Param("2")
+    public int files;
+
+    @Param("50")
+    public int occurrences;
+
+    @Param("3")
+    public int changes;
+
+    @Param("42")
+    public long seed;
+
+    public BenchmarkEnvironment environment;
+
+    public SyntheticRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.environment = new BenchmarkEnvironment();
+        final FixtureSpec spec = new FixtureSpec(vocabularies, terms, depth, imports, files, occurrences, changes,
+                                                 seed);
+        this.repository = new SyntheticRepositoryGenerator(spec, environment).generate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.close();
+    }
+}
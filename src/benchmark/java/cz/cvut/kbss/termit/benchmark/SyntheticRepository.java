@@ -0,0 +1,50 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.benchmark;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Description of a generated synthetic repository.
+ *
+ * @param vocabularies  Identifiers of the generated vocabularies, in the order of their generation
+ * @param terms         Identifiers of terms of each vocabulary
+ * @param files         Identifiers of files of each vocabulary
+ * @param document      HTML document mentioning labels of terms of the first vocabulary, suitable for text analysis
+ * @param searchStrings Strings guaranteed to match some term labels
+ */
+public record SyntheticRepository(List<URI> vocabularies, Map<URI, List<URI>> terms, Map<URI, List<URI>> files,
+                                  String document, List<String> searchStrings) {
+
+    public URI firstVocabulary() {
+        return vocabularies.get(0);
+    }
+
+    /**
+     * Gets the vocabulary which imports the most other vocabularies (directly or transitively).
+     * <p>
+     * Vocabularies import those generated before them, so this is the last generated vocabulary.
+     *
+     * @return Vocabulary identifier
+     */
+    public URI lastVocabulary() {
+        return vocabularies.get(vocabularies.size() - 1);
+    }
+}
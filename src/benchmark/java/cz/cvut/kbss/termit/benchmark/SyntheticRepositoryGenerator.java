@@ -0,0 +1,329 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.benchmark;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.jopa.vocabulary.RDFS;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.model.Glossary;
+import cz.cvut.kbss.termit.model.Model;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.User;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.model.assignment.FileOccurrenceTarget;
+import cz.cvut.kbss.termit.model.assignment.TermFileOccurrence;
+import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
+import cz.cvut.kbss.termit.model.changetracking.PersistChangeRecord;
+import cz.cvut.kbss.termit.model.changetracking.UpdateChangeRecord;
+import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
+import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
+import cz.cvut.kbss.termit.persistence.dao.changetracking.ChangeRecordDao;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.SKOS;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Generates a synthetic repository of the specified shape.
+ * <p>
+ * The generator is deterministic - given the same {@link FixtureSpec}, it always generates the same data (including
+ * identifiers, labels and timestamps), so that benchmark results are comparable across runs.
+ * <p>
+ * Each vocabulary contains terms organized in a hierarchy of the specified depth, with the terms evenly distributed
+ * among the hierarchy levels. Term labels are composed of words from a small dictionary, so that full-text search and
+ * text analysis find realistic numbers of matches. Term definitions mention labels of other terms of the same
+ * vocabulary.
+ */
+public class SyntheticRepositoryGenerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SyntheticRepositoryGenerator.class);
+
+    public static final String NAMESPACE = "http://onto.fel.cvut.cz/ontologies/benchmark/";
+
+    public static final String LANGUAGE = "en";
+
+    /**
+     * Number of entities persisted in a single transaction.
+     */
+    private static final int BATCH_SIZE = 250;
+
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    private static final String[] WORDS = {
+            "building", "land", "parcel", "road", "bridge", "river", "water", "area", "zone", "plan",
+            "permit", "owner", "right", "register", "record", "address", "street", "city", "district", "region",
+            "border", "survey", "map", "point", "line", "network", "station", "tunnel", "railway", "airport",
+            "forest", "field", "meadow", "garden", "park", "square", "wall", "roof", "floor", "room",
+            "unit", "apartment", "house", "school", "hospital", "office", "court", "authority", "decision", "notice",
+            "fee", "tax", "value", "price", "contract", "lease", "mortgage", "easement", "boundary", "cadastre"
+    };
+
+    private final FixtureSpec spec;
+
+    private final Random random;
+
+    private final BenchmarkEnvironment environment;
+
+    private final EntityManager em;
+
+    private final DescriptorFactory descriptorFactory;
+
+    private final TermOccurrenceDao occurrenceDao;
+
+    private final ChangeRecordDao changeRecordDao;
+
+    private final ValueFactory vf;
+
+    private final Set<String> usedLabels = new HashSet<>();
+
+    public SyntheticRepositoryGenerator(FixtureSpec spec, BenchmarkEnvironment environment) {
+        this.spec = spec;
+        this.random = new Random(spec.seed());
+        this.environment = environment;
+        this.em = environment.getBean(EntityManager.class);
+        this.descriptorFactory = environment.getBean(DescriptorFactory.class);
+        this.occurrenceDao = environment.getBean(TermOccurrenceDao.class);
+        this.changeRecordDao = environment.getBean(ChangeRecordDao.class);
+        this.vf = SimpleValueFactory.getInstance();
+    }
+
+    /**
+     * Generates the repository.
+     *
+     * @return Description of the generated data
+     */
+    public SyntheticRepository generate() {
+        LOG.info("Generating synthetic repository {}.", spec);
+        final long start = System.nanoTime();
+        final User author = generateAuthor();
+        final List<URI> vocabularies = new ArrayList<>(spec.vocabularies());
+        final Map<URI, List<URI>> terms = new LinkedHashMap<>();
+        final Map<URI, List<URI>> files = new LinkedHashMap<>();
+        final Map<URI, List<String>> labels = new LinkedHashMap<>();
+        for (int i = 0; i < spec.vocabularies(); i++) {
+            final Vocabulary vocabulary = generateVocabulary(i, vocabularies);
+            final List<Term> vocabularyTerms = generateTerms(i, vocabulary);
+            generateChangeRecords(vocabularyTerms, author);
+            files.put(vocabulary.getUri(), generateFiles(i, vocabulary, vocabularyTerms));
+            vocabularies.add(vocabulary.getUri());
+            terms.put(vocabulary.getUri(), vocabularyTerms.stream().map(Term::getUri).toList());
+            labels.put(vocabulary.getUri(),
+                       vocabularyTerms.stream().map(t -> t.getLabel().get(LANGUAGE)).toList());
+        }
+        // Let caches (e.g., vocabulary context mapping) pick up the generated data
+        environment.publishEvent(new EvictCacheEvent(this));
+        LOG.info("Synthetic repository generated in {}.", Duration.ofNanos(System.nanoTime() - start));
+        final List<String> firstVocabularyLabels = labels.get(vocabularies.get(0));
+        return new SyntheticRepository(vocabularies, terms, files, generateDocument(firstVocabularyLabels),
+                                       List.of(WORDS[0], WORDS[WORDS.length / 2], WORDS[WORDS.length - 1]));
+    }
+
+    private User generateAuthor() {
+        final User author = new User();
+        author.setUri(URI.create(NAMESPACE + "user/benchmark"));
+        author.setFirstName("Bench");
+        author.setLastName("Mark");
+        author.setUsername("benchmark@kbss.felk.cvut.cz");
+        environment.transactional(() -> em.persist(author));
+        return author;
+    }
+
+    private Vocabulary generateVocabulary(int index, List<URI> existing) {
+        final Vocabulary vocabulary = new Vocabulary(URI.create(NAMESPACE + "vocabulary-" + index));
+        vocabulary.setLabel(MultilingualString.create("Vocabulary " + index, LANGUAGE));
+        vocabulary.setDescription(MultilingualString.create("Synthetic vocabulary " + index, LANGUAGE));
+        final Glossary glossary = new Glossary();
+        glossary.setUri(URI.create(vocabulary.getUri() + "/glosář"));
+        vocabulary.setGlossary(glossary);
+        final Model model = new Model();
+        model.setUri(URI.create(vocabulary.getUri() + "/model"));
+        vocabulary.setModel(model);
+        // Import the directly preceding vocabularies, which makes the import closure of later vocabularies grow
+        vocabulary.setImportedVocabularies(IntStream.range(Math.max(0, index - spec.importsPerVocabulary()), index)
+                                                    .mapToObj(existing::get)
+                                                    .collect(Collectors.toSet()));
+        environment.transactional(() -> em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary)));
+        return vocabulary;
+    }
+
+    private List<Term> generateTerms(int vocabularyIndex, Vocabulary vocabulary) {
+        final int count = spec.termsPerVocabulary();
+        final List<Term> terms = new ArrayList<>(count);
+        final List<List<Term>> levels = new ArrayList<>();
+        IntStream.range(0, spec.hierarchyDepth()).forEach(i -> levels.add(new ArrayList<>()));
+        final Map<Term, Term> parents = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            final Term term = new Term(URI.create(vocabulary.getUri() + "/pojem/term-" + i));
+            term.setLabel(MultilingualString.create(generateLabel(vocabularyIndex), LANGUAGE));
+            term.setGlossary(vocabulary.getGlossary().getUri());
+            term.setVocabulary(vocabulary.getUri());
+            final int level = (int) ((long) i * spec.hierarchyDepth() / count);
+            if (level > 0 && !levels.get(level - 1).isEmpty()) {
+                final List<Term> candidates = levels.get(level - 1);
+                parents.put(term, candidates.get(random.nextInt(candidates.size())));
+            }
+            levels.get(level).add(term);
+            terms.add(term);
+        }
+        terms.forEach(t -> t.setDefinition(MultilingualString.create(generateDefinition(terms), LANGUAGE)));
+
+        // Newly created vocabularies are stored in contexts matching their identifiers
+        final IRI vocabularyIri = vf.createIRI(vocabulary.getUri().toString());
+        final IRI context = vocabularyIri;
+        final IRI glossary = vf.createIRI(vocabulary.getGlossary().getUri().toString());
+        final IRI inVocabulary = vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku);
+        for (int i = 0; i < terms.size(); i += BATCH_SIZE) {
+            final List<Term> batch = terms.subList(i, Math.min(i + BATCH_SIZE, terms.size()));
+            final List<Statement> statements = new ArrayList<>();
+            batch.forEach(t -> {
+                final IRI termIri = vf.createIRI(t.getUri().toString());
+                statements.add(vf.createStatement(termIri, inVocabulary, vocabularyIri, context));
+                if (parents.containsKey(t)) {
+                    statements.add(vf.createStatement(termIri, SKOS.BROADER,
+                                                      vf.createIRI(parents.get(t).getUri().toString()), context));
+                } else {
+                    statements.add(vf.createStatement(glossary, SKOS.HAS_TOP_CONCEPT, termIri, context));
+                }
+            });
+            environment.transactional(
+                    () -> batch.forEach(t -> em.persist(t, descriptorFactory.termDescriptor(vocabulary))));
+            addStatements(statements);
+        }
+        return terms;
+    }
+
+    private String generateLabel(int vocabularyIndex) {
+        String label;
+        do {
+            label = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " +
+                    vocabularyIndex + "-" + random.nextInt(1000);
+        } while (!usedLabels.add(label));
+        return label;
+    }
+
+    private String generateDefinition(List<Term> terms) {
+        final Term one = terms.get(random.nextInt(terms.size()));
+        final Term two = terms.get(random.nextInt(terms.size()));
+        return "A " + WORDS[random.nextInt(WORDS.length)] + " related to " + one.getLabel().get(LANGUAGE) +
+                " and " + two.getLabel().get(LANGUAGE) + ".";
+    }
+
+    private void addStatements(List<Statement> statements) {
+        final Repository repository = em.unwrap(Repository.class);
+        try (final RepositoryConnection connection = repository.getConnection()) {
+            connection.begin();
+            connection.add(statements);
+            connection.commit();
+        }
+    }
+
+    private void generateChangeRecords(List<Term> terms, User author) {
+        if (spec.changesPerTerm() == 0) {
+            return;
+        }
+        for (int i = 0; i < terms.size(); i += BATCH_SIZE) {
+            final List<Term> batch = terms.subList(i, Math.min(i + BATCH_SIZE, terms.size()));
+            environment.transactional(() -> batch.forEach(t -> {
+                Instant timestamp = EPOCH.plusSeconds(random.nextInt(3600 * 24 * 365));
+                for (int j = 0; j < spec.changesPerTerm(); j++) {
+                    final AbstractChangeRecord record;
+                    if (j == 0) {
+                        record = new PersistChangeRecord(t);
+                    } else {
+                        final UpdateChangeRecord update = new UpdateChangeRecord(t);
+                        update.setChangedAttribute(URI.create(RDFS.LABEL));
+                        update.setOriginalValue(Collections.singleton(t.getLabel().get(LANGUAGE) + " " + (j - 1)));
+                        update.setNewValue(Collections.singleton(t.getLabel().get(LANGUAGE) + " " + j));
+                        record = update;
+                    }
+                    record.setUri(URI.create(t.getUri() + "/change-" + j));
+                    record.setAuthor(author);
+                    record.setTimestamp(timestamp);
+                    changeRecordDao.persist(record, t);
+                    timestamp = timestamp.plusSeconds(1 + random.nextInt(3600));
+                }
+            }));
+        }
+    }
+
+    private List<URI> generateFiles(int vocabularyIndex, Vocabulary vocabulary, List<Term> terms) {
+        final List<URI> result = new ArrayList<>(spec.filesPerVocabulary());
+        for (int i = 0; i < spec.filesPerVocabulary(); i++) {
+            final File file = new File();
+            file.setUri(URI.create(NAMESPACE + "file/vocabulary-" + vocabularyIndex + "-file-" + i));
+            file.setLabel("file-" + vocabularyIndex + "-" + i + ".html");
+            environment.transactional(() -> em.persist(file, descriptorFactory.fileDescriptor(vocabulary)));
+            final List<TermFileOccurrence> occurrences = new ArrayList<>(spec.occurrencesPerFile());
+            for (int j = 0; j < spec.occurrencesPerFile(); j++) {
+                final Term term = terms.get(random.nextInt(terms.size()));
+                final TermFileOccurrence occurrence = new TermFileOccurrence(term.getUri(),
+                                                                             new FileOccurrenceTarget(file));
+                occurrence.getTarget().setSelectors(
+                        Collections.singleton(new TextQuoteSelector(term.getLabel().get(LANGUAGE))));
+                occurrences.add(occurrence);
+            }
+            for (int j = 0; j < occurrences.size(); j += BATCH_SIZE) {
+                final List<TermFileOccurrence> batch = occurrences.subList(j,
+                                                                           Math.min(j + BATCH_SIZE,
+                                                                                    occurrences.size()));
+                environment.transactional(() -> batch.forEach(occurrenceDao::persist));
+            }
+            result.add(file.getUri());
+        }
+        return result;
+    }
+
+    /**
+     * Generates an HTML document whose paragraphs mention labels of the specified terms.
+     */
+    private String generateDocument(List<String> labels) {
+        final StringBuilder sb = new StringBuilder("<html><head><title>Benchmark document</title></head><body>");
+        for (int i = 0; i < Math.max(10, labels.size() / 5); i++) {
+            sb.append("<p>");
+            for (int j = 0; j < 5; j++) {
+                sb.append("The ").append(WORDS[random.nextInt(WORDS.length)]).append(" of ")
+                  .append(labels.get(random.nextInt(labels.size()))).append(" is defined by the ")
+                  .append(WORDS[random.nextInt(WORDS.length)]).append(". ");
+            }
+            sb.append("</p>");
+        }
+        return sb.append("</body></html>").toString();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.benchmark;
+
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of term listing, which backs the term tree and term list views.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TermDaoBenchmark {
+
+    private static final Pageable PAGE = PageRequest.of(0, 100);
+
+    private BenchmarkEnvironment environment;
+
+    private TermDao termDao;
+
+    private Vocabulary vocabulary;
+
+    @Setup
+    public void setUp(RepositoryState state) {
+        this.environment = state.environment;
+        this.termDao = state.environment.getBean(TermDao.class);
+        this.vocabulary = new Vocabulary(state.repository.lastVocabulary());
+    }
+
+    @Benchmark
+    public void findAll(Blackhole bh) {
+        environment.readOnlyTransactional(() -> bh.consume(termDao.findAll(vocabulary)));
+    }
+
+    @Benchmark
+    public void findAllRootsFirstPage(Blackhole bh) {
+        environment.readOnlyTransactional(
+                () -> bh.consume(termDao.findAllRoots(vocabulary, PAGE, Collections.emptyList())));
+    }
+
+    @Benchmark
+    public void findAllRootsIncludingImportsFirstPage(Blackhole bh) {
+        environment.readOnlyTransactional(
+                () -> bh.consume(termDao.findAllRootsIncludingImports(vocabulary, PAGE, Collections.emptyList())));
+    }
+}
@@ -19,9 +19,12 @@ package cz.cvut.kbss.termit.config;
 
 import com.github.ledsoft.jopa.spring.transaction.DelegatingEntityManager;
 import com.github.ledsoft.jopa.spring.transaction.JopaTransactionManager;
+import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.EntityManagerFactory;
 import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
 import cz.cvut.kbss.termit.persistence.context.WorkspaceVocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.monitoring.QueryInstrumentation;
+import cz.cvut.kbss.termit.persistence.monitoring.QueryStatistics;
 import cz.cvut.kbss.termit.workspace.EditableVocabularies;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -38,6 +41,19 @@ public class PersistenceConfig {
         return new DelegatingEntityManager();
     }
 
+    /**
+     * Entity manager used by the application, measuring executed queries unless query statistics are disabled.
+     */
+    @Bean
+    @Primary
+    public EntityManager instrumentedEntityManager(DelegatingEntityManager emProxy, QueryStatistics queryStatistics,
+                                                   cz.cvut.kbss.termit.util.Configuration config) {
+        if (!config.getPersistence().isQueryStatistics()) {
+            return emProxy;
+        }
+        return new QueryInstrumentation(queryStatistics).instrument(emProxy);
+    }
+
     @Bean(name = "txManager")
     public PlatformTransactionManager transactionManager(EntityManagerFactory emf, DelegatingEntityManager emProxy) {
         return new JopaTransactionManager(emf, emProxy);
@@ -24,6 +24,7 @@ import cz.cvut.kbss.termit.security.JwtAuthorizationFilter;
 import cz.cvut.kbss.termit.security.JwtUtils;
 import cz.cvut.kbss.termit.security.SecurityConstants;
 import cz.cvut.kbss.termit.security.TermitJwtDecoder;
+import cz.cvut.kbss.termit.security.UserDetailsCache;
 import cz.cvut.kbss.termit.service.security.TermItUserDetailsService;
 import cz.cvut.kbss.termit.util.Constants;
 import org.slf4j.Logger;
@@ -166,7 +167,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public TermitJwtDecoder jwtDecoder() {
-        return new TermitJwtDecoder(jwtUtils, userDetailsService);
+    public TermitJwtDecoder jwtDecoder(UserDetailsCache userDetailsCache) {
+        return new TermitJwtDecoder(jwtUtils, userDetailsService, userDetailsCache);
     }
 }
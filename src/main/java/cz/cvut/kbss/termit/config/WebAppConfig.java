@@ -27,7 +27,10 @@ import cz.cvut.kbss.jopa.model.MultilingualString;
 import cz.cvut.kbss.jsonld.JsonLd;
 import cz.cvut.kbss.jsonld.jackson.JsonLdModule;
 import cz.cvut.kbss.jsonld.jackson.serialization.SerializationConstants;
+import cz.cvut.kbss.termit.persistence.monitoring.QueryStatistics;
 import cz.cvut.kbss.termit.rest.servlet.DiagnosticsContextFilter;
+import cz.cvut.kbss.termit.rest.servlet.QueryStatisticsCallableInterceptor;
+import cz.cvut.kbss.termit.rest.servlet.QueryStatisticsFilter;
 import cz.cvut.kbss.termit.util.AdjustedUriTemplateProxyServlet;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.json.MultilingualStringDeserializer;
@@ -36,6 +39,7 @@ import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
 import io.swagger.v3.oas.models.security.SecurityScheme;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
@@ -48,6 +52,7 @@ import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.method.HandlerTypePredicate;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
@@ -63,11 +68,14 @@ public class WebAppConfig implements WebMvcConfigurer {
 
     private final cz.cvut.kbss.termit.util.Configuration config;
 
+    private final QueryStatistics queryStatistics;
+
     @Value("${application.version:development}")
     private String version;
 
-    public WebAppConfig(cz.cvut.kbss.termit.util.Configuration config) {
+    public WebAppConfig(cz.cvut.kbss.termit.util.Configuration config, QueryStatistics queryStatistics) {
         this.config = config;
+        this.queryStatistics = queryStatistics;
     }
 
     /**
@@ -193,6 +201,21 @@ public class WebAppConfig implements WebMvcConfigurer {
         return registrationBean;
     }
 
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new QueryStatisticsCallableInterceptor(queryStatistics));
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryStatisticsFilter> queryStatisticsFilter() {
+        FilterRegistrationBean<QueryStatisticsFilter> registrationBean = new FilterRegistrationBean<>();
+        registrationBean.setFilter(new QueryStatisticsFilter(queryStatistics));
+        registrationBean.addUrlPatterns("/*");
+        // Requests with streamed responses are recorded when their async processing completes
+        registrationBean.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
+        return registrationBean;
+    }
+
     @Bean
     public OpenAPI customOpenAPI() {
         return new OpenAPI().components(new Components().addSecuritySchemes("bearer-key",
@@ -28,6 +28,7 @@ import cz.cvut.kbss.jsonld.annotation.JsonLdAttributeOrder;
 import cz.cvut.kbss.termit.model.AbstractEntity;
 
 import java.net.URI;
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
@@ -51,6 +52,23 @@ public class VocabularyDto extends AbstractEntity {
     @Types
     private Set<String> types;
 
+    public VocabularyDto() {
+    }
+
+    /**
+     * Creates a shallow copy of the specified DTO, with its own set of types.
+     *
+     * @param other DTO to copy
+     */
+    public VocabularyDto(VocabularyDto other) {
+        setUri(other.getUri());
+        this.label = other.label;
+        this.description = other.description;
+        this.importedVocabularies = other.importedVocabularies;
+        this.document = other.document;
+        this.types = other.types != null ? new HashSet<>(other.types) : null;
+    }
+
     public MultilingualString getLabel() {
         return label;
     }
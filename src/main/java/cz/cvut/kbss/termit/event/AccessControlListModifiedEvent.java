@@ -0,0 +1,56 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.event;
+
+import cz.cvut.kbss.termit.model.acl.AccessControlList;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.springframework.context.ApplicationEvent;
+
+import java.net.URI;
+
+/**
+ * Event published when an access control list is modified or removed.
+ */
+public class AccessControlListModifiedEvent extends ApplicationEvent {
+
+    private final AccessControlList acl;
+
+    private final URI subject;
+
+    public AccessControlListModifiedEvent(@Nonnull Object source, @Nonnull AccessControlList acl,
+                                          @Nullable URI subject) {
+        super(source);
+        this.acl = acl;
+        this.subject = subject;
+    }
+
+    public AccessControlList getAcl() {
+        return acl;
+    }
+
+    /**
+     * Gets identifier of the asset to which the modified ACL belongs.
+     *
+     * @return Subject identifier, {@code null} if the subject is not known
+     */
+    @Nullable
+    public URI getSubject() {
+        return subject;
+    }
+}
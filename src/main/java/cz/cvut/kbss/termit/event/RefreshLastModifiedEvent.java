@@ -24,7 +24,24 @@ import org.springframework.context.ApplicationEvent;
  */
 public class RefreshLastModifiedEvent extends ApplicationEvent {
 
+    private final boolean remote;
+
     public RefreshLastModifiedEvent(Object source) {
+        this(source, false);
+    }
+
+    public RefreshLastModifiedEvent(Object source, boolean remote) {
         super(source);
+        this.remote = remote;
+    }
+
+    /**
+     * Whether this event has been published on behalf of another TermIt instance, i.e., on receipt of a cluster cache
+     * invalidation.
+     *
+     * @return {@code true} if the event originates from another instance
+     */
+    public boolean isRemote() {
+        return remote;
     }
 }
@@ -0,0 +1,49 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.event;
+
+import cz.cvut.kbss.termit.model.UserAccount;
+
+/**
+ * Event emitted when a user account is updated in a way which may affect authentication or authorization of the user.
+ * <p>
+ * This includes, e.g., locking, unlocking, disabling and enabling the account, changing the user's role or password.
+ */
+public class UserAccountUpdatedEvent extends UserEvent {
+
+    private final boolean remote;
+
+    public UserAccountUpdatedEvent(UserAccount user) {
+        this(user, false);
+    }
+
+    public UserAccountUpdatedEvent(UserAccount user, boolean remote) {
+        super(user);
+        this.remote = remote;
+    }
+
+    /**
+     * Whether this event has been published on behalf of another TermIt instance, i.e., on receipt of a cluster cache
+     * invalidation.
+     *
+     * @return {@code true} if the event originates from another instance
+     */
+    public boolean isRemote() {
+        return remote;
+    }
+}
@@ -18,6 +18,7 @@
 package cz.cvut.kbss.termit.event;
 
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 
 import java.net.URI;
 
@@ -28,7 +29,34 @@ import java.net.URI;
  */
 public class VocabularyContentModifiedEvent extends VocabularyEvent {
 
+    private final URI termIri;
+
     public VocabularyContentModifiedEvent(@Nonnull Object source, @Nonnull URI vocabularyIri) {
+        this(source, vocabularyIri, null);
+    }
+
+    public VocabularyContentModifiedEvent(@Nonnull Object source, @Nonnull URI vocabularyIri, @Nullable URI termIri) {
         super(source, vocabularyIri);
+        this.termIri = termIri;
+    }
+
+    /**
+     * Creates an event representing modification of vocabulary content by another TermIt instance.
+     * <p>
+     * Such modifications are not bound to a single term.
+     */
+    public VocabularyContentModifiedEvent(@Nonnull Object source, @Nonnull URI vocabularyIri, boolean remote) {
+        super(source, vocabularyIri, remote);
+        this.termIri = null;
+    }
+
+    /**
+     * The identifier of the term whose addition, removal or modification caused this event.
+     *
+     * @return term IRI, {@code null} if the modification is not bound to a single term
+     */
+    @Nullable
+    public URI getTermIri() {
+        return termIri;
     }
 }
@@ -29,4 +29,8 @@ public class VocabularyCreatedEvent extends VocabularyEvent {
     public VocabularyCreatedEvent(@Nonnull Object source, @Nonnull URI vocabularyIri) {
         super(source, vocabularyIri);
     }
+
+    public VocabularyCreatedEvent(@Nonnull Object source, @Nonnull URI vocabularyIri, boolean remote) {
+        super(source, vocabularyIri, remote);
+    }
 }
@@ -12,10 +12,17 @@ import java.util.Objects;
 public abstract class VocabularyEvent extends ApplicationEvent {
     protected final URI vocabularyIri;
 
+    private final boolean remote;
+
     protected VocabularyEvent(@Nonnull Object source, @Nonnull URI vocabularyIri) {
+        this(source, vocabularyIri, false);
+    }
+
+    protected VocabularyEvent(@Nonnull Object source, @Nonnull URI vocabularyIri, boolean remote) {
         super(source);
         Objects.requireNonNull(vocabularyIri);
         this.vocabularyIri = vocabularyIri;
+        this.remote = remote;
     }
 
     /**
@@ -25,4 +32,14 @@ public abstract class VocabularyEvent extends ApplicationEvent {
     public URI getVocabularyIri() {
         return vocabularyIri;
     }
+
+    /**
+     * Whether this event has been published on behalf of another TermIt instance, i.e., on receipt of a cluster cache
+     * invalidation.
+     *
+     * @return {@code true} if the event originates from another instance
+     */
+    public boolean isRemote() {
+        return remote;
+    }
 }
@@ -0,0 +1,40 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.event;
+
+import jakarta.annotation.Nonnull;
+
+import java.net.URI;
+
+/**
+ * Indicates that metadata of a vocabulary (e.g., its label or imports) have been modified or that the vocabulary has
+ * been removed by another TermIt instance.
+ * <p>
+ * Modifications done by this instance are represented by {@link AssetUpdateEvent} and
+ * {@link VocabularyWillBeRemovedEvent}.
+ */
+public class VocabularyModifiedEvent extends VocabularyEvent {
+
+    public VocabularyModifiedEvent(@Nonnull Object source, @Nonnull URI vocabularyIri) {
+        super(source, vocabularyIri);
+    }
+
+    public VocabularyModifiedEvent(@Nonnull Object source, @Nonnull URI vocabularyIri, boolean remote) {
+        super(source, vocabularyIri, remote);
+    }
+}
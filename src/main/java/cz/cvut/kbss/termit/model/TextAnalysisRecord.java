@@ -44,6 +44,18 @@ public class TextAnalysisRecord extends AbstractEntity {
     @OWLObjectProperty(iri = Vocabulary.s_p_ma_slovnik_pro_analyzu)
     private Set<URI> vocabularies;
 
+    /**
+     * Fingerprint of the analyzed content.
+     */
+    @OWLDataProperty(iri = Vocabulary.ONTOLOGY_IRI_TERMIT + "/text-analysis/content-fingerprint")
+    private String contentFingerprint;
+
+    /**
+     * Fingerprint of the term labels of the vocabularies used for the analysis.
+     */
+    @OWLDataProperty(iri = Vocabulary.ONTOLOGY_IRI_TERMIT + "/text-analysis/vocabulary-fingerprint")
+    private String vocabularyFingerprint;
+
     public TextAnalysisRecord() {
     }
 
@@ -76,6 +88,34 @@ public class TextAnalysisRecord extends AbstractEntity {
         this.vocabularies = vocabularies;
     }
 
+    public String getContentFingerprint() {
+        return contentFingerprint;
+    }
+
+    public void setContentFingerprint(String contentFingerprint) {
+        this.contentFingerprint = contentFingerprint;
+    }
+
+    public String getVocabularyFingerprint() {
+        return vocabularyFingerprint;
+    }
+
+    public void setVocabularyFingerprint(String vocabularyFingerprint) {
+        this.vocabularyFingerprint = vocabularyFingerprint;
+    }
+
+    /**
+     * Checks whether this record represents analysis with the specified fingerprints.
+     *
+     * @param contentFingerprint    Fingerprint of the analyzed content
+     * @param vocabularyFingerprint Fingerprint of the vocabularies used for analysis
+     * @return {@code true} if both fingerprints match, {@code false} otherwise
+     */
+    public boolean hasFingerprints(String contentFingerprint, String vocabularyFingerprint) {
+        return this.contentFingerprint != null && this.contentFingerprint.equals(contentFingerprint) &&
+                this.vocabularyFingerprint != null && this.vocabularyFingerprint.equals(vocabularyFingerprint);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -100,6 +140,7 @@ public class TextAnalysisRecord extends AbstractEntity {
                 "date=" + date +
                 ",analyzedResource=" + analyzedResource +
                 ",vocabularies=" + vocabularies +
+                ",contentFingerprint=" + contentFingerprint +
                 "}";
     }
 }
@@ -46,7 +46,7 @@ import static cz.cvut.kbss.jopa.model.JOPAPersistenceProperties.SCAN_PACKAGE;
  * Sets up persistence and provides {@link EntityManagerFactory} as Spring bean.
  */
 @Configuration
-@Profile("!test")
+@Profile("!test & !benchmark")
 public class MainPersistenceFactory {
 
     private final cz.cvut.kbss.termit.util.Configuration configuration;
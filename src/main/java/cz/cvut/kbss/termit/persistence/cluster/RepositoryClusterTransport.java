@@ -0,0 +1,212 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.cluster;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.service.cluster.ClusterTransport;
+import cz.cvut.kbss.termit.service.cluster.Invalidation;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.query.Update;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Exchanges cache invalidations with other TermIt instances through the shared repository.
+ * <p>
+ * Each batch of sent invalidations is stored as a single message in a dedicated repository context. Other instances
+ * periodically poll the context for messages they have not seen yet. Messages are kept for the configured retention
+ * period, so that instances whose clocks are slightly skewed or whose polling is delayed do not miss them. Messages
+ * older than the retention period are removed when new messages are sent.
+ * <p>
+ * Messages which already exist in the repository when the transport is first polled are considered seen, as a freshly
+ * started instance has nothing to invalidate.
+ */
+@Component
+@ConditionalOnProperty(prefix = "termit.cluster", name = "enabled", havingValue = "true")
+public class RepositoryClusterTransport implements ClusterTransport {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RepositoryClusterTransport.class);
+
+    static final String NAMESPACE = "http://onto.fel.cvut.cz/ontologies/termit/cluster/";
+    static final String MESSAGE = NAMESPACE + "message";
+    static final String HAS_NODE = NAMESPACE + "has-node";
+    static final String HAS_TIMESTAMP = NAMESPACE + "has-timestamp";
+    static final String HAS_INVALIDATION = NAMESPACE + "has-invalidation";
+
+    private static final String RECEIVE_QUERY = "SELECT ?m ?timestamp ?invalidation WHERE { " +
+            "GRAPH ?ctx { ?m a ?message ; " +
+            "?hasNode ?node ; " +
+            "?hasTimestamp ?timestamp ; " +
+            "?hasInvalidation ?invalidation . } " +
+            "FILTER (?node != ?self && ?timestamp >= ?since) " +
+            "} ORDER BY ?timestamp";
+
+    private static final String PRUNE_UPDATE = "DELETE { GRAPH ?ctx { ?m ?p ?o . } } WHERE { " +
+            "GRAPH ?ctx { ?m a ?message ; " +
+            "?hasTimestamp ?timestamp ; " +
+            "?p ?o . } " +
+            "FILTER (?timestamp < ?threshold) " +
+            "}";
+
+    private final EntityManager em;
+
+    private final String nodeId;
+
+    private final String context;
+
+    private final Duration retention;
+
+    private final Clock clock;
+
+    /**
+     * Identifiers of received messages and their timestamps.
+     */
+    private final Map<String, Long> received = new HashMap<>();
+
+    private boolean initialized;
+
+    @Autowired
+    public RepositoryClusterTransport(EntityManager em, Configuration config) {
+        this(em, config.getCluster(), Clock.systemUTC());
+    }
+
+    RepositoryClusterTransport(EntityManager em, Configuration.Cluster config, Clock clock) {
+        this.em = em;
+        this.nodeId = config.getNodeId();
+        this.context = Objects.requireNonNull(config.getContext());
+        this.retention = config.getMessageRetention();
+        this.clock = clock;
+    }
+
+    @Override
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private Repository repository() {
+        return em.unwrap(Repository.class);
+    }
+
+    @Override
+    public void send(Collection<Invalidation> invalidations) {
+        Objects.requireNonNull(invalidations);
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        final long now = clock.millis();
+        try (final RepositoryConnection con = repository().getConnection()) {
+            final ValueFactory vf = con.getValueFactory();
+            final IRI ctx = vf.createIRI(context);
+            final IRI message = vf.createIRI(NAMESPACE + "message/" + UUID.randomUUID());
+            con.begin();
+            con.add(message, RDF.TYPE, vf.createIRI(MESSAGE), ctx);
+            con.add(message, vf.createIRI(HAS_NODE), vf.createLiteral(nodeId), ctx);
+            con.add(message, vf.createIRI(HAS_TIMESTAMP), vf.createLiteral(now), ctx);
+            invalidations.forEach(
+                    i -> con.add(message, vf.createIRI(HAS_INVALIDATION), vf.createLiteral(i.serialize()), ctx));
+            con.commit();
+            LOG.trace("Sent {} invalidations to other nodes.", invalidations.size());
+            prune(con, now - retention.toMillis());
+        } catch (RepositoryException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private void prune(RepositoryConnection con, long threshold) {
+        final ValueFactory vf = con.getValueFactory();
+        final Update update = con.prepareUpdate(PRUNE_UPDATE);
+        update.setBinding("ctx", vf.createIRI(context));
+        update.setBinding("message", vf.createIRI(MESSAGE));
+        update.setBinding("hasTimestamp", vf.createIRI(HAS_TIMESTAMP));
+        update.setBinding("threshold", vf.createLiteral(threshold));
+        update.execute();
+    }
+
+    @Override
+    public synchronized List<Invalidation> receive() {
+        final long since = clock.millis() - retention.toMillis();
+        final Map<String, List<Invalidation>> messages = new LinkedHashMap<>();
+        try (final RepositoryConnection con = repository().getConnection()) {
+            final ValueFactory vf = con.getValueFactory();
+            final TupleQuery query = con.prepareTupleQuery(RECEIVE_QUERY);
+            query.setBinding("ctx", vf.createIRI(context));
+            query.setBinding("message", vf.createIRI(MESSAGE));
+            query.setBinding("hasNode", vf.createIRI(HAS_NODE));
+            query.setBinding("hasTimestamp", vf.createIRI(HAS_TIMESTAMP));
+            query.setBinding("hasInvalidation", vf.createIRI(HAS_INVALIDATION));
+            query.setBinding("self", vf.createLiteral(nodeId));
+            query.setBinding("since", vf.createLiteral(since));
+            try (final TupleQueryResult result = query.evaluate()) {
+                for (BindingSet row : result) {
+                    final String message = row.getValue("m").stringValue();
+                    if (received.containsKey(message) && !messages.containsKey(message)) {
+                        continue;
+                    }
+                    final List<Invalidation> invalidations = messages.computeIfAbsent(message, k -> {
+                        received.put(k, Long.parseLong(row.getValue("timestamp").stringValue()));
+                        return new ArrayList<>();
+                    });
+                    parse(row.getValue("invalidation").stringValue(), invalidations);
+                }
+            }
+        } catch (RepositoryException e) {
+            throw new PersistenceException(e);
+        }
+        received.values().removeIf(timestamp -> timestamp < since);
+        if (!initialized) {
+            initialized = true;
+            return List.of();
+        }
+        final List<Invalidation> result = new ArrayList<>();
+        messages.values().forEach(result::addAll);
+        LOG.trace("Received {} invalidations from other nodes.", result.size());
+        return result;
+    }
+
+    private static void parse(String value, List<Invalidation> target) {
+        try {
+            target.add(Invalidation.parse(value));
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Unable to parse invalidation '{}', skipping it.", value);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.cluster;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.throttle.ThrottleLease;
+import cz.cvut.kbss.termit.util.throttle.ThrottleLeaseStore;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.eclipse.rdf4j.common.transaction.IsolationLevels;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.Operation;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.query.Update;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Stores leases of throttled tasks in the repository shared by TermIt instances.
+ * <p>
+ * Leases are stored in the same context as cluster messages (see {@link RepositoryClusterTransport}). All times of
+ * leases are given by the {@code NOW()} function of the repository, so that expiration of leases does not depend on
+ * clocks of the individual instances.
+ * <p>
+ * A lease is acquired by a single conditional update which takes effect only when the lease is not held by another
+ * instance. The update runs in a serializable transaction, so that when multiple instances attempt to acquire the same
+ * lease concurrently, at most one of them succeeds. The result is then verified by reading the lease back.
+ */
+@Component
+@ConditionalOnProperty(prefix = "termit.cluster", name = "enabled", havingValue = "true")
+public class RepositoryThrottleLeaseStore implements ThrottleLeaseStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RepositoryThrottleLeaseStore.class);
+
+    static final String LEASE = RepositoryClusterTransport.NAMESPACE + "lease";
+    static final String HAS_TASK = RepositoryClusterTransport.NAMESPACE + "has-task";
+    static final String HAS_NAME = RepositoryClusterTransport.NAMESPACE + "has-name";
+    static final String HAS_OWNER = RepositoryClusterTransport.NAMESPACE + "has-owner";
+    static final String HAS_START = RepositoryClusterTransport.NAMESPACE + "has-start";
+    static final String HAS_EXPIRY = RepositoryClusterTransport.NAMESPACE + "has-expiry";
+    static final String HAS_LAST_COMPLETED_RUN_START =
+            RepositoryClusterTransport.NAMESPACE + "has-last-completed-run-start";
+
+    private static final String NOW_QUERY = "SELECT (NOW() AS ?now) WHERE {}";
+
+    private static final String LEASES_QUERY = "SELECT ?task ?name ?owner ?start ?expiry ?last ?held WHERE { " +
+            "GRAPH ?ctx { ?l a ?lease ; ?hasTask ?task . " +
+            "OPTIONAL { ?l ?hasName ?name . } " +
+            "OPTIONAL { ?l ?hasOwner ?owner . } " +
+            "OPTIONAL { ?l ?hasStart ?start . } " +
+            "OPTIONAL { ?l ?hasExpiry ?expiry . } " +
+            "OPTIONAL { ?l ?hasLastCompletedRunStart ?last . } } " +
+            "BIND (BOUND(?owner) && BOUND(?expiry) && ?expiry > NOW() AS ?held) ";
+
+    private static final String ACQUIRE_UPDATE = "DELETE { GRAPH ?ctx { " +
+            "?l ?hasName ?oldName ; ?hasOwner ?oldOwner ; ?hasStart ?oldStart ; ?hasExpiry ?oldExpiry . } } " +
+            "INSERT { GRAPH ?ctx { ?l a ?lease ; ?hasTask ?task ; ?hasName ?name ; ?hasOwner ?owner ; " +
+            "?hasStart ?start ; ?hasExpiry ?expiry . } } WHERE { " +
+            "OPTIONAL { GRAPH ?ctx { ?l ?hasName ?oldName . } } " +
+            "OPTIONAL { GRAPH ?ctx { ?l ?hasOwner ?oldOwner . } } " +
+            "OPTIONAL { GRAPH ?ctx { ?l ?hasStart ?oldStart . } } " +
+            "OPTIONAL { GRAPH ?ctx { ?l ?hasExpiry ?oldExpiry . } } " +
+            "FILTER NOT EXISTS { GRAPH ?ctx { ?l ?hasOwner ?holder ; ?hasExpiry ?heldUntil . } " +
+            "FILTER (?holder != ?owner && ?heldUntil > NOW()) } " +
+            "BIND (NOW() AS ?start) " +
+            "BIND (NOW() + ?duration AS ?expiry) " +
+            "}";
+
+    private static final String RENEW_UPDATE = "DELETE { GRAPH ?ctx { ?l ?hasExpiry ?oldExpiry . } } " +
+            "INSERT { GRAPH ?ctx { ?l ?hasExpiry ?expiry . } } WHERE { " +
+            "GRAPH ?ctx { ?l ?hasOwner ?owner ; ?hasExpiry ?oldExpiry . } " +
+            "BIND (NOW() + ?duration AS ?expiry) " +
+            "}";
+
+    private static final String RELEASE_UPDATE = "DELETE { GRAPH ?ctx { " +
+            "?l ?hasOwner ?owner ; ?hasStart ?start ; ?hasExpiry ?expiry ; ?hasLastCompletedRunStart ?last . } } " +
+            "INSERT { GRAPH ?ctx { ?l ?hasLastCompletedRunStart ?completedRunStart . } } WHERE { " +
+            "GRAPH ?ctx { ?l ?hasOwner ?owner ; ?hasStart ?start ; ?hasExpiry ?expiry . " +
+            "OPTIONAL { ?l ?hasLastCompletedRunStart ?last . } } " +
+            "BIND (IF(?completed, ?start, ?last) AS ?completedRunStart) " +
+            "}";
+
+    private static final String PRUNE_UPDATE = "DELETE { GRAPH ?ctx { ?l ?p ?o . } } WHERE { " +
+            "GRAPH ?ctx { ?l a ?lease ; ?p ?o . " +
+            "OPTIONAL { ?l ?hasExpiry ?expiry . } " +
+            "OPTIONAL { ?l ?hasLastCompletedRunStart ?last . } } " +
+            "BIND (NOW() - ?retention AS ?threshold) " +
+            "FILTER ((!BOUND(?expiry) || ?expiry < ?threshold) && (!BOUND(?last) || ?last < ?threshold)) " +
+            "}";
+
+    private final EntityManager em;
+
+    private final String context;
+
+    @Autowired
+    public RepositoryThrottleLeaseStore(EntityManager em, Configuration config) {
+        this(em, config.getCluster());
+    }
+
+    RepositoryThrottleLeaseStore(EntityManager em, Configuration.Cluster config) {
+        this.em = em;
+        this.context = Objects.requireNonNull(config.getContext());
+    }
+
+    private Repository repository() {
+        return em.unwrap(Repository.class);
+    }
+
+    static IRI leaseIri(ValueFactory vf, String task) {
+        return vf.createIRI(
+                RepositoryClusterTransport.NAMESPACE + "lease/" + UUID.nameUUIDFromBytes(
+                        task.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Binds the context and vocabulary shared by all queries and updates of leases.
+     */
+    private void bindVocabulary(Operation operation, ValueFactory vf) {
+        operation.setBinding("ctx", vf.createIRI(context));
+        operation.setBinding("lease", vf.createIRI(LEASE));
+        operation.setBinding("hasTask", vf.createIRI(HAS_TASK));
+        operation.setBinding("hasName", vf.createIRI(HAS_NAME));
+        operation.setBinding("hasOwner", vf.createIRI(HAS_OWNER));
+        operation.setBinding("hasStart", vf.createIRI(HAS_START));
+        operation.setBinding("hasExpiry", vf.createIRI(HAS_EXPIRY));
+        operation.setBinding("hasLastCompletedRunStart", vf.createIRI(HAS_LAST_COMPLETED_RUN_START));
+    }
+
+    private static Literal durationLiteral(ValueFactory vf, Duration duration) {
+        return vf.createLiteral(duration.toString(), XSD.DAYTIMEDURATION);
+    }
+
+    @Override
+    public Instant currentTime() {
+        try (final RepositoryConnection con = repository().getConnection();
+             final TupleQueryResult result = con.prepareTupleQuery(NOW_QUERY).evaluate()) {
+            return instantValue(result.next().getValue("now"));
+        } catch (RepositoryException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @Override
+    public Optional<ThrottleLease> find(@Nonnull String task) {
+        Objects.requireNonNull(task);
+        try (final RepositoryConnection con = repository().getConnection()) {
+            return read(con, leaseIri(con.getValueFactory(), task), false).stream().findFirst();
+        } catch (RepositoryException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @Override
+    public List<ThrottleLease> findHeld() {
+        try (final RepositoryConnection con = repository().getConnection()) {
+            return read(con, null, true);
+        } catch (RepositoryException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Reads leases, evaluating whether they are held by the clock of the repository.
+     *
+     * @param lease    Lease to read, {@code null} to read all leases
+     * @param heldOnly Whether to read only leases which are held
+     */
+    private List<ThrottleLease> read(RepositoryConnection con, @Nullable IRI lease, boolean heldOnly) {
+        final ValueFactory vf = con.getValueFactory();
+        final TupleQuery query = con.prepareTupleQuery(LEASES_QUERY + (heldOnly ? "FILTER (?held) }" : "}"));
+        bindVocabulary(query, vf);
+        if (lease != null) {
+            query.setBinding("l", lease);
+        }
+        final List<ThrottleLease> result = new ArrayList<>();
+        try (final TupleQueryResult rows = query.evaluate()) {
+            for (BindingSet row : rows) {
+                final Value held = row.getValue("held");
+                result.add(new ThrottleLease(row.getValue("task").stringValue(), stringValue(row.getValue("name")),
+                                             stringValue(row.getValue("owner")), instantValue(row.getValue("start")),
+                                             instantValue(row.getValue("expiry")),
+                                             instantValue(row.getValue("last")),
+                                             held instanceof Literal literal && literal.booleanValue()));
+            }
+        }
+        return result;
+    }
+
+    private static String stringValue(@Nullable Value value) {
+        return value != null ? value.stringValue() : null;
+    }
+
+    private static Instant instantValue(@Nullable Value value) {
+        return value instanceof Literal literal ? literal.calendarValue().toGregorianCalendar().toInstant() : null;
+    }
+
+    @Override
+    public boolean tryAcquire(@Nonnull String task, @Nullable String name, @Nonnull String owner,
+                              @Nonnull Duration duration) {
+        Objects.requireNonNull(task);
+        Objects.requireNonNull(owner);
+        Objects.requireNonNull(duration);
+        try (final RepositoryConnection con = repository().getConnection()) {
+            final ValueFactory vf = con.getValueFactory();
+            final IRI lease = leaseIri(vf, task);
+            try {
+                con.begin(IsolationLevels.SERIALIZABLE);
+                final Update update = con.prepareUpdate(ACQUIRE_UPDATE);
+                bindVocabulary(update, vf);
+                update.setBinding("l", lease);
+                update.setBinding("task", vf.createLiteral(task));
+                if (name != null) {
+                    update.setBinding("name", vf.createLiteral(name));
+                }
+                update.setBinding("owner", vf.createLiteral(owner));
+                update.setBinding("duration", durationLiteral(vf, duration));
+                update.execute();
+                con.commit();
+            } catch (RepositoryException e) {
+                if (con.isActive()) {
+                    con.rollback();
+                }
+                // A concurrent acquisition makes the transaction fail, the lease is then held by the other instance
+                LOG.trace("Unable to acquire lease of task '{}'.", task, e);
+            }
+            final boolean acquired = read(con, lease, false).stream()
+                                                           .anyMatch(l -> l.held() && owner.equals(l.owner()));
+            if (acquired) {
+                LOG.trace("Acquired lease of task '{}'.", task);
+            }
+            return acquired;
+        } catch (RepositoryException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @Override
+    public boolean renew(@Nonnull String task, @Nonnull String owner, @Nonnull Duration duration) {
+        Objects.requireNonNull(duration);
+        update(task, owner, RENEW_UPDATE,
+               (update, vf) -> update.setBinding("duration", durationLiteral(vf, duration)));
+        return find(task).map(l -> l.held() && owner.equals(l.owner())).orElse(false);
+    }
+
+    @Override
+    public void release(@Nonnull String task, @Nonnull String owner, boolean completed) {
+        update(task, owner, RELEASE_UPDATE,
+               (update, vf) -> update.setBinding("completed", vf.createLiteral(completed)));
+        LOG.trace("Released lease of task '{}'.", task);
+    }
+
+    /**
+     * Executes the specified update of a lease, which takes effect only if the lease is held by the specified owner.
+     */
+    private void update(String task, String owner, String updateString, UpdateBinder binder) {
+        Objects.requireNonNull(task);
+        Objects.requireNonNull(owner);
+        try (final RepositoryConnection con = repository().getConnection()) {
+            final ValueFactory vf = con.getValueFactory();
+            final Update update = con.prepareUpdate(updateString);
+            bindVocabulary(update, vf);
+            update.setBinding("l", leaseIri(vf, task));
+            update.setBinding("owner", vf.createLiteral(owner));
+            binder.bind(update, vf);
+            update.execute();
+        } catch (RepositoryException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @Override
+    public void prune(@Nonnull Duration retention) {
+        Objects.requireNonNull(retention);
+        try (final RepositoryConnection con = repository().getConnection()) {
+            final ValueFactory vf = con.getValueFactory();
+            final Update update = con.prepareUpdate(PRUNE_UPDATE);
+            bindVocabulary(update, vf);
+            update.setBinding("retention", durationLiteral(vf, retention));
+            update.execute();
+        } catch (RepositoryException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface UpdateBinder {
+        void bind(Update update, ValueFactory vf);
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.cluster;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.persistence.dao.util.BoundedCache;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.workspace.WorkspaceStateStore;
+import jakarta.annotation.Nonnull;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.XSD;
+import org.eclipse.rdf4j.query.Operation;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Stores workspace state in the repository shared by TermIt instances, so that any instance can serve requests of any
+ * user.
+ * <p>
+ * Workspace state is stored in the same context as cluster messages (see {@link RepositoryClusterTransport}). Each
+ * registration is a single SPARQL update, so concurrent registrations in the same workspace do not overwrite each
+ * other. Registrations are executed by the entity manager, so they are part of the current transaction and become
+ * visible to other instances once it commits. Expiration of workspace state is determined by the {@code NOW()}
+ * function of the repository.
+ * <p>
+ * Reads are served from a bounded in-memory cache. Cached state is reloaded from the repository when it is older than
+ * the cluster synchronization interval, so a workspace change done on another instance becomes visible with at most
+ * this delay.
+ */
+@Component
+@ConditionalOnProperty(prefix = "termit.cluster", name = "enabled", havingValue = "true")
+public class RepositoryWorkspaceStateStore implements WorkspaceStateStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RepositoryWorkspaceStateStore.class);
+
+    static final String WORKSPACE = RepositoryClusterTransport.NAMESPACE + "workspace";
+    static final String HAS_KEY = RepositoryClusterTransport.NAMESPACE + "has-key";
+    static final String HAS_EDITABLE_VOCABULARY = RepositoryClusterTransport.NAMESPACE + "has-editable-vocabulary";
+    static final String HAS_EXPIRY = RepositoryClusterTransport.NAMESPACE + "has-expiry";
+
+    private static final String LOAD_QUERY = "SELECT ?registration WHERE { " +
+            "GRAPH ?ctx { ?w ?hasEditableVocabulary ?registration ; ?hasExpiry ?expiry . } " +
+            "FILTER (?expiry > NOW()) " +
+            "}";
+
+    /**
+     * Replaces registration of the vocabulary and extends expiration of the workspace.
+     * <p>
+     * The time to live literal is filled in when the store is created.
+     */
+    private static final String REGISTER_UPDATE = "DELETE { GRAPH ?ctx { " +
+            "?w ?hasEditableVocabulary ?old . ?w ?hasExpiry ?oldExpiry . } } " +
+            "INSERT { GRAPH ?ctx { " +
+            "?w a ?workspace ; ?hasKey ?key ; ?hasEditableVocabulary ?registration ; ?hasExpiry ?expiry . } } " +
+            "WHERE { " +
+            "OPTIONAL { GRAPH ?ctx { ?w ?hasEditableVocabulary ?old . } FILTER (STRSTARTS(?old, ?prefix)) } " +
+            "OPTIONAL { GRAPH ?ctx { ?w ?hasExpiry ?oldExpiry . } } " +
+            "BIND (NOW() + \"%s\"^^<" + XSD.NAMESPACE + "dayTimeDuration> AS ?expiry) " +
+            "}";
+
+    private static final String PRUNE_UPDATE = "DELETE { GRAPH ?ctx { ?w ?p ?o . } } WHERE { " +
+            "GRAPH ?ctx { ?w a ?workspace ; ?p ?o . OPTIONAL { ?w ?hasExpiry ?expiry . } } " +
+            "FILTER (!BOUND(?expiry) || ?expiry <= NOW()) " +
+            "}";
+
+    private final EntityManager em;
+
+    private final String context;
+
+    private final Duration refreshInterval;
+
+    private final String registerUpdate;
+
+    private final Clock clock;
+
+    private final BoundedCache<String, CachedState> cache;
+
+    @Autowired
+    public RepositoryWorkspaceStateStore(EntityManager em, Configuration config) {
+        this(em, config.getCluster(), config.getWorkspace().getStateCacheSize(),
+             config.getWorkspace().getStateTimeToLive(), Clock.systemUTC());
+    }
+
+    RepositoryWorkspaceStateStore(EntityManager em, Configuration.Cluster config, int cacheSize,
+                                  Duration timeToLive, Clock clock) {
+        this.em = em;
+        this.context = Objects.requireNonNull(config.getContext());
+        this.refreshInterval = config.getSyncInterval();
+        this.registerUpdate = REGISTER_UPDATE.formatted(Objects.requireNonNull(timeToLive));
+        this.clock = clock;
+        this.cache = new BoundedCache<>(cacheSize);
+    }
+
+    private Repository repository() {
+        return em.unwrap(Repository.class);
+    }
+
+    static URI workspaceUri(String workspaceId) {
+        return URI.create(RepositoryClusterTransport.NAMESPACE + "workspace/" + UUID.nameUUIDFromBytes(
+                workspaceId.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static IRI workspaceIri(ValueFactory vf, String workspaceId) {
+        return vf.createIRI(workspaceUri(workspaceId).toString());
+    }
+
+    private void bindVocabulary(Operation operation, ValueFactory vf, String workspaceId) {
+        operation.setBinding("ctx", vf.createIRI(context));
+        operation.setBinding("w", workspaceIri(vf, workspaceId));
+        operation.setBinding("hasEditableVocabulary", vf.createIRI(HAS_EDITABLE_VOCABULARY));
+        operation.setBinding("hasExpiry", vf.createIRI(HAS_EXPIRY));
+    }
+
+    @Nonnull
+    @Override
+    public Map<URI, URI> get(@Nonnull String workspaceId) {
+        Objects.requireNonNull(workspaceId);
+        final Instant now = clock.instant();
+        return cache.get(workspaceId).filter(s -> s.loadedAt().plus(refreshInterval).isAfter(now))
+                    .orElseGet(() -> {
+                        final CachedState state = new CachedState(load(workspaceId), now);
+                        cache.put(workspaceId, state);
+                        return state;
+                    }).editableVocabularies();
+    }
+
+    private Map<URI, URI> load(String workspaceId) {
+        try (final RepositoryConnection con = repository().getConnection()) {
+            final TupleQuery query = con.prepareTupleQuery(LOAD_QUERY);
+            bindVocabulary(query, con.getValueFactory(), workspaceId);
+            final Map<URI, URI> result = new HashMap<>();
+            try (final TupleQueryResult rows = query.evaluate()) {
+                rows.forEach(row -> parse(row.getValue("registration").stringValue(), result));
+            }
+            return Map.copyOf(result);
+        } catch (RepositoryException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private static void parse(String value, Map<URI, URI> target) {
+        final int separator = value.indexOf(' ');
+        if (separator < 0) {
+            LOG.warn("Unable to parse editable vocabulary registration '{}', skipping it.", value);
+            return;
+        }
+        target.put(URI.create(value.substring(0, separator)), URI.create(value.substring(separator + 1)));
+    }
+
+    @Transactional
+    @Override
+    public void register(@Nonnull String workspaceId, @Nonnull URI vocabularyUri, @Nonnull URI contextUri) {
+        Objects.requireNonNull(workspaceId);
+        Objects.requireNonNull(vocabularyUri);
+        Objects.requireNonNull(contextUri);
+        final URI ctx = URI.create(context);
+        try {
+            // Remove expired workspaces first, so that expired registrations are not revived by the extended expiration
+            em.createNativeQuery(PRUNE_UPDATE).setParameter("ctx", ctx)
+              .setParameter("workspace", URI.create(WORKSPACE))
+              .setParameter("hasExpiry", URI.create(HAS_EXPIRY)).executeUpdate();
+            em.createNativeQuery(registerUpdate).setParameter("ctx", ctx)
+              .setParameter("w", workspaceUri(workspaceId))
+              .setParameter("workspace", URI.create(WORKSPACE))
+              .setParameter("hasKey", URI.create(HAS_KEY))
+              .setParameter("hasEditableVocabulary", URI.create(HAS_EDITABLE_VOCABULARY))
+              .setParameter("hasExpiry", URI.create(HAS_EXPIRY))
+              .setParameter("key", workspaceId, null)
+              .setParameter("prefix", vocabularyUri + " ", null)
+              .setParameter("registration", vocabularyUri + " " + contextUri, null).executeUpdate();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+        evictOnCommit(workspaceId);
+    }
+
+    /**
+     * Evicts the cached state of the specified workspace once the current transaction commits, so that state loaded
+     * before the commit is not cached.
+     */
+    private void evictOnCommit(String workspaceId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.evict(workspaceId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evict(workspaceId);
+            }
+        });
+    }
+
+    @Override
+    public void clear(@Nonnull String workspaceId) {
+        Objects.requireNonNull(workspaceId);
+        try (final RepositoryConnection con = repository().getConnection()) {
+            final ValueFactory vf = con.getValueFactory();
+            con.remove(workspaceIri(vf, workspaceId), null, null, vf.createIRI(context));
+        } catch (RepositoryException e) {
+            throw new PersistenceException(e);
+        }
+        cache.put(workspaceId, new CachedState(Map.of(), clock.instant()));
+    }
+
+    private record CachedState(Map<URI, URI> editableVocabularies, Instant loadedAt) {
+    }
+}
@@ -32,6 +32,7 @@ import org.springframework.stereotype.Component;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -41,7 +42,8 @@ import static cz.cvut.kbss.termit.util.Utils.uriToString;
 /**
  * Caching implementation of the {@link VocabularyContextMapper}.
  * <p>
- * Context map is loaded on startup and reloaded every time a vocabulary is created.
+ * Context map is loaded on startup and reloaded every time a vocabulary is created. The map is built aside and
+ * swapped atomically, so that concurrent readers never see a partially loaded map.
  * <p>
  * Note that only <i>canonical</i> versions of vocabularies are considered for context resolution.
  */
@@ -52,7 +54,7 @@ public class CachingVocabularyContextMapper extends DefaultVocabularyContextMapp
 
     private static final Logger LOG = LoggerFactory.getLogger(CachingVocabularyContextMapper.class);
 
-    private Map<URI, List<URI>> contexts;
+    private volatile Map<URI, List<URI>> contexts = Map.of();
 
     public CachingVocabularyContextMapper(EntityManager em) {
         super(em);
@@ -63,7 +65,7 @@ public class CachingVocabularyContextMapper extends DefaultVocabularyContextMapp
      */
     @EventListener(value = {VocabularyCreatedEvent.class, EvictCacheEvent.class})
     public void load() {
-        this.contexts = new HashMap<>();
+        final Map<URI, List<URI>> contexts = new HashMap<>();
         em.createNativeQuery("SELECT ?v ?g WHERE { " +
                                      "GRAPH ?g { " +
                                      "?v a ?type . " +
@@ -78,6 +80,7 @@ public class CachingVocabularyContextMapper extends DefaultVocabularyContextMapp
               final List<URI> ctx = contexts.computeIfAbsent((URI) bindingSet[0], k -> new ArrayList<>());
               ctx.add((URI) bindingSet[1]);
           });
+        this.contexts = Collections.unmodifiableMap(contexts);
     }
 
     @Override
@@ -93,6 +96,7 @@ public class CachingVocabularyContextMapper extends DefaultVocabularyContextMapp
      */
     @Override
     public URI getVocabularyContext(URI vocabularyUri) {
+        final Map<URI, List<URI>> contexts = this.contexts;
         if (!contexts.containsKey(vocabularyUri)) {
             LOG.trace("No context mapped for vocabulary {}, returning the vocabulary IRI as context identifier.",
                       uriToString(vocabularyUri));
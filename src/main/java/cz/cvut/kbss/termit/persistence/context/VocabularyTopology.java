@@ -0,0 +1,250 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.context;
+
+import cz.cvut.kbss.termit.dto.PrefixDeclaration;
+
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable snapshot of the structure of vocabularies in the repository.
+ * <p>
+ * Contains repository contexts of vocabularies, vocabulary imports, relationships between terms from different
+ * vocabularies (aggregated to the level of vocabularies) and preferred namespace prefix declarations.
+ * <p>
+ * Modifications produce a new snapshot, so instances can be safely shared between threads.
+ *
+ * @see VocabularyTopologyRegistry
+ */
+public final class VocabularyTopology {
+
+    /**
+     * Topology containing no vocabularies.
+     */
+    public static final VocabularyTopology EMPTY = new VocabularyTopology(Map.of());
+
+    private final Map<URI, Node> nodes;
+
+    private VocabularyTopology(Map<URI, Node> nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * Creates a topology from the specified vocabulary nodes.
+     *
+     * @param nodes Vocabulary nodes
+     * @return New topology
+     */
+    public static VocabularyTopology of(Collection<Node> nodes) {
+        final Map<URI, Node> map = new HashMap<>(nodes.size());
+        nodes.forEach(n -> map.put(n.vocabulary(), n));
+        return new VocabularyTopology(Collections.unmodifiableMap(map));
+    }
+
+    /**
+     * Returns a new topology in which the node of the vocabulary represented by the specified node is replaced.
+     *
+     * @param node Updated vocabulary node
+     * @return New topology
+     */
+    public VocabularyTopology with(Node node) {
+        Objects.requireNonNull(node);
+        final Map<URI, Node> map = new HashMap<>(nodes);
+        map.put(node.vocabulary(), node);
+        return new VocabularyTopology(Collections.unmodifiableMap(map));
+    }
+
+    /**
+     * Returns a new topology without the specified vocabulary.
+     * <p>
+     * Imports of and term relationships to the removed vocabulary are removed from the other vocabularies as well.
+     *
+     * @param vocabulary Identifier of the vocabulary to remove
+     * @return New topology
+     */
+    public VocabularyTopology without(URI vocabulary) {
+        final Map<URI, Node> map = new HashMap<>(nodes.size());
+        nodes.values().stream().filter(n -> !n.vocabulary().equals(vocabulary))
+             .forEach(n -> map.put(n.vocabulary(), n.withoutReferencesTo(vocabulary)));
+        return new VocabularyTopology(Collections.unmodifiableMap(map));
+    }
+
+    /**
+     * Checks whether this topology contains the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return {@code true} if the vocabulary is known
+     */
+    public boolean contains(URI vocabulary) {
+        return nodes.containsKey(vocabulary);
+    }
+
+    /**
+     * Gets the number of vocabularies in this topology.
+     *
+     * @return Number of vocabularies
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Gets repository contexts in which the specified vocabulary is stored.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return List of contexts, empty if the vocabulary is not known
+     */
+    public List<URI> getContexts(URI vocabulary) {
+        final Node node = nodes.get(vocabulary);
+        return node != null ? node.contexts() : List.of();
+    }
+
+    /**
+     * Gets the preferred namespace prefix declaration of the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Prefix declaration, {@link PrefixDeclaration#EMPTY_PREFIX} if the vocabulary does not declare any
+     */
+    public PrefixDeclaration getPrefix(URI vocabulary) {
+        final Node node = nodes.get(vocabulary);
+        return node != null && node.prefix() != null ? node.prefix() : PrefixDeclaration.EMPTY_PREFIX;
+    }
+
+    /**
+     * Gets identifiers of all vocabularies imported by the specified vocabulary, including transitively imported ones.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Set of (transitively) imported vocabularies. The vocabulary itself is included only if it is part of an
+     * import cycle
+     */
+    public Set<URI> getImportClosure(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        final Set<URI> result = new LinkedHashSet<>();
+        final Deque<URI> toVisit = new ArrayDeque<>(getImports(vocabulary));
+        while (!toVisit.isEmpty()) {
+            final URI v = toVisit.pop();
+            if (result.add(v)) {
+                toVisit.addAll(getImports(v));
+            }
+        }
+        return result;
+    }
+
+    private Set<URI> getImports(URI vocabulary) {
+        final Node node = nodes.get(vocabulary);
+        return node != null ? node.imports() : Set.of();
+    }
+
+    /**
+     * Gets identifiers of vocabularies related to the specified one.
+     * <p>
+     * The relatedness is given by a vocabulary importing another vocabulary or by its terms being in one of the
+     * specified relationships with terms from another vocabulary. The relatedness is cascaded.
+     * <p>
+     * The result contains also the identifier of the specified vocabulary.
+     *
+     * @param vocabulary        Identifier of the vocabulary to start from
+     * @param termRelationships Inter-term relationships to take into account
+     * @return Set of related vocabulary identifiers
+     */
+    public Set<URI> getRelatedVocabularies(URI vocabulary, Collection<URI> termRelationships) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(termRelationships);
+        final Set<URI> result = new LinkedHashSet<>();
+        final Deque<URI> toVisit = new ArrayDeque<>();
+        toVisit.add(vocabulary);
+        while (!toVisit.isEmpty()) {
+            final URI v = toVisit.pop();
+            if (!result.add(v)) {
+                continue;
+            }
+            final Node node = nodes.get(v);
+            if (node == null) {
+                continue;
+            }
+            toVisit.addAll(node.imports());
+            termRelationships.forEach(r -> toVisit.addAll(node.termRelationships().getOrDefault(r, Set.of())));
+        }
+        return result;
+    }
+
+    /**
+     * Gets identifiers of vocabularies containing terms which are in a relationship with terms from the specified
+     * vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Set of referencing vocabulary identifiers
+     */
+    public Set<URI> getVocabulariesReferencing(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return nodes.values().stream()
+                    .filter(n -> n.termRelationships().values().stream().anyMatch(s -> s.contains(vocabulary)))
+                    .map(Node::vocabulary).collect(Collectors.toSet());
+    }
+
+    /**
+     * Structural information about a single vocabulary.
+     *
+     * @param vocabulary        Vocabulary identifier
+     * @param contexts          Repository contexts containing the vocabulary
+     * @param imports           Directly imported vocabularies
+     * @param termRelationships Vocabularies containing terms related to terms of this vocabulary, grouped by the
+     *                          relationship
+     * @param prefix            Preferred namespace prefix declaration, possibly {@code null}
+     */
+    public record Node(URI vocabulary, List<URI> contexts, Set<URI> imports,
+                       Map<URI, Set<URI>> termRelationships, PrefixDeclaration prefix) {
+
+        public Node {
+            Objects.requireNonNull(vocabulary);
+            contexts = List.copyOf(contexts);
+            imports = Set.copyOf(imports);
+            final Map<URI, Set<URI>> relationships = new HashMap<>(termRelationships.size());
+            termRelationships.forEach((k, v) -> relationships.put(k, Set.copyOf(v)));
+            termRelationships = Collections.unmodifiableMap(relationships);
+        }
+
+        private Node withoutReferencesTo(URI removed) {
+            if (!imports.contains(removed) && termRelationships.values().stream().noneMatch(s -> s.contains(removed))) {
+                return this;
+            }
+            final Set<URI> newImports = new LinkedHashSet<>(imports);
+            newImports.remove(removed);
+            final Map<URI, Set<URI>> newRelationships = new HashMap<>();
+            termRelationships.forEach((k, v) -> {
+                final Set<URI> targets = new LinkedHashSet<>(v);
+                targets.remove(removed);
+                if (!targets.isEmpty()) {
+                    newRelationships.put(k, targets);
+                }
+            });
+            return new Node(vocabulary, contexts, newImports, newRelationships, prefix);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.context;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.dto.PrefixDeclaration;
+import cz.cvut.kbss.termit.event.AssetPersistEvent;
+import cz.cvut.kbss.termit.event.AssetUpdateEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyCreatedEvent;
+import cz.cvut.kbss.termit.event.VocabularyModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyWillBeRemovedEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static cz.cvut.kbss.termit.util.Utils.uriToString;
+
+/**
+ * Keeps the structure of vocabularies ({@link VocabularyTopology}) in memory.
+ * <p>
+ * The topology is loaded on startup and swapped atomically as a whole, so readers always see a consistent snapshot.
+ * It is updated incrementally, one vocabulary at a time, when a vocabulary is created, updated, removed or when its
+ * content changes. The updates are performed after the corresponding transaction commits. The whole topology is
+ * reloaded when application caches are evicted.
+ * <p>
+ * Vocabulary content (terms) is modified often and usually in bursts, so the corresponding refreshes are performed
+ * asynchronously and refreshes of the same vocabulary requested within {@link #REFRESH_DELAY} are coalesced. Term
+ * relationships in the topology may thus lag shortly behind the committed data.
+ * <p>
+ * Since the snapshot reflects only committed data, a transaction which has modified a vocabulary should not use it (see
+ * {@link #isModifiedInCurrentTransaction()}).
+ * <p>
+ * This registry is not registered in tests by default, as data are often inserted directly into the repository there.
+ * Tests of the registry-based code paths register it explicitly.
+ */
+@Component
+@Profile("!test")
+public class VocabularyTopologyRegistry implements SmartInitializingSingleton {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VocabularyTopologyRegistry.class);
+
+    private static final String CONTEXTS_QUERY = "SELECT DISTINCT ?v ?g WHERE { " +
+            "GRAPH ?g { " +
+            "?v a ?type . " +
+            "FILTER NOT EXISTS { ?g ?basedOnVersion ?canonical . } " +
+            "}}";
+
+    private static final String IMPORTS_QUERY = "SELECT DISTINCT ?v ?imported WHERE { " +
+            "?v a ?type ; " +
+            "?imports ?imported . }";
+
+    private static final String PREFIXES_QUERY = "SELECT ?v ?prefix ?namespace WHERE { " +
+            "?v a ?type ; " +
+            "?hasPrefix ?prefix ; " +
+            "?hasNamespace ?namespace . }";
+
+    private static final String TERM_RELATIONSHIPS_QUERY = "SELECT DISTINCT ?v ?relationship ?target WHERE { " +
+            "?t a ?term ; " +
+            "?inVocabulary ?v ; " +
+            "?relationship ?z . " +
+            "?z a ?term ; " +
+            "?inVocabulary ?target . " +
+            "FILTER (?v != ?target) }";
+
+    /**
+     * Delay after which a vocabulary is refreshed when its content has been modified.
+     */
+    static final Duration REFRESH_DELAY = Duration.ofMillis(500);
+
+    private final EntityManager em;
+
+    private final TaskScheduler scheduler;
+
+    private final AtomicReference<VocabularyTopology> topology = new AtomicReference<>(VocabularyTopology.EMPTY);
+
+    /**
+     * Incremented on every incremental update, so that a full load does not overwrite a concurrent update.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private final Set<URI> pendingRefreshes = ConcurrentHashMap.newKeySet();
+
+    public VocabularyTopologyRegistry(EntityManager em,
+                                      @Qualifier("longRunningTaskScheduler") TaskScheduler scheduler) {
+        this.em = em;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    /**
+     * Gets the current topology snapshot.
+     *
+     * @return Vocabulary topology
+     */
+    public VocabularyTopology getTopology() {
+        return topology.get();
+    }
+
+    /**
+     * Loads the whole topology from the repository.
+     * <p>
+     * If the topology is updated incrementally while it is being loaded, the load is repeated, so that the update is not
+     * lost.
+     */
+    @EventListener(EvictCacheEvent.class)
+    public void load() {
+        LOG.debug("Loading vocabulary topology.");
+        VocabularyTopology loaded;
+        VocabularyTopology current;
+        do {
+            final long loadedVersion = version.get();
+            final Map<URI, NodeData> data = new HashMap<>();
+            loadInto(data, null);
+            loaded = VocabularyTopology.of(data.values().stream().map(NodeData::toNode).collect(Collectors.toList()));
+            final VocabularyTopology candidate = loaded;
+            current = topology.updateAndGet(t -> version.get() == loadedVersion ? candidate : t);
+        } while (current != loaded);
+        LOG.debug("Loaded topology of {} vocabularies.", loaded.size());
+    }
+
+    /**
+     * Reloads topology information about the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    public void refresh(URI vocabulary) {
+        LOG.trace("Refreshing topology of vocabulary {}.", uriToString(vocabulary));
+        final Map<URI, NodeData> data = new HashMap<>();
+        loadInto(data, vocabulary);
+        final NodeData node = data.get(vocabulary);
+        version.incrementAndGet();
+        if (node == null) {
+            topology.updateAndGet(t -> t.without(vocabulary));
+        } else {
+            final VocabularyTopology.Node updated = node.toNode();
+            topology.updateAndGet(t -> t.with(updated));
+        }
+    }
+
+    /**
+     * Removes the specified vocabulary from the topology.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    public void remove(URI vocabulary) {
+        LOG.trace("Removing vocabulary {} from topology.", uriToString(vocabulary));
+        version.incrementAndGet();
+        topology.updateAndGet(t -> t.without(vocabulary));
+    }
+
+    /**
+     * Checks whether a vocabulary has been modified in the currently active transaction.
+     * <p>
+     * The topology does not reflect such modifications until the transaction commits.
+     *
+     * @return {@code true} if the current transaction modified a vocabulary, {@code false} otherwise
+     */
+    public boolean isModifiedInCurrentTransaction() {
+        return TransactionSynchronizationManager.hasResource(this);
+    }
+
+    /**
+     * Records that the current transaction (if any) has modified a vocabulary or its content.
+     */
+    @EventListener({VocabularyCreatedEvent.class, VocabularyContentModifiedEvent.class, VocabularyModifiedEvent.class,
+            VocabularyWillBeRemovedEvent.class, AssetPersistEvent.class, AssetUpdateEvent.class})
+    public void onModification() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() ||
+                TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(VocabularyTopologyRegistry.this);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyCreated(VocabularyCreatedEvent event) {
+        refresh(event.getVocabularyIri());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyContentModified(VocabularyContentModifiedEvent event) {
+        final URI vocabulary = event.getVocabularyIri();
+        scheduleRefresh(vocabulary);
+        // Relationships of terms from other vocabularies to removed terms would become stale otherwise
+        topology.get().getVocabulariesReferencing(vocabulary).forEach(this::scheduleRefresh);
+    }
+
+    /**
+     * Schedules an asynchronous refresh of the specified vocabulary.
+     * <p>
+     * Does nothing if a refresh of the vocabulary is already scheduled and has not started yet.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    void scheduleRefresh(URI vocabulary) {
+        if (!pendingRefreshes.add(vocabulary)) {
+            return;
+        }
+        scheduler.schedule(() -> {
+            pendingRefreshes.remove(vocabulary);
+            try {
+                refresh(vocabulary);
+            } catch (RuntimeException e) {
+                LOG.error("Unable to refresh topology of vocabulary {}.", uriToString(vocabulary), e);
+            }
+        }, Instant.now().plus(REFRESH_DELAY));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyModified(VocabularyModifiedEvent event) {
+        refresh(event.getVocabularyIri());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyRemoved(VocabularyWillBeRemovedEvent event) {
+        remove(event.getVocabularyIri());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetPersisted(AssetPersistEvent event) {
+        if (event.getAsset() instanceof Vocabulary vocabulary) {
+            refresh(vocabulary.getUri());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetUpdated(AssetUpdateEvent event) {
+        if (event.getAsset() instanceof Vocabulary vocabulary) {
+            refresh(vocabulary.getUri());
+        }
+    }
+
+    private void loadInto(Map<URI, NodeData> data, URI vocabulary) {
+        try {
+            bindVocabulary(em.createNativeQuery(CONTEXTS_QUERY)
+                             .setParameter("basedOnVersion", URI.create(
+                                     cz.cvut.kbss.termit.util.Vocabulary.s_p_d_sgov_pracovni_prostor_pojem_vychazi_z_verze)),
+                           vocabulary)
+                    .getResultStream().forEach(row -> {
+                        final Object[] bindingSet = (Object[]) row;
+                        data.computeIfAbsent((URI) bindingSet[0], NodeData::new).contexts.add((URI) bindingSet[1]);
+                    });
+            bindVocabulary(em.createNativeQuery(IMPORTS_QUERY)
+                             .setParameter("imports",
+                                           URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik)),
+                           vocabulary)
+                    .getResultStream().forEach(row -> {
+                        final Object[] bindingSet = (Object[]) row;
+                        data.computeIfAbsent((URI) bindingSet[0], NodeData::new).imports.add((URI) bindingSet[1]);
+                    });
+            bindVocabulary(em.createNativeQuery(PREFIXES_QUERY)
+                             .setParameter("hasPrefix", URI.create(
+                                     cz.cvut.kbss.termit.util.Vocabulary.s_p_preferredNamespacePrefix))
+                             .setParameter("hasNamespace", URI.create(
+                                     cz.cvut.kbss.termit.util.Vocabulary.s_p_preferredNamespaceUri)), vocabulary)
+                    .getResultStream().forEach(row -> {
+                        final Object[] bindingSet = (Object[]) row;
+                        data.computeIfAbsent((URI) bindingSet[0], NodeData::new).prefix =
+                                new PrefixDeclaration(bindingSet[1].toString(), bindingSet[2].toString());
+                    });
+            final Query termRelationshipsQuery = em.createNativeQuery(TERM_RELATIONSHIPS_QUERY)
+                                                   .setParameter("term", URI.create(SKOS.CONCEPT))
+                                                   .setParameter("inVocabulary", URI.create(
+                                                           cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku));
+            if (vocabulary != null) {
+                termRelationshipsQuery.setParameter("v", vocabulary);
+            }
+            termRelationshipsQuery.getResultStream().forEach(row -> {
+                final Object[] bindingSet = (Object[]) row;
+                data.computeIfAbsent((URI) bindingSet[0], NodeData::new).termRelationships
+                        .computeIfAbsent((URI) bindingSet[1], k -> new HashSet<>()).add((URI) bindingSet[2]);
+            });
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private static Query bindVocabulary(Query query, URI vocabulary) {
+        query.setParameter("type", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_slovnik));
+        if (vocabulary != null) {
+            query.setParameter("v", vocabulary);
+        }
+        return query;
+    }
+
+    private static class NodeData {
+        private final URI vocabulary;
+        private final List<URI> contexts = new ArrayList<>(1);
+        private final Set<URI> imports = new HashSet<>();
+        private final Map<URI, Set<URI>> termRelationships = new HashMap<>();
+        private PrefixDeclaration prefix;
+
+        private NodeData(URI vocabulary) {
+            this.vocabulary = vocabulary;
+        }
+
+        private VocabularyTopology.Node toNode() {
+            return new VocabularyTopology.Node(vocabulary, contexts, imports, termRelationships, prefix);
+        }
+    }
+}
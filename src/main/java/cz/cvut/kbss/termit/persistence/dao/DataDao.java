@@ -25,13 +25,22 @@ import cz.cvut.kbss.jopa.vocabulary.RDF;
 import cz.cvut.kbss.jopa.vocabulary.RDFS;
 import cz.cvut.kbss.ontodriver.rdf4j.util.Rdf4jUtils;
 import cz.cvut.kbss.termit.dto.RdfsResource;
+import cz.cvut.kbss.termit.event.AssetPersistEvent;
+import cz.cvut.kbss.termit.event.AssetUpdateEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyCreatedEvent;
+import cz.cvut.kbss.termit.event.VocabularyEvent;
+import cz.cvut.kbss.termit.event.VocabularyModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyWillBeRemovedEvent;
 import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.persistence.dao.util.BoundedCache;
 import cz.cvut.kbss.termit.persistence.dao.util.Quad;
 import cz.cvut.kbss.termit.service.export.ExportFormat;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Configuration.Persistence;
-import cz.cvut.kbss.termit.util.TypeAwareByteArrayResource;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
+import cz.cvut.kbss.termit.util.TypeAwareStreamingResource;
 import jakarta.annotation.Nullable;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Value;
@@ -41,18 +50,23 @@ import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFHandler;
 import org.eclipse.rdf4j.rio.Rio;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.io.ByteArrayOutputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Repository
@@ -60,14 +74,29 @@ public class DataDao {
 
     private static final URI RDFS_LABEL = URI.create(RDFS.LABEL);
 
+    /**
+     * Maximum number of identifiers resolved by a single label query.
+     */
+    static final int LABEL_BATCH_SIZE = 500;
+
     private final EntityManager em;
 
     private final Persistence config;
 
+    /**
+     * Caches labels of resources, including the information that a resource has no (unique) label.
+     * <p>
+     * Only labels read outside of read-write transactions are cached, so that uncommitted data never get into the
+     * cache.
+     */
+    private final BoundedCache<LabelKey, Optional<String>> labelCache;
+
     @Autowired
     public DataDao(EntityManager em, Configuration config) {
         this.em = em;
         this.config = config.getPersistence();
+        this.labelCache = new BoundedCache<>(this.config.getLabelCacheSize(),
+                                            this.config.getLabelCacheTimeToLive());
     }
 
     /**
@@ -118,6 +147,7 @@ public class DataDao {
         Objects.requireNonNull(instance);
         try {
             em.persist(instance);
+            evictLabels(instance.getUri());
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -165,6 +195,9 @@ public class DataDao {
      * Gets the {@link RDFS#LABEL} of a resource with the specified identifier.
      * <p>
      * Note that the label has to have matching language tag or no language tag at all (matching tag is preferred).
+     * <p>
+     * Labels read outside of read-write transactions are cached, so repeated lookups of the same resource do not hit
+     * the repository.
      *
      * @param id Resource ({@link RDFS#RESOURCE}) identifier
      * @param language Label language, if null, configured persistence unit language is used instead
@@ -172,12 +205,17 @@ public class DataDao {
      */
     public Optional<String> getLabel(URI id, @Nullable String language) {
         Objects.requireNonNull(id);
-        if(language == null) {
-            language = config.getLanguage();
-        }
         if (!id.isAbsolute()) {
             return Optional.of(id.toString());
         }
+        final String lang = language != null ? language : config.getLanguage();
+        if (!isLabelCacheable()) {
+            return loadLabel(id, lang);
+        }
+        return labelCache.getOrCompute(new LabelKey(id, lang), k -> loadLabel(id, lang));
+    }
+
+    private Optional<String> loadLabel(URI id, String language) {
         try {
             return Optional.of(em.createNativeQuery("SELECT DISTINCT ?strippedLabel WHERE {" +
                                                             "{?x ?has-label ?label .}" +
@@ -191,26 +229,164 @@ public class DataDao {
                                  .setParameter("tag", language, null).getSingleResult());
         } catch (NoResultException | NoUniqueResultException e) {
             return Optional.empty();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Gets labels of resources with the specified identifiers.
+     * <p>
+     * This is a bulk version of {@link #getLabel(URI, String)}, with the same rules regarding label language. Cached
+     * labels are used where available, the remaining ones are resolved by querying the repository for multiple
+     * identifiers at once.
+     *
+     * @param ids      Resource identifiers
+     * @param language Label language, if null, configured persistence unit language is used instead
+     * @return Map of resource identifiers to their labels. Resources without a matching label are not contained in the
+     * result
+     */
+    public Map<URI, String> getLabels(Collection<URI> ids, @Nullable String language) {
+        Objects.requireNonNull(ids);
+        final String lang = language != null ? language : config.getLanguage();
+        final Map<URI, String> result = new LinkedHashMap<>(ids.size());
+        final Set<LabelKey> keys = new LinkedHashSet<>(ids.size());
+        ids.forEach(id -> {
+            if (!id.isAbsolute()) {
+                result.put(id, id.toString());
+            } else {
+                keys.add(new LabelKey(id, lang));
+            }
+        });
+        final boolean cacheable = isLabelCacheable();
+        final Map<LabelKey, Optional<String>> cached = cacheable ? labelCache.getAllPresent(keys) : Map.of();
+        cached.forEach((k, v) -> v.ifPresent(label -> result.put(k.id(), label)));
+        final List<URI> toLoad = keys.stream().filter(k -> !cached.containsKey(k)).map(LabelKey::id).toList();
+        for (int i = 0; i < toLoad.size(); i += LABEL_BATCH_SIZE) {
+            final List<URI> batch = toLoad.subList(i, Math.min(i + LABEL_BATCH_SIZE, toLoad.size()));
+            final Map<URI, String> loaded = loadLabels(batch, lang);
+            batch.forEach(id -> {
+                final Optional<String> label = Optional.ofNullable(loaded.get(id));
+                if (cacheable) {
+                    labelCache.put(new LabelKey(id, lang), label);
+                }
+                label.ifPresent(l -> result.put(id, l));
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Labels read in a read-write transaction may come from data not yet committed (or never to be committed), so they
+     * must not be cached.
+     */
+    private static boolean isLabelCacheable() {
+        return !TransactionSynchronizationManager.isActualTransactionActive() ||
+                TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private Map<URI, String> loadLabels(List<URI> ids, String language) {
+        // java.net.URI does not allow characters which could break out of an IRI reference
+        final String values = ids.stream().map(id -> "<" + id + ">").collect(Collectors.joining(" "));
+        try {
+            final List<?> rows = em.createNativeQuery("SELECT DISTINCT ?x ?strippedLabel WHERE {" +
+                                                              "VALUES ?x { " + values + " }" +
+                                                              "{?x ?has-label ?label .}" +
+                                                              "UNION" +
+                                                              "{?x ?has-title ?label .}" +
+                                                              "BIND (str(?label) as ?strippedLabel )." +
+                                                              "FILTER (LANGMATCHES(LANG(?label), ?tag) || lang(?label) = \"\") }")
+                                   .setParameter("has-label", RDFS_LABEL)
+                                   .setParameter("has-title", URI.create(DC.Terms.TITLE))
+                                   .setParameter("tag", language, null).getResultList();
+            final Map<URI, String> labels = new HashMap<>(rows.size());
+            final Set<URI> ambiguous = new LinkedHashSet<>();
+            for (Object row : rows) {
+                assert row instanceof Object[];
+                final Object[] bindingSet = (Object[]) row;
+                final URI id = (URI) bindingSet[0];
+                // Consistent with single label resolution, resources with multiple matching labels have no label
+                if (labels.putIfAbsent(id, bindingSet[1].toString()) != null) {
+                    ambiguous.add(id);
+                }
+            }
+            ambiguous.forEach(labels::remove);
+            return labels;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetPersist(AssetPersistEvent event) {
+        evictLabels(event.getAsset().getUri());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetUpdate(AssetUpdateEvent event) {
+        evictLabels(event.getAsset().getUri());
+    }
+
+    private void evictLabels(URI id) {
+        if (id != null) {
+            labelCache.evictAll(k -> k.id().equals(id));
+        }
+    }
+
+    /**
+     * Evicts labels of the vocabulary itself.
+     * <p>
+     * These events are published also for changes made by other cluster nodes.
+     */
+    @TransactionalEventListener(value = {VocabularyCreatedEvent.class, VocabularyModifiedEvent.class},
+                                fallbackExecution = true)
+    public void onVocabularyModified(VocabularyEvent event) {
+        evictLabels(event.getVocabularyIri());
+    }
+
+    /**
+     * Evicts labels affected by a change of vocabulary content.
+     * <p>
+     * If the changed term is known, only its labels are evicted. Otherwise (e.g., when the change was made by another
+     * cluster node), the whole label cache is evicted.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyContentModified(VocabularyContentModifiedEvent event) {
+        if (event.getTermIri() != null) {
+            evictLabels(event.getTermIri());
+        } else {
+            labelCache.evictAll();
         }
     }
 
+    @TransactionalEventListener(value = VocabularyWillBeRemovedEvent.class, fallbackExecution = true)
+    public void evictLabelCache() {
+        labelCache.evictAll();
+    }
+
+    @EventListener(EvictCacheEvent.class)
+    public void onEvictCache() {
+        labelCache.evictAll();
+    }
+
     /**
      * Exports the specified repository contexts as Turtle.
+     * <p>
+     * The data are streamed from the repository when the content of the returned resource is written out.
      *
      * @param contexts The contexts to export, possibly empty (in which case the default context is exported)
      * @return Resource containing the exported data in Turtle
      */
     public TypeAwareResource exportDataAsTurtle(URI... contexts) {
         final org.eclipse.rdf4j.repository.Repository repo = em.unwrap(org.eclipse.rdf4j.repository.Repository.class);
-        try (final RepositoryConnection con = repo.getConnection()) {
-            final ValueFactory vf = con.getValueFactory();
-            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            RDFHandler writer = Rio.createWriter(RDFFormat.TURTLE, bos);
-            con.export(writer,
-                       Arrays.stream(contexts).map(u -> vf.createIRI(u.toString())).toArray(Resource[]::new));
-            return new TypeAwareByteArrayResource(bos.toByteArray(), ExportFormat.TURTLE.getMediaType(),
-                                                  ExportFormat.TURTLE.getFileExtension());
-        }
+        return new TypeAwareStreamingResource(out -> {
+            try (final RepositoryConnection con = repo.getConnection()) {
+                final ValueFactory vf = con.getValueFactory();
+                final RDFHandler writer = Rio.createWriter(RDFFormat.TURTLE, out);
+                con.export(writer,
+                           Arrays.stream(contexts).map(u -> vf.createIRI(u.toString())).toArray(Resource[]::new));
+            }
+        }, ExportFormat.TURTLE.getMediaType(), ExportFormat.TURTLE.getFileExtension());
     }
 
     /**
@@ -234,5 +410,9 @@ public class DataDao {
                         quad.context() != null ? vf.createIRI(quad.context().toString()) : null);
             });
         }
+        labelCache.evictAll();
+    }
+
+    private record LabelKey(URI id, String language) {
     }
 }
@@ -22,7 +22,10 @@ import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.termit.dto.search.FacetedSearchResult;
 import cz.cvut.kbss.termit.dto.search.FullTextSearchResult;
+import cz.cvut.kbss.termit.dto.search.MatchType;
 import cz.cvut.kbss.termit.dto.search.SearchParam;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.persistence.dao.search.TermFacetIndex;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Utils;
 import cz.cvut.kbss.termit.util.Vocabulary;
@@ -32,39 +35,66 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
 import java.net.URI;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Repository
-@Profile("!lucene")
+@Profile("!lucene & !embedded-lucene")
 public class SearchDao {
 
     private static final String FTS_QUERY_FILE = "fulltextsearch.rq";
 
+    private static final String FTS_TERMS_QUERY_FILE = "fulltextsearchterms.rq";
+
+    /**
+     * Placeholder in the term search query which is replaced with identifiers of vocabularies to search in.
+     */
+    static final String VOCABULARY_VALUES = "VALUES ?vocabularyUri { }";
+
     private static final Logger LOG = LoggerFactory.getLogger(SearchDao.class);
 
     private final Configuration.Persistence config;
 
+    private final int facetCandidateLimit;
+
     protected String ftsQuery;
 
+    protected String ftsTermsQuery;
+
     protected final EntityManager em;
 
+    private TermFacetIndex facetIndex;
+
     @Autowired
     public SearchDao(EntityManager em, Configuration config) {
         this.em = em;
         this.config = config.getPersistence();
+        this.facetCandidateLimit = config.getSearch().getFacetCandidateLimit();
+    }
+
+    @Autowired(required = false)
+    public void setFacetIndex(TermFacetIndex facetIndex) {
+        this.facetIndex = facetIndex;
     }
 
     @PostConstruct
     private void loadQueries() {
         this.ftsQuery = Utils.loadQuery(FTS_QUERY_FILE);
+        this.ftsTermsQuery = Utils.loadQuery(FTS_TERMS_QUERY_FILE);
     }
 
     /**
@@ -127,10 +157,70 @@ public class SearchDao {
         return ftsQuery.replace("FILTER NOT EXISTS { ?entity a ?snapshot . }", "");
     }
 
+    /**
+     * Finds terms from the specified vocabularies that match the specified search string.
+     * <p>
+     * The vocabularies are part of the query, so the cost of the search is proportional to their size, not to the
+     * size of the whole repository. Snapshots are searched only if they are among the specified vocabularies.
+     * <p>
+     * The total number of results is determined by an additional count query only when it cannot be inferred from the
+     * returned page, i.e., when the page is full or when it is empty and not the first one.
+     *
+     * @param searchString The string to search by
+     * @param vocabularies Identifiers of vocabularies to search in
+     * @param pageSpec     Specification of the page of results to return
+     * @return Page of matching terms
+     */
+    public Page<FullTextSearchResult> fullTextSearchOfTerms(@Nonnull String searchString,
+                                                            @Nonnull Collection<URI> vocabularies,
+                                                            @Nonnull Pageable pageSpec) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(vocabularies);
+        Objects.requireNonNull(pageSpec);
+        if (searchString.isBlank() || vocabularies.isEmpty()) {
+            return Page.empty(pageSpec);
+        }
+        LOG.trace("Running full text search for search string \"{}\" in vocabularies {}.", searchString, vocabularies);
+        final String query = ftsTermsQuery.replace(VOCABULARY_VALUES, "VALUES ?vocabularyUri { " +
+                vocabularies.stream().map(Utils::uriToString).collect(Collectors.joining(" ")) + " }");
+        final Query q = setTermSearchQueryParams(em.createNativeQuery(query, "FullTextSearchResult"), searchString);
+        final boolean limited = pageSpec.isPaged() && pageSpec.getPageSize() < Integer.MAX_VALUE;
+        if (limited) {
+            q.setFirstResult((int) pageSpec.getOffset()).setMaxResults(pageSpec.getPageSize());
+        }
+        final List<FullTextSearchResult> content = q.getResultList();
+        final boolean totalUnknown = limited && (content.size() == pageSpec.getPageSize() ||
+                content.isEmpty() && pageSpec.getOffset() > 0);
+        final long total = totalUnknown ? countResults(query, searchString) :
+                           (pageSpec.isPaged() ? pageSpec.getOffset() : 0) + content.size();
+        return new PageImpl<>(content, pageSpec, total);
+    }
+
+    private long countResults(String query, String searchString) {
+        final int selectIndex = query.indexOf("SELECT");
+        final String countQuery = query.substring(0, selectIndex) +
+                "SELECT (COUNT(DISTINCT ?entity) AS ?count) WHERE { { " + query.substring(selectIndex) + " } }";
+        final Object count = setTermSearchQueryParams(em.createNativeQuery(countQuery), searchString)
+                .getSingleResult();
+        return ((Number) count).longValue();
+    }
+
+    protected Query setTermSearchQueryParams(Query q, String searchString) {
+        return q.setParameter("term", URI.create(SKOS.CONCEPT))
+                .setParameter("inVocabulary", URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
+                .setParameter("hasState", URI.create(Vocabulary.s_p_ma_stav_pojmu))
+                .setParameter("langTag", config.getLanguage(), null)
+                .setParameter("searchString", searchString, null);
+    }
+
     /**
      * Executes a faceted search among terms using the specified search parameters.
      * <p>
      * Only current versions of terms are searched.
+     * <p>
+     * When the {@link TermFacetIndex} is available, parameters on indexed properties are evaluated by it and only the
+     * remaining parameters are evaluated in the repository. If the remaining parameters match too many terms (see
+     * {@link Configuration.Search#getFacetCandidateLimit()}), the whole search is evaluated in the repository.
      *
      * @param searchParams Search parameters (facets)
      * @param pageSpec     Specification of the page of results to return
@@ -141,36 +231,154 @@ public class SearchDao {
         Objects.requireNonNull(searchParams);
         Objects.requireNonNull(pageSpec);
         LOG.trace("Running faceted term search for search parameters: {}", searchParams);
+        if (!isFacetIndexReady()) {
+            return facetedTermSearchInRepository(searchParams, pageSpec);
+        }
+        final Map<Boolean, List<SearchParam>> params = partitionByIndex(searchParams);
+        Set<URI> candidates = null;
+        if (!params.get(false).isEmpty()) {
+            final Optional<Set<URI>> found = findCandidates(params.get(false));
+            if (found.isEmpty()) {
+                return facetedTermSearchInRepository(searchParams, pageSpec);
+            }
+            candidates = found.get();
+        }
+        return loadResults(facetIndex.find(params.get(true), candidates, pageSpec));
+    }
+
+    /**
+     * Loads the specified terms in one query, preserving their order.
+     */
+    private List<FacetedSearchResult> loadResults(List<URI> uris) {
+        if (uris.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            final Map<URI, FacetedSearchResult> loaded = em.createNativeQuery(
+                    "SELECT DISTINCT ?t WHERE { ?t a ?term . VALUES ?t { " +
+                            uris.stream().map(Utils::uriToString).collect(Collectors.joining(" ")) + " } }",
+                    FacetedSearchResult.class).setParameter("term", URI.create(SKOS.CONCEPT))
+                    .getResultStream().collect(Collectors.toMap(FacetedSearchResult::getUri, r -> r, (a, b) -> a));
+            return uris.stream().map(loaded::get).filter(Objects::nonNull).toList();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Counts terms having individual values of facets among terms matching the specified search parameters.
+     * <p>
+     * Counts of values of a facet disregard search parameters on that facet. Only facets indexed by
+     * {@link TermFacetIndex} are counted. If the index is not available or parameters on properties which are not
+     * indexed match too many terms, an empty map is returned.
+     *
+     * @param searchParams     Search parameters (facets)
+     * @param vocabularyFilter Determines terms of which vocabularies are counted
+     * @return Map of facet properties to maps of values and corresponding numbers of terms
+     */
+    public Map<URI, Map<String, Integer>> countFacets(@Nonnull Collection<SearchParam> searchParams,
+                                                      @Nonnull Predicate<URI> vocabularyFilter) {
+        Objects.requireNonNull(searchParams);
+        Objects.requireNonNull(vocabularyFilter);
+        if (!isFacetIndexReady()) {
+            return Collections.emptyMap();
+        }
+        final Map<Boolean, List<SearchParam>> params = partitionByIndex(searchParams);
+        Set<URI> candidates = null;
+        if (!params.get(false).isEmpty()) {
+            final Optional<Set<URI>> found = findCandidates(params.get(false));
+            if (found.isEmpty()) {
+                return Collections.emptyMap();
+            }
+            candidates = found.get();
+        }
+        return facetIndex.countFacets(params.get(true), candidates, vocabularyFilter);
+    }
+
+    private boolean isFacetIndexReady() {
+        return facetIndex != null && facetIndex.isReady();
+    }
+
+    private Map<Boolean, List<SearchParam>> partitionByIndex(Collection<SearchParam> searchParams) {
+        return searchParams.stream().collect(Collectors.partitioningBy(p -> facetIndex.isIndexed(p.getProperty())));
+    }
+
+    /**
+     * Finds current versions of terms matching the specified search parameters in the repository.
+     * <p>
+     * At most {@link #facetCandidateLimit} terms are loaded.
+     *
+     * @return Identifiers of matching terms, empty optional if the parameters match more terms than the limit
+     */
+    private Optional<Set<URI>> findCandidates(List<SearchParam> searchParams) {
+        final StringBuilder queryStr = new StringBuilder("SELECT DISTINCT ?t WHERE { ?t a ?term .\n");
+        appendSearchParams(queryStr, searchParams);
+        queryStr.append("}");
+        final Query q = em.createNativeQuery(queryStr.toString(), URI.class)
+                          .setParameter("term", URI.create(SKOS.CONCEPT))
+                          .setMaxResults(facetCandidateLimit + 1);
+        final List<URI> result;
+        try {
+            result = bindSearchParams(q, searchParams).getResultList();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+        if (result.size() > facetCandidateLimit) {
+            LOG.debug("Search parameters {} match more than {} terms, not using facet index.", searchParams,
+                      facetCandidateLimit);
+            return Optional.empty();
+        }
+        return Optional.of(new HashSet<>(result));
+    }
+
+    private List<FacetedSearchResult> facetedTermSearchInRepository(Collection<SearchParam> searchParams,
+                                                                    Pageable pageSpec) {
         final StringBuilder queryStr = new StringBuilder(
                 "SELECT DISTINCT ?t WHERE { ?t a ?term ; ?hasLabel ?label .\n");
+        appendSearchParams(queryStr, searchParams);
+        queryStr.append("FILTER NOT EXISTS { ?t a ?snapshot . }} ORDER BY ?label");
+        final Query q = em.createNativeQuery(queryStr.toString(), FacetedSearchResult.class)
+                          .setParameter("term", URI.create(SKOS.CONCEPT))
+                          .setParameter("hasLabel", URI.create(SKOS.PREF_LABEL))
+                          .setParameter("snapshot", URI.create(Vocabulary.s_c_verze_objektu))
+                          .setFirstResult((int) pageSpec.getOffset())
+                          .setMaxResults(pageSpec.getPageSize());
+        return bindSearchParams(q, searchParams).getResultList();
+    }
+
+    /**
+     * Appends patterns corresponding to the specified search parameters to the query.
+     * <p>
+     * Search values are not part of the query string, except for IRIs, which are validated and listed in a
+     * {@code VALUES} block. This way, the query string depends only on the structure of the search.
+     */
+    private static void appendSearchParams(StringBuilder queryStr, Collection<SearchParam> searchParams) {
         int i = 0;
         for (SearchParam p : searchParams) {
-            final String variable = "?v" + i++;
-            queryStr.append("?t ").append(Utils.uriToString(p.getProperty())).append(" ").append(variable)
-                    .append(" . ");
+            final String variable = "?v" + i;
+            queryStr.append("?t ?p").append(i).append(" ").append(variable).append(" . ");
             switch (p.getMatchType()) {
-                case IRI:
-                    queryStr.append("FILTER (").append(variable).append(" IN (")
-                            .append(p.getValue().stream().map(v -> Utils.uriToString(URI.create(v))).collect(
-                                    Collectors.joining(","))).append("))\n");
-                    break;
-                case EXACT_MATCH:
-                    queryStr.append("FILTER (STR(").append(variable).append(") = \"")
-                            .append(p.getValue().iterator().next()).append("\")\n");
-                    break;
-                case SUBSTRING:
-                    queryStr.append("FILTER (CONTAINS(LCASE(STR(").append(variable).append(")), LCASE(\"")
-                            .append(p.getValue().iterator().next()).append("\")))\n");
-                    break;
+                case IRI -> queryStr.append("VALUES ").append(variable).append(" { ")
+                                    .append(p.getValue().stream().map(v -> Utils.uriToString(URI.create(v)))
+                                             .collect(Collectors.joining(" "))).append(" }\n");
+                case EXACT_MATCH -> queryStr.append("FILTER (STR(").append(variable).append(") = ?value").append(i)
+                                            .append(")\n");
+                case SUBSTRING -> queryStr.append("FILTER (CONTAINS(LCASE(STR(").append(variable)
+                                          .append(")), LCASE(?value").append(i).append(")))\n");
             }
+            i++;
         }
-        queryStr.append("FILTER NOT EXISTS { ?t a ?snapshot . }} ORDER BY ?label");
-        return em.createNativeQuery(queryStr.toString(), FacetedSearchResult.class)
-                 .setParameter("term", URI.create(SKOS.CONCEPT))
-                 .setParameter("hasLabel", URI.create(SKOS.PREF_LABEL))
-                 .setParameter("snapshot", URI.create(Vocabulary.s_c_verze_objektu))
-                 .setFirstResult((int) pageSpec.getOffset())
-                 .setMaxResults(pageSpec.getPageSize())
-                 .getResultList();
+    }
+
+    private static Query bindSearchParams(Query q, Collection<SearchParam> searchParams) {
+        int i = 0;
+        for (SearchParam p : searchParams) {
+            q.setParameter("p" + i, p.getProperty());
+            if (p.getMatchType() != MatchType.IRI) {
+                q.setParameter("value" + i, p.getValue().iterator().next(), null);
+            }
+            i++;
+        }
+        return q;
     }
 }
@@ -19,11 +19,14 @@ package cz.cvut.kbss.termit.persistence.dao;
 
 import cz.cvut.kbss.jopa.exceptions.NoResultException;
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.jopa.model.query.TypedQuery;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.ontodriver.model.LangString;
 import cz.cvut.kbss.termit.asset.provenance.ModifiesData;
 import cz.cvut.kbss.termit.dto.Snapshot;
 import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.TermLabel;
 import cz.cvut.kbss.termit.dto.listing.TermDto;
 import cz.cvut.kbss.termit.event.AssetPersistEvent;
 import cz.cvut.kbss.termit.event.AssetUpdateEvent;
@@ -54,9 +57,11 @@ import java.util.Comparator;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Repository
@@ -85,18 +90,71 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
         return LABEL_PROP;
     }
 
+    /**
+     * Finds a term with the specified identifier and resolves all its derived attributes.
+     *
+     * @param id Term identifier
+     * @return Matching term
+     * @see #find(URI, TermFetchProfile)
+     */
     @Override
     public Optional<Term> find(URI id) {
+        return find(id, TermFetchProfile.DETAIL);
+    }
+
+    /**
+     * Finds a term with the specified identifier and resolves its derived attributes according to the specified fetch
+     * profile.
+     *
+     * @param id      Term identifier
+     * @param profile Determines which derived attributes are resolved
+     * @return Matching term
+     */
+    public Optional<Term> find(URI id, TermFetchProfile profile) {
+        Objects.requireNonNull(profile);
         final Optional<Term> result = super.find(id);
-        result.ifPresent(this::postLoad);
+        result.ifPresent(t -> postLoad(t, profile));
         return result;
     }
 
-    private void postLoad(Term r) {
-        r.setSubTerms(getSubTerms(r));
-        r.setInverseRelated(loadInverseRelatedTerms(r));
-        r.setInverseRelatedMatch(loadInverseRelatedMatchTerms(r));
-        r.setInverseExactMatchTerms(loadInverseExactMatchTerms(r));
+    /**
+     * Finds all terms with the specified identifiers.
+     * <p>
+     * Unlike {@link #find(URI)}, the terms are loaded using a single query and inferred attributes (sub-terms, inverse
+     * relationships) are not resolved. This makes the method suitable for bulk lookups where only basic term data are
+     * required.
+     *
+     * @param ids Term identifiers
+     * @return List of matching terms, possibly empty
+     */
+    public List<Term> findAllById(Collection<URI> ids) {
+        Objects.requireNonNull(ids);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // java.net.URI does not allow characters which could break out of an IRI reference
+        final String values = ids.stream().map(Utils::uriToString).collect(Collectors.joining(" "));
+        try {
+            return em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                                                "VALUES ?term { " + values + " }" +
+                                                "?term a ?type ." +
+                                                "}", Term.class)
+                     .setParameter("type", typeUri)
+                     .getResultList();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private void postLoad(Term r, TermFetchProfile profile) {
+        if (profile.includesSubTerms()) {
+            r.setSubTerms(getSubTerms(r));
+        }
+        if (profile.includesInverseRelationships()) {
+            r.setInverseRelated(loadInverseRelatedTerms(r));
+            r.setInverseRelatedMatch(loadInverseRelatedMatchTerms(r));
+            r.setInverseExactMatchTerms(loadInverseExactMatchTerms(r));
+        }
     }
 
     /**
@@ -174,7 +232,7 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
             entity.setVocabulary(null); // This is inferred
             em.persist(entity, descriptorFactory.termDescriptor(vocabulary));
             evictCachedSubTerms(Collections.emptySet(), entity.getParentTerms());
-            eventPublisher.publishEvent(new VocabularyContentModifiedEvent(this, vocabulary.getUri()));
+            eventPublisher.publishEvent(new VocabularyContentModifiedEvent(this, vocabulary.getUri(), entity.getUri()));
             eventPublisher.publishEvent(new AssetPersistEvent(this, entity));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -194,7 +252,8 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
             eventPublisher.publishEvent(new AssetUpdateEvent(this, entity));
             evictCachedSubTerms(original.getParentTerms(), entity.getParentTerms());
             final Term result = em.merge(entity, descriptorFactory.termDescriptor(entity));
-            eventPublisher.publishEvent(new VocabularyContentModifiedEvent(this, original.getVocabulary()));
+            eventPublisher.publishEvent(
+                    new VocabularyContentModifiedEvent(this, original.getVocabulary(), entity.getUri()));
             return result;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
@@ -269,28 +328,54 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
     public List<TermDto> findAll(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
         try {
-            return executeQueryAndLoadSubTerms(em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                            "GRAPH ?context { " +
-                                                                            "?term a ?type ;" +
-                                                                            "?hasLabel ?label ;" +
-                                                                            "FILTER (lang(?label) = ?labelLang) ." +
-                                                                            "}" +
-                                                                            "?term ?inVocabulary ?vocabulary ." +
-                                                                            " } ORDER BY " + orderSentence("?label"),
-                                                                    TermDto.class)
-                                                 .setParameter("context", context(vocabulary))
-                                                 .setParameter("type", typeUri)
-                                                 .setParameter("vocabulary", vocabulary.getUri())
-                                                 .setParameter("hasLabel", LABEL_PROP)
-                                                 .setParameter("inVocabulary",
-                                                               URI.create(
-                                                                       cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                                 .setParameter("labelLang", config.getLanguage()));
+            return executeQueryAndLoadSubTerms(createFindAllQuery(vocabulary, TermDto.class));
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Finds all terms in the specified vocabulary and passes them to the specified consumer in batches of the
+     * specified size.
+     * <p>
+     * Unlike {@link #findAll(Vocabulary)}, this method does not materialize the whole result. Instead, it resolves
+     * identifiers of the matching terms, loads the terms and their sub-terms one batch at a time and hands each batch
+     * over to the consumer before continuing with the next one. The batches are ordered in the same way as the result of {@link #findAll(Vocabulary)}.
+     *
+     * @param vocabulary Vocabulary whose terms to retrieve. A reference is sufficient
+     * @param batchSize  Maximum size of a batch passed to the consumer
+     * @param consumer   Consumer of the batches
+     * @see #findAll(Vocabulary)
+     */
+    public void findAll(Vocabulary vocabulary, int batchSize, Consumer<List<TermDto>> consumer) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(consumer);
+        try {
+            executeQueryAndLoadSubTermsInBatches(createFindAllQuery(vocabulary, URI.class), TermDto.class, batchSize,
+                                                 consumer);
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
+    private <R> TypedQuery<R> createFindAllQuery(Vocabulary vocabulary, Class<R> resultClass) {
+        return em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                                            "GRAPH ?context { " +
+                                            "?term a ?type ;" +
+                                            "?hasLabel ?label ;" +
+                                            "FILTER (lang(?label) = ?labelLang) ." +
+                                            "}" +
+                                            "?term ?inVocabulary ?vocabulary ." +
+                                            " } ORDER BY " + orderSentence("?label"), resultClass)
+                 .setParameter("context", context(vocabulary))
+                 .setParameter("type", typeUri)
+                 .setParameter("vocabulary", vocabulary.getUri())
+                 .setParameter("hasLabel", LABEL_PROP)
+                 .setParameter("inVocabulary",
+                               URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
+                 .setParameter("labelLang", config.getLanguage());
+    }
+
     private URI context(Vocabulary vocabulary) {
         return contextMapper.getVocabularyContext(vocabulary);
     }
@@ -349,6 +434,41 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
         return result;
     }
 
+    private <T extends AbstractTerm> void executeQueryAndLoadSubTermsInBatches(TypedQuery<URI> idQuery,
+                                                                              Class<T> resultClass, int batchSize,
+                                                                              Consumer<List<T>> consumer) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+        // Identifiers are materialized first, so that no query result is open while the batches are loaded and the
+        // persistence context is cleared
+        final List<URI> ids = idQuery.getResultList();
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            final List<T> batch = loadBatch(ids.subList(i, Math.min(i + batchSize, ids.size())), resultClass);
+            // Same reasoning as in executeQueryAndLoadSubTerms applies, only the persistence context is cleared per
+            // batch, so that it does not grow with the size of the whole result
+            em.clear();
+            batch.forEach(t -> t.setSubTerms(getSubTerms(t)));
+            consumer.accept(batch);
+        }
+    }
+
+    /**
+     * Loads terms with the specified identifiers using a single query, preserving the order of the identifiers.
+     */
+    private <T extends AbstractTerm> List<T> loadBatch(List<URI> ids, Class<T> resultClass) {
+        // java.net.URI does not allow characters which could break out of an IRI reference
+        final String values = ids.stream().map(Utils::uriToString).collect(Collectors.joining(" "));
+        final Map<URI, T> loaded = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                                                                "VALUES ?term { " + values + " }" +
+                                                                "?term a ?type ." +
+                                                                "}", resultClass)
+                                     .setParameter("type", typeUri)
+                                     .getResultList().stream()
+                                     .collect(Collectors.toMap(AbstractTerm::getUri, t -> t, (a, b) -> a));
+        return ids.stream().map(loaded::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
     /**
      * Gets sub-term info for the specified parent term.
      *
@@ -369,24 +489,46 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
      */
     public List<TermDto> findAllIncludingImported(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
-        TypedQuery<TermDto> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                                                                 "?term a ?type ;" +
-                                                                 "?hasLabel ?label ;" +
-                                                                 "?inVocabulary ?parent ." +
-                                                                 "?vocabulary ?imports* ?parent ." +
-                                                                 "FILTER (lang(?label) = ?labelLang) ." +
-                                                                 "} ORDER BY " + orderSentence("?label"), TermDto.class)
-                                      .setParameter("type", typeUri)
-                                      .setParameter("hasLabel", LABEL_PROP)
-                                      .setParameter("inVocabulary",
-                                                    URI.create(
-                                                            cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                      .setParameter("imports",
-                                                    URI.create(
-                                                            cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik))
-                                      .setParameter("vocabulary", vocabulary.getUri())
-                                      .setParameter("labelLang", config.getLanguage());
-        return executeQueryAndLoadSubTerms(query);
+        return executeQueryAndLoadSubTerms(createFindAllIncludingImportedQuery(vocabulary, TermDto.class));
+    }
+
+    /**
+     * Gets all terms from the specified vocabulary and any of its imports (transitively) and passes them to the
+     * specified consumer in batches of the specified size.
+     * <p>
+     * This is a streaming alternative to {@link #findAllIncludingImported(Vocabulary)}.
+     *
+     * @param vocabulary Vocabulary whose terms should be returned
+     * @param batchSize  Maximum size of a batch passed to the consumer
+     * @param consumer   Consumer of the batches
+     * @see #findAllIncludingImported(Vocabulary)
+     */
+    public void findAllIncludingImported(Vocabulary vocabulary, int batchSize, Consumer<List<TermDto>> consumer) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(consumer);
+        try {
+            executeQueryAndLoadSubTermsInBatches(createFindAllIncludingImportedQuery(vocabulary, URI.class),
+                                                 TermDto.class, batchSize, consumer);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private <R> TypedQuery<R> createFindAllIncludingImportedQuery(Vocabulary vocabulary, Class<R> resultClass) {
+        return em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                                            "?term a ?type ;" +
+                                            "?hasLabel ?label ;" +
+                                            "?inVocabulary ?parent ." +
+                                            "?vocabulary ?imports* ?parent ." +
+                                            "FILTER (lang(?label) = ?labelLang) ." +
+                                            "} ORDER BY " + orderSentence("?label"), resultClass)
+                 .setParameter("type", typeUri)
+                 .setParameter("hasLabel", LABEL_PROP)
+                 .setParameter("inVocabulary",
+                               URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
+                 .setParameter("imports", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik))
+                 .setParameter("vocabulary", vocabulary.getUri())
+                 .setParameter("labelLang", config.getLanguage());
     }
 
     /**
@@ -762,6 +904,67 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
         }
     }
 
+    /**
+     * Gets preferred, alternative and hidden labels in the specified language of all terms in the specified vocabulary
+     * context.
+     *
+     * @param vocabularyContext Identifier of the repository context containing the vocabulary
+     * @param languageTag       Language of the labels
+     * @return List of term labels
+     */
+    public List<TermLabel> findAllLabels(URI vocabularyContext, String languageTag) {
+        Objects.requireNonNull(vocabularyContext);
+        Objects.requireNonNull(languageTag);
+        return findLabels(vocabularyContext, null, languageTag);
+    }
+
+    /**
+     * Gets preferred, alternative and hidden labels in the specified language of the specified terms in the specified
+     * vocabulary context.
+     *
+     * @param vocabularyContext Identifier of the repository context containing the vocabulary
+     * @param terms             Identifiers of terms whose labels to get
+     * @param languageTag       Language of the labels
+     * @return List of term labels
+     */
+    public List<TermLabel> findAllLabels(URI vocabularyContext, Collection<URI> terms, String languageTag) {
+        Objects.requireNonNull(vocabularyContext);
+        Objects.requireNonNull(terms);
+        Objects.requireNonNull(languageTag);
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return findLabels(vocabularyContext, terms, languageTag);
+    }
+
+    private List<TermLabel> findLabels(URI vocabularyContext, Collection<URI> terms, String languageTag) {
+        try {
+            final Query query = em.createNativeQuery("SELECT ?term ?hasLabel ?label WHERE { GRAPH ?g { " +
+                                                             "?term a ?type ; " +
+                                                             "?hasLabel ?label . " +
+                                                             "FILTER (?hasLabel IN (?labelProperties)) " +
+                                                             "FILTER (lang(?label) = ?language) " +
+                                                             (terms != null ? "FILTER (?term IN (?terms)) " : "") +
+                                                             "}}")
+                                  .setParameter("g", vocabularyContext)
+                                  .setParameter("type", typeUri)
+                                  .setParameter("labelProperties", List.of(LABEL_PROP, URI.create(SKOS.ALT_LABEL),
+                                                                           URI.create(SKOS.HIDDEN_LABEL)))
+                                  .setParameter("language", languageTag);
+            if (terms != null) {
+                query.setParameter("terms", terms);
+            }
+            final List<?> rows = query.getResultList();
+            return rows.stream().map(row -> {
+                final Object[] bindingSet = (Object[]) row;
+                return new TermLabel((URI) bindingSet[0], ((LangString) bindingSet[2]).getValue(),
+                                     LABEL_PROP.equals(bindingSet[1]));
+            }).collect(Collectors.toList());
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
     /**
      * Gets identifiers of all terms in the specified vocabulary that have no occurrences (file or definitional).
      *
@@ -790,7 +993,7 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
     public void remove(Term entity) {
         super.remove(entity);
         evictCachedSubTerms(entity.getParentTerms(), Collections.emptySet());
-        eventPublisher.publishEvent(new VocabularyContentModifiedEvent(this, entity.getVocabulary()));
+        eventPublisher.publishEvent(new VocabularyContentModifiedEvent(this, entity.getVocabulary(), entity.getUri()));
     }
 
     @Override
@@ -804,7 +1007,7 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
         return new AssetSnapshotLoader<Term>(em, typeUri, URI.create(
                 cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_pojmu))
                 .findVersionValidAt(asset, at).map(t -> {
-                    postLoad(t);
+                    postLoad(t, TermFetchProfile.DETAIL);
                     return t;
                 });
     }
@@ -813,4 +1016,17 @@ public class TermDao extends BaseAssetDao<Term> implements SnapshotProvider<Term
     public void onEvictCache(EvictCacheEvent evt) {
         subTermsCache.evictAll();
     }
+
+    /**
+     * Evicts the sub-terms cache when another TermIt instance modified vocabulary content.
+     * <p>
+     * Local modifications evict only the affected entries, but the remote ones carry no information about the
+     * affected terms.
+     */
+    @EventListener
+    public void onVocabularyContentModified(VocabularyContentModifiedEvent evt) {
+        if (evt.isRemote()) {
+            subTermsCache.evictAll();
+        }
+    }
 }
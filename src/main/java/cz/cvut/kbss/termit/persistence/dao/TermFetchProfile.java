@@ -0,0 +1,68 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao;
+
+/**
+ * Determines which derived attributes of a {@link cz.cvut.kbss.termit.model.Term} are resolved when it is loaded.
+ * <p>
+ * Attributes mapped by the entity are always loaded. Derived attributes (sub-terms and relationships inferred from
+ * their inverse assertions) require additional queries and should be resolved only when the caller needs them.
+ */
+public enum TermFetchProfile {
+    /**
+     * Only attributes mapped by the entity are loaded.
+     * <p>
+     * Suitable for callers which need just basic term data, e.g., label, state, or vocabulary for authorization.
+     */
+    MINIMAL(false, false),
+    /**
+     * Sub-terms are resolved in addition to the mapped attributes.
+     * <p>
+     * Suitable for callers which work with term hierarchy, e.g., state changes or term removal.
+     */
+    HIERARCHY(true, false),
+    /**
+     * Sub-terms and inverse relationships (SKOS related, relatedMatch and exactMatch) are resolved.
+     * <p>
+     * This is the complete term detail.
+     */
+    DETAIL(true, true);
+
+    private final boolean subTerms;
+
+    private final boolean inverseRelationships;
+
+    TermFetchProfile(boolean subTerms, boolean inverseRelationships) {
+        this.subTerms = subTerms;
+        this.inverseRelationships = inverseRelationships;
+    }
+
+    /**
+     * @return Whether sub-terms are resolved in this profile
+     */
+    public boolean includesSubTerms() {
+        return subTerms;
+    }
+
+    /**
+     * @return Whether relationships inferred from inverse assertions are resolved in this profile
+     */
+    public boolean includesInverseRelationships() {
+        return inverseRelationships;
+    }
+}
@@ -0,0 +1,452 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao;
+
+import cz.cvut.kbss.jopa.model.annotations.OWLClass;
+import cz.cvut.kbss.jopa.vocabulary.DC;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.exception.UnsupportedOperationException;
+import cz.cvut.kbss.termit.model.assignment.OccurrenceTarget;
+import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
+import cz.cvut.kbss.termit.model.selector.Selector;
+import cz.cvut.kbss.termit.model.selector.TextPositionSelector;
+import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
+import cz.cvut.kbss.termit.util.Utils;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.query.QueryResults;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes term occurrences into the repository as raw RDF statements in batches.
+ * <p>
+ * This is a bulk alternative to persisting occurrences one by one via {@link TermOccurrenceDao#persist(TermOccurrence)},
+ * which requires several repository round trips per occurrence (occurrence, target and selectors). Instead, the
+ * occurrences are mapped to statements which are accumulated and flushed into the occurrence context of the source
+ * asset (see {@link TermOccurrence#resolveContext(URI)}) through a single repository connection once the configured
+ * batch size is reached.
+ * <p>
+ * All changes made by a writer (including {@link #removeAll()}) are made in a single repository transaction, which is
+ * committed by {@link #commit()}. Closing a writer which has not been committed rolls the transaction back, so that a
+ * failure in the middle of the writing does not leave the occurrences partially replaced.
+ * <p>
+ * When {@link #commit()} is called within a Spring-managed transaction, the repository transaction of the writer is
+ * bound to it instead of being committed immediately. It is committed right before the Spring transaction commits, so
+ * that a failure to apply the changes rolls the Spring transaction back, and it is rolled back if the Spring
+ * transaction rolls back before that. It is not postponed until after the Spring transaction commits, because the
+ * repository may not allow the Spring transaction to write while the writer's transaction holds uncommitted changes.
+ * The connection is released when the Spring transaction completes.
+ * <p>
+ * Identifiers of the written occurrences are tracked in memory, so that an occurrence with the same identifier is not
+ * written twice.
+ * <p>
+ * Besides additions, the writer supports removal of existing occurrences and changes of their suggestion state, so
+ * that it can be used to apply a difference between the existing and the newly resolved occurrences. Within a batch,
+ * removals are applied before additions.
+ * <p>
+ * A writer created without a source asset writes each occurrence into the occurrence context of its target's source.
+ * This allows writing occurrences of many assets (e.g., definitional occurrences of many terms) in the same batches.
+ * <p>
+ * Note that the writer bypasses the JOPA persistence context. It must be closed after use so that the connection is
+ * released.
+ */
+public class TermOccurrenceBatchWriter implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TermOccurrenceBatchWriter.class);
+
+    private final RepositoryConnection connection;
+
+    private final ValueFactory vf;
+
+    private final URI context;
+
+    private final IRI contextIri;
+
+    private final int batchSize;
+
+    private final String language;
+
+    private final Set<URI> written = new HashSet<>();
+
+    private final Model buffer = new LinkedHashModel();
+
+    private final Model removalBuffer = new LinkedHashModel();
+
+    private final Map<IRI, IRI> removedSubjects = new LinkedHashMap<>();
+
+    private int bufferedOccurrences = 0;
+
+    private long addedStatementCount = 0;
+
+    private long removedStatementCount = 0;
+
+    /**
+     * Whether the writer's transaction has been bound to the current Spring transaction.
+     */
+    private boolean bound = false;
+
+    /**
+     * Creates a writer.
+     *
+     * @param repository Repository to write into
+     * @param source     Asset whose occurrences are written, {@code null} to write occurrences into contexts resolved
+     *                   from their targets
+     * @param batchSize  Number of occurrences written at once
+     * @param language   Language tag of occurrence descriptions
+     */
+    TermOccurrenceBatchWriter(Repository repository, URI source, int batchSize, String language) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive.");
+        }
+        this.connection = repository.getConnection();
+        this.vf = connection.getValueFactory();
+        this.context = source != null ? TermOccurrence.resolveContext(source) : null;
+        this.contextIri = context != null ? vf.createIRI(context.toString()) : null;
+        this.batchSize = batchSize;
+        this.language = language;
+    }
+
+    private IRI contextOf(TermOccurrence occurrence) {
+        if (contextIri != null) {
+            return contextIri;
+        }
+        return iri(TermOccurrence.resolveContext(occurrence.getTarget().getSource()));
+    }
+
+    /**
+     * Removes all statements from the occurrence context this writer writes into.
+     * <p>
+     * This uses the writer's transaction, so that the removal cannot be reordered with respect to the subsequently
+     * written occurrences and is not applied unless the writer is committed.
+     *
+     * @throws IllegalStateException If the writer has not been created for a particular source asset
+     */
+    public void removeAll() {
+        if (contextIri == null) {
+            throw new IllegalStateException("Cannot remove all occurrences, writer is not bound to a source asset.");
+        }
+        LOG.debug("Removing all occurrences from {}", Utils.uriToString(context));
+        try {
+            begin();
+            connection.clear(contextIri);
+        } catch (RepositoryException e) {
+            throw new PersistenceException(e);
+        }
+        written.clear();
+    }
+
+    /**
+     * Adds the specified occurrence to the current batch.
+     * <p>
+     * The batch is flushed into the repository when it reaches the configured size.
+     *
+     * @param occurrence Occurrence to write
+     * @return {@code true} if the occurrence was added, {@code false} if an occurrence with the same identifier has
+     * already been written by this writer
+     */
+    public boolean write(TermOccurrence occurrence) {
+        Objects.requireNonNull(occurrence);
+        if (occurrence.getUri() == null) {
+            occurrence.setUri(URI.create(contextOf(occurrence) + "/" + UUID.randomUUID()));
+        }
+        if (!written.add(occurrence.getUri())) {
+            LOG.debug("Occurrence already exists, skipping: {}", occurrence);
+            return false;
+        }
+        addStatements(occurrence);
+        bufferedOccurrences++;
+        flushIfNecessary();
+        return true;
+    }
+
+    /**
+     * Schedules removal of the specified existing occurrence, including its target and selectors.
+     *
+     * @param occurrence Occurrence to remove, its target and selectors are expected to have identifiers
+     */
+    public void remove(TermOccurrence occurrence) {
+        Objects.requireNonNull(occurrence);
+        final IRI ctx = contextOf(occurrence);
+        removedSubjects.put(iri(occurrence.getUri()), ctx);
+        final OccurrenceTarget target = occurrence.getTarget();
+        if (target != null && target.getUri() != null) {
+            removedSubjects.put(iri(target.getUri()), ctx);
+            Utils.emptyIfNull(target.getSelectors()).stream().filter(sel -> sel.getUri() != null)
+                 .forEach(sel -> removedSubjects.put(iri(sel.getUri()), ctx));
+        }
+        written.remove(occurrence.getUri());
+        bufferedOccurrences++;
+        flushIfNecessary();
+    }
+
+    /**
+     * Changes the suggestion state of the specified existing occurrence.
+     *
+     * @param occurrence Existing occurrence
+     * @param suggested  Whether the occurrence should be marked as suggested (see {@link TermOccurrence#isSuggested()})
+     */
+    public void updateSuggested(TermOccurrence occurrence, boolean suggested) {
+        Objects.requireNonNull(occurrence);
+        final IRI occurrenceIri = iri(occurrence.getUri());
+        final IRI suggestedType = vf.createIRI(Vocabulary.s_c_navrzeny_vyskyt_termu);
+        if (suggested) {
+            buffer.add(occurrenceIri, RDF.TYPE, suggestedType, contextOf(occurrence));
+        } else {
+            removalBuffer.add(occurrenceIri, RDF.TYPE, suggestedType, contextOf(occurrence));
+        }
+        bufferedOccurrences++;
+        flushIfNecessary();
+    }
+
+    private void flushIfNecessary() {
+        if (bufferedOccurrences >= batchSize) {
+            flush();
+        }
+    }
+
+    private void addStatements(TermOccurrence occurrence) {
+        final IRI ctx = contextOf(occurrence);
+        final IRI occurrenceIri = iri(occurrence.getUri());
+        buffer.add(occurrenceIri, RDF.TYPE, classIri(occurrence), ctx);
+        Utils.emptyIfNull(occurrence.getTypes())
+             .forEach(t -> buffer.add(occurrenceIri, RDF.TYPE, vf.createIRI(t), ctx));
+        buffer.add(occurrenceIri, vf.createIRI(Vocabulary.s_p_je_prirazenim_termu), iri(occurrence.getTerm()), ctx);
+        if (occurrence.getDescription() != null) {
+            buffer.add(occurrenceIri, vf.createIRI(DC.Terms.DESCRIPTION),
+                       language != null ? vf.createLiteral(occurrence.getDescription(), language) :
+                       vf.createLiteral(occurrence.getDescription()), ctx);
+        }
+        final OccurrenceTarget target = occurrence.getTarget();
+        if (target.getUri() == null) {
+            target.setUri(URI.create(occurrence.getUri() + "/target"));
+        }
+        final IRI targetIri = iri(target.getUri());
+        buffer.add(occurrenceIri, vf.createIRI(Vocabulary.s_p_ma_cil), targetIri, ctx);
+        buffer.add(targetIri, RDF.TYPE, classIri(target), ctx);
+        buffer.add(targetIri, vf.createIRI(Vocabulary.s_p_ma_zdroj), iri(target.getSource()), ctx);
+        int i = 0;
+        for (Selector selector : Utils.emptyIfNull(target.getSelectors())) {
+            if (selector.getUri() == null) {
+                selector.setUri(URI.create(target.getUri() + "/selector-" + i));
+            }
+            buffer.add(targetIri, vf.createIRI(Vocabulary.s_p_ma_selektor), iri(selector.getUri()), ctx);
+            addSelectorStatements(selector, ctx);
+            i++;
+        }
+    }
+
+    private void addSelectorStatements(Selector selector, IRI ctx) {
+        final IRI selectorIri = iri(selector.getUri());
+        buffer.add(selectorIri, RDF.TYPE, classIri(selector), ctx);
+        if (selector instanceof TextQuoteSelector tqs) {
+            buffer.add(selectorIri, vf.createIRI(Vocabulary.s_p_ma_presny_text_quote),
+                       vf.createLiteral(tqs.getExactMatch()), ctx);
+            if (tqs.getPrefix() != null) {
+                buffer.add(selectorIri, vf.createIRI(Vocabulary.s_p_ma_prefix_text_quote),
+                           vf.createLiteral(tqs.getPrefix()), ctx);
+            }
+            if (tqs.getSuffix() != null) {
+                buffer.add(selectorIri, vf.createIRI(Vocabulary.s_p_ma_suffix_text_quote),
+                           vf.createLiteral(tqs.getSuffix()), ctx);
+            }
+        } else if (selector instanceof TextPositionSelector tps) {
+            buffer.add(selectorIri, vf.createIRI(Vocabulary.s_p_ma_startovni_pozici), vf.createLiteral(tps.getStart()),
+                       ctx);
+            buffer.add(selectorIri, vf.createIRI(Vocabulary.s_p_ma_koncovou_pozici), vf.createLiteral(tps.getEnd()),
+                       ctx);
+        } else {
+            throw new UnsupportedOperationException("Unsupported selector type " + selector.getClass().getSimpleName());
+        }
+    }
+
+    private IRI iri(URI uri) {
+        return vf.createIRI(uri.toString());
+    }
+
+    private IRI classIri(Object instance) {
+        final OWLClass owlClass = instance.getClass().getAnnotation(OWLClass.class);
+        assert owlClass != null;
+        return vf.createIRI(owlClass.iri());
+    }
+
+    private void begin() {
+        if (!connection.isActive()) {
+            connection.begin();
+        }
+    }
+
+    /**
+     * Writes the current batch into the repository transaction of this writer.
+     * <p>
+     * The batch becomes visible to others only after the writer is committed.
+     *
+     * @see #commit()
+     */
+    public void flush() {
+        if (buffer.isEmpty() && removalBuffer.isEmpty() && removedSubjects.isEmpty()) {
+            return;
+        }
+        LOG.trace("Flushing batch of {} term occurrence changes into {}.", bufferedOccurrences,
+                  context != null ? Utils.uriToString(context) : "occurrence contexts");
+        try {
+            begin();
+            removedSubjects.forEach((subject, ctx) -> removalBuffer.addAll(
+                    QueryResults.asModel(connection.getStatements(subject, null, null, false, ctx))));
+            connection.remove(removalBuffer);
+            connection.add(buffer);
+        } catch (RepositoryException e) {
+            rollback();
+            throw new PersistenceException(e);
+        }
+        removedStatementCount += removalBuffer.size();
+        addedStatementCount += buffer.size();
+        removedSubjects.clear();
+        removalBuffer.clear();
+        buffer.clear();
+        bufferedOccurrences = 0;
+    }
+
+    /**
+     * Gets the number of occurrences written (or buffered for writing) by this writer.
+     *
+     * @return Number of occurrences
+     */
+    public int getWrittenCount() {
+        return written.size();
+    }
+
+    /**
+     * Gets the number of statements added into the repository by this writer.
+     *
+     * @return Number of statements
+     */
+    public long getAddedStatementCount() {
+        return addedStatementCount;
+    }
+
+    /**
+     * Gets the number of statements removed from the repository by this writer.
+     * <p>
+     * Statements removed by {@link #removeAll()} are not included.
+     *
+     * @return Number of statements
+     */
+    public long getRemovedStatementCount() {
+        return removedStatementCount;
+    }
+
+    /**
+     * Flushes the remaining statements and commits all the changes made by this writer.
+     * <p>
+     * Within a Spring-managed transaction, the commit is postponed until the transaction commits (see the class
+     * documentation).
+     */
+    public void commit() {
+        flush();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (!bound) {
+                TransactionSynchronizationManager.registerSynchronization(new BoundTransaction());
+                this.bound = true;
+            }
+            return;
+        }
+        commitConnection();
+    }
+
+    private void commitConnection() {
+        try {
+            if (connection.isActive()) {
+                connection.commit();
+            }
+        } catch (RepositoryException e) {
+            rollback();
+            throw new PersistenceException(e);
+        }
+    }
+
+    private void rollback() {
+        if (connection.isActive()) {
+            connection.rollback();
+        }
+    }
+
+    /**
+     * Releases the underlying repository connection.
+     * <p>
+     * Changes which have not been committed are rolled back. If the writer has been bound to a Spring transaction, the
+     * connection is released when the transaction completes instead.
+     */
+    @Override
+    public void close() {
+        if (bound) {
+            return;
+        }
+        try {
+            if (connection.isActive()) {
+                LOG.warn("Term occurrence changes in {} were not committed, rolling them back.",
+                         context != null ? Utils.uriToString(context) : "occurrence contexts");
+                rollback();
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * Applies the changes of the writer together with the Spring transaction it is bound to.
+     */
+    private class BoundTransaction implements TransactionSynchronization {
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            flush();
+            commitConnection();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            try {
+                if (connection.isActive()) {
+                    LOG.debug("Transaction did not commit, rolling back term occurrence changes in {}.",
+                              context != null ? Utils.uriToString(context) : "occurrence contexts");
+                    rollback();
+                }
+            } finally {
+                connection.close();
+            }
+        }
+    }
+}
@@ -38,8 +38,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 
 import java.net.URI;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 @Repository
 public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
@@ -215,6 +218,71 @@ public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
         }
     }
 
+    /**
+     * Determines which of the specified term occurrences exist in the repository.
+     * <p>
+     * This is a bulk version of {@link #exists(URI)}.
+     *
+     * @param ids Term occurrence identifiers
+     * @return Identifiers of existing term occurrences
+     */
+    public Set<URI> findExisting(Collection<URI> ids) {
+        Objects.requireNonNull(ids);
+        if (ids.isEmpty()) {
+            return new HashSet<>();
+        }
+        try {
+            return new HashSet<>(em.createNativeQuery("SELECT DISTINCT ?x WHERE {" +
+                                                              "?x a ?type ." +
+                                                              "FILTER (?x IN (?ids))" +
+                                                              "}", URI.class)
+                                   .setParameter("type", typeUri)
+                                   .setParameter("ids", ids)
+                                   .getResultList());
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Creates a writer for bulk saving of term occurrences targeting the specified asset.
+     * <p>
+     * The writer bypasses the persistence context and writes the occurrences directly as statements into the
+     * occurrence context of the asset. Its changes are applied in a single repository transaction when it is
+     * committed (within a Spring-managed transaction, together with it), and it has to be closed after use.
+     *
+     * @param source    Asset targeted by the occurrences to write
+     * @param batchSize Number of occurrences written into the repository at once
+     * @return New batch writer
+     */
+    public TermOccurrenceBatchWriter createBatchWriter(Asset<?> source, int batchSize) {
+        Objects.requireNonNull(source);
+        try {
+            return new TermOccurrenceBatchWriter(em.unwrap(org.eclipse.rdf4j.repository.Repository.class),
+                                                 source.getUri(), batchSize, config.getLanguage());
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Creates a writer for bulk saving of term occurrences targeting arbitrary assets.
+     * <p>
+     * Each occurrence is written into the occurrence context of the source of its target. Otherwise, the writer
+     * behaves the same way as the one created by {@link #createBatchWriter(Asset, int)}.
+     *
+     * @param batchSize Number of occurrences written into the repository at once
+     * @return New batch writer
+     */
+    public TermOccurrenceBatchWriter createBatchWriter(int batchSize) {
+        try {
+            return new TermOccurrenceBatchWriter(em.unwrap(org.eclipse.rdf4j.repository.Repository.class), null,
+                                                 batchSize, config.getLanguage());
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
     /**
      * Removes all suggested term occurrences whose target points to the specified asset.
      *
@@ -264,30 +332,81 @@ public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
     }
 
     /**
-     * Removes all term occurrence whose target points to a non-existent asset.
+     * Finds sources of term occurrences which no longer exist in the repository.
      * <p>
-     * This method exists mainly for legacy reasons - since occurrences are now stored in a particular context, their
-     * batch removal (e.g., on corresponding asset remove) is implemented by dropping the whole context. However, old
-     * occurrences were stored in the default context and thus the new removal logic does not affect them. This method
-     * allows targeting such occurrences.
+     * The orphaned sources are determined by a single query, so that callers can process them in chunks (see {@link
+     * #removeAllOrphanedOf(Collection)}) without having to re-evaluate the whole repository for every chunk.
+     *
+     * @return List of orphaned occurrence sources
      */
-    public void removeAllOrphans() {
-        em.createNativeQuery("SELECT DISTINCT ?source WHERE {" +
-                                     "?t a ?target ;" +
-                                     "?hasSource ?source ." +
-                                     // If an asset does not have a label, it does not exist
-                                     "FILTER NOT EXISTS { " +
-                                     "{ ?source ?hasLabel ?label . } " +
-                                     "UNION" +
-                                     "{ ?source ?hasTitle ?label . } " +
-                                     "}}", URI.class)
-          .setParameter("target", URI.create(Vocabulary.s_c_cil_vyskytu))
-          .setParameter("hasSource", URI.create(Vocabulary.s_p_ma_zdroj))
-          .setParameter("hasLabel", URI.create(RDFS.LABEL))
-          .setParameter("hasTitle", URI.create(DC.Terms.TITLE))
-          .getResultStream().forEach(a -> {
-              LOG.trace("Removing orphaned term occurrences targeting <{}>.", a);
-              removeAll(a, URI.create(Vocabulary.s_c_vyskyt_termu));
-          });
+    public List<URI> findOrphanedSources() {
+        try {
+            return em.createNativeQuery("SELECT DISTINCT ?source WHERE {" +
+                                                "?t a ?target ;" +
+                                                "?hasSource ?source ." +
+                                                // If an asset does not have a label, it does not exist
+                                                "FILTER NOT EXISTS { " +
+                                                "{ ?source ?hasLabel ?label . } " +
+                                                "UNION" +
+                                                "{ ?source ?hasTitle ?label . } " +
+                                                "}}", URI.class)
+                     .setParameter("target", URI.create(Vocabulary.s_c_cil_vyskytu))
+                     .setParameter("hasSource", URI.create(Vocabulary.s_p_ma_zdroj))
+                     .setParameter("hasLabel", URI.create(RDFS.LABEL))
+                     .setParameter("hasTitle", URI.create(DC.Terms.TITLE))
+                     .getResultList();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Removes all term occurrences whose target points to any of the specified (orphaned) sources.
+     * <p>
+     * Occurrence contexts of the sources are dropped as a whole, occurrences stored in the default context (legacy)
+     * are removed using a single update.
+     *
+     * @param sources Identifiers of sources whose occurrences to remove
+     */
+    public void removeAllOrphanedOf(Collection<URI> sources) {
+        Objects.requireNonNull(sources);
+        if (sources.isEmpty()) {
+            return;
+        }
+        LOG.trace("Removing orphaned term occurrences targeting {}.", sources);
+        try {
+            final List<URI> contexts = sources.stream().map(TermOccurrence::resolveContext).toList();
+            final StringBuilder dropQuery = new StringBuilder();
+            for (int i = 0; i < contexts.size(); i++) {
+                dropQuery.append("DROP SILENT GRAPH ?g").append(i).append(" ;");
+            }
+            final Query drop = em.createNativeQuery(dropQuery.toString());
+            for (int i = 0; i < contexts.size(); i++) {
+                drop.setParameter("g" + i, contexts.get(i));
+            }
+            drop.executeUpdate();
+            // Each branch of the union binds statements of a single resource (occurrence, target, selector), so that
+            // their statements are not multiplied with each other
+            em.createNativeQuery("DELETE { ?s ?p ?o . } WHERE {" +
+                                         "?x a ?toType ;" +
+                                         "?hasTarget ?target ." +
+                                         "?target a ?occurrenceTarget ;" +
+                                         "?hasSource ?asset ." +
+                                         "FILTER (?asset IN (?assets))" +
+                                         "{ ?x ?p ?o . BIND (?x AS ?s) }" +
+                                         "UNION" +
+                                         "{ ?target ?p ?o . BIND (?target AS ?s) }" +
+                                         "UNION" +
+                                         "{ ?target ?hasSelector ?s . ?s ?p ?o . }" +
+                                         "}")
+              .setParameter("toType", URI.create(Vocabulary.s_c_vyskyt_termu))
+              .setParameter("hasTarget", URI.create(Vocabulary.s_p_ma_cil))
+              .setParameter("occurrenceTarget", URI.create(Vocabulary.s_c_cil_vyskytu))
+              .setParameter("hasSource", URI.create(Vocabulary.s_p_ma_zdroj))
+              .setParameter("assets", sources)
+              .setParameter("hasSelector", URI.create(Vocabulary.s_p_ma_selektor)).executeUpdate();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
     }
 }
@@ -22,17 +22,41 @@ import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.termit.exception.PersistenceException;
 import cz.cvut.kbss.termit.model.TextAnalysisRecord;
 import cz.cvut.kbss.termit.model.resource.Resource;
+import cz.cvut.kbss.termit.util.Utils;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Repository
 public class TextAnalysisRecordDao {
 
+    /**
+     * Repository context in which fingerprints of analyzed term definitions are stored.
+     * <p>
+     * The fingerprints are kept out of vocabulary contexts, so that they do not appear among term properties.
+     */
+    static final URI DEFINITION_FINGERPRINTS_CONTEXT = URI.create(
+            Vocabulary.ONTOLOGY_IRI_TERMIT + "/text-analysis/definition-fingerprints");
+
+    private static final URI HAS_DEFINITION_FINGERPRINT = URI.create(
+            Vocabulary.ONTOLOGY_IRI_TERMIT + "/text-analysis/definition-fingerprint");
+
+    /**
+     * Maximum number of terms whose definition fingerprints are loaded or saved by a single query.
+     */
+    private static final int FINGERPRINT_BATCH_SIZE = 1000;
+
     private final EntityManager em;
 
     @Autowired
@@ -72,4 +96,79 @@ public class TextAnalysisRecordDao {
             return Optional.empty();
         }
     }
+
+    /**
+     * Gets fingerprints of the latest analyses of definitions of the specified terms.
+     *
+     * @param terms Term identifiers
+     * @return Map of term identifiers to definition fingerprints, terms whose definition has not been analyzed yet are
+     * not included
+     */
+    public Map<URI, String> findDefinitionFingerprints(Collection<URI> terms) {
+        Objects.requireNonNull(terms);
+        final List<URI> termList = new ArrayList<>(terms);
+        final Map<URI, String> result = new HashMap<>(termList.size());
+        try {
+            for (int i = 0; i < termList.size(); i += FINGERPRINT_BATCH_SIZE) {
+                final String values = termList.subList(i, Math.min(i + FINGERPRINT_BATCH_SIZE, termList.size()))
+                                              .stream().map(Utils::uriToString).collect(Collectors.joining(" "));
+                em.createNativeQuery("SELECT ?term ?fingerprint WHERE { " +
+                                             "VALUES ?term { " + values + " } " +
+                                             "GRAPH ?g { ?term ?hasFingerprint ?fingerprint . } }")
+                  .setParameter("g", DEFINITION_FINGERPRINTS_CONTEXT)
+                  .setParameter("hasFingerprint", HAS_DEFINITION_FINGERPRINT)
+                  .getResultList().forEach(row -> {
+                      final Object[] bindingSet = (Object[]) row;
+                      result.put((URI) bindingSet[0], bindingSet[1].toString());
+                  });
+            }
+            return result;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Saves fingerprints of analyses of definitions of the specified terms, replacing the previous ones.
+     * <p>
+     * The fingerprints are saved as part of the current transaction.
+     *
+     * @param fingerprints Map of term identifiers to fingerprints of their definition analysis
+     */
+    @Transactional
+    public void saveDefinitionFingerprints(Map<URI, String> fingerprints) {
+        Objects.requireNonNull(fingerprints);
+        final List<Map.Entry<URI, String>> entries = new ArrayList<>(fingerprints.entrySet());
+        try {
+            for (int i = 0; i < entries.size(); i += FINGERPRINT_BATCH_SIZE) {
+                final String values = entries.subList(i, Math.min(i + FINGERPRINT_BATCH_SIZE, entries.size()))
+                                             .stream()
+                                             .map(e -> "(" + Utils.uriToString(e.getKey()) + " \"" + e.getValue() +
+                                                     "\")")
+                                             .collect(Collectors.joining(" "));
+                em.createNativeQuery("DELETE { GRAPH ?g { ?term ?hasFingerprint ?old . } } " +
+                                             "INSERT { GRAPH ?g { ?term ?hasFingerprint ?fingerprint . } } " +
+                                             "WHERE { VALUES (?term ?fingerprint) { " + values + " } " +
+                                             "OPTIONAL { GRAPH ?g { ?term ?hasFingerprint ?old . } } }")
+                  .setParameter("g", DEFINITION_FINGERPRINTS_CONTEXT)
+                  .setParameter("hasFingerprint", HAS_DEFINITION_FINGERPRINT)
+                  .executeUpdate();
+            }
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Removes fingerprints of all analyzed term definitions.
+     */
+    @Transactional
+    public void removeDefinitionFingerprints() {
+        try {
+            em.createNativeQuery("DROP SILENT GRAPH ?g").setParameter("g", DEFINITION_FINGERPRINTS_CONTEXT)
+              .executeUpdate();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
 }
@@ -18,22 +18,31 @@
 package cz.cvut.kbss.termit.persistence.dao;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.MultilingualString;
 import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.jopa.model.query.TypedQuery;
 import cz.cvut.kbss.jopa.vocabulary.DC;
+import cz.cvut.kbss.jopa.vocabulary.RDF;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.ontodriver.model.LangString;
 import cz.cvut.kbss.termit.asset.provenance.ModifiesData;
 import cz.cvut.kbss.termit.asset.provenance.SupportsLastModification;
 import cz.cvut.kbss.termit.dto.AggregatedChangeInfo;
 import cz.cvut.kbss.termit.dto.PrefixDeclaration;
 import cz.cvut.kbss.termit.dto.RdfsStatement;
 import cz.cvut.kbss.termit.dto.Snapshot;
+import cz.cvut.kbss.termit.dto.listing.DocumentDto;
+import cz.cvut.kbss.termit.dto.listing.VocabularyDto;
 import cz.cvut.kbss.termit.event.AssetPersistEvent;
 import cz.cvut.kbss.termit.event.AssetUpdateEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
 import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyCreatedEvent;
+import cz.cvut.kbss.termit.event.VocabularyModifiedEvent;
 import cz.cvut.kbss.termit.event.VocabularyWillBeRemovedEvent;
 import cz.cvut.kbss.termit.exception.PersistenceException;
 import cz.cvut.kbss.termit.model.Glossary;
+import cz.cvut.kbss.termit.model.Model;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
@@ -42,31 +51,41 @@ import cz.cvut.kbss.termit.model.util.EntityToOwlClassMapper;
 import cz.cvut.kbss.termit.model.validation.ValidationResult;
 import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
 import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.context.VocabularyTopology;
+import cz.cvut.kbss.termit.persistence.context.VocabularyTopologyRegistry;
 import cz.cvut.kbss.termit.persistence.snapshot.AssetSnapshotLoader;
 import cz.cvut.kbss.termit.persistence.validation.VocabularyContentValidator;
 import cz.cvut.kbss.termit.service.snapshot.SnapshotProvider;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Utils;
 import cz.cvut.kbss.termit.util.throttle.CacheableFuture;
+import jakarta.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.net.URI;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import static cz.cvut.kbss.termit.util.Constants.DEFAULT_PAGE_SIZE;
 import static cz.cvut.kbss.termit.util.Constants.SKOS_CONCEPT_MATCH_RELATIONSHIPS;
@@ -88,17 +107,40 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
 
     private static final String REMOVE_GLOSSARY_TERMS_QUERY_FILE = "remove/removeGlossaryTerms.ru";
 
+    private static final URI IMPORTS_PROPERTY = URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik);
+    private static final URI DESCRIBES_PROPERTY = URI.create(
+            cz.cvut.kbss.termit.util.Vocabulary.s_p_popisuje_dokument);
+
     private volatile long lastModified;
 
+    /**
+     * Cached vocabulary listing.
+     */
+    private final Map<URI, VocabularyDto> listing = new ConcurrentHashMap<>();
+
+    /**
+     * Vocabularies whose listing entries need to be reloaded.
+     * <p>
+     * Entries are added regardless of whether the listing is loaded, so that a change committed while the listing is
+     * being loaded is not lost.
+     */
+    private final Set<URI> staleListingEntries = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean listingLoaded;
+
     private final VocabularyContextMapper contextMapper;
 
     private final ApplicationContext context;
 
+    private final ObjectProvider<VocabularyTopologyRegistry> topologyRegistry;
+
     @Autowired
     public VocabularyDao(EntityManager em, Configuration config, DescriptorFactory descriptorFactory,
-                         VocabularyContextMapper contextMapper, ApplicationContext context) {
+                         VocabularyContextMapper contextMapper, ApplicationContext context,
+                         ObjectProvider<VocabularyTopologyRegistry> topologyRegistry) {
         super(Vocabulary.class, em, config.getPersistence(), descriptorFactory);
         this.contextMapper = contextMapper;
+        this.topologyRegistry = topologyRegistry;
         refreshLastModified();
         this.context = context;
     }
@@ -125,6 +167,194 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
         }
     }
 
+    /**
+     * Gets listing DTOs of all vocabularies, ordered by their label.
+     * <p>
+     * Only the attributes needed for listing are loaded from canonical vocabulary contexts, using a single query. The
+     * listing is cached and the cache is updated one vocabulary at a time as vocabularies are created, modified or
+     * removed. The whole listing is reloaded when application caches are evicted.
+     * <p>
+     * The returned DTOs are shared and must not be modified.
+     *
+     * @return List of vocabulary DTOs
+     */
+    public List<VocabularyDto> findAllDtos() {
+        synchronized (listing) {
+            if (!listingLoaded) {
+                // Changes committed before this point are contained in the loaded data, changes committed while the
+                // data are being loaded will be marked stale again
+                staleListingEntries.clear();
+                listing.clear();
+                listing.putAll(loadListing(null));
+                listingLoaded = true;
+            } else if (!staleListingEntries.isEmpty()) {
+                final Set<URI> stale = new HashSet<>(staleListingEntries);
+                staleListingEntries.removeAll(stale);
+                final Map<URI, VocabularyDto> reloaded = loadListing(stale);
+                stale.forEach(v -> {
+                    if (reloaded.containsKey(v)) {
+                        listing.put(v, reloaded.get(v));
+                    } else {
+                        listing.remove(v);
+                    }
+                });
+            }
+            final String language = config.getLanguage();
+            return listing.values().stream().sorted(Comparator.comparing(
+                    (VocabularyDto v) -> v.getLabel() != null ? v.getLabel().get(language) : null,
+                    Comparator.nullsLast(Comparator.naturalOrder()))).collect(Collectors.toList());
+        }
+    }
+
+    private Map<URI, VocabularyDto> loadListing(@Nullable Collection<URI> vocabularies) {
+        try {
+            final Query query = em.createNativeQuery(
+                                          "SELECT ?v ?p ?o ?d WHERE { GRAPH ?g { " +
+                                                  "?v a ?type . " +
+                                                  (vocabularies != null ? "FILTER (?v IN (?vocabularies)) " : "") +
+                                                  "FILTER NOT EXISTS { ?v a ?snapshot . } " +
+                                                  "{ ?v ?p ?o . FILTER (?p IN (?vocabularyProperties)) } " +
+                                                  "UNION " +
+                                                  "{ ?v ?describes ?d . ?d ?p ?o . FILTER (?p IN (?documentProperties)) } " +
+                                                  "} " +
+                                                  // Only canonical contexts, not their workspace copies
+                                                  "FILTER NOT EXISTS { ?g ?basedOnVersion ?canonical . } " +
+                                                  "}")
+                                  .setParameter("type", typeUri)
+                                  .setParameter("snapshot", URI.create(
+                                          cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_slovniku))
+                                  .setParameter("vocabularyProperties",
+                                                List.of(LABEL_PROPERTY, URI.create(DC.Terms.DESCRIPTION),
+                                                        URI.create(RDF.TYPE), IMPORTS_PROPERTY, DESCRIBES_PROPERTY))
+                                  .setParameter("describes", DESCRIBES_PROPERTY)
+                                  .setParameter("basedOnVersion", URI.create(
+                                          cz.cvut.kbss.termit.util.Vocabulary.s_p_d_sgov_pracovni_prostor_pojem_vychazi_z_verze))
+                                  .setParameter("documentProperties",
+                                                List.of(LABEL_PROPERTY, URI.create(DC.Terms.DESCRIPTION)));
+            if (vocabularies != null) {
+                if (vocabularies.isEmpty()) {
+                    return Collections.emptyMap();
+                }
+                query.setParameter("vocabularies", vocabularies);
+            }
+            final Map<URI, VocabularyDto> result = new HashMap<>();
+            query.getResultStream().forEach(row -> {
+                final Object[] bindingSet = (Object[]) row;
+                final VocabularyDto dto = result.computeIfAbsent((URI) bindingSet[0], uri -> {
+                    final VocabularyDto v = new VocabularyDto();
+                    v.setUri(uri);
+                    return v;
+                });
+                final URI property = (URI) bindingSet[1];
+                if (bindingSet[3] != null) {
+                    addDocumentAttribute(documentOf(dto, (URI) bindingSet[3]), property, bindingSet[2]);
+                } else {
+                    addVocabularyAttribute(dto, property, bindingSet[2]);
+                }
+            });
+            return result;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private void addVocabularyAttribute(VocabularyDto dto, URI property, Object value) {
+        if (LABEL_PROPERTY.equals(property)) {
+            dto.setLabel(addTranslation(dto.getLabel(), value));
+        } else if (DC.Terms.DESCRIPTION.equals(property.toString())) {
+            dto.setDescription(addTranslation(dto.getDescription(), value));
+        } else if (IMPORTS_PROPERTY.equals(property)) {
+            if (dto.getImportedVocabularies() == null) {
+                dto.setImportedVocabularies(new HashSet<>());
+            }
+            dto.getImportedVocabularies().add((URI) value);
+        } else if (DESCRIBES_PROPERTY.equals(property)) {
+            documentOf(dto, (URI) value);
+        } else if (!typeUri.equals(value)) {
+            if (dto.getTypes() == null) {
+                dto.setTypes(new HashSet<>());
+            }
+            dto.getTypes().add(value.toString());
+        }
+    }
+
+    private static DocumentDto documentOf(VocabularyDto dto, URI documentUri) {
+        if (dto.getDocument() == null || !documentUri.equals(dto.getDocument().getUri())) {
+            final DocumentDto document = new DocumentDto();
+            document.setUri(documentUri);
+            dto.setDocument(document);
+        }
+        return dto.getDocument();
+    }
+
+    private static void addDocumentAttribute(DocumentDto document, URI property, Object value) {
+        final String str = value instanceof LangString ls ? ls.getValue() : value.toString();
+        if (LABEL_PROPERTY.equals(property)) {
+            document.setLabel(str);
+        } else {
+            document.setDescription(str);
+        }
+    }
+
+    private static MultilingualString addTranslation(@Nullable MultilingualString target, Object value) {
+        final MultilingualString result = target != null ? target : new MultilingualString();
+        if (value instanceof LangString ls) {
+            ls.getLanguage().ifPresentOrElse(lang -> result.set(lang, ls.getValue()), () -> result.set(ls.getValue()));
+        } else {
+            result.set(value.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Marks the listing entry of the specified vocabulary for reload on the next listing retrieval.
+     */
+    private void markListingEntryStale(URI vocabulary) {
+        staleListingEntries.add(vocabulary);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyCreated(VocabularyCreatedEvent event) {
+        markListingEntryStale(event.getVocabularyIri());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyRemoved(VocabularyWillBeRemovedEvent event) {
+        markListingEntryStale(event.getVocabularyIri());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyModified(VocabularyModifiedEvent event) {
+        markListingEntryStale(event.getVocabularyIri());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetPersisted(AssetPersistEvent event) {
+        if (event.getAsset() instanceof Vocabulary vocabulary) {
+            markListingEntryStale(vocabulary.getUri());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetUpdated(AssetUpdateEvent event) {
+        if (event.getAsset() instanceof Vocabulary vocabulary) {
+            markListingEntryStale(vocabulary.getUri());
+        } else if (event.getAsset() instanceof Document document) {
+            // Listing contains document label and description
+            listing.values().stream()
+                   .filter(v -> v.getDocument() != null && document.getUri().equals(v.getDocument().getUri()))
+                   .forEach(v -> markListingEntryStale(v.getUri()));
+        }
+    }
+
+    @EventListener(EvictCacheEvent.class)
+    public void evictListing() {
+        synchronized (listing) {
+            listingLoaded = false;
+            listing.clear();
+        }
+    }
+
     @Override
     public Optional<Vocabulary> find(URI id) {
         Objects.requireNonNull(id);
@@ -147,12 +377,18 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
 
     /**
      * Gets identifiers of all vocabularies imported by the specified vocabulary, including transitively imported ones.
+     * <p>
+     * The in-memory vocabulary topology is used if available.
      *
      * @param vocabularyIri Identifier of base vocabulary, whose imports should be retrieved
      * @return Collection of (transitively) imported vocabularies
      */
     public Collection<URI> getTransitivelyImportedVocabularies(URI vocabularyIri) {
         Objects.requireNonNull(vocabularyIri);
+        final VocabularyTopology topology = knownTopology(vocabularyIri);
+        if (topology != null) {
+            return new ArrayList<>(topology.getImportClosure(vocabularyIri));
+        }
         try {
             return em.createNativeQuery("SELECT DISTINCT ?imported WHERE {" +
                                                 "?x ?imports+ ?imported ." +
@@ -289,6 +525,23 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
         }
     }
 
+    /**
+     * Gets the in-memory vocabulary topology if it is available and contains the specified vocabulary.
+     * <p>
+     * The topology is not used in transactions which have modified vocabularies, as it reflects only committed data.
+     *
+     * @param vocabularyIri Vocabulary identifier
+     * @return Vocabulary topology, {@code null} if it cannot be used
+     */
+    private VocabularyTopology knownTopology(URI vocabularyIri) {
+        final VocabularyTopologyRegistry registry = topologyRegistry.getIfAvailable();
+        if (registry == null || registry.isModifiedInCurrentTransaction()) {
+            return null;
+        }
+        final VocabularyTopology topology = registry.getTopology();
+        return topology.contains(vocabularyIri) ? topology : null;
+    }
+
     /**
      * Updates glossary contained in the specified vocabulary.
      * <p>
@@ -316,6 +569,116 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
         return Optional.ofNullable(em.find(Glossary.class, uri));
     }
 
+    /**
+     * Finds a vocabulary with the specified identifier, loading only identifiers of the vocabulary, its glossary and
+     * model.
+     * <p>
+     * This is a projection for cases where the vocabulary is needed only as a reference for term management. Unlike
+     * {@link #find(URI)}, it does not load root terms of the glossary, which may be a large set.
+     * <p>
+     * The returned instance is not managed.
+     *
+     * @param id Vocabulary identifier
+     * @return Vocabulary projection, empty if no such vocabulary exists
+     */
+    public Optional<Vocabulary> findWithoutRootTerms(URI id) {
+        Objects.requireNonNull(id);
+        try {
+            final List<?> result = em.createNativeQuery("SELECT ?glossary ?model WHERE { GRAPH ?g {" +
+                                                                "?vocabulary ?hasGlossary ?glossary ." +
+                                                                "OPTIONAL { ?vocabulary ?hasModel ?model . }" +
+                                                                "}} LIMIT 1")
+                                     .setParameter("g", contextMapper.getVocabularyContext(id))
+                                     .setParameter("vocabulary", id)
+                                     .setParameter("hasGlossary",
+                                                   URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_glosar))
+                                     .setParameter("hasModel",
+                                                   URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_model))
+                                     .getResultList();
+            if (result.isEmpty()) {
+                return Optional.empty();
+            }
+            assert result.get(0) instanceof Object[];
+            final Object[] row = (Object[]) result.get(0);
+            final Vocabulary vocabulary = new Vocabulary(id);
+            final Glossary glossary = new Glossary();
+            glossary.setUri(URI.create(row[0].toString()));
+            vocabulary.setGlossary(glossary);
+            if (row[1] != null) {
+                final Model model = new Model();
+                model.setUri(URI.create(row[1].toString()));
+                vocabulary.setModel(model);
+            }
+            return Optional.of(vocabulary);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Adds the specified term to root terms of the glossary of the specified vocabulary.
+     * <p>
+     * Only the corresponding {@code skos:hasTopConcept} statement is inserted, the glossary and its root terms are not
+     * loaded.
+     *
+     * @param vocabulary Vocabulary whose glossary to update. Glossary identifier is sufficient
+     * @param term       Identifier of the new root term
+     * @see #findWithoutRootTerms(URI)
+     */
+    @ModifiesData
+    public void addRootTerm(Vocabulary vocabulary, URI term) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(term);
+        try {
+            em.createNativeQuery("INSERT { GRAPH ?g { ?glossary ?hasTopConcept ?term . } } WHERE {}")
+              .setParameter("g", contextMapper.getVocabularyContext(vocabulary))
+              .setParameter("glossary", vocabulary.getGlossary().getUri())
+              .setParameter("hasTopConcept", URI.create(SKOS.HAS_TOP_CONCEPT))
+              .setParameter("term", term).executeUpdate();
+            evictCachedGlossary(vocabulary);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Removes the specified term from root terms of the glossary of the specified vocabulary, if it is present.
+     * <p>
+     * Only the corresponding {@code skos:hasTopConcept} statement is removed, the glossary and its root terms are not
+     * loaded.
+     *
+     * @param vocabulary Vocabulary whose glossary to update. Glossary identifier is sufficient
+     * @param term       Identifier of the term to remove from root terms
+     * @see #findWithoutRootTerms(URI)
+     */
+    @ModifiesData
+    public void removeRootTerm(Vocabulary vocabulary, URI term) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(term);
+        try {
+            em.createNativeQuery("DELETE WHERE { GRAPH ?g { ?glossary ?hasTopConcept ?term . } }")
+              .setParameter("g", contextMapper.getVocabularyContext(vocabulary))
+              .setParameter("glossary", vocabulary.getGlossary().getUri())
+              .setParameter("hasTopConcept", URI.create(SKOS.HAS_TOP_CONCEPT))
+              .setParameter("term", term).executeUpdate();
+            evictCachedGlossary(vocabulary);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Evicts the vocabulary and its glossary from the second level cache, as their root terms were modified directly
+     * in the repository.
+     */
+    private void evictCachedGlossary(Vocabulary vocabulary) {
+        final URI context = contextMapper.getVocabularyContext(vocabulary);
+        em.getEntityManagerFactory().getCache().evict(Vocabulary.class, vocabulary.getUri(), context);
+        em.getEntityManagerFactory().getCache().evict(Vocabulary.class, vocabulary.getUri(), null);
+        em.getEntityManagerFactory().getCache().evict(Glossary.class, vocabulary.getGlossary().getUri(), context);
+        em.getEntityManagerFactory().getCache().evict(Glossary.class, vocabulary.getGlossary().getUri(), null);
+    }
+
     /**
      * Checks whether terms from the {@code subjectVocabulary} reference (as parent terms) any terms from the {@code
      * targetVocabulary}.
@@ -494,6 +857,8 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
      * This mapping is cascaded until no more related vocabulary are found.
      * <p>
      * Note that the result contains also the identifier of the specified vocabulary.
+     * <p>
+     * The in-memory vocabulary topology is used if available.
      *
      * @param rootVocabulary    Identifier of the vocabulary to start from
      * @param termRelationships Inter-term relationships to be taken into account
@@ -502,6 +867,10 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
     public Set<URI> getRelatedVocabularies(Vocabulary rootVocabulary, Collection<URI> termRelationships) {
         Objects.requireNonNull(rootVocabulary);
         Objects.requireNonNull(termRelationships);
+        final VocabularyTopology topology = knownTopology(rootVocabulary.getUri());
+        if (topology != null) {
+            return topology.getRelatedVocabularies(rootVocabulary.getUri(), termRelationships);
+        }
 
         final List<URI> result = new ArrayList<>();
         result.add(rootVocabulary.getUri());
@@ -546,6 +915,10 @@ public class VocabularyDao extends BaseAssetDao<Vocabulary>
      */
     public PrefixDeclaration resolvePrefix(URI vocabularyUri) {
         Objects.requireNonNull(vocabularyUri);
+        final VocabularyTopology topology = knownTopology(vocabularyUri);
+        if (topology != null) {
+            return topology.getPrefix(vocabularyUri);
+        }
         try {
             final List<?> result = em.createNativeQuery("SELECT ?prefix ?namespace WHERE { " +
                                                                 "?vocabulary ?hasPrefix ?prefix ; " +
@@ -22,9 +22,15 @@ import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
 import cz.cvut.kbss.termit.model.AccessControlAgent;
 import cz.cvut.kbss.termit.model.Asset;
+import cz.cvut.kbss.termit.model.User;
+import cz.cvut.kbss.termit.model.UserGroup;
+import cz.cvut.kbss.termit.model.UserRole;
 import cz.cvut.kbss.termit.model.acl.AccessControlList;
 import cz.cvut.kbss.termit.model.acl.AccessControlRecord;
 import cz.cvut.kbss.termit.model.acl.AccessLevel;
+import cz.cvut.kbss.termit.model.acl.RoleAccessControlRecord;
+import cz.cvut.kbss.termit.model.acl.UserAccessControlRecord;
+import cz.cvut.kbss.termit.model.acl.UserGroupAccessControlRecord;
 import cz.cvut.kbss.termit.model.util.HasIdentifier;
 import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
 import cz.cvut.kbss.termit.util.Utils;
@@ -33,9 +39,15 @@ import jakarta.annotation.Nonnull;
 import org.springframework.stereotype.Repository;
 
 import java.net.URI;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Repository
 public class AccessControlListDao {
@@ -94,6 +106,97 @@ public class AccessControlListDao {
         }
     }
 
+    /**
+     * Finds {@link AccessControlList}s guarding access to the specified subjects.
+     * <p>
+     * The lists and their records are loaded using a single query. Record holders are loaded once each, regardless of
+     * the number of records referencing them, members of user groups are loaded together with the groups.
+     * <p>
+     * Note that the returned lists are not managed.
+     *
+     * @param subjects Identifiers of ACL subjects
+     * @return Map of subject identifiers to their ACLs, subjects without an ACL are not contained in the map
+     */
+    public Map<URI, AccessControlList> findAllFor(@Nonnull Collection<URI> subjects) {
+        Objects.requireNonNull(subjects);
+        if (subjects.isEmpty()) {
+            return new HashMap<>();
+        }
+        final String values = subjects.stream().map(Utils::uriToString).collect(Collectors.joining(" "));
+        final List<?> rows = em.createNativeQuery(
+                                       "SELECT ?subject ?acl ?record ?recordType ?accessLevel ?holder WHERE { " +
+                                               "VALUES ?subject { " + values + " } " +
+                                               "?subject ?hasAcl ?acl . " +
+                                               "OPTIONAL { " +
+                                               "?acl ?hasRecord ?record . " +
+                                               "?record a ?recordType ; " +
+                                               "?hasAccessLevel ?accessLevel ; " +
+                                               "?hasHolder ?holder . " +
+                                               "FILTER (?recordType IN (?userRecord, ?userGroupRecord, ?roleRecord)) " +
+                                               "} }")
+                               .setParameter("hasAcl", URI.create(Vocabulary.s_p_ma_seznam_rizeni_pristupu))
+                               .setParameter("hasRecord", URI.create(Vocabulary.s_p_ma_zaznam_rizeni_pristupu))
+                               .setParameter("hasAccessLevel",
+                                             URI.create(Vocabulary.s_p_ma_uroven_pristupovych_opravneni))
+                               .setParameter("hasHolder", URI.create(Vocabulary.s_p_ma_drzitele_pristupovych_opravneni))
+                               .setParameter("userRecord", URI.create(Vocabulary.s_c_zaznam_rizeni_pristupu_uzivatele))
+                               .setParameter("userGroupRecord",
+                                             URI.create(Vocabulary.s_c_zaznam_rizeni_pristupu_uzivatelske_skupiny))
+                               .setParameter("roleRecord",
+                                             URI.create(Vocabulary.s_c_zaznam_rizeni_pristupu_uzivatelske_role))
+                               .getResultList();
+        final Map<URI, AccessControlList> acls = new HashMap<>();
+        final Map<URI, AccessControlAgent> holders = new HashMap<>();
+        final Map<URI, AccessControlList> result = new HashMap<>();
+        for (Object row : rows) {
+            assert row instanceof Object[];
+            final Object[] bindingSet = (Object[]) row;
+            final AccessControlList acl = acls.computeIfAbsent((URI) bindingSet[1], id -> {
+                final AccessControlList instance = new AccessControlList();
+                instance.setUri(id);
+                instance.setRecords(new HashSet<>());
+                return instance;
+            });
+            result.put((URI) bindingSet[0], acl);
+            if (bindingSet[2] != null) {
+                createRecord((URI) bindingSet[3], (URI) bindingSet[4], (URI) bindingSet[5], holders).ifPresent(r -> {
+                    r.setUri((URI) bindingSet[2]);
+                    acl.addRecord(r);
+                });
+            }
+        }
+        return result;
+    }
+
+    private Optional<AccessControlRecord<?>> createRecord(URI type, URI accessLevelIri, URI holderId,
+                                                          Map<URI, AccessControlAgent> holders) {
+        final Optional<AccessLevel> accessLevel = Arrays.stream(AccessLevel.values())
+                                                        .filter(l -> l.getIri().equals(accessLevelIri.toString()))
+                                                        .findAny();
+        if (accessLevel.isEmpty()) {
+            return Optional.empty();
+        }
+        final AccessControlRecord<?> record = switch (type.toString()) {
+            case Vocabulary.s_c_zaznam_rizeni_pristupu_uzivatele ->
+                    loadHolder(holderId, User.class, holders).map(
+                            h -> new UserAccessControlRecord(accessLevel.get(), h)).orElse(null);
+            case Vocabulary.s_c_zaznam_rizeni_pristupu_uzivatelske_skupiny ->
+                    loadHolder(holderId, UserGroup.class, holders).map(
+                            h -> new UserGroupAccessControlRecord(accessLevel.get(), h)).orElse(null);
+            case Vocabulary.s_c_zaznam_rizeni_pristupu_uzivatelske_role ->
+                    loadHolder(holderId, UserRole.class, holders).map(
+                            h -> new RoleAccessControlRecord(accessLevel.get(), h)).orElse(null);
+            default -> null;
+        };
+        return Optional.ofNullable(record);
+    }
+
+    private <T extends AccessControlAgent> Optional<T> loadHolder(URI id, Class<T> type,
+                                                                  Map<URI, AccessControlAgent> holders) {
+        final AccessControlAgent holder = holders.computeIfAbsent(id, k -> em.find(type, k));
+        return type.isInstance(holder) ? Optional.of(type.cast(holder)) : Optional.empty();
+    }
+
     /**
      * Persists the specified {@link AccessControlList}.
      *
@@ -29,8 +29,11 @@ import cz.cvut.kbss.termit.util.Vocabulary;
 import org.springframework.stereotype.Repository;
 
 import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -116,4 +119,73 @@ public class ChangeRecordDao {
             throw new PersistenceException(e);
         }
     }
+
+    /**
+     * Gets authors of all the specified assets.
+     * <p>
+     * This is a bulk version of {@link #getAuthors(HasIdentifier)} which resolves the authors using a single query.
+     *
+     * @param assets Identifiers of assets whose authors to get
+     * @return A set (possibly empty) of users who authored at least one of the specified assets
+     */
+    public Set<User> getAuthors(Collection<URI> assets) {
+        Objects.requireNonNull(assets);
+        if (assets.isEmpty()) {
+            return new HashSet<>();
+        }
+        try {
+            return new HashSet<>(em.createNativeQuery("SELECT DISTINCT ?author WHERE {" +
+                                           "?x a ?persistRecord ;" +
+                                           "?hasChangedEntity ?asset ;" +
+                                           "?hasAuthor ?author ." +
+                                           "FILTER (?asset IN (?assets)) }", User.class)
+                                   .setParameter("persistRecord", URI.create(Vocabulary.s_c_vytvoreni_entity))
+                                   .setParameter("hasChangedEntity", URI.create(Vocabulary.s_p_ma_zmenenou_entitu))
+                                   .setParameter("assets", assets)
+                                   .setParameter("hasAuthor", URI.create(Vocabulary.s_p_ma_editora))
+                                   .getResultList());
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Gets authors of each of the specified assets.
+     * <p>
+     * Authors of all the assets are resolved using a single query, each author is loaded only once.
+     *
+     * @param assets Identifiers of assets whose authors to get
+     * @return Map of asset identifiers to their authors, assets without recorded authors are not contained in the map
+     */
+    public Map<URI, Set<User>> getAuthorsByAsset(Collection<URI> assets) {
+        Objects.requireNonNull(assets);
+        if (assets.isEmpty()) {
+            return new HashMap<>();
+        }
+        try {
+            final List<?> rows = em.createNativeQuery("SELECT DISTINCT ?asset ?author WHERE {" +
+                                                              "?x a ?persistRecord ;" +
+                                                              "?hasChangedEntity ?asset ;" +
+                                                              "?hasAuthor ?author ." +
+                                                              "FILTER (?asset IN (?assets)) }")
+                                   .setParameter("persistRecord", URI.create(Vocabulary.s_c_vytvoreni_entity))
+                                   .setParameter("hasChangedEntity", URI.create(Vocabulary.s_p_ma_zmenenou_entitu))
+                                   .setParameter("assets", assets)
+                                   .setParameter("hasAuthor", URI.create(Vocabulary.s_p_ma_editora))
+                                   .getResultList();
+            final Map<URI, User> authors = new HashMap<>();
+            final Map<URI, Set<User>> result = new HashMap<>();
+            for (Object row : rows) {
+                assert row instanceof Object[];
+                final Object[] bindingSet = (Object[]) row;
+                final User author = authors.computeIfAbsent((URI) bindingSet[1], id -> em.find(User.class, id));
+                if (author != null) {
+                    result.computeIfAbsent((URI) bindingSet[0], k -> new HashSet<>()).add(author);
+                }
+            }
+            return result;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
 }
@@ -0,0 +1,117 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.lucene;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.dto.search.FullTextSearchResult;
+import cz.cvut.kbss.termit.persistence.dao.SearchDao;
+import cz.cvut.kbss.termit.util.Configuration;
+import jakarta.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link SearchDao} extension using the {@link EmbeddedSearchIndex} maintained by TermIt.
+ * <p>
+ * Suitable for repositories without a text index of their own. Results are ranked by relevance and contain snippets
+ * with highlighted matches. Until the index is built, the default query-based search is used.
+ */
+@Repository
+@Profile("embedded-lucene")
+public class EmbeddedLuceneSearchDao extends SearchDao {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedLuceneSearchDao.class);
+
+    private final EmbeddedSearchIndex index;
+
+    private final String language;
+
+    private final int maxResults;
+
+    public EmbeddedLuceneSearchDao(EntityManager em, Configuration config, EmbeddedSearchIndex index) {
+        super(em, config);
+        this.index = index;
+        this.language = config.getPersistence().getLanguage();
+        this.maxResults = config.getSearch().getMaxResults();
+    }
+
+    @Override
+    public List<FullTextSearchResult> fullTextSearch(@Nonnull String searchString) {
+        Objects.requireNonNull(searchString);
+        if (searchString.isBlank()) {
+            return Collections.emptyList();
+        }
+        if (!index.isReady()) {
+            LOG.debug("Full-text index not ready yet, falling back to query-based search.");
+            return super.fullTextSearch(searchString);
+        }
+        LOG.trace("Running full text search for search string \"{}\" in embedded index.", searchString);
+        return index.search(searchString, language, false, 0, maxResults);
+    }
+
+    @Override
+    public List<FullTextSearchResult> fullTextSearchIncludingSnapshots(@Nonnull String searchString) {
+        Objects.requireNonNull(searchString);
+        if (searchString.isBlank()) {
+            return Collections.emptyList();
+        }
+        if (!index.isReady()) {
+            LOG.debug("Full-text index not ready yet, falling back to query-based search.");
+            return super.fullTextSearchIncludingSnapshots(searchString);
+        }
+        LOG.trace("Running full text search (including snapshots) for search string \"{}\" in embedded index.",
+                  searchString);
+        return index.search(searchString, language, true, 0, maxResults);
+    }
+
+    @Override
+    public Page<FullTextSearchResult> fullTextSearchOfTerms(@Nonnull String searchString,
+                                                            @Nonnull Collection<URI> vocabularies,
+                                                            @Nonnull Pageable pageSpec) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(vocabularies);
+        Objects.requireNonNull(pageSpec);
+        if (!index.isReady()) {
+            LOG.debug("Full-text index not ready yet, falling back to query-based search.");
+            return super.fullTextSearchOfTerms(searchString, vocabularies, pageSpec);
+        }
+        LOG.trace("Running full text search for search string \"{}\" in vocabularies {} in embedded index.",
+                  searchString, vocabularies);
+        // Unpaged search is capped by the maximum number of results, larger pages are shrunk to it
+        final Pageable page;
+        if (pageSpec.isUnpaged()) {
+            page = PageRequest.of(0, maxResults);
+        } else if (pageSpec.getPageSize() > maxResults) {
+            page = PageRequest.of(pageSpec.getPageNumber(), maxResults, pageSpec.getSort());
+        } else {
+            page = pageSpec;
+        }
+        return index.searchTerms(searchString, language, vocabularies, page);
+    }
+}
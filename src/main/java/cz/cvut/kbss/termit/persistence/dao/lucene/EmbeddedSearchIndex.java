@@ -0,0 +1,744 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.lucene;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.vocabulary.DC;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.ontodriver.model.LangString;
+import cz.cvut.kbss.termit.dto.search.FullTextSearchResult;
+import cz.cvut.kbss.termit.event.AssetPersistEvent;
+import cz.cvut.kbss.termit.event.AssetUpdateEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyCreatedEvent;
+import cz.cvut.kbss.termit.event.VocabularyModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyWillBeRemovedEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.exception.TermItException;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.util.Configuration;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleFragmenter;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static cz.cvut.kbss.termit.util.Utils.uriToString;
+
+/**
+ * Full-text index of terms and vocabularies maintained by TermIt itself using an embedded Lucene instance.
+ * <p>
+ * This allows ranked full-text search with snippets in repositories without a text index of their own (e.g., native
+ * or in-memory RDF4J stores). The index contains preferred, alternative and hidden labels and definitions of terms and
+ * titles of vocabularies, each language in a separate field.
+ * <p>
+ * The index is rebuilt from the repository in the background on startup and when application caches are evicted. In
+ * the meantime, it is updated incrementally after transactions persisting, updating or removing terms and
+ * vocabularies commit. Updates made while a rebuild is running are replayed once the rebuild finishes, so that they
+ * are not overwritten by data loaded before the update.
+ */
+@Component
+@Profile("embedded-lucene")
+public class EmbeddedSearchIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedSearchIndex.class);
+
+    static final String URI_FIELD = "uri";
+    static final String TYPE_FIELD = "type";
+    static final String VOCABULARY_FIELD = "vocabulary";
+    static final String STATE_FIELD = "state";
+    static final String SNAPSHOT_FIELD = "snapshot";
+    static final String LANGUAGE_FIELD = "language";
+    static final String EXACT_LABEL_FIELD = "exactLabel";
+
+    /**
+     * Language key of values without a language tag. These are searched regardless of the requested language.
+     */
+    private static final String NO_LANGUAGE = "";
+
+    private static final float EXACT_MATCH_BOOST = 4f;
+
+    private static final int SNIPPET_SIZE = 250;
+
+    private static final String ASSET_QUERY = "SELECT ?entity ?type ?property ?value ?vocabulary ?state " +
+            "?snapshotType WHERE { " +
+            "{ %1$s" +
+            "?entity a ?term ; " +
+            "?inVocabulary ?vocabulary ; " +
+            "?property ?value . " +
+            "FILTER (?property IN (?prefLabel, ?altLabel, ?hiddenLabel, ?definition)) " +
+            "OPTIONAL { ?entity ?hasState ?state . } " +
+            "BIND (?term AS ?type) " +
+            "} UNION { %2$s" +
+            "?entity a ?vocabularyType ; " +
+            "?title ?value . " +
+            "BIND (?title AS ?property) " +
+            "BIND (?vocabularyType AS ?type) " +
+            "BIND (?entity AS ?vocabulary) " +
+            "} " +
+            "OPTIONAL { ?entity a ?snapshotType . FILTER (?snapshotType = ?snapshot) } " +
+            "}";
+
+    private static final String VOCABULARY_TERMS_QUERY = "SELECT DISTINCT ?entity WHERE { " +
+            "?entity a ?term ; " +
+            "?inVocabulary ?vocabulary . }";
+
+    /**
+     * Indexed text fields, their names in search results (snippet fields) and their boosts.
+     * <p>
+     * The order determines from which field the snippet of a result is taken.
+     */
+    enum IndexedField {
+        LABEL("label", 3f), ALT_LABEL("altLabel", 2f), HIDDEN_LABEL("hiddenLabel", 1.5f), DEFINITION("definition", 1f);
+
+        private final String name;
+
+        private final float boost;
+
+        IndexedField(String name, float boost) {
+            this.name = name;
+            this.boost = boost;
+        }
+
+        String fieldName(String language) {
+            return name + "@" + language;
+        }
+
+        private static IndexedField forProperty(URI property) {
+            return switch (property.toString()) {
+                case SKOS.ALT_LABEL -> ALT_LABEL;
+                case SKOS.HIDDEN_LABEL -> HIDDEN_LABEL;
+                case SKOS.DEFINITION -> DEFINITION;
+                default -> LABEL;
+            };
+        }
+    }
+
+    private final EntityManager em;
+
+    private final Directory directory;
+
+    private final Analyzer analyzer = new FoldingAnalyzer();
+
+    private final IndexWriter writer;
+
+    private final SearcherManager searcherManager;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    /**
+     * Updates received during a rebuild, guarded by itself.
+     */
+    private final List<Runnable> pendingUpdates = new ArrayList<>();
+
+    private volatile boolean ready;
+
+    @Autowired
+    public EmbeddedSearchIndex(EntityManager em, Configuration config) throws IOException {
+        this(em, openDirectory(config.getSearch()));
+    }
+
+    EmbeddedSearchIndex(EntityManager em, Directory directory) throws IOException {
+        this.em = em;
+        this.directory = directory;
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(
+                IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+        // A persistent index from the previous run can be searched while it is being rebuilt
+        this.ready = writer.getDocStats().numDocs > 0;
+    }
+
+    private static Directory openDirectory(Configuration.Search config) throws IOException {
+        if (config.getIndexDirectory() == null || config.getIndexDirectory().isBlank()) {
+            return new ByteBuffersDirectory();
+        }
+        LOG.info("Using full-text index stored in {}.", config.getIndexDirectory());
+        return FSDirectory.open(Path.of(config.getIndexDirectory()));
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Whether the index contains data and can be used for search.
+     *
+     * @return {@code true} if the index can be searched, {@code false} if it has not been built yet
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Rebuilds the whole index from the repository.
+     * <p>
+     * Does nothing if a rebuild is already running.
+     */
+    @Async
+    @EventListener(EvictCacheEvent.class)
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            LOG.debug("Full-text index rebuild already running.");
+            return;
+        }
+        try {
+            LOG.info("Rebuilding full-text index.");
+            final long start = System.currentTimeMillis();
+            final Collection<IndexedAsset> assets = load(null, null);
+            writer.deleteAll();
+            for (IndexedAsset asset : assets) {
+                writer.addDocument(asset.toDocument(analyzer));
+            }
+            commit();
+            this.ready = true;
+            LOG.info("Full-text index of {} assets rebuilt in {} ms.", assets.size(),
+                     System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Unable to rebuild full-text index.", e);
+        } finally {
+            final List<Runnable> updates;
+            synchronized (pendingUpdates) {
+                updates = new ArrayList<>(pendingUpdates);
+                pendingUpdates.clear();
+                rebuilding.set(false);
+            }
+            updates.forEach(Runnable::run);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetPersisted(AssetPersistEvent event) {
+        if (event.getAsset() instanceof cz.cvut.kbss.termit.model.Term || event.getAsset() instanceof Vocabulary) {
+            update(() -> reindex(event.getAsset().getUri()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetUpdated(AssetUpdateEvent event) {
+        if (event.getAsset() instanceof cz.cvut.kbss.termit.model.Term || event.getAsset() instanceof Vocabulary) {
+            update(() -> reindex(event.getAsset().getUri()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyCreated(VocabularyCreatedEvent event) {
+        update(() -> reindexVocabulary(event.getVocabularyIri()));
+    }
+
+    /**
+     * Local term changes are reindexed on asset events, so only removed terms need to be handled here. Changes made by
+     * other TermIt instances carry no information about the affected terms, so the whole vocabulary is reindexed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyContentModified(VocabularyContentModifiedEvent event) {
+        if (event.isRemote()) {
+            update(() -> reindexVocabulary(event.getVocabularyIri()));
+        } else {
+            update(() -> removeStaleTerms(event.getVocabularyIri()));
+        }
+    }
+
+    /**
+     * Handles vocabularies modified or removed by other TermIt instances.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyModified(VocabularyModifiedEvent event) {
+        update(() -> reindexVocabulary(event.getVocabularyIri()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyRemoved(VocabularyWillBeRemovedEvent event) {
+        update(() -> removeVocabulary(event.getVocabularyIri()));
+    }
+
+    /**
+     * Applies the specified index update, or postpones it until the running rebuild finishes.
+     * <p>
+     * Updates applied during a rebuild would be lost, as the rebuild replaces the whole index with data loaded before.
+     */
+    private void update(Runnable update) {
+        synchronized (pendingUpdates) {
+            if (rebuilding.get()) {
+                pendingUpdates.add(update);
+                return;
+            }
+        }
+        update.run();
+    }
+
+    /**
+     * Reindexes the specified asset, removing it from the index if it no longer exists.
+     *
+     * @param uri Term or vocabulary identifier
+     */
+    void reindex(URI uri) {
+        LOG.trace("Reindexing asset {}.", uriToString(uri));
+        try {
+            final Collection<IndexedAsset> asset = load(uri, null);
+            if (asset.isEmpty()) {
+                writer.deleteDocuments(new Term(URI_FIELD, uri.toString()));
+            }
+            for (IndexedAsset a : asset) {
+                writer.updateDocument(new Term(URI_FIELD, a.uri.toString()), a.toDocument(analyzer));
+            }
+            commit();
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Unable to update full-text index of asset {}.", uriToString(uri), e);
+        }
+    }
+
+    /**
+     * Reindexes the specified vocabulary and all its terms.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    void reindexVocabulary(URI vocabulary) {
+        LOG.trace("Reindexing vocabulary {}.", uriToString(vocabulary));
+        try {
+            final Collection<IndexedAsset> assets = load(null, vocabulary);
+            writer.deleteDocuments(new Term(VOCABULARY_FIELD, vocabulary.toString()));
+            for (IndexedAsset a : assets) {
+                writer.addDocument(a.toDocument(analyzer));
+            }
+            commit();
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Unable to update full-text index of vocabulary {}.", uriToString(vocabulary), e);
+        }
+    }
+
+    /**
+     * Removes terms which are no longer in the specified vocabulary from the index.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    void removeStaleTerms(URI vocabulary) {
+        try {
+            final Set<String> existing = new HashSet<>();
+            em.createNativeQuery(VOCABULARY_TERMS_QUERY, URI.class)
+              .setParameter("term", URI.create(SKOS.CONCEPT))
+              .setParameter("inVocabulary",
+                            URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
+              .setParameter("vocabulary", vocabulary)
+              .getResultList().forEach(u -> existing.add(u.toString()));
+            final List<String> stale = findIndexed(vocabulary).stream()
+                                                              .filter(u -> !u.equals(vocabulary.toString()) &&
+                                                                      !existing.contains(u)).toList();
+            if (stale.isEmpty()) {
+                return;
+            }
+            LOG.trace("Removing terms {} from full-text index.", stale);
+            writer.deleteDocuments(stale.stream().map(u -> new Term(URI_FIELD, u)).toArray(Term[]::new));
+            commit();
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Unable to remove stale terms of vocabulary {} from full-text index.",
+                      uriToString(vocabulary), e);
+        }
+    }
+
+    private List<String> findIndexed(URI vocabulary) throws IOException {
+        final IndexSearcher searcher = searcherManager.acquire();
+        try {
+            final Query query = new TermQuery(new Term(VOCABULARY_FIELD, vocabulary.toString()));
+            final TopDocs docs = searcher.search(query, Math.max(1, searcher.count(query)));
+            final StoredFields storedFields = searcher.storedFields();
+            final List<String> result = new ArrayList<>(docs.scoreDocs.length);
+            for (ScoreDoc sd : docs.scoreDocs) {
+                result.add(storedFields.document(sd.doc).get(URI_FIELD));
+            }
+            return result;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    /**
+     * Removes the specified vocabulary and all its terms from the index.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    void removeVocabulary(URI vocabulary) {
+        LOG.trace("Removing vocabulary {} from full-text index.", uriToString(vocabulary));
+        try {
+            writer.deleteDocuments(new Term(VOCABULARY_FIELD, vocabulary.toString()));
+            commit();
+        } catch (IOException e) {
+            LOG.error("Unable to remove vocabulary {} from full-text index.", uriToString(vocabulary), e);
+        }
+    }
+
+    private void commit() throws IOException {
+        writer.commit();
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    /**
+     * Loads data of assets to index from the repository.
+     *
+     * @param asset      Identifier of the asset to load, {@code null} to load all assets
+     * @param vocabulary Identifier of the vocabulary whose terms (and itself) to load, {@code null} to load all assets
+     * @return Assets to index
+     */
+    private Collection<IndexedAsset> load(URI asset, URI vocabulary) {
+        final String restriction;
+        if (asset != null) {
+            restriction = "VALUES ?entity { " + uriToString(asset) + " } ";
+        } else if (vocabulary != null) {
+            restriction = "VALUES ?vocabulary { " + uriToString(vocabulary) + " } ";
+        } else {
+            restriction = "";
+        }
+        final String vocabularyRestriction = vocabulary != null ?
+                                             "VALUES ?entity { " + uriToString(vocabulary) + " } " : restriction;
+        final Map<URI, IndexedAsset> assets = new LinkedHashMap<>();
+        try {
+            em.createNativeQuery(String.format(ASSET_QUERY, restriction, vocabularyRestriction))
+              .setParameter("term", URI.create(SKOS.CONCEPT))
+              .setParameter("inVocabulary", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
+              .setParameter("prefLabel", URI.create(SKOS.PREF_LABEL))
+              .setParameter("altLabel", URI.create(SKOS.ALT_LABEL))
+              .setParameter("hiddenLabel", URI.create(SKOS.HIDDEN_LABEL))
+              .setParameter("definition", URI.create(SKOS.DEFINITION))
+              .setParameter("hasState", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_stav_pojmu))
+              .setParameter("vocabularyType", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_slovnik))
+              .setParameter("title", URI.create(DC.Terms.TITLE))
+              .setParameter("snapshot", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_objektu))
+              .getResultStream().forEach(row -> {
+                  final Object[] bindingSet = (Object[]) row;
+                  final IndexedAsset a = assets.computeIfAbsent((URI) bindingSet[0], IndexedAsset::new);
+                  a.type = bindingSet[1].toString();
+                  a.vocabulary = (URI) bindingSet[4];
+                  if (bindingSet[5] != null) {
+                      a.state = (URI) bindingSet[5];
+                  }
+                  a.snapshot = bindingSet[6] != null;
+                  a.addValue(IndexedField.forProperty((URI) bindingSet[2]), bindingSet[3]);
+              });
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+        return assets.values();
+    }
+
+    /**
+     * Searches the index.
+     * <p>
+     * All tokens of the search string have to match, the last one is matched also as a prefix, so that results for
+     * incomplete words are returned as well. Only assets with a label in the specified language are returned. Results
+     * are ordered by relevance, label matches weigh more than definition matches and exact label matches are ranked
+     * first.
+     *
+     * @param searchString     String to search by
+     * @param language         Language in which to search
+     * @param includeSnapshots Whether to include asset snapshots in the results
+     * @param offset           Index of the first result to return
+     * @param limit            Maximum number of results to return
+     * @return Matching assets, with snippets highlighting the matches
+     */
+    public List<FullTextSearchResult> search(@Nonnull String searchString, @Nonnull String language,
+                                             boolean includeSnapshots, int offset, int limit) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(language);
+        final List<String> tokens = analyze(searchString);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        final BooleanQuery.Builder query = buildQuery(searchString, tokens, language);
+        if (!includeSnapshots) {
+            query.add(new TermQuery(new Term(SNAPSHOT_FIELD, Boolean.TRUE.toString())), BooleanClause.Occur.MUST_NOT);
+        }
+        return execute(query.build(), language, offset, limit).results();
+    }
+
+    /**
+     * Searches the index for terms from the specified vocabularies.
+     * <p>
+     * Matching works the same way as in {@link #search(String, String, boolean, int, int)}, snapshots are included if
+     * they are among the specified vocabularies.
+     * <p>
+     * The total number of results is exact for smaller result sets, for large result sets it is a lower bound estimate
+     * (see {@link TopDocs#totalHits}).
+     *
+     * @param searchString String to search by
+     * @param language     Language in which to search
+     * @param vocabularies Identifiers of vocabularies to search in
+     * @param pageSpec     Specification of the page to return, must be paged. Its offset need not be a multiple of
+     *                     its page size
+     * @return Page of matching terms with an (estimated) total number of results
+     */
+    public Page<FullTextSearchResult> searchTerms(@Nonnull String searchString, @Nonnull String language,
+                                                  @Nonnull Collection<URI> vocabularies, @Nonnull Pageable pageSpec) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(language);
+        Objects.requireNonNull(vocabularies);
+        if (pageSpec.isUnpaged()) {
+            throw new IllegalArgumentException("Full-text index search requires a paged request.");
+        }
+        final List<String> tokens = analyze(searchString);
+        if (tokens.isEmpty() || vocabularies.isEmpty()) {
+            return Page.empty(pageSpec);
+        }
+        final BooleanQuery.Builder query = buildQuery(searchString, tokens, language);
+        query.add(new TermQuery(new Term(TYPE_FIELD, SKOS.CONCEPT)), BooleanClause.Occur.FILTER);
+        final BooleanQuery.Builder vocabularyQuery = new BooleanQuery.Builder();
+        vocabularies.forEach(v -> vocabularyQuery.add(new TermQuery(new Term(VOCABULARY_FIELD, v.toString())),
+                                                      BooleanClause.Occur.SHOULD));
+        query.add(vocabularyQuery.build(), BooleanClause.Occur.FILTER);
+        final Hits hits = execute(query.build(), language, Math.toIntExact(pageSpec.getOffset()),
+                                  pageSpec.getPageSize());
+        return new PageImpl<>(hits.results(), pageSpec, hits.total());
+    }
+
+    private record Hits(List<FullTextSearchResult> results, long total) {
+    }
+
+    private Hits execute(Query query, String language, int offset, int limit) {
+        try {
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                final TopDocs docs = searcher.search(query, offset + limit);
+                final StoredFields storedFields = searcher.storedFields();
+                final List<FullTextSearchResult> result = new ArrayList<>(
+                        Math.max(0, Math.min(limit, docs.scoreDocs.length - offset)));
+                for (int i = offset; i < docs.scoreDocs.length; i++) {
+                    final ScoreDoc sd = docs.scoreDocs[i];
+                    result.add(toResult(storedFields.document(sd.doc), sd.score, query, language));
+                }
+                return new Hits(result, docs.totalHits.value);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new TermItException("Unable to search full-text index.", e);
+        }
+    }
+
+    private List<String> analyze(String text) {
+        final List<String> tokens = new ArrayList<>();
+        try (final TokenStream ts = analyzer.tokenStream(IndexedField.LABEL.name, text)) {
+            final CharTermAttribute termAttribute = ts.addAttribute(CharTermAttribute.class);
+            ts.reset();
+            while (ts.incrementToken()) {
+                tokens.add(termAttribute.toString());
+            }
+            ts.end();
+        } catch (IOException e) {
+            throw new TermItException("Unable to analyze search string.", e);
+        }
+        return tokens;
+    }
+
+    private BooleanQuery.Builder buildQuery(String searchString, List<String> tokens, String language) {
+        final BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (int i = 0; i < tokens.size(); i++) {
+            final boolean last = i == tokens.size() - 1;
+            final BooleanQuery.Builder tokenQuery = new BooleanQuery.Builder();
+            for (String lang : List.of(language, NO_LANGUAGE)) {
+                for (IndexedField field : IndexedField.values()) {
+                    final Term term = new Term(field.fieldName(lang), tokens.get(i));
+                    tokenQuery.add(new BoostQuery(new TermQuery(term), field.boost), BooleanClause.Occur.SHOULD);
+                    if (last) {
+                        tokenQuery.add(new BoostQuery(new PrefixQuery(term), field.boost / 2),
+                                       BooleanClause.Occur.SHOULD);
+                    }
+                }
+            }
+            query.add(tokenQuery.build(), BooleanClause.Occur.MUST);
+        }
+        final Term exactLabel = new Term(EXACT_LABEL_FIELD + "@" + language,
+                                         analyzer.normalize(EXACT_LABEL_FIELD, searchString.trim()));
+        query.add(new BoostQuery(new TermQuery(exactLabel), EXACT_MATCH_BOOST), BooleanClause.Occur.SHOULD);
+        final BooleanQuery.Builder languageQuery = new BooleanQuery.Builder();
+        languageQuery.add(new TermQuery(new Term(LANGUAGE_FIELD, language)), BooleanClause.Occur.SHOULD);
+        languageQuery.add(new TermQuery(new Term(LANGUAGE_FIELD, NO_LANGUAGE)), BooleanClause.Occur.SHOULD);
+        query.add(languageQuery.build(), BooleanClause.Occur.FILTER);
+        return query;
+    }
+
+    private FullTextSearchResult toResult(Document doc, float score, Query query, String language) throws IOException {
+        String label = doc.get(IndexedField.LABEL.fieldName(language));
+        if (label == null) {
+            label = doc.get(IndexedField.LABEL.fieldName(NO_LANGUAGE));
+        }
+        final FullTextSearchResult result = new FullTextSearchResult(URI.create(doc.get(URI_FIELD)), label,
+                                                                     null, null, doc.get(TYPE_FIELD),
+                                                                     IndexedField.LABEL.name, label, (double) score);
+        if (doc.get(TYPE_FIELD).equals(SKOS.CONCEPT)) {
+            result.setVocabulary(URI.create(doc.get(VOCABULARY_FIELD)));
+        }
+        if (doc.get(STATE_FIELD) != null) {
+            result.setState(URI.create(doc.get(STATE_FIELD)));
+        }
+        setSnippet(result, doc, query, language);
+        return result;
+    }
+
+    private void setSnippet(FullTextSearchResult result, Document doc, Query query, String language)
+            throws IOException {
+        for (IndexedField field : IndexedField.values()) {
+            for (String lang : List.of(language, NO_LANGUAGE)) {
+                final String fieldName = field.fieldName(lang);
+                final Highlighter highlighter = new Highlighter(new SimpleHTMLFormatter("<em>", "</em>"),
+                                                                new QueryScorer(query, fieldName));
+                highlighter.setTextFragmenter(new SimpleFragmenter(SNIPPET_SIZE));
+                for (String value : doc.getValues(fieldName)) {
+                    try {
+                        final String snippet = highlighter.getBestFragment(analyzer, fieldName, value);
+                        if (snippet != null) {
+                            result.setSnippetField(field.name);
+                            result.setSnippetText(snippet);
+                            return;
+                        }
+                    } catch (InvalidTokenOffsetsException e) {
+                        LOG.warn("Unable to highlight match in {}.", fieldName, e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Analyzer tokenizing text into words, ignoring case and diacritics.
+     */
+    private static class FoldingAnalyzer extends Analyzer {
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            final StandardTokenizer source = new StandardTokenizer();
+            return new TokenStreamComponents(source, new ASCIIFoldingFilter(new LowerCaseFilter(source)));
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+        }
+    }
+
+    /**
+     * Data of a term or vocabulary to index.
+     */
+    private static class IndexedAsset {
+
+        private final URI uri;
+        private String type;
+        private URI vocabulary;
+        private URI state;
+        private boolean snapshot;
+        private final Map<IndexedField, Map<String, Set<String>>> values = new HashMap<>();
+
+        private IndexedAsset(URI uri) {
+            this.uri = uri;
+        }
+
+        private void addValue(IndexedField field, Object value) {
+            final String language;
+            final String text;
+            if (value instanceof LangString ls) {
+                language = ls.getLanguage().orElse(NO_LANGUAGE);
+                text = ls.getValue();
+            } else {
+                language = NO_LANGUAGE;
+                text = value.toString();
+            }
+            values.computeIfAbsent(field, k -> new HashMap<>()).computeIfAbsent(language, k -> new HashSet<>())
+                  .add(text);
+        }
+
+        private Document toDocument(Analyzer analyzer) {
+            final Document doc = new Document();
+            doc.add(new StringField(URI_FIELD, uri.toString(), Field.Store.YES));
+            doc.add(new StringField(TYPE_FIELD, type, Field.Store.YES));
+            if (vocabulary != null) {
+                doc.add(new StringField(VOCABULARY_FIELD, vocabulary.toString(), Field.Store.YES));
+            }
+            if (state != null) {
+                doc.add(new StoredField(STATE_FIELD, state.toString()));
+            }
+            doc.add(new StringField(SNAPSHOT_FIELD, Boolean.toString(snapshot), Field.Store.NO));
+            values.forEach((field, byLanguage) -> byLanguage.forEach((language, texts) -> {
+                texts.forEach(text -> doc.add(
+                        new org.apache.lucene.document.TextField(field.fieldName(language), text, Field.Store.YES)));
+                if (field == IndexedField.LABEL) {
+                    doc.add(new StringField(LANGUAGE_FIELD, language, Field.Store.NO));
+                    texts.forEach(text -> doc.add(new StringField(EXACT_LABEL_FIELD + "@" + language,
+                                                                  analyzer.normalize(EXACT_LABEL_FIELD,
+                                                                                     text.trim()),
+                                                                  Field.Store.NO)));
+                }
+            }));
+            return doc;
+        }
+    }
+}
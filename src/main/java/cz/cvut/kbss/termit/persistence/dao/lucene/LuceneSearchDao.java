@@ -18,6 +18,7 @@
 package cz.cvut.kbss.termit.persistence.dao.lucene;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.termit.dto.search.FullTextSearchResult;
 import cz.cvut.kbss.termit.persistence.dao.SearchDao;
 import cz.cvut.kbss.termit.util.Configuration;
@@ -69,6 +70,13 @@ public class LuceneSearchDao extends SearchDao {
                 .getResultList();
     }
 
+    @Override
+    protected Query setTermSearchQueryParams(Query q, String searchString) {
+        return super.setTermSearchQueryParams(q, searchString)
+                    .setParameter("wildCardSearchString", addWildcard(searchString), null)
+                    .setParameter("splitExactMatch", splitExactMatch(searchString), null);
+    }
+
     private static String addWildcard(String searchString) {
         // Search string already contains a wildcard
         if (searchString.charAt(searchString.length() - 1) == LUCENE_WILDCARD) {
@@ -0,0 +1,525 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.search;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.vocabulary.RDF;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.ontodriver.model.LangString;
+import cz.cvut.kbss.termit.dto.search.SearchParam;
+import cz.cvut.kbss.termit.event.AssetPersistEvent;
+import cz.cvut.kbss.termit.event.AssetUpdateEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyCreatedEvent;
+import cz.cvut.kbss.termit.event.VocabularyModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyWillBeRemovedEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Utils;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static cz.cvut.kbss.termit.util.Utils.uriToString;
+
+/**
+ * In-memory inverted index of facet values of current term versions.
+ * <p>
+ * For each indexed property, the index maps values to terms which have them. Types, states and vocabularies of terms
+ * are always indexed, additional properties can be configured via {@link Configuration.Search#getFacetProperties()}.
+ * Values are indexed by their lexical form, i.e., the same way faceted search compares them in the repository.
+ * <p>
+ * The index is loaded in the background on startup and reloaded when application caches are evicted. Until the first
+ * load finishes, the index is not ready and faceted search is evaluated in the repository (see
+ * {@link cz.cvut.kbss.termit.persistence.dao.SearchDao}). The index is updated incrementally after a term or a
+ * vocabulary changes. Updates made while the index is being loaded are replayed once loading finishes, so that they are
+ * not overwritten by data loaded before the update. Snapshots are not indexed.
+ * <p>
+ * This index is not used in tests, where data are often inserted directly into the repository.
+ */
+@Component
+@Profile("!test")
+public class TermFacetIndex implements SmartInitializingSingleton {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TermFacetIndex.class);
+
+    private static final String TERMS_QUERY = "SELECT ?t ?vocabulary ?p ?v WHERE { %s" +
+            "?t a ?term ; " +
+            "?inVocabulary ?vocabulary ; " +
+            "?p ?v . " +
+            "VALUES ?p { %s } " +
+            "FILTER NOT EXISTS { ?t a ?snapshot . } " +
+            "}";
+
+    private static final String VOCABULARY_TERMS_QUERY = "SELECT DISTINCT ?t WHERE { " +
+            "?t a ?term ; " +
+            "?inVocabulary ?vocabulary . }";
+
+    private static final URI IN_VOCABULARY = URI.create(
+            cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku);
+
+    private static final Comparator<IndexedTerm> LABEL_ORDER = Comparator
+            .comparing((IndexedTerm t) -> t.label, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(t -> t.uri);
+
+    private final EntityManager em;
+
+    private final String language;
+
+    /**
+     * Properties by which terms can be faceted.
+     */
+    private final Set<URI> facets;
+
+    private final Map<URI, IndexedTerm> terms = new HashMap<>();
+
+    /**
+     * Facet property -> value -> terms having the value.
+     */
+    private final Map<URI, Map<String, Set<URI>>> postings = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TaskScheduler scheduler;
+
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+
+    /**
+     * Updates received during loading, guarded by itself.
+     */
+    private final List<Runnable> pendingUpdates = new ArrayList<>();
+
+    private volatile boolean ready;
+
+    @Autowired
+    public TermFacetIndex(EntityManager em, Configuration config,
+                          @Qualifier("longRunningTaskScheduler") TaskScheduler scheduler) {
+        this.em = em;
+        this.scheduler = scheduler;
+        this.language = config.getPersistence().getLanguage();
+        final Set<URI> facetProperties = new LinkedHashSet<>();
+        facetProperties.add(URI.create(RDF.TYPE));
+        facetProperties.add(URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_stav_pojmu));
+        facetProperties.add(IN_VOCABULARY);
+        config.getSearch().getFacetProperties().forEach(p -> facetProperties.add(URI.create(p)));
+        this.facets = Collections.unmodifiableSet(facetProperties);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        scheduler.schedule(this::load, Instant.now());
+    }
+
+    /**
+     * Whether the index has been loaded and can be used to evaluate faceted search.
+     *
+     * @return {@code true} if the index is ready
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Whether values of the specified property are indexed.
+     *
+     * @param property Property identifier
+     * @return {@code true} if the property is a facet of this index
+     */
+    public boolean isIndexed(@Nonnull URI property) {
+        return facets.contains(property);
+    }
+
+    /**
+     * Loads the whole index from the repository.
+     * <p>
+     * Does nothing if loading is already running.
+     */
+    @Async
+    @EventListener(EvictCacheEvent.class)
+    public void load() {
+        if (!loading.compareAndSet(false, true)) {
+            LOG.debug("Term facet index loading already running.");
+            return;
+        }
+        try {
+            LOG.debug("Loading term facet index.");
+            final Map<URI, IndexedTerm> loaded = loadTerms("");
+            lock.writeLock().lock();
+            try {
+                terms.clear();
+                postings.clear();
+                loaded.values().forEach(this::add);
+                this.ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            LOG.debug("Loaded facets of {} terms.", loaded.size());
+        } catch (RuntimeException e) {
+            LOG.error("Unable to load term facet index.", e);
+        } finally {
+            final List<Runnable> updates;
+            synchronized (pendingUpdates) {
+                updates = new ArrayList<>(pendingUpdates);
+                pendingUpdates.clear();
+                loading.set(false);
+            }
+            updates.forEach(Runnable::run);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetPersisted(AssetPersistEvent event) {
+        if (event.getAsset() instanceof Term term) {
+            update(() -> refreshTerm(term.getUri()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetUpdated(AssetUpdateEvent event) {
+        if (event.getAsset() instanceof Term term) {
+            update(() -> refreshTerm(term.getUri()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyCreated(VocabularyCreatedEvent event) {
+        update(() -> refreshVocabulary(event.getVocabularyIri()));
+    }
+
+    /**
+     * Local term changes are handled by asset events, so only removed terms need to be handled here. Changes made by
+     * other TermIt instances carry no information about the affected terms, so the whole vocabulary is refreshed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyContentModified(VocabularyContentModifiedEvent event) {
+        if (event.isRemote()) {
+            update(() -> refreshVocabulary(event.getVocabularyIri()));
+        } else {
+            update(() -> removeStaleTerms(event.getVocabularyIri()));
+        }
+    }
+
+    /**
+     * Handles vocabularies modified or removed by other TermIt instances.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyModified(VocabularyModifiedEvent event) {
+        update(() -> refreshVocabulary(event.getVocabularyIri()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyRemoved(VocabularyWillBeRemovedEvent event) {
+        update(() -> removeVocabulary(event.getVocabularyIri()));
+    }
+
+    /**
+     * Applies the specified index update, or postpones it until the running load finishes.
+     * <p>
+     * Updates applied during loading would be lost, as loading replaces the whole index with data loaded before.
+     */
+    private void update(Runnable update) {
+        synchronized (pendingUpdates) {
+            if (loading.get()) {
+                pendingUpdates.add(update);
+                return;
+            }
+        }
+        update.run();
+    }
+
+    /**
+     * Reloads facet values of the specified term, removing it from the index if it no longer exists.
+     *
+     * @param term Term identifier
+     */
+    void refreshTerm(URI term) {
+        LOG.trace("Refreshing facets of term {}.", uriToString(term));
+        final Map<URI, IndexedTerm> loaded = loadTerms("VALUES ?t { " + uriToString(term) + " } ");
+        lock.writeLock().lock();
+        try {
+            remove(term);
+            loaded.values().forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads facet values of all terms in the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    void refreshVocabulary(URI vocabulary) {
+        LOG.trace("Refreshing facets of terms in vocabulary {}.", uriToString(vocabulary));
+        final Map<URI, IndexedTerm> loaded = loadTerms("VALUES ?vocabulary { " + uriToString(vocabulary) + " } ");
+        lock.writeLock().lock();
+        try {
+            termsIn(vocabulary).forEach(this::remove);
+            loaded.values().forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes terms which no longer exist in the specified vocabulary from the index.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    void removeStaleTerms(URI vocabulary) {
+        final Set<URI> existing;
+        try {
+            existing = new HashSet<>(em.createNativeQuery(VOCABULARY_TERMS_QUERY, URI.class)
+                                       .setParameter("term", URI.create(SKOS.CONCEPT))
+                                       .setParameter("inVocabulary", IN_VOCABULARY)
+                                       .setParameter("vocabulary", vocabulary)
+                                       .getResultList());
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+        lock.writeLock().lock();
+        try {
+            termsIn(vocabulary).stream().filter(t -> !existing.contains(t)).forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all terms of the specified vocabulary from the index.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    void removeVocabulary(URI vocabulary) {
+        LOG.trace("Removing terms of vocabulary {} from facet index.", uriToString(vocabulary));
+        lock.writeLock().lock();
+        try {
+            termsIn(vocabulary).forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Set<URI> termsIn(URI vocabulary) {
+        return new HashSet<>(postings.getOrDefault(IN_VOCABULARY, Collections.emptyMap())
+                                     .getOrDefault(vocabulary.toString(), Collections.emptySet()));
+    }
+
+    private Map<URI, IndexedTerm> loadTerms(String restriction) {
+        final Set<URI> properties = new LinkedHashSet<>(facets);
+        properties.add(URI.create(SKOS.PREF_LABEL));
+        final Map<URI, IndexedTerm> loaded = new HashMap<>();
+        try {
+            em.createNativeQuery(String.format(TERMS_QUERY, restriction, properties.stream().map(Utils::uriToString)
+                                                                            .collect(Collectors.joining(" "))))
+              .setParameter("term", URI.create(SKOS.CONCEPT))
+              .setParameter("inVocabulary", IN_VOCABULARY)
+              .setParameter("snapshot", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_verze_objektu))
+              .getResultStream().forEach(row -> {
+                  final Object[] bindingSet = (Object[]) row;
+                  final IndexedTerm t = loaded.computeIfAbsent((URI) bindingSet[0], IndexedTerm::new);
+                  t.vocabulary = (URI) bindingSet[1];
+                  t.addValue((URI) bindingSet[2], bindingSet[3]);
+              });
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+        return loaded;
+    }
+
+    private void add(IndexedTerm term) {
+        term.values.keySet().retainAll(facets);
+        terms.put(term.uri, term);
+        term.values.forEach((property, values) -> {
+            final Map<String, Set<URI>> index = postings.computeIfAbsent(property, k -> new HashMap<>());
+            values.forEach(v -> index.computeIfAbsent(v, k -> new HashSet<>()).add(term.uri));
+        });
+    }
+
+    private void remove(URI uri) {
+        final IndexedTerm term = terms.remove(uri);
+        if (term == null) {
+            return;
+        }
+        term.values.forEach((property, values) -> {
+            final Map<String, Set<URI>> index = postings.get(property);
+            values.forEach(v -> {
+                final Set<URI> matching = index.get(v);
+                matching.remove(uri);
+                if (matching.isEmpty()) {
+                    index.remove(v);
+                }
+            });
+        });
+    }
+
+    /**
+     * Finds terms matching all the specified search parameters.
+     * <p>
+     * Values are matched the same way faceted search in the repository matches them. Results are ordered by label.
+     *
+     * @param searchParams Search parameters, all of them must be on indexed properties
+     * @param candidates   Terms to restrict the search to, {@code null} to search all indexed terms
+     * @param pageSpec     Specification of the page of results to return
+     * @return Identifiers of matching terms
+     */
+    public List<URI> find(@Nonnull Collection<SearchParam> searchParams, @Nullable Set<URI> candidates,
+                          @Nonnull Pageable pageSpec) {
+        Objects.requireNonNull(pageSpec);
+        lock.readLock().lock();
+        try {
+            return match(searchParams, candidates).stream().map(terms::get).filter(Objects::nonNull)
+                                                  .sorted(LABEL_ORDER)
+                                                  .skip(pageSpec.isPaged() ? pageSpec.getOffset() : 0)
+                                                  .limit(pageSpec.isPaged() ? pageSpec.getPageSize() :
+                                                         Integer.MAX_VALUE)
+                                                  .map(t -> t.uri).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts terms having each value of each facet among terms matching the specified search parameters.
+     * <p>
+     * Counts of values of a facet disregard search parameters on the same facet, so that they tell how many results
+     * would selecting an additional value of the facet bring.
+     *
+     * @param searchParams     Search parameters, all of them must be on indexed properties
+     * @param candidates       Terms to restrict the search to, {@code null} to count among all indexed terms
+     * @param vocabularyFilter Determines terms of which vocabularies are counted
+     * @return Map of facet properties to maps of values and corresponding numbers of terms
+     */
+    public Map<URI, Map<String, Integer>> countFacets(@Nonnull Collection<SearchParam> searchParams,
+                                                      @Nullable Set<URI> candidates,
+                                                      @Nonnull Predicate<URI> vocabularyFilter) {
+        Objects.requireNonNull(vocabularyFilter);
+        final Map<URI, Map<String, Integer>> result = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (URI facet : facets) {
+                final List<SearchParam> others = searchParams.stream().filter(p -> !facet.equals(p.getProperty()))
+                                                             .toList();
+                final Map<String, Integer> counts = new HashMap<>();
+                for (URI uri : match(others, candidates)) {
+                    final IndexedTerm term = terms.get(uri);
+                    if (term == null || !vocabularyFilter.test(term.vocabulary)) {
+                        continue;
+                    }
+                    term.values.getOrDefault(facet, Collections.emptySet())
+                               .forEach(v -> counts.merge(v, 1, Integer::sum));
+                }
+                result.put(facet, counts);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private Collection<URI> match(Collection<SearchParam> searchParams, Set<URI> candidates) {
+        Set<URI> result = candidates;
+        for (SearchParam p : searchParams) {
+            assert isIndexed(p.getProperty());
+            final Set<URI> matching = match(p);
+            result = result == null ? matching : intersect(result, matching);
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result != null ? result : terms.keySet();
+    }
+
+    private Set<URI> match(SearchParam param) {
+        final Map<String, Set<URI>> index = postings.getOrDefault(param.getProperty(), Collections.emptyMap());
+        final Set<URI> result = new HashSet<>();
+        switch (param.getMatchType()) {
+            case IRI, EXACT_MATCH -> param.getValue().forEach(v -> result.addAll(
+                    index.getOrDefault(v, Collections.emptySet())));
+            case SUBSTRING -> {
+                final String needle = param.getValue().iterator().next().toLowerCase(Locale.ROOT);
+                index.forEach((value, matching) -> {
+                    if (value.toLowerCase(Locale.ROOT).contains(needle)) {
+                        result.addAll(matching);
+                    }
+                });
+            }
+        }
+        return result;
+    }
+
+    private static Set<URI> intersect(Set<URI> a, Set<URI> b) {
+        final Set<URI> smaller = a.size() <= b.size() ? a : b;
+        final Set<URI> larger = smaller == a ? b : a;
+        return smaller.stream().filter(larger::contains).collect(Collectors.toSet());
+    }
+
+    private class IndexedTerm {
+        private final URI uri;
+        private final Map<URI, Set<String>> values = new HashMap<>();
+        private URI vocabulary;
+        private String label;
+
+        private IndexedTerm(URI uri) {
+            this.uri = uri;
+        }
+
+        private void addValue(URI property, Object value) {
+            final String lexical = value instanceof LangString ls ? ls.getValue() : value.toString();
+            if (SKOS.PREF_LABEL.equals(property.toString()) && (label == null ||
+                    value instanceof LangString ls && language.equals(ls.getLanguage().orElse(null)))) {
+                this.label = lexical;
+            }
+            values.computeIfAbsent(property, k -> new HashSet<>()).add(lexical);
+        }
+    }
+}
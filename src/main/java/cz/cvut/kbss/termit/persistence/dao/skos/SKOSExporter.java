@@ -22,12 +22,11 @@ import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.service.export.ExportFormat;
 import cz.cvut.kbss.termit.util.Utils;
 import org.eclipse.rdf4j.model.IRI;
-import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
-import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
 import org.eclipse.rdf4j.model.vocabulary.OWL;
-import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.model.vocabulary.RDFS;
 import org.eclipse.rdf4j.model.vocabulary.SKOS;
 import org.eclipse.rdf4j.query.BindingSet;
@@ -36,8 +35,9 @@ import org.eclipse.rdf4j.query.GraphQueryResult;
 import org.eclipse.rdf4j.query.TupleQuery;
 import org.eclipse.rdf4j.query.TupleQueryResult;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryResult;
 import org.eclipse.rdf4j.rio.RDFWriter;
-import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.NTriplesUtil;
 import org.eclipse.rdf4j.rio.rdfxml.util.RDFXMLPrettyWriterFactory;
 import org.eclipse.rdf4j.rio.turtle.TurtleWriterFactory;
 import org.slf4j.Logger;
@@ -47,14 +47,25 @@ import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Repository;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * Supports SKOS-based export of glossaries and terms.
+ * <p>
+ * The exported data are streamed directly into the target output as they are retrieved from the repository, so memory
+ * required by the export does not depend on the size of the exported vocabulary. Only identifiers of referenced terms
+ * and glossaries are tracked during the export.
+ * <p>
+ * Instances of this class are stateful and must not be reused for multiple exports.
  */
 @Repository
 @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
@@ -66,10 +77,25 @@ public class SKOSExporter {
     private static final String TERMS_EXPORT_QUERY = "export/skos/exportGlossaryTerms.rq";
     private static final String TERMS_FULL_EXPORT_QUERY = "export/full/exportGlossaryTerms.rq";
 
+    /**
+     * Maximum number of referenced terms exported by a single query.
+     */
+    static final int REFERENCED_TERMS_BATCH_SIZE = 100;
+
     private final org.eclipse.rdf4j.repository.Repository repository;
     private final ValueFactory vf;
 
-    private final Model model = new LinkedHashModel();
+    private RDFWriter writer;
+
+    /**
+     * Statements of the subject currently being written, used to skip duplicates produced by CONSTRUCT queries.
+     */
+    private final Set<Statement> currentSubjectStatements = new HashSet<>();
+    private Resource currentSubject;
+
+    private final Set<IRI> exportedGlossaries = new HashSet<>();
+    private final Set<IRI> referencedTerms = new LinkedHashSet<>();
+    private final Set<IRI> referencedGlossaries = new LinkedHashSet<>();
 
     @Autowired
     public SKOSExporter(EntityManager em) {
@@ -78,62 +104,132 @@ public class SKOSExporter {
     }
 
     /**
-     * Exports glossary and terms of the specified vocabulary as a SKOS model.
+     * Exports glossary and terms of the specified vocabulary as SKOS into the specified stream.
      * <p>
      * Only basic SKOS properties are exported for terms. To get all available data, use {@link
-     * #exportFullGlossary(Vocabulary)}.
-     * <p>
-     * The exported data can be retrieved using {@link ##exportAs(ExportFormat)}.
+     * #exportFullGlossary(Vocabulary, ExportFormat, OutputStream)}.
      *
      * @param vocabulary Vocabulary to export
-     * @see #exportAs(ExportFormat)
-     * @see #exportGlossaryWithReferences(Vocabulary, Collection)
+     * @param format     Serialization format
+     * @param out        Target stream
+     * @see #exportGlossaryWithReferences(Vocabulary, Collection, ExportFormat, OutputStream)
      */
-    public void exportGlossary(Vocabulary vocabulary) {
-        Objects.requireNonNull(vocabulary);
-        exportGlossaryInstance(vocabulary);
-        exportGlossaryTermsWithQuery(vocabulary, TERMS_EXPORT_QUERY);
+    public void exportGlossary(Vocabulary vocabulary, ExportFormat format, OutputStream out) {
+        export(vocabulary, TERMS_EXPORT_QUERY, Set.of(), format, out);
     }
 
     /**
-     * Exports glossary and terms of the specified vocabulary as a SKOS model.
+     * Exports glossary and terms of the specified vocabulary as SKOS into the specified stream.
      * <p>
      * This method exports all available asserted data for each term.
+     *
+     * @param vocabulary Vocabulary to export
+     * @param format     Serialization format
+     * @param out        Target stream
+     */
+    public void exportFullGlossary(Vocabulary vocabulary, ExportFormat format, OutputStream out) {
+        export(vocabulary, TERMS_FULL_EXPORT_QUERY, Set.of(), format, out);
+    }
+
+    /**
+     * Exports the glossary of the specified vocabulary and its terms.
+     * <p>
+     * In addition, terms from other vocabularies referenced via the any of the specified properties are exported as
+     * well, together with metadata of their respective glossaries.
+     *
+     * @param vocabulary Vocabulary to export
+     * @param properties RDF properties representing references to other terms to take into account when exporting
+     * @param format     Serialization format
+     * @param out        Target stream
+     */
+    public void exportGlossaryWithReferences(Vocabulary vocabulary, Collection<String> properties,
+                                             ExportFormat format, OutputStream out) {
+        Objects.requireNonNull(properties);
+        export(vocabulary, TERMS_EXPORT_QUERY, properties, format, out);
+    }
+
+    /**
+     * Exports the glossary of the specified vocabulary and its terms.
+     * <p>
+     * In addition, terms from other vocabularies referenced via the any of the specified properties are exported as
+     * well, together with metadata of their respective glossaries.
      * <p>
-     * The exported data can be retrieved using {@link ##exportAs(ExportFormat)}.
+     * This method exports all available asserted data for each term.
      *
      * @param vocabulary Vocabulary to export
-     * @see #exportAs(ExportFormat)
+     * @param properties RDF properties representing references to other terms to take into account when exporting
+     * @param format     Serialization format
+     * @param out        Target stream
      */
-    public void exportFullGlossary(Vocabulary vocabulary) {
+    public void exportFullGlossaryWithReferences(Vocabulary vocabulary, Collection<String> properties,
+                                                 ExportFormat format, OutputStream out) {
+        Objects.requireNonNull(properties);
+        export(vocabulary, TERMS_FULL_EXPORT_QUERY, properties, format, out);
+    }
+
+    private void export(Vocabulary vocabulary, String termsQuery, Collection<String> properties,
+                        ExportFormat format, OutputStream out) {
         Objects.requireNonNull(vocabulary);
-        exportGlossaryInstance(vocabulary);
-        exportGlossaryTermsWithQuery(vocabulary, TERMS_FULL_EXPORT_QUERY);
+        Objects.requireNonNull(out);
+        this.writer = createWriter(format, out);
+        final Set<IRI> referenceProperties = properties.stream().map(vf::createIRI).collect(Collectors.toSet());
+        final IRI glossaryIri = vf.createIRI(vocabulary.getGlossary().getUri().toString());
+        try (final RepositoryConnection conn = repository.getConnection()) {
+            writer.startRDF();
+            // Namespaces have to be declared before any statements are written
+            resolvePrefixes(glossaryIri, conn);
+            exportGlossaryInstance(vf.createIRI(vocabulary.getUri().toString()), conn);
+            exportedGlossaries.add(glossaryIri);
+            exportGlossaryTermsWithQuery(vocabulary, termsQuery, referenceProperties, conn);
+            if (!referenceProperties.isEmpty()) {
+                exportReferencedTermsWithQuery(glossaryIri, termsQuery, conn);
+                exportReferencedGlossaries(conn);
+            }
+            writer.endRDF();
+        }
+    }
+
+    private static RDFWriter createWriter(ExportFormat format, OutputStream out) {
+        return switch (format) {
+            case TURTLE -> new TurtleWriterFactory().getWriter(out);
+            case RDF_XML -> new RDFXMLPrettyWriterFactory().getWriter(out);
+            default -> throw new IllegalArgumentException("Unsupported SKOS export format " + format);
+        };
     }
 
     /**
      * Exports metadata of the glossary of the specified vocabulary.
      *
-     * @param vocabulary Vocabulary whose glossary to export
+     * @param vocabulary Identifier of the vocabulary whose glossary to export
      */
-    private void exportGlossaryInstance(Vocabulary vocabulary) {
+    private void exportGlossaryInstance(Resource vocabulary, RepositoryConnection conn) {
         LOG.trace("Exporting glossary metadata of {}.", vocabulary);
-        try (final RepositoryConnection conn = repository.getConnection()) {
-            final GraphQuery gq = conn.prepareGraphQuery(Utils.loadQuery(GLOSSARY_EXPORT_QUERY));
-            gq.setBinding("vocabulary", vf.createIRI(vocabulary.getUri().toString()));
-            evaluateAndAddToModel(gq);
-            resolvePrefixes(vf.createIRI(vocabulary.getGlossary().getUri().toString()), conn);
-        }
+        final GraphQuery gq = conn.prepareGraphQuery(Utils.loadQuery(GLOSSARY_EXPORT_QUERY));
+        gq.setBinding("vocabulary", vocabulary);
+        evaluateAndWrite(gq, s -> {
+        });
     }
 
-    private void evaluateAndAddToModel(GraphQuery gq) {
+    private void evaluateAndWrite(GraphQuery gq, Consumer<Statement> listener) {
         try (GraphQueryResult gqResult = gq.evaluate()) {
             while (gqResult.hasNext()) {
-                model.add(gqResult.next());
+                final Statement s = gqResult.next();
+                write(s);
+                listener.accept(s);
             }
         }
     }
 
+    private void write(Statement s) {
+        if (!s.getSubject().equals(currentSubject)) {
+            this.currentSubject = s.getSubject();
+            currentSubjectStatements.clear();
+        }
+        if (currentSubjectStatements.add(s)) {
+            writer.handleStatement(s);
+        }
+    }
+
     private void resolvePrefixes(IRI glossaryIri, RepositoryConnection connection) {
         final TupleQuery tq = connection.prepareTupleQuery("SELECT ?prefix ?namespace WHERE {\n" +
                                                                    "?glossary ?hasPreferredPrefix ?prefix ;\n" +
@@ -144,142 +240,104 @@ public class SKOSExporter {
                       vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_p_preferredNamespacePrefix));
         tq.setBinding("hasPreferredNamespace",
                       vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_p_preferredNamespaceUri));
-        final TupleQueryResult result = tq.evaluate();
-        while (result.hasNext()) {
-            final BindingSet binding = result.next();
-            model.setNamespace(binding.getValue("prefix").stringValue(), binding.getValue("namespace").stringValue());
+        try (final TupleQueryResult result = tq.evaluate()) {
+            while (result.hasNext()) {
+                final BindingSet binding = result.next();
+                writer.handleNamespace(binding.getValue("prefix").stringValue(),
+                                       binding.getValue("namespace").stringValue());
+            }
         }
-        model.setNamespace(SKOS.PREFIX, SKOS.NAMESPACE);
-        model.setNamespace(RDFS.PREFIX, RDFS.NAMESPACE);
-        model.setNamespace(OWL.PREFIX, OWL.NAMESPACE);
-        model.setNamespace(DCTERMS.PREFIX, DCTERMS.NAMESPACE);
+        writer.handleNamespace(SKOS.PREFIX, SKOS.NAMESPACE);
+        writer.handleNamespace(RDFS.PREFIX, RDFS.NAMESPACE);
+        writer.handleNamespace(OWL.PREFIX, OWL.NAMESPACE);
+        writer.handleNamespace(DCTERMS.PREFIX, DCTERMS.NAMESPACE);
     }
 
     /**
      * Exports glossary terms of the specified vocabulary.
-     *
-     * @param vocabulary Vocabulary to export
-     */
-    private void exportGlossaryTermsWithQuery(Vocabulary vocabulary, String queryFile) {
-        LOG.trace("Exporting terms from {}.", vocabulary);
-        try (final RepositoryConnection conn = repository.getConnection()) {
-            final GraphQuery gq = conn.prepareGraphQuery(Utils.loadQuery(queryFile));
-            gq.setBinding("vocabulary", vf.createIRI(vocabulary.getUri().toString()));
-            evaluateAndAddToModel(gq);
-        }
-    }
-
-    /**
-     * Exports the glossary of the specified vocabulary and its terms.
-     * <p>
-     * In addition, terms from other vocabularies referenced via the any of the specified properties are exported as
-     * well, together with metadata of their respective glossaries.
-     *
-     * @param vocabulary Vocabulary to export
-     * @param properties RDF properties representing references to other terms to take into account when exporting
-     * @see #exportAs(ExportFormat)
-     */
-    public void exportGlossaryWithReferences(Vocabulary vocabulary, Collection<String> properties) {
-        Objects.requireNonNull(properties);
-        exportGlossary(vocabulary);
-        exportReferencedTermsWithQuery(properties, TERMS_EXPORT_QUERY);
-        exportReferencedGlossaries();
-    }
-
-    /**
-     * Exports the glossary of the specified vocabulary and its terms.
-     * <p>
-     * In addition, terms from other vocabularies referenced via the any of the specified properties are exported as
-     * well, together with metadata of their respective glossaries.
      * <p>
-     * This method exports all available asserted data for each term.
-     *
-     * @param vocabulary Vocabulary to export
-     * @param properties RDF properties representing references to other terms to take into account when exporting
-     * @see #exportAs(ExportFormat)
+     * Terms referenced by the exported terms via any of the specified properties are remembered for later export.
      */
-    public void exportFullGlossaryWithReferences(Vocabulary vocabulary, Collection<String> properties) {
-        Objects.requireNonNull(properties);
-        exportFullGlossary(vocabulary);
-        exportReferencedTermsWithQuery(properties, TERMS_FULL_EXPORT_QUERY);
-        exportReferencedGlossaries();
+    private void exportGlossaryTermsWithQuery(Vocabulary vocabulary, String queryFile, Set<IRI> referenceProperties,
+                                              RepositoryConnection conn) {
+        LOG.trace("Exporting terms from {}.", vocabulary);
+        final GraphQuery gq = conn.prepareGraphQuery(Utils.loadQuery(queryFile));
+        gq.setBinding("vocabulary", vf.createIRI(vocabulary.getUri().toString()));
+        evaluateAndWrite(gq, s -> {
+            if (referenceProperties.contains(s.getPredicate()) && s.getObject().isIRI()) {
+                referencedTerms.add((IRI) s.getObject());
+            }
+        });
     }
 
     /**
      * Exports terms referenced by terms from the previously exported glossary terms ({@link
-     * #exportGlossaryTermsWithQuery(Vocabulary, String)}) via one of the specified properties.
-     *
-     * @param properties SKOS properties representing reference to external terms, e.g., skos:exactMatch
+     * #exportGlossaryTermsWithQuery(Vocabulary, String, Set, RepositoryConnection)}).
+     * <p>
+     * The terms are exported in batches, each batch retrieved by a single query. Terms from the exported glossary
+     * itself are skipped, as they have already been exported.
      */
-    private void exportReferencedTermsWithQuery(Collection<String> properties, String queryFile) {
-        if (properties.isEmpty()) {
+    private void exportReferencedTermsWithQuery(IRI glossaryIri, String queryFile, RepositoryConnection conn) {
+        if (referencedTerms.isEmpty()) {
             return;
         }
-        LOG.trace("Exporting terms referenced via any of {}.", properties);
-        try (final RepositoryConnection conn = repository.getConnection()) {
-            final String queryString = Utils.loadQuery(queryFile);
-            properties.forEach(p -> {
-                final IRI property = vf.createIRI(p);
-                final Set<IRI> referencedTerms = model.stream().filter(s -> s.getPredicate().equals(property))
-                                                      .map(s -> {
-                                                          assert s.getObject().isIRI();
-                                                          return (IRI) s.getObject();
-                                                      }).collect(Collectors.toSet());
-                referencedTerms.forEach(referencedTerm -> {
-                    final GraphQuery gq = conn.prepareGraphQuery(queryString);
-                    gq.setBinding("term", referencedTerm);
-                    evaluateAndAddToModel(gq);
-                });
+        LOG.trace("Exporting {} referenced terms.", referencedTerms.size());
+        final String queryString = Utils.loadQuery(queryFile);
+        final List<IRI> terms = new ArrayList<>(referencedTerms);
+        for (int i = 0; i < terms.size(); i += REFERENCED_TERMS_BATCH_SIZE) {
+            final List<IRI> batch = excludeGlossaryTerms(
+                    terms.subList(i, Math.min(i + REFERENCED_TERMS_BATCH_SIZE, terms.size())), glossaryIri, conn);
+            if (batch.isEmpty()) {
+                continue;
+            }
+            final GraphQuery gq = conn.prepareGraphQuery(queryString + "\nVALUES ?term { " + toValues(batch) + " }");
+            evaluateAndWrite(gq, s -> {
+                if (SKOS.IN_SCHEME.equals(s.getPredicate()) && s.getObject().isIRI() &&
+                        !exportedGlossaries.contains((IRI) s.getObject())) {
+                    referencedGlossaries.add((IRI) s.getObject());
+                }
             });
         }
     }
 
-    /**
-     * Exports metadata of glossaries containing the referenced external terms as discovered by {@link
-     * #exportReferencedTermsWithQuery(Collection, String)}.
-     */
-    private void exportReferencedGlossaries() {
-        final Set<IRI> glossariesToExport = model.stream().filter(s -> s.getPredicate().equals(SKOS.IN_SCHEME))
-                                                 .map(s -> {
-                                                     assert s.getObject().isIRI();
-                                                     return (IRI) s.getObject();
-                                                 }).filter(gIri -> !model.contains(gIri, RDF.TYPE, SKOS.CONCEPT_SCHEME))
-                                                 .collect(Collectors.toSet());
-        LOG.trace("Exporting metadata of glossaries of referenced terms: {}.", glossariesToExport);
-        try (final RepositoryConnection conn = repository.getConnection()) {
-            final String queryString = Utils.loadQuery(GLOSSARY_EXPORT_QUERY);
-            glossariesToExport.forEach(
-                    gIri -> conn.getStatements(null, vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_glosar),
-                                               gIri)
-                                .stream()
-                                .forEach(s -> {
-                                    final GraphQuery gq = conn.prepareGraphQuery(queryString);
-                                    gq.setBinding("vocabulary", s.getSubject());
-                                    evaluateAndAddToModel(gq);
-                                    resolvePrefixes(gIri, conn);
-                                }));
+    private List<IRI> excludeGlossaryTerms(List<IRI> terms, IRI glossaryIri, RepositoryConnection conn) {
+        final TupleQuery tq = conn.prepareTupleQuery("SELECT ?term WHERE {\n" +
+                                                             "VALUES ?term { " + toValues(terms) + " }\n" +
+                                                             "FILTER NOT EXISTS { ?term ?inScheme ?glossary . }\n" +
+                                                             "}");
+        tq.setBinding("inScheme", SKOS.IN_SCHEME);
+        tq.setBinding("glossary", glossaryIri);
+        final List<IRI> result = new ArrayList<>(terms.size());
+        try (final TupleQueryResult queryResult = tq.evaluate()) {
+            queryResult.forEach(b -> result.add((IRI) b.getValue("term")));
         }
+        return result;
+    }
+
+    private static String toValues(Collection<IRI> iris) {
+        return iris.stream().map(NTriplesUtil::toNTriplesString).collect(Collectors.joining(" "));
     }
 
     /**
-     * Returns the exported model as Turtle.
-     *
-     * @return Turtle serialized into bytes
+     * Exports metadata of glossaries containing the referenced external terms as discovered by {@link
+     * #exportReferencedTermsWithQuery(IRI, String, RepositoryConnection)}.
+     * <p>
+     * Namespace prefixes of these glossaries are declared as well, but they may be ignored by serialization formats
+     * which require all namespaces to be declared before any data.
      */
-    public byte[] exportAs(ExportFormat format) {
-        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        final RDFWriter writer;
-        switch (format) {
-            case TURTLE:
-                writer = new TurtleWriterFactory().getWriter(bos);
-                break;
-            case RDF_XML:
-                writer = new RDFXMLPrettyWriterFactory().getWriter(bos);
-                break;
-            default:
-                throw new IllegalArgumentException("Unsupported SKOS export format " + format);
+    private void exportReferencedGlossaries(RepositoryConnection conn) {
+        LOG.trace("Exporting metadata of glossaries of referenced terms: {}.", referencedGlossaries);
+        final IRI hasGlossary = vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_glosar);
+        for (IRI gIri : referencedGlossaries) {
+            if (!exportedGlossaries.add(gIri)) {
+                continue;
+            }
+            resolvePrefixes(gIri, conn);
+            final List<Resource> vocabularies;
+            try (final RepositoryResult<Statement> statements = conn.getStatements(null, hasGlossary, gIri)) {
+                vocabularies = statements.stream().map(Statement::getSubject).toList();
+            }
+            vocabularies.forEach(v -> exportGlossaryInstance(v, conn));
         }
-        Rio.write(model, writer);
-        return bos.toByteArray();
     }
 }
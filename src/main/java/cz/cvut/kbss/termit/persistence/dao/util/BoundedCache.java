@@ -0,0 +1,205 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache holding at most the specified number of entries.
+ * <p>
+ * When the capacity is exceeded, the least recently used entry is evicted. Values are computed outside of the cache
+ * lock, so that a slow computation does not block other readers. The downside is that concurrent misses of the same
+ * key may compute the value multiple times.
+ * <p>
+ * Optionally, entries expire after the specified time to live since they were stored.
+ * <p>
+ * Capacity of {@code 0} effectively disables the cache.
+ *
+ * @param <K> Cache key type
+ * @param <V> Cache value type
+ */
+public class BoundedCache<K, V> implements Cache<K, V> {
+
+    private final int capacity;
+
+    private final Duration timeToLive;
+
+    private final Clock clock;
+
+    private final Map<K, Entry<V>> cache;
+
+    public BoundedCache(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * @param capacity   Maximum number of entries
+     * @param timeToLive Time after which a stored entry expires, {@code null} for entries which do not expire
+     */
+    public BoundedCache(int capacity, Duration timeToLive) {
+        this(capacity, timeToLive, Clock.systemUTC());
+    }
+
+    BoundedCache(int capacity, Duration timeToLive, Clock clock) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Cache capacity must not be negative.");
+        }
+        if (timeToLive != null && timeToLive.isNegative()) {
+            throw new IllegalArgumentException("Cache entry time to live must not be negative.");
+        }
+        this.capacity = capacity;
+        this.timeToLive = timeToLive;
+        this.clock = Objects.requireNonNull(clock);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > BoundedCache.this.capacity;
+            }
+        };
+    }
+
+    @Override
+    public V getOrCompute(K key, Function<K, V> supplier) {
+        Objects.requireNonNull(key);
+        synchronized (cache) {
+            final V value = lookup(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        final V value = supplier.apply(key);
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Gets the value of the specified key, removing it if it has expired.
+     * <p>
+     * Has to be called while holding the cache lock.
+     */
+    private V lookup(K key) {
+        final Entry<V> entry = cache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= clock.millis()) {
+            cache.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Gets cached value of the specified key.
+     *
+     * @param key Key to look up
+     * @return Cached value, empty if the value is not cached
+     */
+    public Optional<V> get(K key) {
+        synchronized (cache) {
+            return Optional.ofNullable(lookup(key));
+        }
+    }
+
+    /**
+     * Gets cached values of the specified keys.
+     * <p>
+     * Keys without a cached value are not contained in the result.
+     *
+     * @param keys Keys to look up
+     * @return Map of keys to their cached values
+     */
+    public Map<K, V> getAllPresent(Collection<K> keys) {
+        final Map<K, V> result = new HashMap<>(keys.size());
+        synchronized (cache) {
+            keys.forEach(k -> {
+                final V value = lookup(k);
+                if (value != null) {
+                    result.put(k, value);
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Stores the specified value in the cache.
+     *
+     * @param key   Cache key
+     * @param value Value to store, {@code null} values are not cached
+     */
+    public void put(K key, V value) {
+        if (value == null || capacity == 0) {
+            return;
+        }
+        final long expiresAt = timeToLive != null ? clock.millis() + timeToLive.toMillis() : Long.MAX_VALUE;
+        synchronized (cache) {
+            cache.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    @Override
+    public void evict(K key) {
+        synchronized (cache) {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * Evicts all entries whose keys match the specified predicate.
+     *
+     * @param predicate Key predicate
+     */
+    public void evictAll(Predicate<K> predicate) {
+        synchronized (cache) {
+            cache.keySet().removeIf(predicate);
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Gets the number of entries currently in the cache.
+     * <p>
+     * Expired entries which have not been accessed since their expiration are included.
+     *
+     * @return Cache size
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
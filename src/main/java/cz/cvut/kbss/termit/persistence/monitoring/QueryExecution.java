@@ -0,0 +1,128 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.monitoring;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A single execution of a query.
+ * <p>
+ * The execution is measured from its creation until it is finished. Results of lazily evaluated queries are counted
+ * as they are consumed.
+ * <p>
+ * Instances are not thread-safe, they are expected to be used by the thread executing the query.
+ */
+class QueryExecution {
+
+    private final QueryStatistics statistics;
+
+    private final String queryId;
+
+    private final String statement;
+
+    private final Map<String, Object> parameters;
+
+    private final long start = System.nanoTime();
+
+    private long duration;
+
+    private long rows = -1;
+
+    private boolean finished;
+
+    QueryExecution(QueryStatistics statistics, String queryId, String statement, Map<String, Object> parameters) {
+        this.statistics = statistics;
+        this.queryId = queryId;
+        this.statement = statement;
+        this.parameters = new LinkedHashMap<>(parameters);
+    }
+
+    /**
+     * Counts one result row.
+     */
+    void addRow() {
+        this.rows = Math.max(rows, 0) + 1;
+    }
+
+    /**
+     * Finishes the execution with the specified number of result rows.
+     *
+     * @param rowCount Number of result rows
+     */
+    void finish(long rowCount) {
+        this.rows = rowCount;
+        finish();
+    }
+
+    /**
+     * Finishes the execution.
+     * <p>
+     * Only the first call has effect.
+     */
+    void finish() {
+        complete(null);
+    }
+
+    /**
+     * Finishes the execution as failed.
+     *
+     * @param failure Exception thrown by the query
+     */
+    void fail(@Nonnull Throwable failure) {
+        complete(failure);
+    }
+
+    private void complete(@Nullable Throwable failure) {
+        if (finished) {
+            return;
+        }
+        this.finished = true;
+        this.duration = System.nanoTime() - start;
+        statistics.record(this, failure);
+    }
+
+    String getQueryId() {
+        return queryId;
+    }
+
+    String getStatement() {
+        return statement;
+    }
+
+    Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return Duration of the execution in nanoseconds
+     */
+    long getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return Number of result rows, {@code -1} if not known
+     */
+    long getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,494 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.monitoring;
+
+import cz.cvut.kbss.jopa.exceptions.NoResultException;
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
+import jakarta.annotation.Nonnull;
+import org.eclipse.rdf4j.query.Operation;
+import org.eclipse.rdf4j.query.QueryResult;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Instruments an {@link EntityManager} so that executions of queries created by it are recorded in
+ * {@link QueryStatistics}.
+ * <p>
+ * Queries created by the entity manager are wrapped in dynamic proxies which remember the bound parameters and measure
+ * query executions. Data access bypassing JOPA is covered as well, connections to the RDF4J repository obtained by
+ * unwrapping the entity manager measure evaluation of prepared queries and of statement retrieval and export
+ * operations. Statement additions and removals are not measured individually, they are sent to the repository on
+ * commit, which is measured.
+ * <p>
+ * Each query is identified by the application method which created it, e.g., {@code TermDao.findAll}.
+ */
+public class QueryInstrumentation {
+
+    static final String UNKNOWN_QUERY_ID = "unknown";
+
+    private static final String APPLICATION_PACKAGE = "cz.cvut.kbss.termit.";
+
+    private static final Pattern LAMBDA_METHOD = Pattern.compile("lambda\\$(.+)\\$\\d+");
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    /**
+     * RDF4J repository connection operations measured as standalone queries.
+     */
+    private static final Set<String> MEASURED_CONNECTION_OPERATIONS = Set.of("getStatements", "hasStatement",
+                                                                             "export", "exportStatements", "size",
+                                                                             "commit");
+
+    private final QueryStatistics statistics;
+
+    public QueryInstrumentation(QueryStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * Wraps the specified entity manager so that queries executed via it are measured.
+     *
+     * @param em Entity manager to instrument
+     * @return Instrumented entity manager
+     */
+    public EntityManager instrument(@Nonnull EntityManager em) {
+        return proxy(EntityManager.class, new EntityManagerHandler(Objects.requireNonNull(em)));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    /**
+     * Resolves identifier of the query being created, i.e., the class and method of the innermost application frame on
+     * the call stack.
+     *
+     * @return Query identifier
+     */
+    static String resolveQueryId() {
+        return STACK_WALKER.walk(frames -> frames.filter(QueryInstrumentation::isQueryOrigin).findFirst()
+                                                 .map(QueryInstrumentation::toQueryId)
+                                                 .orElse(UNKNOWN_QUERY_ID));
+    }
+
+    private static boolean isQueryOrigin(StackWalker.StackFrame frame) {
+        final String className = frame.getClassName();
+        return className.startsWith(APPLICATION_PACKAGE) && !className.equals(QueryInstrumentation.class.getName()) &&
+                !className.startsWith(QueryInstrumentation.class.getName() + "$") && !className.contains("$$");
+    }
+
+    private static String toQueryId(StackWalker.StackFrame frame) {
+        final String className = frame.getClassName();
+        final Matcher lambda = LAMBDA_METHOD.matcher(frame.getMethodName());
+        return className.substring(className.lastIndexOf('.') + 1) + "." +
+                (lambda.matches() ? lambda.group(1) : frame.getMethodName());
+    }
+
+    private static String statement(Object[] args) {
+        return args == null ? "" : Arrays.stream(args).filter(String.class::isInstance).map(String.class::cast)
+                                         .findFirst().orElse("");
+    }
+
+    /**
+     * Base for proxy handlers delegating to the wrapped object.
+     */
+    private abstract static class DelegatingHandler implements InvocationHandler {
+
+        final Object target;
+
+        DelegatingHandler(Object target) {
+            this.target = target;
+        }
+
+        Object delegate(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Delegates the call, returning the proxy instead of the target for fluent API methods.
+         */
+        Object delegateFluent(Object proxy, Method method, Object[] args) throws Throwable {
+            final Object result = delegate(method, args);
+            return result == target ? proxy : result;
+        }
+    }
+
+    private class EntityManagerHandler extends DelegatingHandler {
+
+        private EntityManagerHandler(EntityManager target) {
+            super(target);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final Object result = delegate(method, args);
+            if (result instanceof Query && method.getName().startsWith("create") &&
+                    method.getReturnType().isInterface()) {
+                return proxy(method.getReturnType(),
+                             new JopaQueryHandler(result, resolveQueryId(), statement(args)));
+            }
+            if (result instanceof Repository repository && "unwrap".equals(method.getName()) &&
+                    Repository.class.equals(args[0])) {
+                return proxy(Repository.class, new RepositoryHandler(repository));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Measures execution of JOPA queries.
+     */
+    private class JopaQueryHandler extends DelegatingHandler {
+
+        private final String queryId;
+
+        private final String statement;
+
+        private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+        private JopaQueryHandler(Object target, String queryId, String statement) {
+            super(target);
+            this.queryId = queryId;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getResultList":
+                    return execute(method, args, result -> ((List<?>) result).size());
+                case "getSingleResult":
+                    return executeSingle(method, args);
+                case "executeUpdate":
+                    return execute(method, args, result -> -1);
+                case "getResultStream":
+                    return executeStream(method, args);
+                case "setParameter":
+                case "setUntypedParameter":
+                    parameters.put(String.valueOf(args[0]), args.length > 2 && args[2] instanceof String lang ?
+                                                           args[1] + "@" + lang : args[1]);
+                    break;
+                case "setFirstResult":
+                    parameters.put("(offset)", args[0]);
+                    break;
+                case "setMaxResults":
+                    parameters.put("(limit)", args[0]);
+                    break;
+                default:
+                    break;
+            }
+            return delegateFluent(proxy, method, args);
+        }
+
+        private Object execute(Method method, Object[] args, RowCounter rowCounter) throws Throwable {
+            final QueryExecution execution = statistics.start(queryId, statement, parameters);
+            try {
+                final Object result = delegate(method, args);
+                execution.finish(rowCounter.count(result));
+                return result;
+            } catch (Throwable e) {
+                execution.fail(e);
+                throw e;
+            }
+        }
+
+        private Object executeSingle(Method method, Object[] args) throws Throwable {
+            final QueryExecution execution = statistics.start(queryId, statement, parameters);
+            try {
+                final Object result = delegate(method, args);
+                execution.finish(1);
+                return result;
+            } catch (NoResultException e) {
+                execution.finish(0);
+                throw e;
+            } catch (Throwable e) {
+                execution.fail(e);
+                throw e;
+            }
+        }
+
+        private Object executeStream(Method method, Object[] args) throws Throwable {
+            final QueryExecution execution = statistics.start(queryId, statement, parameters);
+            final Stream<?> stream;
+            try {
+                stream = (Stream<?>) delegate(method, args);
+            } catch (Throwable e) {
+                execution.fail(e);
+                throw e;
+            }
+            return StreamSupport.stream(new CountingSpliterator<>(stream.spliterator(), execution), false)
+                                .onClose(() -> {
+                                    execution.finish();
+                                    stream.close();
+                                });
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowCounter {
+        long count(Object result);
+    }
+
+    /**
+     * Counts elements of a query result stream and finishes the query execution when the stream is exhausted.
+     */
+    private static class CountingSpliterator<T> implements Spliterator<T> {
+
+        private final Spliterator<T> source;
+
+        private final QueryExecution execution;
+
+        private CountingSpliterator(Spliterator<T> source, QueryExecution execution) {
+            this.source = source;
+            this.execution = execution;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            final boolean advanced;
+            try {
+                advanced = source.tryAdvance(action);
+            } catch (RuntimeException e) {
+                execution.fail(e);
+                throw e;
+            }
+            if (advanced) {
+                execution.addRow();
+            } else {
+                execution.finish();
+            }
+            return advanced;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            try {
+                source.forEachRemaining(item -> {
+                    execution.addRow();
+                    action.accept(item);
+                });
+            } catch (RuntimeException e) {
+                execution.fail(e);
+                throw e;
+            }
+            execution.finish();
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & ~(SIZED | SUBSIZED);
+        }
+    }
+
+    private class RepositoryHandler extends DelegatingHandler {
+
+        private RepositoryHandler(Repository target) {
+            super(target);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final Object result = delegate(method, args);
+            if (result instanceof RepositoryConnection connection && "getConnection".equals(method.getName())) {
+                return proxy(RepositoryConnection.class, new ConnectionHandler(connection));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Measures operations on an RDF4J repository connection.
+     */
+    private class ConnectionHandler extends DelegatingHandler {
+
+        private ConnectionHandler(RepositoryConnection target) {
+            super(target);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (MEASURED_CONNECTION_OPERATIONS.contains(method.getName())) {
+                final QueryExecution execution = statistics.start(resolveQueryId(), method.getName(), Map.of());
+                try {
+                    final Object result = delegate(method, args);
+                    execution.finish();
+                    return result;
+                } catch (Throwable e) {
+                    execution.fail(e);
+                    throw e;
+                }
+            }
+            final Object result = delegate(method, args);
+            if (result instanceof Operation && method.getName().startsWith("prepare") &&
+                    method.getReturnType().isInterface()) {
+                return proxy(method.getReturnType(), new OperationHandler(result, resolveQueryId(), statement(args)));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Measures evaluation of RDF4J queries and updates.
+     */
+    private class OperationHandler extends DelegatingHandler {
+
+        private final String queryId;
+
+        private final String statement;
+
+        private final Map<String, Object> bindings = new LinkedHashMap<>();
+
+        private OperationHandler(Object target, String queryId, String statement) {
+            super(target);
+            this.queryId = queryId;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "setBinding":
+                    bindings.put((String) args[0], args[1]);
+                    break;
+                case "removeBinding":
+                    bindings.remove((String) args[0]);
+                    break;
+                case "clearBindings":
+                    bindings.clear();
+                    break;
+                case "evaluate":
+                case "execute":
+                    return execute(method, args);
+                default:
+                    break;
+            }
+            return delegateFluent(proxy, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            final QueryExecution execution = statistics.start(queryId, statement, bindings);
+            final Object result;
+            try {
+                result = delegate(method, args);
+            } catch (Throwable e) {
+                execution.fail(e);
+                throw e;
+            }
+            if (result instanceof QueryResult<?> && method.getReturnType().isInterface()) {
+                // Results are evaluated lazily, the execution finishes when they are consumed
+                return proxy(method.getReturnType(), new QueryResultHandler(result, execution));
+            }
+            if (result instanceof Boolean) {
+                execution.finish(1);
+            } else {
+                execution.finish();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Counts rows of a lazily evaluated RDF4J query result and finishes the query execution when the result is
+     * exhausted or closed.
+     */
+    private static class QueryResultHandler extends DelegatingHandler {
+
+        private final QueryExecution execution;
+
+        private QueryResultHandler(Object target, QueryExecution execution) {
+            super(target);
+            this.execution = execution;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            try {
+                switch (method.getName()) {
+                    case "hasNext": {
+                        final Object result = delegate(method, args);
+                        if (Boolean.FALSE.equals(result)) {
+                            execution.finish();
+                        }
+                        return result;
+                    }
+                    case "next": {
+                        final Object result = delegate(method, args);
+                        execution.addRow();
+                        return result;
+                    }
+                    case "forEach": {
+                        if (!(target instanceof Iterable<?>)) {
+                            return delegate(method, args);
+                        }
+                        final Consumer<Object> action = (Consumer<Object>) args[0];
+                        ((Iterable<Object>) target).forEach(item -> {
+                            execution.addRow();
+                            action.accept(item);
+                        });
+                        execution.finish();
+                        return null;
+                    }
+                    case "close":
+                        try {
+                            return delegate(method, args);
+                        } finally {
+                            execution.finish();
+                        }
+                    default:
+                        return delegate(method, args);
+                }
+            } catch (Throwable e) {
+                execution.fail(e);
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.monitoring;
+
+import cz.cvut.kbss.termit.util.Configuration;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.jmx.export.naming.SelfNaming;
+import org.springframework.stereotype.Component;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects statistics of queries executed against the repository.
+ * <p>
+ * Queries are identified by the application method which issued them (see {@link QueryInstrumentation}). For each
+ * query, numbers of executions and failures, a latency histogram and numbers of result rows are recorded. In
+ * addition, numbers of queries issued during processing of individual requests are recorded. The statistics are
+ * exposed via JMX.
+ * <p>
+ * Executions running at least the configured threshold are written into the slow query log together with the query
+ * string and the bound parameters. The slow query log uses a dedicated logger ({@link #SLOW_QUERY_LOGGER}), so that
+ * it can be configured separately from the rest of the application log.
+ */
+@Component
+@ManagedResource(description = "TermIt repository query statistics.")
+public class QueryStatistics implements SelfNaming {
+
+    /**
+     * Name of the logger used for the slow query log.
+     */
+    public static final String SLOW_QUERY_LOGGER = "cz.cvut.kbss.termit.SlowQueryLog";
+
+    private static final Logger SLOW_QUERY_LOG = LoggerFactory.getLogger(SLOW_QUERY_LOGGER);
+
+    /**
+     * Upper bounds of query latency histogram buckets, in milliseconds.
+     */
+    static final long[] LATENCY_BUCKETS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    /**
+     * Upper bounds of histogram buckets of numbers of queries issued during processing of a request.
+     */
+    static final long[] REQUEST_QUERY_COUNT_BUCKETS = {0, 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000};
+
+    private final String jmxBeanName;
+
+    private volatile long slowQueryThresholdNanos;
+
+    private final Map<String, QueryMetrics> queries = new ConcurrentHashMap<>();
+
+    private final Histogram requestQueryCounts = new Histogram(REQUEST_QUERY_COUNT_BUCKETS);
+
+    private final LongAdder slowQueries = new LongAdder();
+
+    private final ThreadLocal<RequestQueries> currentRequest = new ThreadLocal<>();
+
+    public QueryStatistics(Configuration config) {
+        this.jmxBeanName = config.getJmxBeanName();
+        setSlowQueryThreshold(config.getPersistence().getSlowQueryThreshold());
+    }
+
+    /**
+     * Starts recording of an execution of the specified query.
+     *
+     * @param queryId    Query identifier
+     * @param statement  Query string or a description of the operation
+     * @param parameters Parameters bound to the query
+     * @return Execution to finish when the query completes
+     */
+    QueryExecution start(@Nonnull String queryId, @Nonnull String statement, @Nonnull Map<String, Object> parameters) {
+        return new QueryExecution(this, queryId, statement, parameters);
+    }
+
+    /**
+     * Records a finished query execution.
+     *
+     * @param execution Finished execution
+     * @param failure   Exception thrown by the query, {@code null} if it completed successfully
+     */
+    void record(@Nonnull QueryExecution execution, @Nullable Throwable failure) {
+        final long duration = execution.getDuration();
+        queries.computeIfAbsent(execution.getQueryId(), k -> new QueryMetrics())
+               .record(duration, execution.getRows(), failure != null);
+        final RequestQueries request = currentRequest.get();
+        if (request != null) {
+            request.add(duration);
+        }
+        final long threshold = slowQueryThresholdNanos;
+        if (threshold > 0 && duration >= threshold) {
+            slowQueries.increment();
+            logSlowQuery(execution, failure);
+        }
+    }
+
+    private static void logSlowQuery(QueryExecution execution, Throwable failure) {
+        SLOW_QUERY_LOG.warn("Query {} {} in {} ms, rows: {}, parameters: {}, query:\n{}", execution.getQueryId(),
+                            failure != null ? "failed" : "completed",
+                            TimeUnit.NANOSECONDS.toMillis(execution.getDuration()),
+                            execution.getRows() < 0 ? "n/a" : execution.getRows(), execution.getParameters(),
+                            execution.getStatement());
+    }
+
+    /**
+     * Starts counting queries issued by the current thread as part of processing a request.
+     *
+     * @return Queries of the request, to be passed to {@link #resumeRequest(RequestQueries)} if processing of the
+     * request continues in another thread
+     */
+    public RequestQueries startRequest() {
+        final RequestQueries request = new RequestQueries();
+        currentRequest.set(request);
+        return request;
+    }
+
+    /**
+     * Continues counting queries of a request whose processing has been moved to the current thread.
+     *
+     * @param request Queries of the request, as returned by {@link #startRequest()}
+     */
+    public void resumeRequest(@Nonnull RequestQueries request) {
+        currentRequest.set(Objects.requireNonNull(request));
+    }
+
+    /**
+     * Stops counting queries issued by the current thread without recording the request, whose processing continues
+     * in another thread.
+     */
+    public void suspendRequest() {
+        currentRequest.remove();
+    }
+
+    /**
+     * Stops counting queries of the request processed by the current thread and records their number.
+     *
+     * @return Queries issued during processing of the request
+     */
+    public RequestQueries finishRequest() {
+        final RequestQueries request = currentRequest.get();
+        currentRequest.remove();
+        if (request == null) {
+            return new RequestQueries();
+        }
+        requestQueryCounts.add(request.count);
+        return request;
+    }
+
+    @ManagedAttribute(description = "Statistics of individual queries, identified by the methods issuing them. " +
+            "Durations are in milliseconds, latency histogram buckets are labeled by their upper bounds.")
+    public Map<String, Map<String, Long>> getQueryStatistics() {
+        final Map<String, Map<String, Long>> result = new TreeMap<>();
+        queries.forEach((id, metrics) -> result.put(id, metrics.snapshot()));
+        return result;
+    }
+
+    @ManagedAttribute(description = "Histogram of numbers of queries issued during processing of a request, " +
+            "buckets are labeled by their upper bounds.")
+    public Map<String, Long> getRequestQueryCounts() {
+        return requestQueryCounts.snapshot("");
+    }
+
+    @ManagedAttribute(description = "Total number of executed queries.")
+    public long getQueryCount() {
+        return queries.values().stream().mapToLong(m -> m.executions.sum()).sum();
+    }
+
+    @ManagedAttribute(description = "Number of queries written into the slow query log.")
+    public long getSlowQueryCount() {
+        return slowQueries.sum();
+    }
+
+    @ManagedAttribute(description = "Minimum duration of queries written into the slow query log, in milliseconds. " +
+            "0 disables the slow query log.")
+    public long getSlowQueryThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowQueryThresholdNanos);
+    }
+
+    @ManagedAttribute
+    public void setSlowQueryThresholdMillis(long threshold) {
+        setSlowQueryThreshold(Duration.ofMillis(threshold));
+    }
+
+    private void setSlowQueryThreshold(Duration threshold) {
+        this.slowQueryThresholdNanos = Math.max(0, threshold.toNanos());
+    }
+
+    /**
+     * Discards all collected statistics.
+     */
+    @ManagedOperation(description = "Discards collected query statistics.")
+    public void reset() {
+        queries.clear();
+        requestQueryCounts.reset();
+        slowQueries.reset();
+    }
+
+    @Override
+    public @Nonnull ObjectName getObjectName() throws MalformedObjectNameException {
+        return new ObjectName("bean:name=" + jmxBeanName + "Queries");
+    }
+
+    /**
+     * Queries issued during processing of a single request.
+     */
+    public static class RequestQueries {
+
+        private int count;
+
+        private long duration;
+
+        // Asynchronous processing of a request may count queries in another thread
+        private synchronized void add(long queryDuration) {
+            count++;
+            duration += queryDuration;
+        }
+
+        /**
+         * @return Number of issued queries
+         */
+        public synchronized int getCount() {
+            return count;
+        }
+
+        /**
+         * @return Total duration of the issued queries
+         */
+        public synchronized Duration getDuration() {
+            return Duration.ofNanos(duration);
+        }
+    }
+
+    private static class QueryMetrics {
+
+        private final LongAdder executions = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder totalDuration = new LongAdder();
+
+        private final LongAccumulator maxDuration = new LongAccumulator(Long::max, 0);
+
+        private final LongAdder rows = new LongAdder();
+
+        private final LongAccumulator maxRows = new LongAccumulator(Long::max, 0);
+
+        private final Histogram latency = new Histogram(LATENCY_BUCKETS);
+
+        private void record(long duration, long resultRows, boolean failed) {
+            executions.increment();
+            if (failed) {
+                failures.increment();
+            }
+            totalDuration.add(duration);
+            maxDuration.accumulate(duration);
+            if (resultRows >= 0) {
+                rows.add(resultRows);
+                maxRows.accumulate(resultRows);
+            }
+            latency.add(TimeUnit.NANOSECONDS.toMillis(duration));
+        }
+
+        private Map<String, Long> snapshot() {
+            final Map<String, Long> result = new LinkedHashMap<>();
+            result.put("executions", executions.sum());
+            result.put("failures", failures.sum());
+            result.put("totalDuration", TimeUnit.NANOSECONDS.toMillis(totalDuration.sum()));
+            result.put("maxDuration", TimeUnit.NANOSECONDS.toMillis(maxDuration.get()));
+            result.put("rows", rows.sum());
+            result.put("maxRows", maxRows.get());
+            result.putAll(latency.snapshot("latency"));
+            return result;
+        }
+    }
+
+    /**
+     * Histogram with fixed buckets.
+     */
+    private static class Histogram {
+
+        private final long[] bounds;
+
+        private final LongAdder[] counts;
+
+        private Histogram(long[] bounds) {
+            this.bounds = bounds;
+            this.counts = new LongAdder[bounds.length + 1];
+            Arrays.setAll(counts, i -> new LongAdder());
+        }
+
+        private void add(long value) {
+            final int i = Arrays.binarySearch(bounds, value);
+            counts[i >= 0 ? i : -i - 1].increment();
+        }
+
+        private void reset() {
+            Arrays.stream(counts).forEach(LongAdder::reset);
+        }
+
+        private Map<String, Long> snapshot(String prefix) {
+            final Map<String, Long> result = new LinkedHashMap<>();
+            for (int i = 0; i < bounds.length; i++) {
+                result.put(prefix + "<=" + bounds[i], counts[i].sum());
+            }
+            result.put(prefix + ">" + bounds[bounds.length - 1], counts[bounds.length].sum());
+            return result;
+        }
+    }
+}
@@ -44,6 +44,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 @Tag(name = "Data", description = "Extra-domain data access API")
 @RestController
@@ -104,4 +105,16 @@ public class DataController {
         return dataService.getLabel(id, language).orElseThrow(
                 () -> new NotFoundException("Resource with id " + id + " not found or it has no matching label."));
     }
+
+    @Operation(description = "Gets labels of RDFS resources with the specified IRIs. " +
+            "Resources without a matching label are not contained in the result.")
+    @ApiResponse(responseCode = "200", description = "Map of resource identifiers to their labels.")
+    @PostMapping(value = "/labels", consumes = MediaType.APPLICATION_JSON_VALUE,
+                 produces = MediaType.APPLICATION_JSON_VALUE)
+    public Map<URI, String> getLabels(@Parameter(description = "Resource identifiers.")
+                                      @RequestBody List<URI> ids,
+                                      @Parameter(description = "Label language")
+                                      @RequestParam(value = "language", required = false) String language) {
+        return dataService.getLabels(ids, language);
+    }
 }
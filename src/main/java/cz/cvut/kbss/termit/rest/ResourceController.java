@@ -37,6 +37,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -56,6 +57,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -73,6 +75,17 @@ public class ResourceController extends BaseController {
 
     private static final Logger LOG = LoggerFactory.getLogger(ResourceController.class);
 
+    // Request attributes of Tomcat sendfile support
+    private static final String SENDFILE_SUPPORTED_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Files smaller than this are written to the response by the application, as it is cheaper than sendfile.
+     */
+    private static final long SENDFILE_THRESHOLD = 48 * 1024;
+
     private final ResourceService resourceService;
 
     @Autowired
@@ -126,6 +139,8 @@ public class ResourceController extends BaseController {
                description = "Gets the content of the resource with the specified identifier.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Resource content."),
+            @ApiResponse(responseCode = "206", description = "Requested range of resource content."),
+            @ApiResponse(responseCode = "304", description = "Resource content matches the specified entity tag."),
             @ApiResponse(responseCode = "404", description = "Resource not found or its content is not stored.")
     })
     @GetMapping(value = "/{localName}/content")
@@ -143,13 +158,19 @@ public class ResourceController extends BaseController {
             @RequestParam(name = "at", required = false) Optional<String> at,
             @Parameter(description = "Whether to return the content without unconfirmed term occurrences.")
             @RequestParam(name = "withoutUnconfirmedOccurrences",
-                          required = false) boolean withoutUnconfirmedOccurrences) {
+                          required = false) boolean withoutUnconfirmedOccurrences,
+            ServletWebRequest webRequest) {
         final Resource resource = getResource(localName, namespace);
         try {
             final Optional<Instant> timestamp = at.map(RestUtils::parseTimestamp);
-            final TypeAwareResource content = resourceService.getContent(resource,
-                    new ResourceRetrievalSpecification(timestamp,
-                            withoutUnconfirmedOccurrences));
+            final ResourceRetrievalSpecification retrievalSpecification = new ResourceRetrievalSpecification(
+                    timestamp, withoutUnconfirmedOccurrences);
+            final Optional<String> etag = resourceService.getContentTag(resource, retrievalSpecification);
+            // Sets the ETag header or the Not Modified status
+            if (etag.isPresent() && webRequest.checkNotModified(etag.get())) {
+                return null;
+            }
+            final TypeAwareResource content = resourceService.getContent(resource, retrievalSpecification);
             final ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
                                                                      .contentLength(content.contentLength())
                                                                      .contentType(MediaType.parseMediaType(
@@ -158,12 +179,43 @@ public class ResourceController extends BaseController {
             if (asAttachment) {
                 builder.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + localName + "\"");
             }
+            if (trySendfile(webRequest.getRequest(), content)) {
+                return builder.header(HttpHeaders.ACCEPT_RANGES, "bytes").build();
+            }
+            // Range requests are handled by Spring when body is a resource
             return builder.body(content);
         } catch (IOException e) {
             throw new TermItException("Unable to load content of resource " + resource, e);
         }
     }
 
+    /**
+     * Lets the servlet container send the specified content directly from the file system, without copying it through
+     * the application.
+     * <p>
+     * This is possible only for content stored in a file and only if the container supports it (e.g., Tomcat with NIO
+     * connector). Range requests and small files are served by Spring.
+     *
+     * @return {@code true} if the container will send the content, {@code false} if it has to be written to the
+     * response
+     */
+    private static boolean trySendfile(HttpServletRequest request, org.springframework.core.io.Resource content)
+            throws IOException {
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTRIBUTE)) || !content.isFile() ||
+                request.getHeader(HttpHeaders.RANGE) != null) {
+            return false;
+        }
+        final java.io.File file = content.getFile();
+        final long length = file.length();
+        if (length < SENDFILE_THRESHOLD) {
+            return false;
+        }
+        request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.getAbsolutePath());
+        request.setAttribute(SENDFILE_START_ATTRIBUTE, 0L);
+        request.setAttribute(SENDFILE_END_ATTRIBUTE, length);
+        return true;
+    }
+
     @Operation(security = {@SecurityRequirement(name = "bearer-key")},
                description = "Saves new content of the resource with the specified identifier.")
     @ApiResponses({
@@ -316,9 +368,13 @@ public class ResourceController extends BaseController {
                                           @Parameter(
                                                   description = "Identifiers of vocabularies whose terms are used to seed text analysis.")
                                           @RequestParam(name = "vocabulary", required = false,
-                                                        defaultValue = "") Set<URI> vocabularies) {
+                                                        defaultValue = "") Set<URI> vocabularies,
+                                          @Parameter(
+                                                  description = "Whether to analyze the resource even if neither its content nor the vocabularies changed since its latest analysis.")
+                                          @RequestParam(name = "force", required = false,
+                                                        defaultValue = "false") boolean force) {
         final Resource resource = getResource(localName, namespace);
-        resourceService.runTextAnalysis(resource, vocabularies);
+        resourceService.runTextAnalysis(resource, vocabularies, force);
     }
 
     @Operation(security = {@SecurityRequirement(name = "bearer-key")},
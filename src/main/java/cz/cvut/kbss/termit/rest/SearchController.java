@@ -35,7 +35,9 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -47,6 +49,7 @@ import org.springframework.web.bind.annotation.RestController;
 import java.net.URI;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Tag(name = "Search", description = "Search API")
@@ -72,16 +75,26 @@ public class SearchController extends BaseController {
         return searchService.fullTextSearch(searchString);
     }
 
-    @Operation(description = "Runs full-text search over terms, matching their labels, definitions and scope notes.")
+    @Operation(description = "Runs full-text search over terms from the specified vocabularies, matching their " +
+            "labels, definitions and scope notes. The total number of results is returned in the X-Total-Count header.")
     @ApiResponse(responseCode = "200", description = "Search results.")
     @PreAuthorize("permitAll()")
     @GetMapping(value = "/fts/terms", produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public List<FullTextSearchResult> fullTextSearchTerms(
+    public ResponseEntity<List<FullTextSearchResult>> fullTextSearchTerms(
             @Parameter(description = "Search string.")
             @RequestParam(name = "searchString") String searchString,
             @Parameter(description = "Identifiers of vocabularies in which to search.")
-            @RequestParam(name = "vocabulary", required = false) Set<URI> vocabularies) {
-        return searchService.fullTextSearchOfTerms(searchString, Utils.emptyIfNull(vocabularies));
+            @RequestParam(name = "vocabulary", required = false) Set<URI> vocabularies,
+            @Parameter(description = ApiDocConstants.PAGE_SIZE_DESCRIPTION)
+            @RequestParam(name = Constants.QueryParams.PAGE_SIZE, required = false) Integer pageSize,
+            @Parameter(description = ApiDocConstants.PAGE_NO_DESCRIPTION)
+            @RequestParam(name = Constants.QueryParams.PAGE, required = false) Integer pageNo) {
+        final Page<FullTextSearchResult> result = searchService.fullTextSearchOfTerms(searchString,
+                                                                                     Utils.emptyIfNull(vocabularies),
+                                                                                     RestUtils.createPageRequest(
+                                                                                             pageSize, pageNo));
+        return ResponseEntity.ok().header(Constants.X_TOTAL_COUNT_HEADER, Long.toString(result.getTotalElements()))
+                             .body(result.getContent());
     }
 
     @Operation(description = "Runs a faceted search using the specified search parameters over all terms.")
@@ -102,4 +115,15 @@ public class SearchController extends BaseController {
         }
         return searchService.facetedTermSearch(searchParams, RestUtils.createPageRequest(pageSize, pageNo));
     }
+
+    @Operation(description = "Counts terms having individual values of indexed facets among terms matching the " +
+            "specified search parameters. Counts of values of a facet disregard search parameters on that facet.")
+    @ApiResponse(responseCode = "200", description = "Map of facet properties to value counts.")
+    @PreAuthorize("permitAll()")
+    @PostMapping(value = "/faceted/terms/counts", produces = MediaType.APPLICATION_JSON_VALUE,
+                 consumes = {MediaType.APPLICATION_JSON_VALUE})
+    public Map<URI, Map<String, Integer>> facetCounts(@Parameter(description = "Search parameters.")
+                                                      @RequestBody Collection<SearchParam> searchParams) {
+        return searchService.countFacets(searchParams);
+    }
 }
@@ -26,7 +26,9 @@ import cz.cvut.kbss.termit.model.assignment.TermDefinitionSource;
 import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.comment.Comment;
+import cz.cvut.kbss.termit.persistence.dao.TermFetchProfile;
 import cz.cvut.kbss.termit.rest.doc.ApiDocConstants;
+import cz.cvut.kbss.termit.rest.util.JsonArrayStreamWriter;
 import cz.cvut.kbss.termit.rest.util.RestUtils;
 import cz.cvut.kbss.termit.security.SecurityConstants;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
@@ -37,6 +39,7 @@ import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Constants.QueryParams;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
+import cz.cvut.kbss.termit.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.util.Utils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -65,6 +68,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.NotAcceptableStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.net.URI;
@@ -85,10 +89,14 @@ public class TermController extends BaseController {
 
     private final TermService termService;
 
+    private final JsonArrayStreamWriter streamWriter;
+
     @Autowired
-    public TermController(IdentifierResolver idResolver, Configuration config, TermService termService) {
+    public TermController(IdentifierResolver idResolver, Configuration config, TermService termService,
+                          JsonArrayStreamWriter streamWriter) {
         super(idResolver, config);
         this.termService = termService;
+        this.streamWriter = streamWriter;
     }
 
     private URI getVocabularyUri(Optional<String> namespace, String fragment) {
@@ -110,6 +118,8 @@ public class TermController extends BaseController {
      * @param properties      A set of properties representing references to terms from other vocabularies to take into
      *                        account in export. Relevant only for term export. Optional
      * @param acceptType      MIME type accepted by the client, relevant only for term export
+     * @param stream          Whether to stream the terms into the response as they are loaded instead of loading all
+     *                        of them first. Does not apply to term export and search. Optional, defaults to false
      * @return List of terms of the specific vocabulary
      */
     @Operation(security = {@SecurityRequirement(name = "bearer-key")},
@@ -139,7 +149,10 @@ public class TermController extends BaseController {
             @Parameter(
                     description = "HTTP Accept header. If its value is not JSON or JSON-LD, the request is interpreted as data export.")
             @RequestHeader(value = HttpHeaders.ACCEPT, required = false,
-                           defaultValue = MediaType.ALL_VALUE) String acceptType) {
+                           defaultValue = MediaType.ALL_VALUE) String acceptType,
+            @Parameter(
+                    description = "Whether to stream terms into the response as they are loaded. Suitable for large vocabularies.")
+            @RequestParam(name = "stream", required = false) boolean stream) {
         final URI vocabularyUri = getVocabularyUri(namespace, localName);
         final Vocabulary vocabulary = getVocabulary(vocabularyUri);
         if (searchString != null) {
@@ -150,6 +163,9 @@ public class TermController extends BaseController {
         final Optional<ResponseEntity<?>> export = exportTerms(vocabulary, exportType, properties, acceptType);
         return export.orElseGet(() -> {
             verifyAcceptType(acceptType);
+            if (stream) {
+                return streamTerms(vocabulary, includeImported, acceptType);
+            }
             return ResponseEntity
                     .ok(includeImported ? termService.findAllIncludingImported(vocabulary) :
                         termService.findAll(vocabulary));
@@ -164,22 +180,38 @@ public class TermController extends BaseController {
         final ExportConfig config = new ExportConfig(exportType, mediaType, properties);
         final Optional<TypeAwareResource> content = termService.exportGlossary(vocabulary, config);
         return content.map(r -> {
+            final ResponseEntity.BodyBuilder builder =
+                    ResponseEntity.ok()
+                                  .contentType(MediaType.parseMediaType(mediaType))
+                                  .header(HttpHeaders.CONTENT_DISPOSITION,
+                                          "attachment; filename=\"" + IdentifierResolver.normalizeToAscii(
+                                                  IdentifierResolver.extractIdentifierFragment(
+                                                          vocabulary.getUri())) +
+                                                  r.getFileExtension().orElse("") + "\"");
+            if (r instanceof TypeAwareStreamingResource streamingResource) {
+                // Content is written directly into the response as it is generated
+                return builder.body((StreamingResponseBody) streamingResource::writeTo);
+            }
             try {
-                return ResponseEntity.ok()
-                                     .contentLength(r.contentLength())
-                                     .contentType(MediaType.parseMediaType(mediaType))
-                                     .header(HttpHeaders.CONTENT_DISPOSITION,
-                                             "attachment; filename=\"" + IdentifierResolver.normalizeToAscii(
-                                                     IdentifierResolver.extractIdentifierFragment(
-                                                             vocabulary.getUri())) +
-                                                     r.getFileExtension().orElse("") + "\"")
-                                     .body(r);
+                return builder.contentLength(r.contentLength()).body(r);
             } catch (IOException e) {
                 throw new TermItException("Unable to export terms.", e);
             }
         });
     }
 
+    private ResponseEntity<StreamingResponseBody> streamTerms(Vocabulary vocabulary, boolean includeImported,
+                                                              String acceptType) {
+        final String mediaType = JsonLd.MEDIA_TYPE.equals(acceptType) ? JsonLd.MEDIA_TYPE :
+                                 MediaType.APPLICATION_JSON_VALUE;
+        return ResponseEntity.ok()
+                             .contentType(MediaType.parseMediaType(mediaType))
+                             .body(streamWriter.<TermDto>write(mediaType,
+                                                               consumer -> termService.forEachTerm(vocabulary,
+                                                                                                   includeImported,
+                                                                                                   consumer)));
+    }
+
     private void verifyAcceptType(String acceptType) {
         if (!JsonLd.MEDIA_TYPE.equals(acceptType) && !MediaType.APPLICATION_JSON_VALUE.equals(
                 acceptType) && !MediaType.ALL_VALUE.equals(acceptType)) {
@@ -414,7 +446,7 @@ public class TermController extends BaseController {
             @Parameter(description = ApiDoc.ID_NAMESPACE_DESCRIPTION, example = ApiDoc.ID_NAMESPACE_EXAMPLE)
             @RequestParam(name = QueryParams.NAMESPACE, required = false) Optional<String> namespace) {
         final URI termUri = getTermUri(localName, termLocalName, namespace);
-        termService.remove(termService.findRequired(termUri));
+        termService.remove(termService.findRequired(termUri, TermFetchProfile.HIERARCHY));
         LOG.debug("Term {} removed.", termUri);
     }
 
@@ -433,7 +465,8 @@ public class TermController extends BaseController {
             @PathVariable String termLocalName,
             @Parameter(description = ApiDoc.ID_NAMESPACE_DESCRIPTION, example = ApiDoc.ID_NAMESPACE_EXAMPLE)
             @RequestParam(name = QueryParams.NAMESPACE, required = false) Optional<String> namespace) {
-        final Term parent = getById(localName, termLocalName, namespace);
+        final Term parent = termService.findRequired(getTermUri(localName, termLocalName, namespace),
+                                                     TermFetchProfile.HIERARCHY);
         return termService.findSubTerms(parent);
     }
 
@@ -455,7 +488,8 @@ public class TermController extends BaseController {
             @Parameter(description = ApiDoc.ID_STANDALONE_NAMESPACE_DESCRIPTION,
                        example = ApiDoc.ID_STANDALONE_NAMESPACE_EXAMPLE)
             @RequestParam(name = QueryParams.NAMESPACE) String namespace) {
-        final Term parent = getById(localName, namespace);
+        final Term parent = termService.findRequired(idResolver.resolveIdentifier(namespace, localName),
+                                                     TermFetchProfile.HIERARCHY);
         return termService.findSubTerms(parent);
     }
 
@@ -477,7 +511,8 @@ public class TermController extends BaseController {
             @RequestParam(name = QueryParams.NAMESPACE, required = false) Optional<String> namespace,
             @Parameter(description = "The new term.")
             @RequestBody Term newTerm) {
-        final Term parent = getById(localName, termLocalName, namespace);
+        final Term parent = termService.findRequired(getTermUri(localName, termLocalName, namespace),
+                                                     TermFetchProfile.MINIMAL);
         termService.persistChild(newTerm, parent);
         LOG.debug("Child term {} of parent {} created.", newTerm, parent);
         return ResponseEntity.created(createSubTermLocation(newTerm.getUri(), termLocalName)).build();
@@ -505,7 +540,8 @@ public class TermController extends BaseController {
                        example = ApiDoc.ID_STANDALONE_NAMESPACE_EXAMPLE)
             @RequestParam(name = QueryParams.NAMESPACE) String namespace,
             @RequestBody Term newTerm) {
-        final Term parent = getById(localName, namespace);
+        final Term parent = termService.findRequired(idResolver.resolveIdentifier(namespace, localName),
+                                                     TermFetchProfile.MINIMAL);
         termService.persistChild(newTerm, parent);
         LOG.debug("Child term {} of parent {} created.", newTerm, parent);
         return ResponseEntity.created(createSubTermLocation(newTerm.getUri(), localName)).build();
@@ -528,7 +564,8 @@ public class TermController extends BaseController {
             @Parameter(description = ApiDoc.ID_NAMESPACE_DESCRIPTION, example = ApiDoc.ID_NAMESPACE_EXAMPLE)
             @RequestParam(name = QueryParams.NAMESPACE, required = false) Optional<String> namespace) {
         final URI termUri = getTermUri(localName, termLocalName, namespace);
-        return termService.getDefinitionallyRelatedTargeting(termService.findRequired(termUri));
+        final Term term = termService.findRequired(termUri, TermFetchProfile.MINIMAL);
+        return termService.getDefinitionallyRelatedTargeting(term);
     }
 
     @Operation(security = {@SecurityRequirement(name = "bearer-key")},
@@ -548,7 +585,8 @@ public class TermController extends BaseController {
                        example = ApiDoc.ID_STANDALONE_NAMESPACE_EXAMPLE)
             @RequestParam(name = QueryParams.NAMESPACE) String namespace) {
         final URI termUri = idResolver.resolveIdentifier(namespace, localName);
-        return termService.getDefinitionallyRelatedTargeting(termService.findRequired(termUri));
+        final Term term = termService.findRequired(termUri, TermFetchProfile.MINIMAL);
+        return termService.getDefinitionallyRelatedTargeting(term);
     }
 
     @Operation(security = {@SecurityRequirement(name = "bearer-key")},
@@ -568,7 +606,7 @@ public class TermController extends BaseController {
             @Parameter(description = ApiDoc.ID_NAMESPACE_DESCRIPTION, example = ApiDoc.ID_NAMESPACE_EXAMPLE)
             @RequestParam(name = QueryParams.NAMESPACE, required = false) Optional<String> namespace) {
         final URI termUri = getTermUri(localName, termLocalName, namespace);
-        return termService.getDefinitionallyRelatedOf(termService.findRequired(termUri));
+        return termService.getDefinitionallyRelatedOf(termService.findRequired(termUri, TermFetchProfile.MINIMAL));
     }
 
     @Operation(security = {@SecurityRequirement(name = "bearer-key")},
@@ -588,7 +626,7 @@ public class TermController extends BaseController {
                        example = ApiDoc.ID_STANDALONE_NAMESPACE_EXAMPLE)
             @RequestParam(name = QueryParams.NAMESPACE) String namespace) {
         final URI termUri = idResolver.resolveIdentifier(namespace, localName);
-        return termService.getDefinitionallyRelatedOf(termService.findRequired(termUri));
+        return termService.getDefinitionallyRelatedOf(termService.findRequired(termUri, TermFetchProfile.MINIMAL));
     }
 
     /**
@@ -613,7 +651,9 @@ public class TermController extends BaseController {
             @Parameter(description = ApiDoc.ID_NAMESPACE_DESCRIPTION, example = ApiDoc.ID_NAMESPACE_EXAMPLE)
             @RequestParam(name = QueryParams.NAMESPACE, required = false) Optional<String> namespace) {
         LOG.warn("Called legacy endpoint intended for internal use or testing only! (/vocabularies/{}/terms/{}/text-analysis)", localName, termLocalName);
-        termService.analyzeTermDefinition(getById(localName, termLocalName, namespace), getVocabularyUri(namespace, localName));
+        final Term term = termService.findRequired(getTermUri(localName, termLocalName, namespace),
+                                                   TermFetchProfile.MINIMAL);
+        termService.analyzeTermDefinition(term, getVocabularyUri(namespace, localName));
     }
 
     @Operation(security = {@SecurityRequirement(name = "bearer-key")},
@@ -635,7 +675,8 @@ public class TermController extends BaseController {
             @Parameter(description = "Definition source to set.")
             @RequestBody TermDefinitionSource definitionSource) {
         final URI termUri = idResolver.resolveIdentifier(namespace, localName);
-        termService.setTermDefinitionSource(termService.findRequired(termUri), definitionSource);
+        final Term term = termService.findRequired(termUri, TermFetchProfile.MINIMAL);
+        termService.setTermDefinitionSource(term, definitionSource);
         LOG.debug("Definition source of term {} set to {}.", termUri, definitionSource);
     }
 
@@ -654,7 +695,7 @@ public class TermController extends BaseController {
                                                       example = ApiDoc.ID_STANDALONE_NAMESPACE_EXAMPLE)
                                            @RequestParam(name = QueryParams.NAMESPACE) String namespace) {
         final URI termUri = idResolver.resolveIdentifier(namespace, localName);
-        final Term term = termService.findRequired(termUri);
+        final Term term = termService.findRequired(termUri, TermFetchProfile.MINIMAL);
         termService.removeTermDefinitionSource(term);
         LOG.debug("Definition source of term {} removed.", term);
     }
@@ -678,7 +719,7 @@ public class TermController extends BaseController {
             @RequestBody String state) {
         final URI termUri = idResolver.resolveIdentifier(namespace, localName);
         final URI stateUri = URI.create(state);
-        final Term t = termService.findRequired(termUri);
+        final Term t = termService.findRequired(termUri, TermFetchProfile.HIERARCHY);
         termService.setState(t, stateUri);
         LOG.debug("State of term {} set to {}.", t, Utils.uriToString(stateUri));
     }
@@ -699,7 +740,7 @@ public class TermController extends BaseController {
             @Parameter(description = ApiDoc.ID_NAMESPACE_DESCRIPTION, example = ApiDoc.ID_NAMESPACE_EXAMPLE)
             @RequestParam(name = QueryParams.NAMESPACE, required = false) Optional<String> namespace) {
         final URI termUri = getTermUri(localName, termLocalName, namespace);
-        return termService.getChanges(termService.findRequired(termUri));
+        return termService.getChanges(termService.findRequired(termUri, TermFetchProfile.MINIMAL));
     }
 
     /**
@@ -724,7 +765,7 @@ public class TermController extends BaseController {
                                                             example = ApiDoc.ID_STANDALONE_NAMESPACE_EXAMPLE)
                                                  @RequestParam(name = QueryParams.NAMESPACE) String namespace) {
         final URI termUri = idResolver.resolveIdentifier(namespace, localName);
-        return termService.getChanges(termService.findRequired(termUri));
+        return termService.getChanges(termService.findRequired(termUri, TermFetchProfile.MINIMAL));
     }
 
     @Operation(security = {@SecurityRequirement(name = "bearer-key")},
@@ -749,7 +790,7 @@ public class TermController extends BaseController {
                        example = ApiDocConstants.DATETIME_EXAMPLE)
             @RequestParam(name = "to", required = false) Optional<String> to) {
         final URI termUri = getTermUri(localName, termLocalName, namespace);
-        return termService.getComments(termService.findRequired(termUri),
+        return termService.getComments(termService.findRequired(termUri, TermFetchProfile.MINIMAL),
                                        from.map(RestUtils::parseTimestamp).orElse(Constants.EPOCH_TIMESTAMP),
                                        to.map(RestUtils::parseTimestamp).orElse(Utils.timestamp()));
     }
@@ -783,7 +824,7 @@ public class TermController extends BaseController {
                        example = ApiDocConstants.DATETIME_EXAMPLE)
             @RequestParam(name = "to", required = false) Optional<String> to) {
         final URI termUri = idResolver.resolveIdentifier(namespace, localName);
-        return termService.getComments(termService.findRequired(termUri),
+        return termService.getComments(termService.findRequired(termUri, TermFetchProfile.MINIMAL),
                                        from.map(RestUtils::parseTimestamp).orElse(Constants.EPOCH_TIMESTAMP),
                                        to.map(RestUtils::parseTimestamp).orElse(Utils.timestamp()));
     }
@@ -807,7 +848,8 @@ public class TermController extends BaseController {
             @RequestParam(name = QueryParams.NAMESPACE, required = false) Optional<String> namespace,
             @Parameter(description = "Comment to add.")
             @RequestBody Comment comment) {
-        final Term term = termService.findRequired(getTermUri(localName, termLocalName, namespace));
+        final Term term = termService.findRequired(getTermUri(localName, termLocalName, namespace),
+                                                   TermFetchProfile.MINIMAL);
         termService.addComment(comment, term);
         LOG.debug("Comment added to term {}.", term);
         return ResponseEntity.created(RestUtils
@@ -845,7 +887,8 @@ public class TermController extends BaseController {
             @RequestParam(name = QueryParams.NAMESPACE) String namespace,
             @Parameter(description = "Comment to add.")
             @RequestBody Comment comment) {
-        final Term term = termService.findRequired(idResolver.resolveIdentifier(namespace, localName));
+        final Term term = termService.findRequired(idResolver.resolveIdentifier(namespace, localName),
+                                                   TermFetchProfile.MINIMAL);
         termService.addComment(comment, term);
         LOG.debug("Comment added to term {}.", term);
         return ResponseEntity.created(RestUtils
@@ -878,7 +921,8 @@ public class TermController extends BaseController {
             @Parameter(description = "Timestamp (ISO formatted) at which the returned version was valid.",
                        example = ApiDocConstants.DATETIME_EXAMPLE)
             @RequestParam(name = "at", required = false) Optional<String> at) {
-        final Term term = termService.findRequired(getTermUri(localName, termLocalName, namespace));
+        final Term term = termService.findRequired(getTermUri(localName, termLocalName, namespace),
+                                                   TermFetchProfile.MINIMAL);
         return getTermSnapshots(at, term);
     }
 
@@ -910,7 +954,8 @@ public class TermController extends BaseController {
             @Parameter(description = "Timestamp (ISO-formatted) at which the returned version was valid.",
                        example = ApiDocConstants.DATETIME_EXAMPLE)
             @RequestParam(name = "at", required = false) Optional<String> at) {
-        final Term term = termService.findRequired(idResolver.resolveIdentifier(namespace, localName));
+        final Term term = termService.findRequired(idResolver.resolveIdentifier(namespace, localName),
+                                                   TermFetchProfile.MINIMAL);
         return getTermSnapshots(at, term);
     }
 
@@ -366,8 +366,11 @@ public class VocabularyController extends BaseController {
     @GetMapping(value = "/text-analysis")
     @ResponseStatus(HttpStatus.ACCEPTED)
     @PreAuthorize("hasRole('" + SecurityConstants.ROLE_ADMIN + "')")
-    public void runTextAnalysisOnAllVocabularies() {
-        vocabularyService.runTextAnalysisOnAllVocabularies();
+    public void runTextAnalysisOnAllVocabularies(@Parameter(
+            description = "Whether to analyze also definitions which did not change since their latest analysis.")
+                                                 @RequestParam(name = "force", required = false,
+                                                               defaultValue = "false") boolean force) {
+        vocabularyService.runTextAnalysisOnAllVocabularies(force);
     }
 
     /**
@@ -0,0 +1,53 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.rest.servlet;
+
+import cz.cvut.kbss.termit.persistence.monitoring.QueryStatistics;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Counts repository queries issued by async request processing (e.g., writing a streamed response) as queries of the
+ * request.
+ * <p>
+ * Works together with {@link QueryStatisticsFilter}, which records the request once its async dispatch completes.
+ */
+public class QueryStatisticsCallableInterceptor implements CallableProcessingInterceptor {
+
+    private final QueryStatistics queryStatistics;
+
+    public QueryStatisticsCallableInterceptor(QueryStatistics queryStatistics) {
+        this.queryStatistics = queryStatistics;
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        if (request.getAttribute(QueryStatisticsFilter.REQUEST_QUERIES_ATTRIBUTE,
+                                 RequestAttributes.SCOPE_REQUEST) instanceof QueryStatistics.RequestQueries queries) {
+            queryStatistics.resumeRequest(queries);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        queryStatistics.suspendRequest();
+    }
+}
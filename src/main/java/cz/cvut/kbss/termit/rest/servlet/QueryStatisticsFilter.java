@@ -0,0 +1,83 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.rest.servlet;
+
+import cz.cvut.kbss.termit.persistence.monitoring.QueryStatistics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.GenericFilterBean;
+
+import java.io.IOException;
+
+/**
+ * Counts repository queries issued during processing of a request.
+ * <p>
+ * The counts are recorded in {@link QueryStatistics}. When debug logging is enabled, number and total duration of
+ * queries are logged for each request.
+ * <p>
+ * Requests processed asynchronously (e.g., streamed responses) are recorded when their async dispatch completes, so
+ * the filter has to be registered for async dispatch as well. Queries issued by the async task itself are counted
+ * thanks to {@link QueryStatisticsCallableInterceptor}.
+ */
+public class QueryStatisticsFilter extends GenericFilterBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(QueryStatisticsFilter.class);
+
+    /**
+     * Request attribute holding queries of the request across dispatches and threads.
+     */
+    static final String REQUEST_QUERIES_ATTRIBUTE = QueryStatisticsFilter.class.getName() + ".requestQueries";
+
+    private final QueryStatistics queryStatistics;
+
+    public QueryStatisticsFilter(QueryStatistics queryStatistics) {
+        this.queryStatistics = queryStatistics;
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain)
+            throws IOException, ServletException {
+        if (servletRequest.getAttribute(REQUEST_QUERIES_ATTRIBUTE) instanceof QueryStatistics.RequestQueries queries) {
+            queryStatistics.resumeRequest(queries);
+        } else {
+            servletRequest.setAttribute(REQUEST_QUERIES_ATTRIBUTE, queryStatistics.startRequest());
+        }
+        try {
+            filterChain.doFilter(servletRequest, servletResponse);
+        } finally {
+            if (servletRequest.isAsyncStarted()) {
+                queryStatistics.suspendRequest();
+            } else {
+                finishRequest(servletRequest);
+            }
+        }
+    }
+
+    private void finishRequest(ServletRequest servletRequest) {
+        final QueryStatistics.RequestQueries queries = queryStatistics.finishRequest();
+        if (LOG.isDebugEnabled() && servletRequest instanceof HttpServletRequest req) {
+            LOG.debug("{} {} issued {} queries taking {} ms.", req.getMethod(), req.getRequestURI(),
+                      queries.getCount(), queries.getDuration().toMillis());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.rest.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.cvut.kbss.jsonld.JsonLd;
+import cz.cvut.kbss.termit.exception.TermItException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Writes collections into the HTTP response body as JSON (or JSON-LD) arrays one element at a time.
+ * <p>
+ * This allows returning large collections without having to materialize them in memory before serialization. The
+ * elements are serialized using the same object mappers as regular responses.
+ */
+@Component
+public class JsonArrayStreamWriter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JsonArrayStreamWriter.class);
+
+    private final ObjectMapper jsonMapper;
+
+    private final ObjectMapper jsonLdMapper;
+
+    public JsonArrayStreamWriter(@Qualifier("objectMapper") ObjectMapper jsonMapper,
+                                 @Qualifier("jsonLdMapper") ObjectMapper jsonLdMapper) {
+        this.jsonMapper = jsonMapper;
+        this.jsonLdMapper = jsonLdMapper;
+    }
+
+    /**
+     * Creates a response body which writes elements supplied by the specified producer as a JSON array.
+     * <p>
+     * The producer is invoked when the response body is written and is expected to pass the elements to the consumer
+     * it receives as argument. Each element is serialized immediately.
+     * <p>
+     * If the producer fails, the array is deliberately left unterminated and the exception is rethrown, so that the
+     * response (whose status has already been sent) is aborted instead of being completed as valid, but partial,
+     * JSON.
+     *
+     * @param mediaType Media type of the response. JSON-LD is used when it is {@link JsonLd#MEDIA_TYPE}, regular JSON
+     *                  otherwise
+     * @param producer  Producer of the elements to write
+     * @param <T>       Type of the elements
+     * @return Streaming response body
+     */
+    public <T> StreamingResponseBody write(String mediaType, Consumer<Consumer<T>> producer) {
+        Objects.requireNonNull(producer);
+        final ObjectMapper mapper = JsonLd.MEDIA_TYPE.equals(mediaType) ? jsonLdMapper : jsonMapper;
+        return out -> {
+            try (final JsonGenerator generator = mapper.createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // Closing the generator must not complete the array when the producer fails
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+                generator.writeStartArray();
+                producer.accept(item -> {
+                    try {
+                        generator.writeObject(item);
+                    } catch (IOException e) {
+                        throw new TermItException("Unable to write element into the response.", e);
+                    }
+                });
+                generator.writeEndArray();
+            } catch (RuntimeException e) {
+                LOG.error("Unable to stream response body, aborting the response.", e);
+                throw e;
+            }
+        };
+    }
+}
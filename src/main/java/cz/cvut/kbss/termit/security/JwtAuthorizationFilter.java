@@ -87,7 +87,9 @@ public class JwtAuthorizationFilter extends BasicAuthenticationFilter {
             final Object principal = jwt.getClaim(JwtClaimNames.SUB);
             if (principal instanceof TermItUserDetails existingDetails) {
                 SecurityUtils.setCurrentUser(existingDetails);
-                refreshToken(authToken, response);
+                if (jwtUtils.shouldRefresh(jwt.getExpiresAt())) {
+                    refreshToken(authToken, response);
+                }
                 chain.doFilter(request, response);
             } else {
                 throw new JwtException("Invalid JWT token contents");
@@ -47,6 +47,7 @@ import org.springframework.stereotype.Component;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
@@ -68,12 +69,15 @@ public class JwtUtils {
 
     private final Key key;
 
+    private final Duration refreshThreshold;
+
     @Autowired
     public JwtUtils(@Qualifier("objectMapper") ObjectMapper objectMapper, Configuration config) {
         this.objectMapper = objectMapper;
         this.key = Utils.isBlank(config.getJwt().getSecretKey()) ? Keys.secretKeyFor(SIGNATURE_ALGORITHM) :
                          Keys.hmacShaKeyFor(config.getJwt().getSecretKey().getBytes(StandardCharsets.UTF_8));
 
+        this.refreshThreshold = config.getJwt().getRefreshThreshold();
         this.jwtParser = Jwts.parserBuilder().setSigningKey(key)
                              .deserializeJsonWith(new JacksonDeserializer<>(objectMapper))
                              .build();
@@ -179,6 +183,22 @@ public class JwtUtils {
         return authorities;
     }
 
+    /**
+     * Checks whether a token with the specified expiration date should be refreshed.
+     * <p>
+     * A token is refreshed only when its remaining lifetime is shorter than the configured threshold
+     * ({@link Configuration.Jwt#getRefreshThreshold()}), so that a new token is not issued for every request.
+     *
+     * @param expiration Token expiration date
+     * @return {@code true} if the token should be refreshed, {@code false} otherwise
+     */
+    public boolean shouldRefresh(Instant expiration) {
+        if (expiration == null || refreshThreshold == null) {
+            return true;
+        }
+        return Instant.now().plus(refreshThreshold).isAfter(expiration);
+    }
+
     /**
      * Updates issuing and expiration date of the specified token, generating a new one.
      *
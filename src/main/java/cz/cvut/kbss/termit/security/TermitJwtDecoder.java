@@ -22,9 +22,13 @@ public class TermitJwtDecoder implements org.springframework.security.oauth2.jwt
 
     private final TermItUserDetailsService userDetailsService;
 
-    public TermitJwtDecoder(JwtUtils jwtUtils, TermItUserDetailsService userDetailsService) {
+    private final UserDetailsCache userDetailsCache;
+
+    public TermitJwtDecoder(JwtUtils jwtUtils, TermItUserDetailsService userDetailsService,
+                            UserDetailsCache userDetailsCache) {
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
+        this.userDetailsCache = userDetailsCache;
     }
 
     /**
@@ -43,7 +47,8 @@ public class TermitJwtDecoder implements org.springframework.security.oauth2.jwt
             Objects.requireNonNull(claims.getIssuedAt());
             Objects.requireNonNull(claims.getExpiration());
             final TermItUserDetails tokenDetails = jwtUtils.extractUserInfo(claims);
-            final TermItUserDetails existingDetails = userDetailsService.loadUserByUsername(tokenDetails.getUsername());
+            final TermItUserDetails existingDetails = userDetailsCache.get(tokenDetails.getUsername(),
+                                                                           userDetailsService::loadUserByUsername);
 
             SecurityUtils.verifyAccountStatus(existingDetails.getUser());
 
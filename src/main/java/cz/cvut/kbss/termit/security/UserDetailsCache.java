@@ -0,0 +1,178 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.security;
+
+import cz.cvut.kbss.termit.event.LoginAttemptsThresholdExceeded;
+import cz.cvut.kbss.termit.event.UserAccountUpdatedEvent;
+import cz.cvut.kbss.termit.security.model.TermItUserDetails;
+import cz.cvut.kbss.termit.util.Configuration;
+import jakarta.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.jmx.export.naming.SelfNaming;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Short-lived cache of user details resolved from JWT subjects.
+ * <p>
+ * Resolving the user for every authenticated request requires a repository query. This cache keeps the resolved
+ * details for a configured time ({@link Configuration.Jwt#getPrincipalCacheTtl()}), so that subsequent requests of the
+ * same user can reuse them. Entries are evicted immediately when the corresponding user account is updated.
+ * <p>
+ * Hit and miss counts are exposed via JMX.
+ */
+@Component
+@ManagedResource(description = "Cache of users resolved from JWT.")
+public class UserDetailsCache implements SelfNaming {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserDetailsCache.class);
+
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final Duration ttl;
+
+    private final Clock clock;
+
+    private final String beanName;
+
+    public UserDetailsCache(Configuration config) {
+        this(config, Clock.systemUTC());
+    }
+
+    UserDetailsCache(Configuration config, Clock clock) {
+        this.ttl = config.getJwt().getPrincipalCacheTtl();
+        this.clock = clock;
+        this.beanName = config.getJmxBeanName();
+    }
+
+    /**
+     * Gets user details for the specified username, loading them using the specified loader if they are not cached or
+     * the cached entry has expired.
+     * <p>
+     * A copy of the cached user account is returned, so that modifications of the result do not affect the cache.
+     *
+     * @param username Username (JWT subject)
+     * @param loader   Function loading user details when they are not cached
+     * @return User details
+     */
+    public TermItUserDetails get(@Nonnull String username, @Nonnull Function<String, TermItUserDetails> loader) {
+        Objects.requireNonNull(username);
+        final Instant now = clock.instant();
+        final Entry entry = cache.get(username);
+        if (entry != null && entry.expires.isAfter(now)) {
+            hits.increment();
+            return entry.copyDetails();
+        }
+        misses.increment();
+        final TermItUserDetails details = loader.apply(username);
+        if (ttl != null && ttl.isPositive()) {
+            final Entry loaded = new Entry(details, now.plus(ttl));
+            cache.put(username, loaded);
+            return loaded.copyDetails();
+        }
+        return details;
+    }
+
+    /**
+     * Evicts the cached details of the specified user.
+     *
+     * @param username Username of the user to evict
+     */
+    public void evict(@Nonnull String username) {
+        if (cache.remove(username) != null) {
+            LOG.trace("Evicted cached details of user {}.", username);
+        }
+    }
+
+    @ManagedOperation(description = "Evicts all cached users.")
+    public void evictAll() {
+        cache.clear();
+    }
+
+    /**
+     * Evicts cached details of the user whose account has been updated.
+     * <p>
+     * When the update happens in a transaction, the eviction is performed after commit, so that the details are not
+     * reloaded in their original state in the meantime.
+     *
+     * @param event Account update event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountUpdated(UserAccountUpdatedEvent event) {
+        evict(event.getUser().getUsername());
+    }
+
+    @EventListener
+    public void onLoginAttemptsThresholdExceeded(LoginAttemptsThresholdExceeded event) {
+        evict(event.getUser().getUsername());
+    }
+
+    @ManagedAttribute(description = "Number of cache hits.")
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @ManagedAttribute(description = "Number of cache misses.")
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @ManagedAttribute(description = "Ratio of cache hits to all requests.")
+    public double getHitRate() {
+        final long hitCount = hits.sum();
+        final long total = hitCount + misses.sum();
+        return total > 0 ? (double) hitCount / total : 0.0;
+    }
+
+    @ManagedAttribute(description = "Number of cached users.")
+    public int getSize() {
+        return cache.size();
+    }
+
+    @Override
+    public @Nonnull ObjectName getObjectName() throws MalformedObjectNameException {
+        return new ObjectName("bean:name=" + beanName + "-principal-cache");
+    }
+
+    private record Entry(TermItUserDetails details, Instant expires) {
+
+        private TermItUserDetails copyDetails() {
+            return new TermItUserDetails(details.getUser().copy());
+        }
+    }
+}
@@ -26,7 +26,9 @@ import cz.cvut.kbss.termit.model.util.HasIdentifier;
 import jakarta.annotation.Nonnull;
 
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -72,6 +74,17 @@ public interface AccessControlListService {
      */
     Optional<AccessControlListDto> findForAsDto(HasIdentifier subject);
 
+    /**
+     * Loads {@link AccessControlList}s of the specified subjects so that subsequent {@link #findFor(HasIdentifier)}
+     * calls for them do not need to access the repository.
+     * <p>
+     * ACLs of all the subjects are loaded at once, which is more efficient than loading them one by one when
+     * authorizing access to a collection of resources.
+     *
+     * @param subjects Subjects whose ACLs to load
+     */
+    void prefetch(Collection<? extends HasIdentifier> subjects);
+
     /**
      * Creates and persists an {@link AccessControlList} with default access records and returns it.
      * <p>
@@ -86,6 +99,17 @@ public interface AccessControlListService {
      */
     AccessControlList createFor(HasIdentifier subject);
 
+    /**
+     * Creates and persists {@link AccessControlList}s with default access records for all the specified subjects.
+     * <p>
+     * This is a bulk version of {@link #createFor(HasIdentifier)}, data needed to initialize the records are resolved
+     * once for all the subjects.
+     *
+     * @param subjects Identifiers of subjects to create ACLs for
+     * @return Map of subject identifiers to the new ACLs
+     */
+    Map<URI, AccessControlList> createFor(Collection<URI> subjects);
+
     /**
      * Removes the specified access control list and its records.
      *
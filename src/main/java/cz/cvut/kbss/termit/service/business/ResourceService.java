@@ -70,6 +70,11 @@ public class ResourceService
 
     private static final Logger LOG = LoggerFactory.getLogger(ResourceService.class);
 
+    /**
+     * Name of the rendition of file content without unconfirmed term occurrences.
+     */
+    static final String WITHOUT_UNCONFIRMED_OCCURRENCES_RENDITION = "confirmed";
+
     private final ResourceRepositoryService repositoryService;
 
     private final DocumentManager documentManager;
@@ -163,15 +168,42 @@ public class ResourceService
         Objects.requireNonNull(resource);
         verifyFileOperationPossible(resource, "Content retrieval");
         final File file = (File) resource;
-        TypeAwareResource result = retrievalSpecification.at()
-                                                         .map(instant -> documentManager.getAsResource(file, instant))
-                                                         .orElseGet(() -> documentManager.getAsResource(file));
+        if (retrievalSpecification.at().isEmpty()) {
+            return retrievalSpecification.withoutUnconfirmedOccurrences() ?
+                   documentManager.getRendition(file, WITHOUT_UNCONFIRMED_OCCURRENCES_RENDITION,
+                                                new UnconfirmedTermOccurrenceRemover()::removeUnconfirmedOccurrences) :
+                   documentManager.getAsResource(file);
+        }
+        TypeAwareResource result = documentManager.getAsResource(file, retrievalSpecification.at().get());
         if (retrievalSpecification.withoutUnconfirmedOccurrences()) {
             result = new UnconfirmedTermOccurrenceRemover().removeUnconfirmedOccurrences(result);
         }
         return result;
     }
 
+    /**
+     * Gets an entity tag of the content of the specified resource.
+     * <p>
+     * The tag changes whenever the content changes. It is available only for the current version of the content, as
+     * older versions are not expected to be retrieved repeatedly.
+     *
+     * @param resource               Resource whose content tag should be retrieved
+     * @param retrievalSpecification Specification of the content
+     * @return Entity tag of the content, empty if the specification refers to an older version of the content
+     * @throws UnsupportedAssetOperationException When content of the specified resource cannot be retrieved
+     * @throws NotFoundException                  When the specified resource has no content stored
+     */
+    public Optional<String> getContentTag(Resource resource, ResourceRetrievalSpecification retrievalSpecification) {
+        Objects.requireNonNull(resource);
+        verifyFileOperationPossible(resource, "Content retrieval");
+        if (retrievalSpecification.at().isPresent()) {
+            return Optional.empty();
+        }
+        final String hash = documentManager.getMetadata((File) resource).hash();
+        return Optional.of(retrievalSpecification.withoutUnconfirmedOccurrences() ?
+                           hash + "-" + WITHOUT_UNCONFIRMED_OCCURRENCES_RENDITION : hash);
+    }
+
     private void verifyFileOperationPossible(Resource resource, String operation) {
         if (!(resource instanceof File)) {
             throw new UnsupportedAssetOperationException(operation + " is not supported for resource " + resource);
@@ -281,12 +313,17 @@ public class ResourceService
      * The specified vocabulary identifiers represent sources of Terms for the text analysis. If not provided, it is
      * assumed the file belongs to a Document associated with a Vocabulary which will be used as the Term source.
      *
+     * <p>
+     * Unless {@code force} is specified, the analysis is skipped when neither the content of the resource nor the
+     * vocabularies changed since its latest analysis.
+     *
      * @param resource     Resource to analyze
      * @param vocabularies Set of identifiers of vocabularies to use as Term sources for the analysis. Possibly empty
+     * @param force        Whether to analyze the resource even if its latest analysis is up-to-date
      * @throws UnsupportedAssetOperationException If text analysis is not supported for the specified resource
      */
     @PreAuthorize("@resourceAuthorizationService.canModify(#resource)")
-    public void runTextAnalysis(Resource resource, Set<URI> vocabularies) {
+    public void runTextAnalysis(Resource resource, Set<URI> vocabularies, boolean force) {
         Objects.requireNonNull(resource);
         Objects.requireNonNull(vocabularies);
         verifyFileOperationPossible(resource, "Text analysis");
@@ -299,9 +336,9 @@ public class ResourceService
             }
             textAnalysisService.analyzeFile(file,
                                             includeImportedVocabularies(
-                                                    Collections.singleton(file.getDocument().getVocabulary())));
+                                                    Collections.singleton(file.getDocument().getVocabulary())), force);
         } else {
-            textAnalysisService.analyzeFile(file, includeImportedVocabularies(vocabularies));
+            textAnalysisService.analyzeFile(file, includeImportedVocabularies(vocabularies), force);
         }
     }
 
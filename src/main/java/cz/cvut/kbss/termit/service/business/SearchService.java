@@ -17,20 +17,23 @@
  */
 package cz.cvut.kbss.termit.service.business;
 
-import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.termit.dto.search.FacetedSearchResult;
 import cz.cvut.kbss.termit.dto.search.FullTextSearchResult;
 import cz.cvut.kbss.termit.dto.search.SearchParam;
 import cz.cvut.kbss.termit.persistence.dao.SearchDao;
+import cz.cvut.kbss.termit.service.security.authorization.SearchAuthorizationService;
 import jakarta.annotation.Nonnull;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PostFilter;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -40,9 +43,12 @@ public class SearchService {
 
     private final SearchDao searchDao;
 
+    private final SearchAuthorizationService searchAuthorizationService;
+
     @Autowired
-    public SearchService(SearchDao searchDao) {
+    public SearchService(SearchDao searchDao, SearchAuthorizationService searchAuthorizationService) {
         this.searchDao = searchDao;
+        this.searchAuthorizationService = searchAuthorizationService;
     }
 
     /**
@@ -57,20 +63,23 @@ public class SearchService {
     }
 
     /**
-     * Executes full text search in terms, possibly filtered by vocabularies.
+     * Executes full text search in terms from the specified vocabularies.
+     * <p>
+     * Vocabularies the current user cannot read are not searched. Since the search is restricted to readable
+     * vocabularies, the results need not be filtered afterwards and the returned page is complete.
      *
      * @param searchString String to search by
-     * @param vocabularies URIs of vocabularies to search in, or null, if all vocabularies shall be searched
-     * @return Matching terms
+     * @param vocabularies URIs of vocabularies to search in
+     * @param pageSpec     Specification of the page of results to return
+     * @return Page of matching terms
      */
-    @PostFilter("@searchAuthorizationService.canRead(filterObject)")
-    public List<FullTextSearchResult> fullTextSearchOfTerms(String searchString, Set<URI> vocabularies) {
+    public Page<FullTextSearchResult> fullTextSearchOfTerms(@Nonnull String searchString,
+                                                            @Nonnull Set<URI> vocabularies,
+                                                            @Nonnull Pageable pageSpec) {
         Objects.requireNonNull(vocabularies);
-        // Search including snapshots, as the selected vocabularies may be snapshots
-        return searchDao.fullTextSearchIncludingSnapshots(searchString).stream()
-                        .filter(r -> r.getTypes().contains(SKOS.CONCEPT))
-                        .filter(r -> vocabularies.contains(r.getVocabulary()))
-                        .collect(Collectors.toList());
+        final Set<URI> readable = vocabularies.stream().filter(searchAuthorizationService::canSearchIn)
+                                              .collect(Collectors.toSet());
+        return searchDao.fullTextSearchOfTerms(searchString, readable, pageSpec);
     }
 
     /**
@@ -94,4 +103,21 @@ public class SearchService {
         searchParams.forEach(SearchParam::validate);
         return searchDao.facetedTermSearch(searchParams, pageSpec);
     }
+
+    /**
+     * Counts terms having individual values of facets among terms matching the specified search parameters.
+     * <p>
+     * Only terms from vocabularies the current user can read are counted.
+     *
+     * @param searchParams Search parameters, may be empty
+     * @return Map of facet properties to maps of values and corresponding numbers of terms
+     * @see SearchDao#countFacets(Collection, java.util.function.Predicate)
+     */
+    public Map<URI, Map<String, Integer>> countFacets(@Nonnull Collection<SearchParam> searchParams) {
+        Objects.requireNonNull(searchParams);
+        searchParams.forEach(SearchParam::validate);
+        final Map<URI, Boolean> readable = new HashMap<>();
+        return searchDao.countFacets(searchParams,
+                                     v -> readable.computeIfAbsent(v, searchAuthorizationService::canSearchIn));
+    }
 }
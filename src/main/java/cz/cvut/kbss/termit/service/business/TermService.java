@@ -31,6 +31,7 @@ import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.comment.Comment;
 import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.dao.TermFetchProfile;
 import cz.cvut.kbss.termit.service.changetracking.ChangeRecordProvider;
 import cz.cvut.kbss.termit.service.comment.CommentService;
 import cz.cvut.kbss.termit.service.document.TextAnalysisService;
@@ -40,8 +41,10 @@ import cz.cvut.kbss.termit.service.language.LanguageService;
 import cz.cvut.kbss.termit.service.repository.ChangeRecordService;
 import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
 import cz.cvut.kbss.termit.util.Utils;
+import cz.cvut.kbss.termit.util.throttle.NewTransactionExecutor;
 import cz.cvut.kbss.termit.util.throttle.Throttle;
 import jakarta.annotation.Nonnull;
 import org.slf4j.Logger;
@@ -49,6 +52,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PostAuthorize;
+import org.springframework.security.access.prepost.PostFilter;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -59,9 +63,12 @@ import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -91,6 +98,8 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
 
     private final LanguageService languageService;
 
+    private final NewTransactionExecutor transactionExecutor;
+
     private final Configuration config;
 
     @Autowired
@@ -98,7 +107,8 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
                        VocabularyContextMapper vocabularyContextMapper,
                        TermRepositoryService repositoryService, TextAnalysisService textAnalysisService,
                        TermOccurrenceService termOccurrenceService, ChangeRecordService changeRecordService,
-                       CommentService commentService, LanguageService languageService, Configuration config) {
+                       CommentService commentService, LanguageService languageService,
+                       NewTransactionExecutor transactionExecutor, Configuration config) {
         this.exporters = exporters;
         this.vocabularyService = vocabularyService;
         this.vocabularyContextMapper = vocabularyContextMapper;
@@ -108,6 +118,7 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
         this.changeRecordService = changeRecordService;
         this.commentService = commentService;
         this.languageService = languageService;
+        this.transactionExecutor = transactionExecutor;
         this.config = config;
     }
 
@@ -158,6 +169,28 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
         return repositoryService.findAllIncludingImported(vocabulary);
     }
 
+    /**
+     * Retrieves all terms from the specified vocabulary (and optionally its imports) and passes them one by one to the
+     * specified consumer as they are loaded.
+     * <p>
+     * This allows processing (e.g., serializing) vocabulary terms without holding all of them in memory. Terms are
+     * passed to the consumer in the same order as returned by {@link #findAll(Vocabulary)}.
+     *
+     * @param vocabulary      Vocabulary whose terms will be returned. A reference is sufficient
+     * @param includeImported Whether to include terms from vocabularies imported (transitively) by the specified one
+     * @param consumer        Consumer of the terms
+     */
+    public void forEachTerm(Vocabulary vocabulary, boolean includeImported, Consumer<TermDto> consumer) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(consumer);
+        final Consumer<List<TermDto>> batchConsumer = batch -> batch.forEach(consumer);
+        if (includeImported) {
+            repositoryService.findAllIncludingImported(vocabulary, Constants.STREAMING_BATCH_SIZE, batchConsumer);
+        } else {
+            repositoryService.findAll(vocabulary, Constants.STREAMING_BATCH_SIZE, batchConsumer);
+        }
+    }
+
     /**
      * Retrieves root terms (terms without parent) from the specified vocabulary.
      * <p>
@@ -287,6 +320,20 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
         return result;
     }
 
+    /**
+     * Gets terms with the specified identifiers.
+     * <p>
+     * Only basic term data are loaded, inferred attributes like sub-terms and inverse relationships are not resolved.
+     *
+     * @param ids Term identifiers
+     * @return List of matching terms
+     */
+    @PostFilter("@termAuthorizationService.canRead(filterObject)")
+    public List<Term> findAllById(Collection<URI> ids) {
+        Objects.requireNonNull(ids);
+        return repositoryService.findAllById(ids);
+    }
+
     private static void consolidateAttributes(Term term) {
         term.consolidateInferred();
         term.consolidateParents();
@@ -307,6 +354,26 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
         return result;
     }
 
+    /**
+     * Gets a term with the specified identifier, resolving only derived attributes included in the specified fetch
+     * profile.
+     * <p>
+     * Use this method when the caller does not need the complete term detail, e.g., when the term is loaded just to be
+     * passed to another operation.
+     *
+     * @param id      Term identifier
+     * @param profile Determines which derived attributes (sub-terms, inverse relationships) are resolved
+     * @return Matching term
+     * @throws NotFoundException When no matching term is found
+     */
+    @PostAuthorize("@termAuthorizationService.canRead(returnObject)")
+    public Term findRequired(URI id, TermFetchProfile profile) {
+        final Term result = repositoryService.findRequired(id, profile);
+        assert result != null;
+        consolidateAttributes(result);
+        return result;
+    }
+
     /**
      * Gets a reference to a Term with the specified identifier.
      * <p>
@@ -322,6 +389,9 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
 
     /**
      * Gets child terms of the specified parent term.
+     * <p>
+     * Child terms are loaded with their sub-terms, but without inverse relationships, see {@link
+     * TermFetchProfile#HIERARCHY}.
      *
      * @param parent Parent term whose children should be loaded
      * @return List of child terms
@@ -330,14 +400,22 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
     public List<Term> findSubTerms(Term parent) {
         Objects.requireNonNull(parent);
         return parent.getSubTerms() == null ? Collections.emptyList() :
-               parent.getSubTerms().stream().map(u -> repositoryService.find(u.getUri()).orElseThrow(
-                             () -> new NotFoundException(
-                                     "Child of term " + parent + " with id " + u.getUri() + " not found!")))
+               parent.getSubTerms().stream().map(u -> findChild(parent, u.getUri()))
                      .sorted(Comparator.comparing((Term t) -> t.getLabel().get(config.getPersistence().getLanguage()),
                                                   Comparator.nullsLast(Comparator.naturalOrder())))
                      .collect(Collectors.toList());
     }
 
+    private Term findChild(Term parent, URI childUri) {
+        try {
+            final Term child = repositoryService.findRequired(childUri, TermFetchProfile.HIERARCHY);
+            consolidateAttributes(child);
+            return child;
+        } catch (NotFoundException e) {
+            throw new NotFoundException("Child of term " + parent + " with id " + childUri + " not found!");
+        }
+    }
+
     /**
      * Gets aggregated info about occurrences of the specified Term.
      *
@@ -403,7 +481,7 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
     @PreAuthorize("@termAuthorizationService.canModify(#term)")
     public Term update(Term term) {
         Objects.requireNonNull(term);
-        final Term original = repositoryService.findRequired(term.getUri());
+        final Term original = repositoryService.findRequired(term.getUri(), TermFetchProfile.HIERARCHY);
         languageService.verifyStateExists(term.getState());
         checkForInvalidTerminalStateAssignment(original, term.getState());
         // Ensure the change is merged into the repo before analyzing other terms
@@ -445,7 +523,7 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     @PreAuthorize("@termAuthorizationService.canModify(#term)")
     public void analyzeTermDefinition(AbstractTerm term, URI vocabularyIri) {
-        term = findRequired(term.getUri()); // required when throttling for persistent context
+        term = findRequired(term.getUri(), TermFetchProfile.MINIMAL); // required when throttling for persistent context
         Objects.requireNonNull(term);
         if (term.getDefinition() == null || term.getDefinition().isEmpty()) {
             return;
@@ -454,6 +532,37 @@ public class TermService implements RudService<Term>, ChangeRecordProvider<Term>
         textAnalysisService.analyzeTermDefinition(term, vocabularyContextMapper.getVocabularyContext(vocabularyIri));
     }
 
+    /**
+     * Executes text analysis on definitions of all the specified terms in batches.
+     * <p>
+     * Each term is analyzed using the vocabulary it is mapped to. Unlike {@link #analyzeTermDefinition(AbstractTerm,
+     * URI)}, the terms are not reloaded. Each batch is analyzed and its results are committed in a separate
+     * transaction.
+     *
+     * @param termsToVocabularies Map of terms to analyze to identifiers of vocabularies used for their analysis
+     * @see TextAnalysisService#analyzeTermDefinitions(Map, java.util.concurrent.Executor)
+     */
+    @Throttle(value = "T(ThrottleGroupProvider).getTextAnalysisVocabulariesTerms(#termsToVocabularies.values())",
+              group = "T(ThrottleGroupProvider).getTextAnalysisVocabulariesTerms(#termsToVocabularies.values())",
+              name = "termDefinitionAnalysis")
+    @PreAuthorize("@termAuthorizationService.canModifyAll(#termsToVocabularies.keySet())")
+    public void analyzeTermDefinitions(Map<? extends AbstractTerm, URI> termsToVocabularies) {
+        Objects.requireNonNull(termsToVocabularies);
+        final Map<AbstractTerm, URI> termsToContexts = new LinkedHashMap<>(termsToVocabularies.size());
+        termsToVocabularies.forEach(
+                (t, v) -> termsToContexts.put(t, vocabularyContextMapper.getVocabularyContext(v)));
+        LOG.debug("Analyzing definitions of {} terms.", termsToContexts.size());
+        textAnalysisService.analyzeTermDefinitions(termsToContexts, transactionExecutor);
+    }
+
+    /**
+     * Forgets fingerprints of analyzed term definitions, so that unchanged definitions are not skipped by their next
+     * analysis.
+     */
+    public void clearTermDefinitionFingerprints() {
+        textAnalysisService.clearTermDefinitionFingerprints();
+    }
+
     /**
      * Gets occurrences of terms which appear in the specified term's definition.
      *
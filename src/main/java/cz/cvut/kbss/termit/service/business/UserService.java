@@ -21,6 +21,7 @@ import cz.cvut.kbss.termit.dto.PasswordChangeDto;
 import cz.cvut.kbss.termit.dto.RdfsResource;
 import cz.cvut.kbss.termit.dto.mapper.DtoMapper;
 import cz.cvut.kbss.termit.event.LoginAttemptsThresholdExceeded;
+import cz.cvut.kbss.termit.event.UserAccountUpdatedEvent;
 import cz.cvut.kbss.termit.exception.AuthorizationException;
 import cz.cvut.kbss.termit.exception.InvalidPasswordChangeRequestException;
 import cz.cvut.kbss.termit.exception.NotFoundException;
@@ -42,6 +43,7 @@ import jakarta.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -79,12 +81,14 @@ public class UserService {
 
     private final PasswordChangeNotifier passwordChangeNotifier;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     @Autowired
     public UserService(UserRepositoryService repositoryService, UserRoleRepositoryService userRoleRepositoryService,
                        AccessControlListService aclService, SecurityUtils securityUtils, DtoMapper dtoMapper,
                        Configuration configuration,
                        PasswordChangeRequestRepositoryService passwordChangeRequestRepositoryService,
-                       PasswordChangeNotifier passwordChangeNotifier) {
+                       PasswordChangeNotifier passwordChangeNotifier, ApplicationEventPublisher eventPublisher) {
         this.repositoryService = repositoryService;
         this.userRoleRepositoryService = userRoleRepositoryService;
         this.aclService = aclService;
@@ -93,6 +97,7 @@ public class UserService {
         this.securityConfig = configuration.getSecurity();
         this.passwordChangeRequestRepositoryService = passwordChangeRequestRepositoryService;
         this.passwordChangeNotifier = passwordChangeNotifier;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -218,7 +223,9 @@ public class UserService {
         if (update.getPassword() != null) {
             securityUtils.verifyCurrentUserPassword(update.getOriginalPassword());
         }
-        repositoryService.update(update.asUserAccount());
+        final UserAccount updated = update.asUserAccount();
+        repositoryService.update(updated);
+        eventPublisher.publishEvent(new UserAccountUpdatedEvent(updated));
     }
 
     @Nonnull
@@ -253,6 +260,7 @@ public class UserService {
         account.unlock();
         account.setPassword(newPassword);
         repositoryService.update(account);
+        eventPublisher.publishEvent(new UserAccountUpdatedEvent(account));
     }
 
     private void ensureNotOwnAccount(UserAccount account, String operation) {
@@ -273,6 +281,7 @@ public class UserService {
         LOG.trace("Disabling user account {}.", account);
         account.disable();
         repositoryService.update(account);
+        eventPublisher.publishEvent(new UserAccountUpdatedEvent(account));
     }
 
     /**
@@ -287,6 +296,7 @@ public class UserService {
         LOG.trace("Enabling user account {}.", account);
         account.enable();
         repositoryService.update(account);
+        eventPublisher.publishEvent(new UserAccountUpdatedEvent(account));
     }
 
     /**
@@ -305,6 +315,7 @@ public class UserService {
         roles.forEach(r -> account.removeType(r.getUri().toString()));
         account.addType(roleIri);
         repositoryService.update(account);
+        eventPublisher.publishEvent(new UserAccountUpdatedEvent(account));
     }
 
     /**
@@ -322,6 +333,7 @@ public class UserService {
         LOG.trace("Locking user account {} due to exceeding unsuccessful login attempts limit.", account);
         account.lock();
         repositoryService.update(account);
+        eventPublisher.publishEvent(new UserAccountUpdatedEvent(account));
     }
 
     /**
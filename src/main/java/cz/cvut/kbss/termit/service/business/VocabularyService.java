@@ -127,9 +127,14 @@ public class VocabularyService
      * Receives {@link VocabularyContentModifiedEvent} and triggers validation.
      * The goal for this is to get the results cached and do not force users to wait for validation
      * when they request it.
+     * <p>
+     * Changes done by other TermIt instances are validated by the instance that made them.
      */
     @EventListener({VocabularyContentModifiedEvent.class, VocabularyCreatedEvent.class})
     public void onVocabularyContentModified(VocabularyEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
         repositoryService.validateContents(event.getVocabularyIri());
     }
 
@@ -138,7 +143,10 @@ public class VocabularyService
     public List<VocabularyDto> findAll() {
         // PostFilter modifies the data in-place, which caused unwanted updates to the cache (since we are caching
         // the whole list in VocabularyRepositoryService)
-        return new ArrayList<>(repositoryService.findAll());
+        final List<VocabularyDto> result = new ArrayList<>(repositoryService.findAll());
+        // Load ACLs needed by the PostFilter at once instead of one by one
+        aclService.prefetch(result);
+        return result;
     }
 
     @Override
@@ -327,24 +335,39 @@ public class VocabularyService
         final List<TermDto> allTerms = termService.findAll(vocabulary);
         getTransitivelyImportedVocabularies(vocabulary).forEach(
                 importedVocabulary -> allTerms.addAll(termService.findAll(getReference(importedVocabulary))));
-        final Map<TermDto, URI> termsToContexts = new HashMap<>(allTerms.size());
-        allTerms.forEach(t -> termsToContexts.put(t, contextMapper.getVocabularyContext(t.getVocabulary())));
-        termsToContexts.forEach(termService::analyzeTermDefinition);
+        analyzeTermDefinitions(allTerms);
+    }
+
+    private void analyzeTermDefinitions(List<TermDto> terms) {
+        final Configuration config = context.getBean(Configuration.class);
+        if (config.getTextAnalysis().isBatchTermDefinitionAnalysis()) {
+            final Map<TermDto, URI> termsToVocabularies = new HashMap<>(terms.size());
+            terms.forEach(t -> termsToVocabularies.put(t, t.getVocabulary()));
+            termService.analyzeTermDefinitions(termsToVocabularies);
+        } else {
+            final Map<TermDto, URI> termsToContexts = new HashMap<>(terms.size());
+            terms.forEach(t -> termsToContexts.put(t, contextMapper.getVocabularyContext(t.getVocabulary())));
+            termsToContexts.forEach(termService::analyzeTermDefinition);
+        }
     }
 
     /**
      * Runs text analysis on definitions of all terms in all vocabularies.
+     * <p>
+     * Definitions which did not change since their latest analysis are skipped, unless {@code force} is specified.
+     *
+     * @param force Whether to analyze also definitions whose latest analysis is up-to-date
      */
     @Throttle(group = "T(ThrottleGroupProvider).getTextAnalysisVocabulariesAll()", name = "allVocabulariesAnalysis")
     @Transactional
-    public void runTextAnalysisOnAllVocabularies() {
+    public void runTextAnalysisOnAllVocabularies(boolean force) {
         LOG.debug("Analyzing definitions of all terms in all vocabularies.");
-        final Map<TermDto, URI> termsToContexts = new HashMap<>();
-        repositoryService.findAll().forEach(v -> {
-            List<TermDto> terms = termService.findAll(new Vocabulary(v.getUri()));
-            terms.forEach(t -> termsToContexts.put(t, contextMapper.getVocabularyContext(t.getVocabulary())));
-            termsToContexts.forEach(termService::analyzeTermDefinition);
-        });
+        if (force) {
+            termService.clearTermDefinitionFingerprints();
+        }
+        final List<TermDto> allTerms = new ArrayList<>();
+        repositoryService.findAll().forEach(v -> allTerms.addAll(termService.findAll(new Vocabulary(v.getUri()))));
+        analyzeTermDefinitions(allTerms);
     }
 
     /**
@@ -0,0 +1,285 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.cluster;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.event.AccessControlListModifiedEvent;
+import cz.cvut.kbss.termit.event.AssetPersistEvent;
+import cz.cvut.kbss.termit.event.AssetUpdateEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
+import cz.cvut.kbss.termit.event.UserAccountUpdatedEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyCreatedEvent;
+import cz.cvut.kbss.termit.event.VocabularyEvent;
+import cz.cvut.kbss.termit.event.VocabularyModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyWillBeRemovedEvent;
+import cz.cvut.kbss.termit.model.UserAccount;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.dao.UserAccountDao;
+import cz.cvut.kbss.termit.service.repository.RepositoryAccessControlListService;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.throttle.ReadOnlyTransactionExecutor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Propagates invalidations of in-memory caches between TermIt instances running against the same repository.
+ * <p>
+ * Local events signalling that cached data became stale are translated to {@link Invalidation}s and collected. The
+ * collected invalidations are periodically sent to other instances using a {@link ClusterTransport}. Invalidations of
+ * the same data collected within one interval are coalesced and eviction of all caches supersedes any other
+ * invalidation.
+ * <p>
+ * Invalidations received from other instances are applied by publishing the corresponding events locally (marked as
+ * remote, see {@link VocabularyEvent#isRemote()}), so that all the caches listening to them are updated.
+ * Caches which do not listen to events, i.e., the second level cache of the persistence layer and the access control
+ * list cache, are evicted directly.
+ */
+@Component
+@ConditionalOnProperty(prefix = "termit.cluster", name = "enabled", havingValue = "true")
+public class ClusterInvalidationBus {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClusterInvalidationBus.class);
+
+    private final ClusterTransport transport;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final EntityManager em;
+
+    private final VocabularyContextMapper contextMapper;
+
+    private final UserAccountDao userAccountDao;
+
+    private final ReadOnlyTransactionExecutor transactionExecutor;
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    private final TaskScheduler taskScheduler;
+
+    private final Duration syncInterval;
+
+    private final Set<Invalidation> pending = new LinkedHashSet<>();
+
+    private ScheduledFuture<?> syncTask;
+
+    public ClusterInvalidationBus(ClusterTransport transport, ApplicationEventPublisher eventPublisher,
+                                  EntityManager em, VocabularyContextMapper contextMapper,
+                                  UserAccountDao userAccountDao,
+                                  ReadOnlyTransactionExecutor transactionExecutor,
+                                  ObjectProvider<CacheManager> cacheManager,
+                                  @Qualifier("longRunningTaskScheduler") TaskScheduler taskScheduler,
+                                  Configuration config) {
+        this.transport = transport;
+        this.eventPublisher = eventPublisher;
+        this.em = em;
+        this.contextMapper = contextMapper;
+        this.userAccountDao = userAccountDao;
+        this.transactionExecutor = transactionExecutor;
+        this.cacheManager = cacheManager;
+        this.taskScheduler = taskScheduler;
+        this.syncInterval = config.getCluster().getSyncInterval();
+    }
+
+    @PostConstruct
+    void start() {
+        LOG.info("Starting cluster cache invalidation as node {}.", transport.getNodeId());
+        this.syncTask = taskScheduler.scheduleWithFixedDelay(this::synchronize, syncInterval);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (syncTask != null) {
+            syncTask.cancel(false);
+        }
+        try {
+            send();
+        } catch (RuntimeException e) {
+            LOG.warn("Unable to send pending cache invalidations to other nodes on shutdown.", e);
+        }
+    }
+
+    /**
+     * Sends pending invalidations to other instances and applies invalidations received from them.
+     */
+    public void synchronize() {
+        try {
+            send();
+            transport.receive().forEach(this::apply);
+        } catch (RuntimeException e) {
+            LOG.error("Unable to synchronize cache invalidations with other nodes.", e);
+        }
+    }
+
+    private void send() {
+        final List<Invalidation> toSend;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            toSend = new ArrayList<>(pending);
+            pending.clear();
+        }
+        try {
+            transport.send(toSend);
+        } catch (RuntimeException e) {
+            // Put the invalidations back so that they are sent next time
+            toSend.forEach(this::enqueue);
+            throw e;
+        }
+    }
+
+    void enqueue(Invalidation invalidation) {
+        synchronized (pending) {
+            if (pending.contains(Invalidation.of(Invalidation.Type.EVICT_ALL))) {
+                return;
+            }
+            if (invalidation.type() == Invalidation.Type.EVICT_ALL) {
+                pending.clear();
+            }
+            pending.add(invalidation);
+        }
+    }
+
+    void apply(Invalidation invalidation) {
+        LOG.trace("Applying invalidation {} received from another node.", invalidation);
+        final URI subject = invalidation.subject();
+        switch (invalidation.type()) {
+            case EVICT_ALL -> eventPublisher.publishEvent(new EvictCacheEvent(this, true));
+            case LAST_MODIFIED -> eventPublisher.publishEvent(new RefreshLastModifiedEvent(this, true));
+            case VOCABULARY_CREATED -> eventPublisher.publishEvent(new VocabularyCreatedEvent(this, subject, true));
+            case VOCABULARY_MODIFIED -> {
+                evictVocabularyContext(subject);
+                eventPublisher.publishEvent(new VocabularyModifiedEvent(this, subject, true));
+            }
+            case VOCABULARY_CONTENT_MODIFIED -> {
+                evictVocabularyContext(subject);
+                eventPublisher.publishEvent(new VocabularyContentModifiedEvent(this, subject, true));
+            }
+            case ACL_MODIFIED -> evictAccessControlList(subject);
+            case USER_ACCOUNT_MODIFIED -> applyUserAccountModified(subject);
+        }
+    }
+
+    private void applyUserAccountModified(URI account) {
+        em.getEntityManagerFactory().getCache().evict(UserAccount.class, account, null);
+        transactionExecutor.execute(() -> userAccountDao.find(account).ifPresent(
+                ua -> eventPublisher.publishEvent(new UserAccountUpdatedEvent(ua, true))));
+    }
+
+    private void evictVocabularyContext(URI vocabulary) {
+        em.getEntityManagerFactory().getCache().evict(contextMapper.getVocabularyContext(vocabulary));
+    }
+
+    private void evictAccessControlList(URI subject) {
+        final Cache cache = Optional.ofNullable(cacheManager.getIfAvailable())
+                                    .map(cm -> cm.getCache(RepositoryAccessControlListService.CACHE_NAME))
+                                    .orElse(null);
+        if (cache == null) {
+            return;
+        }
+        if (subject != null) {
+            cache.evict(subject);
+        } else {
+            cache.clear();
+        }
+    }
+
+    @EventListener
+    public void onEvictCache(EvictCacheEvent event) {
+        if (!event.isRemote()) {
+            enqueue(Invalidation.of(Invalidation.Type.EVICT_ALL));
+        }
+    }
+
+    @EventListener
+    public void onRefreshLastModified(RefreshLastModifiedEvent event) {
+        if (!event.isRemote()) {
+            enqueue(Invalidation.of(Invalidation.Type.LAST_MODIFIED));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyCreated(VocabularyCreatedEvent event) {
+        if (!event.isRemote()) {
+            enqueue(Invalidation.of(Invalidation.Type.VOCABULARY_CREATED, event.getVocabularyIri()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyContentModified(VocabularyContentModifiedEvent event) {
+        if (!event.isRemote()) {
+            enqueue(Invalidation.of(Invalidation.Type.VOCABULARY_CONTENT_MODIFIED, event.getVocabularyIri()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyRemoved(VocabularyWillBeRemovedEvent event) {
+        enqueue(Invalidation.of(Invalidation.Type.VOCABULARY_MODIFIED, event.getVocabularyIri()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetPersisted(AssetPersistEvent event) {
+        if (event.getAsset() instanceof Vocabulary vocabulary) {
+            enqueue(Invalidation.of(Invalidation.Type.VOCABULARY_MODIFIED, vocabulary.getUri()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetUpdated(AssetUpdateEvent event) {
+        if (event.getAsset() instanceof Vocabulary vocabulary) {
+            enqueue(Invalidation.of(Invalidation.Type.VOCABULARY_MODIFIED, vocabulary.getUri()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserAccountUpdated(UserAccountUpdatedEvent event) {
+        if (!event.isRemote()) {
+            enqueue(Invalidation.of(Invalidation.Type.USER_ACCOUNT_MODIFIED, event.getUser().getUri()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccessControlListModified(AccessControlListModifiedEvent event) {
+        // Unknown subject means all ACLs are evicted
+        enqueue(Invalidation.of(Invalidation.Type.ACL_MODIFIED, event.getSubject()));
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.cluster;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Transport used to exchange cache invalidations between TermIt instances running against the same repository.
+ * <p>
+ * Transports are expected to be polled, i.e., invalidations published by other instances are buffered by the transport
+ * until they are retrieved by {@link #receive()}.
+ */
+public interface ClusterTransport {
+
+    /**
+     * Gets identifier of the instance (node) this transport belongs to.
+     *
+     * @return Node identifier
+     */
+    String getNodeId();
+
+    /**
+     * Sends the specified invalidations to other instances.
+     *
+     * @param invalidations Invalidations to send, possibly empty
+     */
+    void send(Collection<Invalidation> invalidations);
+
+    /**
+     * Retrieves invalidations sent by other instances since the last call of this method.
+     * <p>
+     * Invalidations sent by this instance are not returned.
+     *
+     * @return List of received invalidations, possibly empty
+     */
+    List<Invalidation> receive();
+}
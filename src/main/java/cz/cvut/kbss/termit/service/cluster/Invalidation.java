@@ -0,0 +1,101 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.cluster;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * Invalidation of cached data propagated between TermIt instances.
+ *
+ * @param type    Type of the invalidation
+ * @param subject Identifier of the invalidated object, if the invalidation concerns a single object
+ */
+public record Invalidation(@Nonnull Type type, @Nullable URI subject) {
+
+    public Invalidation {
+        Objects.requireNonNull(type);
+    }
+
+    public static Invalidation of(@Nonnull Type type) {
+        return new Invalidation(type, null);
+    }
+
+    public static Invalidation of(@Nonnull Type type, @Nullable URI subject) {
+        return new Invalidation(type, subject);
+    }
+
+    /**
+     * Serializes this invalidation into a string which can be parsed by {@link #parse(String)}.
+     *
+     * @return String representation of this invalidation
+     */
+    public String serialize() {
+        return subject != null ? type.name() + " " + subject : type.name();
+    }
+
+    /**
+     * Parses an invalidation from its string representation created by {@link #serialize()}.
+     *
+     * @param value String to parse
+     * @return Parsed invalidation
+     * @throws IllegalArgumentException If the value does not represent a valid invalidation
+     */
+    public static Invalidation parse(@Nonnull String value) {
+        final int separator = value.indexOf(' ');
+        if (separator < 0) {
+            return of(Type.valueOf(value));
+        }
+        return of(Type.valueOf(value.substring(0, separator)), URI.create(value.substring(separator + 1)));
+    }
+
+    public enum Type {
+        /**
+         * All application caches should be evicted.
+         */
+        EVICT_ALL,
+        /**
+         * Last modification timestamps should be refreshed.
+         */
+        LAST_MODIFIED,
+        /**
+         * A vocabulary has been created.
+         */
+        VOCABULARY_CREATED,
+        /**
+         * A vocabulary (its metadata) has been modified or removed.
+         */
+        VOCABULARY_MODIFIED,
+        /**
+         * Content (terms) of a vocabulary has been modified.
+         */
+        VOCABULARY_CONTENT_MODIFIED,
+        /**
+         * Access control list of an asset has been modified. The subject is the identifier of the asset.
+         */
+        ACL_MODIFIED,
+        /**
+         * A user account has been modified in a way which may affect authentication or authorization of the user. The
+         * subject is the identifier of the account.
+         */
+        USER_ACCOUNT_MODIFIED
+    }
+}
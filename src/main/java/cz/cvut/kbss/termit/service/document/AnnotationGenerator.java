@@ -30,7 +30,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
@@ -153,7 +158,32 @@ public class AnnotationGenerator {
         final TermOccurrenceResolver occurrenceResolver = resolvers.htmlTermOccurrenceResolver();
         LOG.debug("Resolving annotations of the definition of {}.", annotatedTerm);
         occurrenceResolver.parseContent(content, annotatedTerm);
-        occurrenceResolver.findTermOccurrences(o -> occurrenceSaver.saveOccurrence(o, annotatedTerm));
+        final List<TermOccurrence> occurrences = new ArrayList<>();
+        occurrenceResolver.findTermOccurrences(occurrences::add);
+        occurrenceSaver.saveAll(occurrences);
         LOG.trace("Finished generating annotations for the definition of {}.", annotatedTerm);
     }
+
+    /**
+     * Generates annotations (term occurrences) for terms identified in definitions of the specified terms.
+     * <p>
+     * This is a bulk version of {@link #generateAnnotations(InputStream, AbstractTerm)}. Occurrences resolved from all
+     * the definitions are saved together.
+     *
+     * @param annotatedDefinitions Map of terms to their definitions with identified term occurrences
+     */
+    @Transactional
+    public void generateAnnotations(Map<? extends AbstractTerm, String> annotatedDefinitions) {
+        final TermOccurrenceResolver occurrenceResolver = resolvers.htmlTermOccurrenceResolver();
+        final List<TermOccurrence> occurrences = new ArrayList<>();
+        annotatedDefinitions.forEach((term, definition) -> {
+            LOG.trace("Resolving annotations of the definition of {}.", term);
+            occurrenceResolver.parseContent(new ByteArrayInputStream(definition.getBytes(StandardCharsets.UTF_8)),
+                                            term);
+            occurrenceResolver.findTermOccurrences(occurrences::add);
+        });
+        LOG.debug("Resolved {} occurrences in definitions of {} terms.", occurrences.size(),
+                  annotatedDefinitions.size());
+        occurrenceSaver.saveAll(occurrences);
+    }
 }
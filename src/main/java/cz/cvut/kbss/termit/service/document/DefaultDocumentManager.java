@@ -39,8 +39,15 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
@@ -50,14 +57,23 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 /**
  * Default document manager uses files on filesystem to store content.
+ * <p>
+ * Metadata of the current content of each file (media type, size, hash) are computed when the content is saved and
+ * stored in the {@literal .metadata} directory of the storage, so that they survive restarts. Renditions derived from
+ * file content are stored in the {@literal .renditions} directory, keyed by hash of the content they were derived
+ * from.
  */
 @Service
 public class DefaultDocumentManager implements DocumentManager {
@@ -69,8 +85,17 @@ public class DefaultDocumentManager implements DocumentManager {
     static final DateTimeFormatter BACKUP_TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HHmmss_S")
                                                                               .withZone(ZoneId.systemDefault());
 
+    static final String METADATA_DIRECTORY = ".metadata";
+    static final String RENDITIONS_DIRECTORY = ".renditions";
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
     private final Configuration config;
 
+    private final Tika tika = new Tika();
+
+    private final Map<URI, FileMetadata> metadataCache = new ConcurrentHashMap<>();
+
     @Autowired
     public DefaultDocumentManager(Configuration config) {
         this.config = config;
@@ -165,13 +190,156 @@ public class DefaultDocumentManager implements DocumentManager {
         try {
             final java.io.File target = resolveFile(file, false);
             LOG.debug("Saving file content to {}.", target);
+            final Optional<FileMetadata> previous = target.exists() ? findMetadata(file, target) : Optional.empty();
             Files.createDirectories(target.getParentFile().toPath());
-            Files.copy(content, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            final MessageDigest digest = createDigest();
+            Files.copy(new DigestInputStream(content, digest), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            final FileMetadata metadata = new FileMetadata(tika.detect(target), target.length(),
+                                                           HexFormat.of().formatHex(digest.digest()),
+                                                           target.lastModified());
+            storeMetadata(file, metadata);
+            previous.filter(m -> !m.hash().equals(metadata.hash())).ifPresent(m -> removeRenditions(m.hash()));
         } catch (IOException e) {
             throw new DocumentManagerException("Unable to write out file content.", e);
         }
     }
 
+    @Override
+    public FileMetadata getMetadata(File file) {
+        final java.io.File content = resolveFile(file, true);
+        return findMetadata(file, content).orElseGet(() -> {
+            LOG.trace("Computing metadata of file {}.", file);
+            final FileMetadata metadata = computeMetadata(content);
+            storeMetadata(file, metadata);
+            return metadata;
+        });
+    }
+
+    /**
+     * Finds cached or stored metadata of the specified file, provided they describe its current content.
+     */
+    private Optional<FileMetadata> findMetadata(File file, java.io.File content) {
+        if (file.getUri() == null) {
+            return Optional.empty();
+        }
+        final FileMetadata cached = metadataCache.get(file.getUri());
+        if (cached != null && cached.describes(content)) {
+            return Optional.of(cached);
+        }
+        final Path metadataFile = resolveMetadataFile(file);
+        if (!Files.exists(metadataFile)) {
+            return Optional.empty();
+        }
+        try (final InputStream in = Files.newInputStream(metadataFile)) {
+            final Properties properties = new Properties();
+            properties.load(in);
+            final FileMetadata stored = new FileMetadata(properties.getProperty("mediaType"),
+                                                         Long.parseLong(properties.getProperty("size")),
+                                                         properties.getProperty("hash"),
+                                                         Long.parseLong(properties.getProperty("lastModified")));
+            if (!stored.describes(content)) {
+                return Optional.empty();
+            }
+            metadataCache.put(file.getUri(), stored);
+            return Optional.of(stored);
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Unable to read stored metadata of file {}.", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private FileMetadata computeMetadata(java.io.File content) {
+        final MessageDigest digest = createDigest();
+        try (final InputStream in = new DigestInputStream(Files.newInputStream(content.toPath()), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return new FileMetadata(tika.detect(content), content.length(), HexFormat.of().formatHex(digest.digest()),
+                                    content.lastModified());
+        } catch (IOException e) {
+            throw new DocumentManagerException("Unable to determine file metadata.", e);
+        }
+    }
+
+    private void storeMetadata(File file, FileMetadata metadata) {
+        if (file.getUri() == null) {
+            return;
+        }
+        metadataCache.put(file.getUri(), metadata);
+        final Path metadataFile = resolveMetadataFile(file);
+        final Properties properties = new Properties();
+        if (metadata.mediaType() != null) {
+            properties.setProperty("mediaType", metadata.mediaType());
+        }
+        properties.setProperty("size", Long.toString(metadata.size()));
+        properties.setProperty("hash", metadata.hash());
+        properties.setProperty("lastModified", Long.toString(metadata.lastModified()));
+        try {
+            Files.createDirectories(metadataFile.getParent());
+            final Path tmp = Files.createTempFile(metadataFile.getParent(), metadataFile.getFileName().toString(),
+                                                  ".tmp");
+            try (final OutputStream out = Files.newOutputStream(tmp)) {
+                properties.store(out, file.getUri().toString());
+            }
+            Files.move(tmp, metadataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Unable to store metadata of file {}, they will be computed again when needed.", file, e);
+        }
+    }
+
+    /**
+     * Metadata are stored by file identifier, so that they need not be moved when the file is renamed.
+     */
+    private Path resolveMetadataFile(File file) {
+        final String name = HexFormat.of().formatHex(
+                createDigest().digest(file.getUri().toString().getBytes(StandardCharsets.UTF_8)));
+        return Path.of(config.getFile().getStorage(), METADATA_DIRECTORY, name + ".properties");
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new TermItException("Unable to compute content hash.", e);
+        }
+    }
+
+    @Override
+    public TypeAwareResource getRendition(File file, String rendition,
+                                          UnaryOperator<TypeAwareResource> renderer) {
+        Objects.requireNonNull(rendition);
+        Objects.requireNonNull(renderer);
+        final FileMetadata metadata = getMetadata(file);
+        final TypeAwareResource source = getAsResource(file);
+        final Path target = Path.of(config.getFile().getStorage(), RENDITIONS_DIRECTORY,
+                                    metadata.hash() + "." + rendition + source.getFileExtension().orElse(""));
+        if (!Files.exists(target)) {
+            LOG.trace("Rendering {} of file {}.", rendition, file);
+            final TypeAwareResource rendered = renderer.apply(source);
+            try {
+                Files.createDirectories(target.getParent());
+                final Path tmp = Files.createTempFile(target.getParent(), metadata.hash(), ".tmp");
+                try (final InputStream in = rendered.getInputStream()) {
+                    Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                LOG.warn("Unable to cache {} of file {}.", rendition, file, e);
+                return rendered;
+            }
+        }
+        return new TypeAwareFileSystemResource(target.toFile(), metadata.mediaType());
+    }
+
+    private void removeRenditions(String hash) {
+        final java.io.File[] renditions = Path.of(config.getFile().getStorage(), RENDITIONS_DIRECTORY).toFile()
+                                              .listFiles((dir, name) -> name.startsWith(hash + "."));
+        if (renditions != null) {
+            LOG.trace("Removing renditions of content {}.", hash);
+            for (java.io.File rendition : renditions) {
+                rendition.delete();
+            }
+        }
+    }
+
     @Override
     public void createBackup(File file) {
         try {
@@ -212,12 +380,7 @@ public class DefaultDocumentManager implements DocumentManager {
     }
 
     private String getMediaType(File file) {
-        final java.io.File content = resolveFile(file, true);
-        try {
-            return new Tika().detect(content);
-        } catch (IOException e) {
-            throw new DocumentManagerException("Unable to determine file content type.", e);
-        }
+        return getMetadata(file).mediaType();
     }
 
     @Override
@@ -242,10 +405,24 @@ public class DefaultDocumentManager implements DocumentManager {
             return;
         }
         removeBackups(file, physicalFile);
+        findMetadata(file, physicalFile).ifPresent(m -> removeRenditions(m.hash()));
+        removeMetadata(file);
         physicalFile.delete();
         removeParentIfNotInDocument(file, physicalFile);
     }
 
+    private void removeMetadata(File file) {
+        if (file.getUri() == null) {
+            return;
+        }
+        metadataCache.remove(file.getUri());
+        try {
+            Files.deleteIfExists(resolveMetadataFile(file));
+        } catch (IOException e) {
+            LOG.warn("Unable to remove stored metadata of file {}.", file, e);
+        }
+    }
+
     private void removeBackups(File file, java.io.File physicalFile) {
         LOG.trace("Removing backups of file {}.", physicalFile);
         processBackups(file, physicalFile.getParentFile(), java.io.File::delete);
@@ -25,6 +25,7 @@ import cz.cvut.kbss.termit.util.TypeAwareResource;
 import java.io.InputStream;
 import java.time.Instant;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 /**
  * Manages the physical aspect of documents supported by the system, i.e., mainly the files stored for each document.
@@ -110,6 +111,31 @@ public interface DocumentManager {
      */
     Optional<String> getContentType(File file);
 
+    /**
+     * Gets metadata of the current content of the specified file.
+     * <p>
+     * Metadata are determined when file content is saved, so that they need not be computed on every access.
+     *
+     * @param file File whose metadata to get
+     * @return Content metadata
+     * @throws NotFoundException If a corresponding physical file cannot be found
+     */
+    FileMetadata getMetadata(File file);
+
+    /**
+     * Gets a rendition of the current content of the specified file.
+     * <p>
+     * A rendition is derived from file content by the specified renderer. Renditions are cached by hash of the
+     * content they were derived from, so the renderer is invoked only once for each version of the content.
+     *
+     * @param file      File whose content to render
+     * @param rendition Name of the rendition, distinguishes different renditions of the same content
+     * @param renderer  Derives the rendition from file content
+     * @return Resource representation of the rendition
+     * @throws NotFoundException If a corresponding physical file cannot be found
+     */
+    TypeAwareResource getRendition(File file, String rendition, UnaryOperator<TypeAwareResource> renderer);
+
     /**
      * Deletes the specified resource and all related data.
      * <p>
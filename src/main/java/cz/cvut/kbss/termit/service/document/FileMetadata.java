@@ -0,0 +1,41 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+/**
+ * Metadata of stored file content.
+ * <p>
+ * Size and last modification time of the physical file are used to recognize whether the metadata are up to date.
+ *
+ * @param mediaType    Detected media type of the content
+ * @param size         Size of the content in bytes
+ * @param hash         Hash of the content, usable as its entity tag
+ * @param lastModified Last modification time of the physical file, in milliseconds since the epoch
+ */
+public record FileMetadata(String mediaType, long size, String hash, long lastModified) {
+
+    /**
+     * Checks whether these metadata describe the current content of the specified physical file.
+     *
+     * @param content Physical file
+     * @return {@code true} if the file has not changed since the metadata were computed
+     */
+    public boolean describes(java.io.File content) {
+        return content.length() == size && content.lastModified() == lastModified;
+    }
+}
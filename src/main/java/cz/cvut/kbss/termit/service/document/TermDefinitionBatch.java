@@ -0,0 +1,111 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.exception.AnnotationGenerationException;
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import cz.cvut.kbss.termit.util.Constants;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Packs definitions of multiple terms into a single document for text analysis and splits the analysis result back
+ * into annotated definitions of the individual terms.
+ * <p>
+ * Each definition is put into a separate element marked with the identifier of the term. RDFa prefixes declared in the
+ * analysis result are copied to every extracted definition, so that the definitions can be processed independently.
+ */
+class TermDefinitionBatch {
+
+    /**
+     * Attribute identifying the term whose definition is contained in an element.
+     */
+    static final String TERM_ATTRIBUTE = "data-termit-definition-of";
+
+    private final Map<URI, AbstractTerm> terms;
+
+    private final String language;
+
+    TermDefinitionBatch(List<? extends AbstractTerm> terms, String language) {
+        this.terms = terms.stream().collect(Collectors.toMap(AbstractTerm::getUri, Function.identity(),
+                                                             (a, b) -> a, LinkedHashMap::new));
+        this.language = Objects.requireNonNull(language);
+    }
+
+    /**
+     * Creates a single HTML document containing definitions of all the terms in this batch.
+     *
+     * @return HTML document content
+     */
+    String compose() {
+        final Document document = Document.createShell("");
+        document.outputSettings().prettyPrint(false);
+        // Definitions are appended as they are, so that they are analyzed the same way as single definitions
+        terms.values().forEach(t -> document.body().appendElement("div")
+                                            .attr(TERM_ATTRIBUTE, t.getUri().toString())
+                                            .append(t.getDefinition().get(language)));
+        return document.outerHtml();
+    }
+
+    /**
+     * Splits the text analysis result into annotated definitions of the individual terms.
+     * <p>
+     * Terms whose definitions are not found in the result are not contained in the returned map.
+     *
+     * @param analysisResult Text analysis result of the document created by {@link #compose()}
+     * @return Map of terms to their annotated definitions
+     */
+    Map<AbstractTerm, String> split(InputStream analysisResult) {
+        final Document document;
+        try {
+            document = Jsoup.parse(analysisResult, StandardCharsets.UTF_8.name(), "");
+        } catch (IOException e) {
+            throw new AnnotationGenerationException("Unable to read text analysis result.", e);
+        }
+        // Pretty printing would add whitespace into the extracted definitions
+        document.outputSettings().prettyPrint(false);
+        final String prefixes = String.join(" ", document.getElementsByAttribute(Constants.RDFa.PREFIX)
+                                                         .eachAttr(Constants.RDFa.PREFIX));
+        final Map<AbstractTerm, String> result = new LinkedHashMap<>(terms.size());
+        for (Element element : document.getElementsByAttribute(TERM_ATTRIBUTE)) {
+            final AbstractTerm term = terms.get(URI.create(element.attr(TERM_ATTRIBUTE)));
+            if (term == null) {
+                continue;
+            }
+            // The element is kept in the document, so that it is serialized using the document output settings
+            element.clearAttributes();
+            if (!prefixes.isEmpty()) {
+                element.attr(Constants.RDFa.PREFIX, prefixes);
+            }
+            result.put(term, element.outerHtml());
+        }
+        return result;
+    }
+}
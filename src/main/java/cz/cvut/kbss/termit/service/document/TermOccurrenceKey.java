@@ -0,0 +1,40 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
+import cz.cvut.kbss.termit.model.selector.Selector;
+import cz.cvut.kbss.termit.util.Utils;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Key identifying a term occurrence by its content, i.e., its term, target source and selectors.
+ * <p>
+ * Occurrence identifiers are not stable across text analysis runs, so occurrences from different runs have to be
+ * matched by their content.
+ */
+record TermOccurrenceKey(URI term, URI source, Set<Selector> selectors) {
+
+    static TermOccurrenceKey of(TermOccurrence occurrence) {
+        return new TermOccurrenceKey(occurrence.getTerm(), occurrence.getTarget().getSource(), new HashSet<>(
+                Utils.emptyIfNull(occurrence.getTarget().getSelectors())));
+    }
+}
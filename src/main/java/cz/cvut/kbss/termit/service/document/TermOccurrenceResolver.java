@@ -30,7 +30,10 @@ import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
 import java.io.InputStream;
 import java.net.URI;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.Consumer;
 
 /**
@@ -42,6 +45,8 @@ public abstract class TermOccurrenceResolver {
 
     protected List<TermOccurrence> existingOccurrences = Collections.emptyList();
 
+    private final Map<TermOccurrenceKey, TermOccurrence> existingByContent = new HashMap<>();
+
     protected TermOccurrenceResolver(TermRepositoryService termService) {
         this.termService = termService;
     }
@@ -59,11 +64,28 @@ public abstract class TermOccurrenceResolver {
 
     /**
      * Sets occurrences that already existed on previous analyses.
+     * <p>
+     * Resolved occurrences with the same content (term, target source and selectors) as an existing occurrence may
+     * reuse its identifier, so that they are not rewritten when saved.
      *
      * @param existingOccurrences Term occurrences from the previous analysis run
      */
     public void setExistingOccurrences(List<TermOccurrence> existingOccurrences) {
         this.existingOccurrences = existingOccurrences;
+        existingByContent.clear();
+        existingOccurrences.forEach(o -> existingByContent.putIfAbsent(TermOccurrenceKey.of(o), o));
+    }
+
+    /**
+     * Takes an existing occurrence with the same content (term, target source and selectors) as the specified one.
+     * <p>
+     * Each existing occurrence is returned at most once.
+     *
+     * @param occurrence Newly resolved occurrence
+     * @return Matching existing occurrence, empty if there is none (or it has already been taken)
+     */
+    protected Optional<TermOccurrence> takeExistingWithSameContent(TermOccurrence occurrence) {
+        return Optional.ofNullable(existingByContent.remove(TermOccurrenceKey.of(occurrence)));
     }
 
     /**
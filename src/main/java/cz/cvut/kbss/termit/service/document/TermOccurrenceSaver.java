@@ -3,16 +3,25 @@ package cz.cvut.kbss.termit.service.document;
 import cz.cvut.kbss.termit.exception.TermItException;
 import cz.cvut.kbss.termit.model.Asset;
 import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
+import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceBatchWriter;
 import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
+import cz.cvut.kbss.termit.util.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.net.URI;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Saves occurrences synchronously.
@@ -26,8 +35,11 @@ public class TermOccurrenceSaver {
 
     private final TermOccurrenceDao termOccurrenceDao;
 
-    public TermOccurrenceSaver(TermOccurrenceDao termOccurrenceDao) {
+    private final Configuration config;
+
+    public TermOccurrenceSaver(TermOccurrenceDao termOccurrenceDao, Configuration config) {
         this.termOccurrenceDao = termOccurrenceDao;
+        this.config = config;
     }
 
     /**
@@ -48,14 +60,25 @@ public class TermOccurrenceSaver {
         occurrences.stream().filter(o -> !o.getTerm().equals(source.getUri())).forEach(termOccurrenceDao::persist);
     }
 
-    public void saveOccurrence(TermOccurrence occurrence, Asset<?> source) {
-        if (occurrence.getTerm().equals(source.getUri())) {
-            return;
-        }
-        if(!termOccurrenceDao.exists(occurrence.getUri())) {
-            termOccurrenceDao.persist(occurrence);
-        } else {
-            LOG.debug("Occurrence already exists, skipping: {}", occurrence);
+    /**
+     * Saves the specified occurrences, which may target different assets.
+     * <p>
+     * Occurrences of a term in its own definition and occurrences that already exist in the repository are skipped,
+     * the rest is written in batches (see {@link TermOccurrenceBatchWriter}).
+     *
+     * @param occurrences Occurrences to save
+     */
+    @Transactional
+    public void saveAll(List<TermOccurrence> occurrences) {
+        final List<TermOccurrence> toSave = occurrences.stream().filter(o -> !o.getTerm().equals(
+                o.getTarget().getSource())).toList();
+        final Set<URI> existing = termOccurrenceDao.findExisting(
+                toSave.stream().map(TermOccurrence::getUri).filter(Objects::nonNull).toList());
+        final int batchSize = config.getTextAnalysis().getTermOccurrenceBatchSize();
+        try (final TermOccurrenceBatchWriter writer = termOccurrenceDao.createBatchWriter(batchSize)) {
+            toSave.stream().filter(o -> o.getUri() == null || !existing.contains(o.getUri())).forEach(writer::write);
+            writer.commit();
+            LOG.debug("Saved {} term occurrences, {} already existed.", writer.getWrittenCount(), existing.size());
         }
     }
 
@@ -63,7 +86,18 @@ public class TermOccurrenceSaver {
      * Continously saves occurrences from the queue while blocking current thread until
      * {@code #finished} is set to {@code true}.
      * <p>
-     * Removes all existing occurrences before processing.
+     * By default, removes all existing occurrences before processing. The occurrences are written in batches (see
+     * {@link TermOccurrenceBatchWriter}), occurrences with an identifier that has already been saved are skipped. The
+     * removal and all the batches are committed together once the queue is drained, if saving fails, none of them is
+     * applied.
+     * <p>
+     * If incremental saving is enabled (see {@link Configuration.TextAnalysis#isIncrementalOccurrenceSaving()}), only
+     * the difference between the existing and the new occurrences is written instead. Existing occurrences are matched
+     * by their content (term, target source and selectors), as their identifiers are not stable across analysis runs
+     * (the resolver reuses identifiers of matching existing occurrences where it can, see
+     * {@link TermOccurrenceResolver#setExistingOccurrences(List)}). Matching occurrences with the same identifier are
+     * preserved (only their suggestion state is updated if it changed), existing occurrences without a match are
+     * removed and new occurrences without a match are added.
      *
      * @param source   Asset in which the terms occur
      * @param finished Whether all occurrences were added to the queue
@@ -73,21 +107,17 @@ public class TermOccurrenceSaver {
     public void saveFromQueue(final Asset<?> source, final AtomicBoolean finished,
                               final BlockingQueue<TermOccurrence> toSave) {
         LOG.debug("Saving term occurrences for asset {}.", source);
-        removeAll(source);
-        TermOccurrence occurrence;
-        long count = 0;
-        try {
-            while (!finished.get() || !toSave.isEmpty()) {
-                if (toSave.isEmpty()) {
-                    Thread.yield();
-                }
-                occurrence = toSave.poll(1, TimeUnit.SECONDS);
-                if (occurrence != null) {
-                    saveOccurrence(occurrence, source);
-                    count++;
-                }
+        final int batchSize = config.getTextAnalysis().getTermOccurrenceBatchSize();
+        try (final TermOccurrenceBatchWriter writer = termOccurrenceDao.createBatchWriter(source, batchSize)) {
+            if (config.getTextAnalysis().isIncrementalOccurrenceSaving()) {
+                saveDifference(source, finished, toSave, writer);
+            } else {
+                LOG.trace("Removing all existing occurrences in asset {}.", source);
+                writer.removeAll();
+                drainQueue(source, finished, toSave, writer::write);
+                writer.commit();
+                LOG.debug("Saved {} term occurrences for assert {}.", writer.getWrittenCount(), source);
             }
-            LOG.debug("Saved {} term occurrences for assert {}.", count, source);
         } catch (InterruptedException e) {
             LOG.error("Thread interrupted while waiting for occurrences to save.");
             Thread.currentThread().interrupt();
@@ -95,6 +125,106 @@ public class TermOccurrenceSaver {
         }
     }
 
+    private static void drainQueue(Asset<?> source, AtomicBoolean finished, BlockingQueue<TermOccurrence> toSave,
+                                   Consumer<TermOccurrence> consumer) throws InterruptedException {
+        TermOccurrence occurrence;
+        while (!finished.get() || !toSave.isEmpty()) {
+            if (toSave.isEmpty()) {
+                Thread.yield();
+            }
+            occurrence = toSave.poll(1, TimeUnit.SECONDS);
+            if (occurrence != null && !occurrence.getTerm().equals(source.getUri())) {
+                consumer.accept(occurrence);
+            }
+        }
+    }
+
+    private void saveDifference(Asset<?> source, AtomicBoolean finished, BlockingQueue<TermOccurrence> toSave,
+                                TermOccurrenceBatchWriter writer) throws InterruptedException {
+        final OccurrenceDiff diff = new OccurrenceDiff(getExistingOccurrences(source), writer);
+        drainQueue(source, finished, toSave, diff::apply);
+        diff.removeUnmatched();
+        writer.commit();
+        LOG.info("Incrementally saved term occurrences for asset {}: {} added, {} removed, {} updated, {} " +
+                          "unchanged. {} statements added, {} statements removed.", source, diff.added, diff.removed,
+                  diff.updated, diff.unchanged, writer.getAddedStatementCount(), writer.getRemovedStatementCount());
+    }
+
+    /**
+     * Applies the difference between the existing and the new occurrences using a batch writer.
+     */
+    private static class OccurrenceDiff {
+
+        private final Map<TermOccurrenceKey, TermOccurrence> existingByKey = new HashMap<>();
+
+        private final Map<URI, TermOccurrence> existingById = new HashMap<>();
+
+        private final Set<URI> processed = new HashSet<>();
+
+        private final TermOccurrenceBatchWriter writer;
+
+        private int added;
+        private int removed;
+        private int updated;
+        private int unchanged;
+
+        private OccurrenceDiff(List<TermOccurrence> existing, TermOccurrenceBatchWriter writer) {
+            this.writer = writer;
+            existing.forEach(o -> {
+                existingById.put(o.getUri(), o);
+                existingByKey.putIfAbsent(TermOccurrenceKey.of(o), o);
+            });
+        }
+
+        private void apply(TermOccurrence occurrence) {
+            if (occurrence.getUri() != null && !processed.add(occurrence.getUri())) {
+                LOG.debug("Occurrence already exists, skipping: {}", occurrence);
+                return;
+            }
+            final TermOccurrence match = existingByKey.remove(TermOccurrenceKey.of(occurrence));
+            if (match != null) {
+                existingById.remove(match.getUri());
+                if (match.getUri().equals(occurrence.getUri())) {
+                    updateIfNecessary(match, occurrence);
+                    return;
+                }
+                // Same occurrence, but with a different identifier, which is referenced by the annotated content
+                remove(match);
+            }
+            if (occurrence.getUri() != null) {
+                // Existing occurrence with the same identifier but different term or selectors
+                final TermOccurrence replaced = existingById.remove(occurrence.getUri());
+                if (replaced != null) {
+                    existingByKey.remove(TermOccurrenceKey.of(replaced), replaced);
+                    remove(replaced);
+                }
+            }
+            writer.write(occurrence);
+            processed.add(occurrence.getUri());
+            added++;
+        }
+
+        private void updateIfNecessary(TermOccurrence existing, TermOccurrence occurrence) {
+            if (existing.isSuggested() != occurrence.isSuggested()) {
+                writer.updateSuggested(existing, occurrence.isSuggested());
+                updated++;
+            } else {
+                unchanged++;
+            }
+        }
+
+        private void remove(TermOccurrence existing) {
+            writer.remove(existing);
+            removed++;
+        }
+
+        private void removeUnmatched() {
+            existingById.values().forEach(this::remove);
+            existingById.clear();
+            existingByKey.clear();
+        }
+    }
+
     /**
      * Gets a list of existing term occurrences in the specified asset.
      *
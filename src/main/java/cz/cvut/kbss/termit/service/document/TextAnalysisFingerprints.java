@@ -0,0 +1,291 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModifiedEvent;
+import cz.cvut.kbss.termit.exception.TermItException;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import cz.cvut.kbss.termit.persistence.dao.TextAnalysisRecordDao;
+import cz.cvut.kbss.termit.util.Configuration;
+import jakarta.annotation.Nonnull;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.jmx.export.naming.SelfNaming;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Computes fingerprints of text analysis inputs, allowing to skip analysis whose result would not change.
+ * <p>
+ * The result of text analysis depends on the analyzed content and on the labels of terms from the vocabularies used
+ * for the analysis. The content fingerprint is a hash of the content. The vocabulary fingerprint combines label-set
+ * versions of the individual vocabulary contexts, where a label-set version is a hash of all term labels in the
+ * context. Label-set versions are cached and discarded after a change of content of the corresponding vocabulary is
+ * committed. A transaction which modifies content of a vocabulary does not use nor populate the cache for the
+ * vocabulary, since it sees uncommitted labels.
+ * <p>
+ * File fingerprints are stored in {@link cz.cvut.kbss.termit.model.TextAnalysisRecord}s. Fingerprints of analyzed term
+ * definitions are persisted as well (see {@link TextAnalysisRecordDao#saveDefinitionFingerprints(Map)}), as part of the
+ * transaction in which the definition is analyzed.
+ * <p>
+ * Numbers of skipped and performed analyses are exposed via JMX.
+ */
+@Component
+@ManagedResource(description = "TermIt text analysis fingerprinting statistics.")
+public class TextAnalysisFingerprints implements SelfNaming {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final TermDao termDao;
+
+    private final TextAnalysisRecordDao recordDao;
+
+    private final VocabularyContextMapper contextMapper;
+
+    private final Configuration config;
+
+    private final Map<LabelSetKey, String> labelSetVersions = new ConcurrentHashMap<>();
+
+    private final AtomicLong skipped = new AtomicLong();
+
+    private final AtomicLong analyzed = new AtomicLong();
+
+    public TextAnalysisFingerprints(TermDao termDao, TextAnalysisRecordDao recordDao,
+                                    VocabularyContextMapper contextMapper, Configuration config) {
+        this.termDao = termDao;
+        this.recordDao = recordDao;
+        this.contextMapper = contextMapper;
+        this.config = config;
+    }
+
+    /**
+     * Computes fingerprint of the specified content.
+     *
+     * @param content Content to analyze
+     * @return Content fingerprint
+     */
+    public String contentFingerprint(@Nonnull String content) {
+        return hash(content);
+    }
+
+    /**
+     * Computes fingerprint of the term labels in the specified vocabulary contexts.
+     * <p>
+     * The type of annotator used for analysis is also part of the fingerprint.
+     *
+     * @param vocabularyContexts Identifiers of vocabulary contexts used for analysis
+     * @param language           Language of the analysis
+     * @return Vocabulary fingerprint
+     */
+    public String vocabularyFingerprint(@Nonnull Collection<URI> vocabularyContexts, @Nonnull String language) {
+        final String versions = vocabularyContexts.stream().sorted(Comparator.comparing(URI::toString))
+                                                  .map(ctx -> ctx + "=" + labelSetVersion(ctx, language))
+                                                  .collect(Collectors.joining(";"));
+        return hash(config.getTextAnalysis().getAnnotator() + "|" + language + "|" + versions);
+    }
+
+    private String labelSetVersion(URI vocabularyContext, String language) {
+        final LabelSetKey key = new LabelSetKey(vocabularyContext, language);
+        if (isModifiedInCurrentTransaction(vocabularyContext)) {
+            // The transaction may still be rolled back, so the version must not be cached
+            return computeLabelSetVersion(key);
+        }
+        return labelSetVersions.computeIfAbsent(key, this::computeLabelSetVersion);
+    }
+
+    private String computeLabelSetVersion(LabelSetKey key) {
+        final String labels = termDao.findAllLabels(key.context(), key.language()).stream()
+                                     .map(l -> l.term() + "|" + l.label() + "|" + l.preferred())
+                                     .sorted().collect(Collectors.joining("\n"));
+        return hash(labels);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean isModifiedInCurrentTransaction(URI vocabularyContext) {
+        final Set<URI> modified = (Set<URI>) TransactionSynchronizationManager.getResource(this);
+        return modified != null && modified.contains(vocabularyContext);
+    }
+
+    /**
+     * Computes fingerprint of analysis of a term definition.
+     *
+     * @param definition        Definition to analyze
+     * @param vocabularyContext Vocabulary context used for analysis
+     * @param language          Language of the definition
+     * @return Definition analysis fingerprint
+     */
+    public String definitionFingerprint(@Nonnull String definition, @Nonnull URI vocabularyContext,
+                                        @Nonnull String language) {
+        return hash(contentFingerprint(definition) + "|" + vocabularyFingerprint(Set.of(vocabularyContext), language));
+    }
+
+    /**
+     * Checks whether the definition of the specified term was already analyzed with the same fingerprint.
+     * <p>
+     * The check is counted in the skipped/analyzed statistics.
+     *
+     * @param term        Identifier of the term whose definition is to be analyzed
+     * @param fingerprint Fingerprint of the analysis input
+     * @return {@code true} if the analysis can be skipped, {@code false} otherwise
+     */
+    public boolean isDefinitionUpToDate(@Nonnull URI term, @Nonnull String fingerprint) {
+        return count(fingerprint.equals(recordDao.findDefinitionFingerprints(Set.of(term)).get(term)));
+    }
+
+    /**
+     * Finds terms whose definitions were already analyzed with the same fingerprints.
+     * <p>
+     * Fingerprints of all the terms are loaded together. Each term is counted in the skipped/analyzed statistics.
+     *
+     * @param fingerprints Map of identifiers of terms whose definitions are to be analyzed to fingerprints of the
+     *                     analysis inputs
+     * @return Identifiers of terms whose analysis can be skipped
+     */
+    public Set<URI> findUpToDateDefinitions(@Nonnull Map<URI, String> fingerprints) {
+        final Map<URI, String> existing = recordDao.findDefinitionFingerprints(fingerprints.keySet());
+        return fingerprints.entrySet().stream()
+                           .filter(e -> count(Objects.equals(e.getValue(), existing.get(e.getKey()))))
+                           .map(Map.Entry::getKey).collect(Collectors.toSet());
+    }
+
+    /**
+     * Records that the definition of the specified term was analyzed with the specified fingerprint.
+     * <p>
+     * The fingerprint is saved as part of the current transaction, so it is discarded if the transaction is rolled
+     * back.
+     *
+     * @param term        Term identifier
+     * @param fingerprint Fingerprint of the analysis input
+     */
+    public void definitionAnalyzed(@Nonnull URI term, @Nonnull String fingerprint) {
+        definitionsAnalyzed(Map.of(term, fingerprint));
+    }
+
+    /**
+     * Records that definitions of the specified terms were analyzed with the specified fingerprints.
+     *
+     * @param fingerprints Map of term identifiers to fingerprints of the analysis inputs
+     * @see #definitionAnalyzed(URI, String)
+     */
+    public void definitionsAnalyzed(@Nonnull Map<URI, String> fingerprints) {
+        recordDao.saveDefinitionFingerprints(fingerprints);
+    }
+
+    /**
+     * Forgets fingerprints of all analyzed term definitions, so that they are analyzed again.
+     */
+    @ManagedOperation(description = "Forgets fingerprints of analyzed term definitions.")
+    public void clearDefinitionFingerprints() {
+        recordDao.removeDefinitionFingerprints();
+    }
+
+    /**
+     * Counts an analysis as skipped or performed based on the specified result of fingerprint comparison.
+     *
+     * @param upToDate Whether the fingerprints match and the analysis is skipped
+     * @return The specified value
+     */
+    boolean count(boolean upToDate) {
+        (upToDate ? skipped : analyzed).incrementAndGet();
+        return upToDate;
+    }
+
+    @ManagedAttribute(description = "Number of text analyses skipped because their input did not change.")
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+    @ManagedAttribute(description = "Number of text analyses performed because their input changed.")
+    public long getAnalyzedCount() {
+        return analyzed.get();
+    }
+
+    /**
+     * Records that the current transaction (if any) has modified content of the vocabulary.
+     */
+    @SuppressWarnings("unchecked")
+    @EventListener
+    public void onVocabularyContentModifiedInTransaction(VocabularyContentModifiedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<URI> modified = (Set<URI>) TransactionSynchronizationManager.getResource(this);
+        if (modified == null) {
+            modified = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, modified);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TextAnalysisFingerprints.this);
+                }
+            });
+        }
+        modified.add(contextMapper.getVocabularyContext(event.getVocabularyIri()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyContentModified(VocabularyContentModifiedEvent event) {
+        final URI context = contextMapper.getVocabularyContext(event.getVocabularyIri());
+        labelSetVersions.keySet().removeIf(k -> k.context().equals(context));
+    }
+
+    @EventListener
+    public void onEvictCache(EvictCacheEvent event) {
+        labelSetVersions.clear();
+    }
+
+    @Override
+    public @Nonnull ObjectName getObjectName() throws MalformedObjectNameException {
+        return new ObjectName("bean:name=" + config.getJmxBeanName() + "TextAnalysis");
+    }
+
+    private static String hash(String value) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new TermItException("Hashing algorithm " + HASH_ALGORITHM + " not available.", e);
+        }
+    }
+
+    private record LabelSetKey(URI context, String language) {
+    }
+}
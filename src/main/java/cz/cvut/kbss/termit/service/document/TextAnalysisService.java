@@ -25,6 +25,7 @@ import cz.cvut.kbss.termit.model.AbstractTerm;
 import cz.cvut.kbss.termit.model.TextAnalysisRecord;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.persistence.dao.TextAnalysisRecordDao;
+import cz.cvut.kbss.termit.service.document.html.EmbeddedTermAnnotator;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Utils;
 import cz.cvut.kbss.termit.util.throttle.Throttle;
@@ -32,6 +33,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -45,10 +47,17 @@ import org.springframework.web.client.RestTemplate;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 @Service
 public class TextAnalysisService {
@@ -67,38 +76,79 @@ public class TextAnalysisService {
 
     private final ApplicationEventPublisher eventPublisher;
 
+    private final EmbeddedTermAnnotator embeddedAnnotator;
+
+    private final TextAnalysisFingerprints fingerprints;
+
     @Autowired
     public TextAnalysisService(RestTemplate restClient, Configuration config, DocumentManager documentManager,
                                AnnotationGenerator annotationGenerator, TextAnalysisRecordDao recordDao,
-                               ApplicationEventPublisher eventPublisher) {
+                               ApplicationEventPublisher eventPublisher, EmbeddedTermAnnotator embeddedAnnotator,
+                               TextAnalysisFingerprints fingerprints) {
         this.restClient = restClient;
         this.config = config;
         this.documentManager = documentManager;
         this.annotationGenerator = annotationGenerator;
         this.recordDao = recordDao;
         this.eventPublisher = eventPublisher;
+        this.embeddedAnnotator = embeddedAnnotator;
+        this.fingerprints = fingerprints;
     }
 
     /**
      * Passes the content of the specified file to the remote text analysis service, letting it find occurrences of
      * terms from the vocabularies specified by their repository contexts.
      * <p>
+     * If the embedded annotator is configured (see {@link Configuration.TextAnalysis#getAnnotator()}), it is used
+     * instead of the remote service.
+     * <p>
      * The analysis result is passed to the term occurrence generator.
      *
      * @param file               File whose content shall be analyzed
      * @param vocabularyContexts Identifiers of repository contexts containing vocabularies intended for text analysis
+     * @see #analyzeFile(File, Set, boolean)
      */
     @Throttle(value = "{#file.getUri()}", name = "fileAnalysis")
     @Transactional
     public void analyzeFile(File file, Set<URI> vocabularyContexts) {
+        analyzeFile(file, vocabularyContexts, false);
+    }
+
+    /**
+     * Passes the content of the specified file to text analysis, unless neither the content nor the term labels of
+     * the vocabularies used for the analysis changed since the latest analysis of the file.
+     * <p>
+     * The check is based on fingerprints stored in the latest {@link TextAnalysisRecord} of the file.
+     *
+     * @param file               File whose content shall be analyzed
+     * @param vocabularyContexts Identifiers of repository contexts containing vocabularies intended for text analysis
+     * @param force              Whether to analyze the file even if its latest analysis is up-to-date
+     */
+    @Throttle(value = "{#file.getUri()}", name = "fileAnalysis")
+    @Transactional
+    public void analyzeFile(File file, Set<URI> vocabularyContexts, boolean force) {
         Objects.requireNonNull(file);
         final TextAnalysisInput input = createAnalysisInput(file);
         input.setVocabularyContexts(vocabularyContexts);
-        invokeTextAnalysisOnFile(file, input);
-        LOG.debug("Text analysis finished for resource {}.", file.getUri());
+        final String vocabularyFingerprint = fingerprints.vocabularyFingerprint(vocabularyContexts,
+                                                                                input.getLanguage());
+        if (!force && isLatestAnalysisUpToDate(file, input, vocabularyFingerprint)) {
+            LOG.debug("Neither content of resource {} nor the vocabularies changed since its latest analysis. " +
+                              "Skipping text analysis.", file.getUri());
+        } else {
+            invokeTextAnalysisOnFile(file, input, vocabularyFingerprint);
+            LOG.debug("Text analysis finished for resource {}.", file.getUri());
+        }
         eventPublisher.publishEvent(new FileTextAnalysisFinishedEvent(this, file));
     }
 
+    private boolean isLatestAnalysisUpToDate(File file, TextAnalysisInput input, String vocabularyFingerprint) {
+        final String contentFingerprint = fingerprints.contentFingerprint(input.getContent());
+        return fingerprints.count(recordDao.findLatest(file)
+                                           .map(r -> r.hasFingerprints(contentFingerprint, vocabularyFingerprint))
+                                           .orElse(false));
+    }
+
     private TextAnalysisInput createAnalysisInput(File file) {
         final TextAnalysisInput input = new TextAnalysisInput();
         input.setContent(documentManager.loadFileContent(file));
@@ -113,7 +163,7 @@ public class TextAnalysisService {
         return input;
     }
 
-    private void invokeTextAnalysisOnFile(File file, TextAnalysisInput input) {
+    private void invokeTextAnalysisOnFile(File file, TextAnalysisInput input, String vocabularyFingerprint) {
         try {
             final Optional<Resource> result = invokeTextAnalysisService(input);
             if (result.isEmpty()) {
@@ -123,7 +173,7 @@ public class TextAnalysisService {
             try (final InputStream is = result.get().getInputStream()) {
                 annotationGenerator.generateAnnotations(is, file);
             }
-            storeTextAnalysisRecord(file, input);
+            storeTextAnalysisRecord(file, input, vocabularyFingerprint);
         } catch (WebServiceIntegrationException e) {
             throw e;
         } catch (RuntimeException e) {
@@ -134,6 +184,9 @@ public class TextAnalysisService {
     }
 
     private Optional<Resource> invokeTextAnalysisService(TextAnalysisInput input) {
+        if (config.getTextAnalysis().getAnnotator() == Configuration.TextAnalysis.AnnotatorType.EMBEDDED) {
+            return Optional.of(invokeEmbeddedAnnotator(input));
+        }
         final String taUrl = config.getTextAnalysis().getUrl();
         if (taUrl == null || taUrl.isBlank()) {
             LOG.warn("Text analysis service URL not configured. Text analysis will not be invoked.");
@@ -152,15 +205,33 @@ public class TextAnalysisService {
         return Optional.of(resp.getBody());
     }
 
-    private void storeTextAnalysisRecord(File file, TextAnalysisInput config) {
+    private Resource invokeEmbeddedAnnotator(TextAnalysisInput input) {
+        LOG.debug("Invoking embedded annotator on input: {}", input);
+        final Set<URI> contexts = input.getVocabularyContexts() != null ? input.getVocabularyContexts() : Set.of();
+        final String result = embeddedAnnotator.annotate(input.getContent(), input.getLanguage(), contexts);
+        return new ByteArrayResource(result.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void storeTextAnalysisRecord(File file, TextAnalysisInput config, String vocabularyFingerprint) {
         LOG.trace("Creating record of text analysis event for file {}.", file);
         assert config.getVocabularyContexts() != null;
 
         final TextAnalysisRecord record = new TextAnalysisRecord(Utils.timestamp(), file);
         record.setVocabularies(new HashSet<>(config.getVocabularyContexts()));
+        // Fingerprint the annotated content, which is what the next analysis will get as input
+        record.setContentFingerprint(fingerprints.contentFingerprint(documentManager.loadFileContent(file)));
+        record.setVocabularyFingerprint(vocabularyFingerprint);
         recordDao.persist(record);
     }
 
+    /**
+     * Forgets fingerprints of analyzed term definitions, so that all definitions are analyzed again on their next
+     * analysis.
+     */
+    public void clearTermDefinitionFingerprints() {
+        fingerprints.clearDefinitionFingerprints();
+    }
+
     /**
      * Gets the latest {@link TextAnalysisRecord} for the specified Resource.
      *
@@ -176,6 +247,9 @@ public class TextAnalysisService {
      * <p>
      * The specified vocabulary context is used for analysis. Analysis results are stored as definitional term
      * occurrences.
+     * <p>
+     * The analysis is skipped if neither the definition nor the term labels in the vocabulary context changed since
+     * the definition was last analyzed.
      *
      * @param term Term whose definition is to be analyzed.
      */
@@ -183,26 +257,127 @@ public class TextAnalysisService {
         Objects.requireNonNull(term);
         final String language = config.getPersistence().getLanguage();
         if (term.getDefinition() != null && term.getDefinition().contains(language)) {
+            final String fingerprint = fingerprints.definitionFingerprint(term.getDefinition().get(language),
+                                                                          vocabularyContext, language);
+            if (fingerprints.isDefinitionUpToDate(term.getUri(), fingerprint)) {
+                LOG.trace("Definition of term {} is up-to-date, skipping its analysis.", term);
+                return;
+            }
             final TextAnalysisInput input = new TextAnalysisInput(term.getDefinition().get(language), language,
                                                                   URI.create(config.getRepository().getUrl()));
             input.addVocabularyContext(vocabularyContext);
             input.setVocabularyRepositoryUserName(config.getRepository().getUsername());
             input.setVocabularyRepositoryPassword(config.getRepository().getPassword());
 
-            invokeTextAnalysisOnTerm(term, input);
+            if (invokeTextAnalysisOnTerm(term, input)) {
+                fingerprints.definitionAnalyzed(term.getUri(), fingerprint);
+            }
             eventPublisher.publishEvent(new TermDefinitionTextAnalysisFinishedEvent(this, term));
         }
     }
 
-    private void invokeTextAnalysisOnTerm(AbstractTerm term, TextAnalysisInput input) {
+    /**
+     * Invokes text analysis on definitions of all the specified terms.
+     * <p>
+     * Unlike {@link #analyzeTermDefinition(AbstractTerm, URI)}, the definitions are analyzed in batches. Definitions of
+     * terms to be analyzed using the same vocabulary context are packed into a single document per batch (see
+     * {@link Configuration.TextAnalysis#getTermDefinitionBatchSize()}), so that the text analysis service is invoked
+     * once per batch. The annotated definitions are then split back to individual terms and the resulting definitional
+     * occurrences are saved in bulk.
+     * <p>
+     * Definitions which are up-to-date (see {@link #analyzeTermDefinition(AbstractTerm, URI)}) are skipped.
+     *
+     * @param termsToContexts Map of terms to analyze to the vocabulary contexts to use for their analysis
+     */
+    public void analyzeTermDefinitions(Map<? extends AbstractTerm, URI> termsToContexts) {
+        analyzeTermDefinitions(termsToContexts, Runnable::run);
+    }
+
+    /**
+     * Invokes text analysis on definitions of all the specified terms, executing each batch using the specified
+     * executor.
+     * <p>
+     * This allows the caller to process every batch in a separate transaction, so that results of each batch are
+     * committed as soon as the batch is analyzed.
+     *
+     * @param termsToContexts Map of terms to analyze to the vocabulary contexts to use for their analysis
+     * @param batchExecutor   Executor used to run analysis of each batch
+     * @see #analyzeTermDefinitions(Map)
+     */
+    public void analyzeTermDefinitions(Map<? extends AbstractTerm, URI> termsToContexts, Executor batchExecutor) {
+        Objects.requireNonNull(termsToContexts);
+        Objects.requireNonNull(batchExecutor);
+        final String language = config.getPersistence().getLanguage();
+        final Map<URI, String> termFingerprints = new HashMap<>(termsToContexts.size());
+        termsToContexts.forEach((t, ctx) -> {
+            if (t.getDefinition() != null && t.getDefinition().contains(language)) {
+                termFingerprints.put(t.getUri(),
+                                     fingerprints.definitionFingerprint(t.getDefinition().get(language), ctx,
+                                                                        language));
+            }
+        });
+        final Set<URI> upToDate = fingerprints.findUpToDateDefinitions(termFingerprints);
+        final Map<URI, List<AbstractTerm>> contextsToTerms = new LinkedHashMap<>();
+        termsToContexts.forEach((t, ctx) -> {
+            if (termFingerprints.containsKey(t.getUri()) && !upToDate.contains(t.getUri())) {
+                contextsToTerms.computeIfAbsent(ctx, k -> new ArrayList<>()).add(t);
+            }
+        });
+        final int batchSize = config.getTextAnalysis().getTermDefinitionBatchSize();
+        contextsToTerms.forEach((ctx, terms) -> {
+            for (int i = 0; i < terms.size(); i += batchSize) {
+                final List<AbstractTerm> batch = terms.subList(i, Math.min(i + batchSize, terms.size()));
+                batchExecutor.execute(() -> {
+                    if (analyzeTermDefinitionBatch(batch, ctx, language)) {
+                        final Map<URI, String> batchFingerprints = new HashMap<>(batch.size());
+                        batch.forEach(t -> batchFingerprints.put(t.getUri(), termFingerprints.get(t.getUri())));
+                        fingerprints.definitionsAnalyzed(batchFingerprints);
+                    }
+                });
+            }
+        });
+    }
+
+    private boolean analyzeTermDefinitionBatch(List<AbstractTerm> terms, URI vocabularyContext, String language) {
+        LOG.debug("Analyzing definitions of {} terms using vocabulary context {}.", terms.size(), vocabularyContext);
+        final TermDefinitionBatch batch = new TermDefinitionBatch(terms, language);
+        final TextAnalysisInput input = new TextAnalysisInput(batch.compose(), language,
+                                                              URI.create(config.getRepository().getUrl()));
+        input.addVocabularyContext(vocabularyContext);
+        input.setVocabularyRepositoryUserName(config.getRepository().getUsername());
+        input.setVocabularyRepositoryPassword(config.getRepository().getPassword());
+        final Map<AbstractTerm, String> annotatedDefinitions;
+        try {
+            final Optional<Resource> result = invokeTextAnalysisService(input);
+            if (result.isEmpty()) {
+                return false;
+            }
+            try (final InputStream is = result.get().getInputStream()) {
+                annotatedDefinitions = batch.split(is);
+            }
+        } catch (WebServiceIntegrationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new WebServiceIntegrationException("Text analysis invocation failed.", e);
+        } catch (IOException e) {
+            throw new WebServiceIntegrationException("Unable to read text analysis result from response.", e);
+        }
+        annotationGenerator.generateAnnotations(annotatedDefinitions);
+        annotatedDefinitions.keySet().forEach(
+                t -> eventPublisher.publishEvent(new TermDefinitionTextAnalysisFinishedEvent(this, t)));
+        return true;
+    }
+
+    private boolean invokeTextAnalysisOnTerm(AbstractTerm term, TextAnalysisInput input) {
         try {
             final Optional<Resource> result = invokeTextAnalysisService(input);
             if (result.isEmpty()) {
-                return;
+                return false;
             }
             try (final InputStream is = result.get().getInputStream()) {
                 annotationGenerator.generateAnnotations(is, term);
             }
+            return true;
         } catch (WebServiceIntegrationException e) {
             throw e;
         } catch (RuntimeException e) {
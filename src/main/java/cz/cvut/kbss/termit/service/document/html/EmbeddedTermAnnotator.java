@@ -0,0 +1,350 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document.html;
+
+import cz.cvut.kbss.termit.dto.TermLabel;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyWillBeRemovedEvent;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static cz.cvut.kbss.termit.util.Utils.uriToString;
+
+/**
+ * In-process dictionary-based alternative to the remote text analysis service.
+ * <p>
+ * Finds occurrences of labels (preferred, alternative and hidden) of terms from the specified vocabulary contexts in
+ * HTML content and marks them using the same RDFa annotations the text analysis service produces, so that the result
+ * can be processed by {@link HtmlTermOccurrenceResolver}.
+ * <p>
+ * A {@link TermDictionary} is built lazily for each vocabulary context and language and kept in memory. When a single
+ * term is added, removed or modified, only its labels are reloaded and replaced in the dictionary on its next use.
+ * Other changes of vocabulary content discard the dictionary of that vocabulary and it is rebuilt on its next use.
+ * <p>
+ * Labels are matched as whole normalized token sequences, the longest match wins when matches overlap. Existing
+ * annotations in the content are left untouched.
+ */
+@Service
+public class EmbeddedTermAnnotator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedTermAnnotator.class);
+
+    static final String TERMIT_PREFIX = "termit";
+
+    static final String TERMIT_NAMESPACE = Vocabulary.s_c_vyskyt_termu.substring(
+            0, Vocabulary.s_c_vyskyt_termu.lastIndexOf('/') + 1);
+
+    private static final String OCCURRENCE_TYPE = Vocabulary.s_c_vyskyt_termu.substring(TERMIT_NAMESPACE.length());
+
+    private static final String OCCURRENCE_PROPERTY = Vocabulary.s_p_je_prirazenim_termu.substring(
+            TERMIT_NAMESPACE.length());
+
+    private static final String BNODE_PREFIX = "_:";
+
+    private static final String SCORE_ATTRIBUTE = "score";
+
+    private static final String MATCH_SCORE = "1.0";
+
+    private static final Set<String> IGNORED_ELEMENTS = Set.of("script", "style", "head", "title");
+
+    private final TermDao termDao;
+
+    private final VocabularyContextMapper contextMapper;
+
+    private final Map<DictionaryKey, CachedDictionary> dictionaries = new ConcurrentHashMap<>();
+
+    public EmbeddedTermAnnotator(TermDao termDao, VocabularyContextMapper contextMapper) {
+        this.termDao = termDao;
+        this.contextMapper = contextMapper;
+    }
+
+    /**
+     * Annotates occurrences of terms from the specified vocabulary contexts in the specified content.
+     *
+     * @param content            HTML content to annotate
+     * @param language           Language of the content, only term labels in this language are matched
+     * @param vocabularyContexts Identifiers of repository contexts of vocabularies whose terms to look for
+     * @return Annotated content
+     */
+    public String annotate(String content, String language, Collection<URI> vocabularyContexts) {
+        Objects.requireNonNull(content);
+        Objects.requireNonNull(language);
+        Objects.requireNonNull(vocabularyContexts);
+        final List<TermDictionary> dicts = vocabularyContexts.stream().map(ctx -> getDictionary(ctx, language))
+                                                             .toList();
+        final Document document = Jsoup.parse(content);
+        document.outputSettings().prettyPrint(false);
+        final Annotator annotator = new Annotator(dicts, resolveVocabularyPrefix(document), existingIds(document));
+        final List<TextNode> textNodes = new ArrayList<>();
+        NodeTraversor.traverse(new NodeVisitor() {
+            @Override
+            public void head(Node node, int depth) {
+                if (node instanceof TextNode textNode && !isIgnored(textNode)) {
+                    textNodes.add(textNode);
+                }
+            }
+        }, document.body());
+        textNodes.forEach(annotator::annotate);
+        LOG.trace("Embedded annotator found {} term occurrences.", annotator.counter);
+        return document.outerHtml();
+    }
+
+    private static boolean isIgnored(TextNode node) {
+        if (node.isBlank()) {
+            return true;
+        }
+        for (Element e = (Element) node.parent(); e != null; e = e.parent()) {
+            if (IGNORED_ELEMENTS.contains(e.normalName()) || e.hasAttr(Constants.RDFa.ABOUT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> existingIds(Document document) {
+        final Set<String> ids = new HashSet<>();
+        document.getElementsByAttribute(Constants.RDFa.ABOUT).forEach(e -> ids.add(e.attr(Constants.RDFa.ABOUT)));
+        return ids;
+    }
+
+    /**
+     * Makes sure the TermIt namespace prefix is declared in the document and returns it.
+     * <p>
+     * If the document declares other prefixes, full IRIs are used instead to avoid clashes.
+     */
+    private static String resolveVocabularyPrefix(Document document) {
+        final Element body = document.body();
+        final String declared = body.attr(Constants.RDFa.PREFIX);
+        final String declaration = TERMIT_PREFIX + ": " + TERMIT_NAMESPACE;
+        if (declared.isEmpty() && document.getElementsByAttribute(Constants.RDFa.PREFIX).isEmpty()) {
+            body.attr(Constants.RDFa.PREFIX, declaration);
+            return TERMIT_PREFIX + ":";
+        }
+        return declared.trim().equals(declaration) ? TERMIT_PREFIX + ":" : TERMIT_NAMESPACE;
+    }
+
+    private TermDictionary getDictionary(URI vocabularyContext, String language) {
+        final DictionaryKey key = new DictionaryKey(vocabularyContext, language);
+        final CachedDictionary cached = dictionaries.computeIfAbsent(key, k -> {
+            LOG.trace("Building term dictionary of vocabulary context {} in language {}.",
+                      uriToString(vocabularyContext), language);
+            final TermDictionary dictionary = TermDictionary.build(termDao.findAllLabels(vocabularyContext, language));
+            LOG.debug("Built term dictionary of {} labels for vocabulary context {}.", dictionary.size(),
+                      uriToString(vocabularyContext));
+            return new CachedDictionary(dictionary);
+        });
+        return cached.get(terms -> {
+            LOG.trace("Updating labels of {} terms in term dictionary of vocabulary context {}.", terms.size(),
+                      uriToString(vocabularyContext));
+            return termDao.findAllLabels(vocabularyContext, terms, language);
+        });
+    }
+
+    /**
+     * Discards dictionaries of the specified vocabulary context.
+     *
+     * @param vocabularyContext Vocabulary context identifier
+     */
+    public void evict(URI vocabularyContext) {
+        dictionaries.keySet().removeIf(k -> k.context().equals(vocabularyContext));
+    }
+
+    /**
+     * Marks labels of the specified term as outdated in dictionaries of the specified vocabulary context.
+     * <p>
+     * The labels are reloaded on the next use of the dictionaries.
+     *
+     * @param vocabularyContext Vocabulary context identifier
+     * @param term              Identifier of the added, removed or modified term
+     */
+    public void evict(URI vocabularyContext, URI term) {
+        dictionaries.forEach((k, d) -> {
+            if (k.context().equals(vocabularyContext)) {
+                d.markStale(term);
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVocabularyContentModified(VocabularyContentModifiedEvent event) {
+        final URI vocabularyContext = contextMapper.getVocabularyContext(event.getVocabularyIri());
+        if (event.getTermIri() != null) {
+            evict(vocabularyContext, event.getTermIri());
+        } else {
+            evict(vocabularyContext);
+        }
+    }
+
+    @EventListener
+    public void onVocabularyRemoved(VocabularyWillBeRemovedEvent event) {
+        evict(contextMapper.getVocabularyContext(event.getVocabularyIri()));
+    }
+
+    @EventListener
+    public void onEvictCache(EvictCacheEvent event) {
+        dictionaries.clear();
+    }
+
+    private record DictionaryKey(URI context, String language) {
+    }
+
+    /**
+     * Dictionary together with identifiers of terms whose labels in the dictionary are outdated.
+     */
+    private static class CachedDictionary {
+
+        private final Set<URI> staleTerms = ConcurrentHashMap.newKeySet();
+
+        private volatile TermDictionary dictionary;
+
+        private CachedDictionary(TermDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        private void markStale(URI term) {
+            staleTerms.add(term);
+        }
+
+        private TermDictionary get(Function<Collection<URI>, List<TermLabel>> labelLoader) {
+            if (staleTerms.isEmpty()) {
+                return dictionary;
+            }
+            synchronized (this) {
+                final Set<URI> terms = new HashSet<>(staleTerms);
+                if (!terms.isEmpty()) {
+                    // Removed before loading, so that terms modified during the loading are reloaded next time
+                    staleTerms.removeAll(terms);
+                    try {
+                        this.dictionary = dictionary.withLabelsOf(terms, labelLoader.apply(terms));
+                    } catch (RuntimeException e) {
+                        staleTerms.addAll(terms);
+                        throw e;
+                    }
+                }
+                return dictionary;
+            }
+        }
+    }
+
+    /**
+     * Annotates text nodes of a single document.
+     */
+    private static class Annotator {
+
+        private final List<TermDictionary> dictionaries;
+        private final String prefix;
+        private final Set<String> existingIds;
+        private int counter;
+        private int idSequence;
+
+        private Annotator(List<TermDictionary> dictionaries, String prefix, Set<String> existingIds) {
+            this.dictionaries = dictionaries;
+            this.prefix = prefix;
+            this.existingIds = existingIds;
+        }
+
+        private void annotate(TextNode node) {
+            final String text = node.getWholeText();
+            final List<TermDictionary.Token> tokens = TermDictionary.tokenize(text);
+            final List<TermDictionary.Match> matches = selectMatches(tokens);
+            if (matches.isEmpty()) {
+                return;
+            }
+            int position = 0;
+            for (TermDictionary.Match m : matches) {
+                final int start = tokens.get(m.start()).start();
+                final int end = tokens.get(m.end() - 1).end();
+                if (start > position) {
+                    node.before(new TextNode(text.substring(position, start)));
+                }
+                node.before(createAnnotation(m.term(), text.substring(start, end)));
+                position = end;
+            }
+            if (position < text.length()) {
+                node.before(new TextNode(text.substring(position)));
+            }
+            node.remove();
+        }
+
+        /**
+         * Selects non-overlapping matches, preferring the leftmost longest ones.
+         */
+        private List<TermDictionary.Match> selectMatches(List<TermDictionary.Token> tokens) {
+            final List<TermDictionary.Match> candidates = new ArrayList<>();
+            dictionaries.forEach(d -> candidates.addAll(d.findAll(tokens)));
+            candidates.sort(Comparator.comparingInt(TermDictionary.Match::start)
+                                      .thenComparing(Comparator.comparingInt(TermDictionary.Match::length)
+                                                               .reversed())
+                                      .thenComparing(TermDictionary.Match::preferred, Comparator.reverseOrder()));
+            final List<TermDictionary.Match> selected = new ArrayList<>();
+            int covered = 0;
+            for (TermDictionary.Match m : candidates) {
+                if (m.start() >= covered) {
+                    selected.add(m);
+                    covered = m.end();
+                }
+            }
+            return selected;
+        }
+
+        private Element createAnnotation(URI term, String text) {
+            counter++;
+            return new Element("span").attr(Constants.RDFa.ABOUT, nextId())
+                                      .attr(Constants.RDFa.PROPERTY, prefix + OCCURRENCE_PROPERTY)
+                                      .attr(Constants.RDFa.RESOURCE, term.toString())
+                                      .attr(Constants.RDFa.TYPE, prefix + OCCURRENCE_TYPE)
+                                      .attr(SCORE_ATTRIBUTE, MATCH_SCORE)
+                                      .text(text);
+        }
+
+        private String nextId() {
+            String id;
+            do {
+                id = BNODE_PREFIX + ++idSequence;
+            } while (existingIds.contains(id));
+            return id;
+        }
+    }
+}
@@ -172,6 +172,7 @@ public class HtmlTermOccurrenceResolver extends TermOccurrenceResolver {
 
             LOG.trace("Processing RDFa annotated element {}.", element);
             final Optional<TermOccurrence> occurrence = resolveAnnotation(element, source);
+            occurrence.ifPresent(to -> reuseExistingIdentifier(about, to, visited));
             occurrence.ifPresent(to -> {
                 try {
                     if (!to.isSuggested()) {
@@ -246,6 +247,24 @@ public class HtmlTermOccurrenceResolver extends TermOccurrenceResolver {
         return URI.create(base + about);
     }
 
+    /**
+     * Reuses identifier of an existing occurrence with the same content, so that the occurrence is not rewritten when
+     * saved. The annotated content is updated to reference the reused identifier.
+     */
+    private void reuseExistingIdentifier(String about, TermOccurrence occurrence, Set<String> visited) {
+        final URI existingUri = takeExistingWithSameContent(occurrence).map(TermOccurrence::getUri).orElse(null);
+        final String base = TermOccurrence.resolveContext(source.getUri()) + "/";
+        if (existingUri == null || existingUri.equals(occurrence.getUri())
+                || !existingUri.toString().startsWith(base)) {
+            return;
+        }
+        final String reusedAbout = BNODE_PREFIX + existingUri.toString().substring(base.length());
+        LOG.trace("Reusing identifier {} of existing occurrence with the same content.", existingUri);
+        document.getElementsByAttributeValue(Constants.RDFa.ABOUT, about).attr(Constants.RDFa.ABOUT, reusedAbout);
+        visited.add(reusedAbout);
+        occurrence.setUri(existingUri);
+    }
+
     private boolean existsApproved(TermOccurrence newOccurrence) {
         final OccurrenceTarget target = newOccurrence.getTarget();
         assert target != null;
@@ -0,0 +1,248 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document.html;
+
+import cz.cvut.kbss.termit.dto.TermLabel;
+
+import java.net.URI;
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable dictionary of term labels able to find all label occurrences in a text in a single pass.
+ * <p>
+ * Labels and text are split into tokens (maximal sequences of letters and digits), which are normalized by Unicode
+ * normalization and case folding. The dictionary is an Aho–Corasick automaton over token sequences, so matching
+ * time depends only on the length of the text and the number of matches, not on the number of labels in the
+ * dictionary. Since matching works on whole tokens, a label never matches just a part of a word.
+ * <p>
+ * When several terms share the same normalized label, preferred labels take precedence over alternative ones.
+ * <p>
+ * The dictionary keeps its labels, so that a dictionary with labels of individual terms replaced can be derived from
+ * it without reloading all the labels (see {@link #withLabelsOf(Collection, Collection)}).
+ */
+class TermDictionary {
+
+    static final TermDictionary EMPTY = build(Collections.emptyList());
+
+    private final List<TermLabel> labels;
+
+    private final Map<String, Integer> tokenIds;
+
+    private final Node root;
+
+    private final int size;
+
+    private TermDictionary(List<TermLabel> labels, Map<String, Integer> tokenIds, Node root, int size) {
+        this.labels = labels;
+        this.tokenIds = tokenIds;
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Builds a dictionary of the specified labels.
+     *
+     * @param labels Term labels
+     * @return New dictionary
+     */
+    static TermDictionary build(Collection<TermLabel> labels) {
+        final Map<String, Integer> tokenIds = new HashMap<>();
+        final Node root = new Node(0);
+        int size = 0;
+        for (TermLabel label : labels) {
+            final List<Token> tokens = tokenize(label.label());
+            if (tokens.isEmpty()) {
+                continue;
+            }
+            Node node = root;
+            for (Token t : tokens) {
+                final int id = tokenIds.computeIfAbsent(t.value(), k -> tokenIds.size());
+                final int depth = node.depth + 1;
+                node = node.next.computeIfAbsent(id, k -> new Node(depth));
+            }
+            if (node.term == null) {
+                size++;
+            }
+            node.setOutput(label);
+        }
+        linkFailures(root);
+        return new TermDictionary(List.copyOf(labels), tokenIds, root, size);
+    }
+
+    /**
+     * Creates a dictionary in which labels of the specified terms are replaced with the specified labels.
+     * <p>
+     * This allows adding, removing and relabeling individual terms. Terms without any of the new labels are removed
+     * from the resulting dictionary. Since failure links of the automaton depend on all the labels, the automaton is
+     * rebuilt, but only from the labels held in memory.
+     *
+     * @param terms  Identifiers of terms whose labels to replace
+     * @param labels New labels of the specified terms
+     * @return New dictionary
+     */
+    TermDictionary withLabelsOf(Collection<URI> terms, Collection<TermLabel> labels) {
+        final Set<URI> replaced = new HashSet<>(terms);
+        final List<TermLabel> result = new ArrayList<>(this.labels.size() + labels.size());
+        this.labels.stream().filter(l -> !replaced.contains(l.term())).forEach(result::add);
+        labels.stream().filter(l -> replaced.contains(l.term())).forEach(result::add);
+        return build(result);
+    }
+
+    private static void linkFailures(Node root) {
+        final Deque<Node> queue = new ArrayDeque<>();
+        root.next.values().forEach(child -> {
+            child.fail = root;
+            queue.add(child);
+        });
+        while (!queue.isEmpty()) {
+            final Node node = queue.poll();
+            node.next.forEach((id, child) -> {
+                Node f = node.fail;
+                while (f != root && !f.next.containsKey(id)) {
+                    f = f.fail;
+                }
+                child.fail = f.next.getOrDefault(id, root);
+                child.output = child.fail.term != null ? child.fail : child.fail.output;
+                queue.add(child);
+            });
+        }
+    }
+
+    /**
+     * Number of distinct normalized labels in this dictionary.
+     *
+     * @return Dictionary size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Finds all occurrences of labels from this dictionary in the specified tokens.
+     * <p>
+     * The occurrences may overlap.
+     *
+     * @param tokens Tokens of the text to search, as produced by {@link #tokenize(String)}
+     * @return List of matches, ordered by their end
+     */
+    List<Match> findAll(List<Token> tokens) {
+        final List<Match> result = new ArrayList<>();
+        Node node = root;
+        for (int i = 0; i < tokens.size(); i++) {
+            final Integer id = tokenIds.get(tokens.get(i).value());
+            if (id == null) {
+                node = root;
+                continue;
+            }
+            while (node != root && !node.next.containsKey(id)) {
+                node = node.fail;
+            }
+            node = node.next.getOrDefault(id, root);
+            for (Node out = node.term != null ? node : node.output; out != null; out = out.output) {
+                result.add(new Match(i - out.depth + 1, i + 1, out.term, out.preferred));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Splits the specified text into normalized tokens.
+     *
+     * @param text Text to tokenize
+     * @return List of tokens in the order of their occurrence in the text
+     */
+    static List<Token> tokenize(String text) {
+        final List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            final int cp = text.codePointAt(i);
+            if (!Character.isLetterOrDigit(cp)) {
+                i += Character.charCount(cp);
+                continue;
+            }
+            final int start = i;
+            while (i < text.length() && Character.isLetterOrDigit(text.codePointAt(i))) {
+                i += Character.charCount(text.codePointAt(i));
+            }
+            tokens.add(new Token(normalize(text.substring(start, i)), start, i));
+        }
+        return tokens;
+    }
+
+    private static String normalize(String token) {
+        return Normalizer.normalize(token, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Normalized token of a text.
+     *
+     * @param value Normalized token value
+     * @param start Index of the first character of the token in the original text
+     * @param end   Index after the last character of the token in the original text
+     */
+    record Token(String value, int start, int end) {
+    }
+
+    /**
+     * Occurrence of a label in a token sequence.
+     *
+     * @param start     Index of the first matched token
+     * @param end       Index after the last matched token
+     * @param term      Identifier of the term whose label matched
+     * @param preferred Whether the matched label is the preferred label of the term
+     */
+    record Match(int start, int end, URI term, boolean preferred) {
+
+        int length() {
+            return end - start;
+        }
+    }
+
+    private static class Node {
+        private final int depth;
+        private final Map<Integer, Node> next = new HashMap<>(4);
+        private Node fail;
+        // Nearest node on the failure chain which represents a label
+        private Node output;
+        private URI term;
+        private boolean preferred;
+
+        private Node(int depth) {
+            this.depth = depth;
+        }
+
+        private void setOutput(TermLabel label) {
+            if (term == null || label.preferred() && !preferred ||
+                    label.preferred() == preferred && label.term().toString().compareTo(term.toString()) < 0) {
+                this.term = label.term();
+                this.preferred = label.preferred();
+            }
+        }
+    }
+}
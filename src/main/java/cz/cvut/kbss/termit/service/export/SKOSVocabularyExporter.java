@@ -17,17 +17,18 @@
  */
 package cz.cvut.kbss.termit.service.export;
 
-import cz.cvut.kbss.termit.exception.UnsupportedOperationException;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.persistence.dao.skos.SKOSExporter;
-import cz.cvut.kbss.termit.util.TypeAwareByteArrayResource;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
+import cz.cvut.kbss.termit.util.TypeAwareStreamingResource;
+import cz.cvut.kbss.termit.util.throttle.ReadOnlyTransactionExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
 import java.util.Objects;
+import java.util.function.BiConsumer;
 
 /**
  * Exports vocabulary glossary in a SKOS-compatible format.
@@ -49,34 +50,38 @@ public abstract class SKOSVocabularyExporter implements VocabularyExporter {
         return context.getBean(SKOSExporter.class);
     }
 
+    /**
+     * The streamed export is written out after the service method returns, so it needs a transaction of its own.
+     */
+    private ReadOnlyTransactionExecutor getTransactionExecutor() {
+        return context.getBean(ReadOnlyTransactionExecutor.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The returned resource is a {@link TypeAwareStreamingResource}, the export itself runs in a read-only transaction
+     * when the resource content is written out.
+     */
     @Override
-    @Transactional(readOnly = true)
     public TypeAwareResource exportGlossary(Vocabulary vocabulary, ExportConfig config) {
         Objects.requireNonNull(vocabulary);
         Objects.requireNonNull(config);
-        LOG.debug("Exporting glossary of vocabulary {} as {}.", vocabulary, config.getType());
-        final SKOSExporter skosExporter = getSKOSExporter();
-        switch (config.getType()) {
-            case SKOS:
-                skosExporter.exportGlossary(vocabulary);
-                break;
-            case SKOS_FULL:
-                skosExporter.exportFullGlossary(vocabulary);
-                break;
-            case SKOS_WITH_REFERENCES:
-                skosExporter.exportGlossaryWithReferences(vocabulary, config.getReferenceProperties());
-                break;
-            case SKOS_FULL_WITH_REFERENCES:
-                skosExporter.exportFullGlossaryWithReferences(vocabulary, config.getReferenceProperties());
-                break;
-            default:
-                throw new UnsupportedOperationException("Unsupported export type " + config.getType());
-        }
-        final TypeAwareResource res = new TypeAwareByteArrayResource(skosExporter.exportAs(exportFormat()),
-                                                                     exportFormat().getMediaType(),
-                                                                     exportFormat().getFileExtension());
-        LOG.trace("Export finished successfully.");
-        return res;
+        final BiConsumer<SKOSExporter, OutputStream> export = switch (config.getType()) {
+            case SKOS -> (exporter, out) -> exporter.exportGlossary(vocabulary, exportFormat(), out);
+            case SKOS_FULL -> (exporter, out) -> exporter.exportFullGlossary(vocabulary, exportFormat(), out);
+            case SKOS_WITH_REFERENCES -> (exporter, out) ->
+                    exporter.exportGlossaryWithReferences(vocabulary, config.getReferenceProperties(), exportFormat(),
+                                                          out);
+            case SKOS_FULL_WITH_REFERENCES -> (exporter, out) ->
+                    exporter.exportFullGlossaryWithReferences(vocabulary, config.getReferenceProperties(),
+                                                              exportFormat(), out);
+        };
+        return new TypeAwareStreamingResource(out -> getTransactionExecutor().execute(() -> {
+            LOG.debug("Exporting glossary of vocabulary {} as {}.", vocabulary, config.getType());
+            export.accept(getSKOSExporter(), out);
+            LOG.trace("Export finished successfully.");
+        }), exportFormat().getMediaType(), exportFormat().getFileExtension());
     }
 
     protected abstract ExportFormat exportFormat();
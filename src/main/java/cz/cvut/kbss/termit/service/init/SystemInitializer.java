@@ -17,6 +17,7 @@
  */
 package cz.cvut.kbss.termit.service.init;
 
+import cz.cvut.kbss.termit.persistence.dao.lucene.EmbeddedSearchIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.SmartInitializingSingleton;
@@ -27,7 +28,7 @@ import org.springframework.core.Ordered;
 import org.springframework.stereotype.Service;
 
 @Service
-@Profile("!test")
+@Profile("!test & !benchmark")
 public class SystemInitializer implements SmartInitializingSingleton, Ordered {
 
     private static final Logger LOG = LoggerFactory.getLogger(SystemInitializer.class);
@@ -44,6 +45,7 @@ public class SystemInitializer implements SmartInitializingSingleton, Ordered {
         LOG.info("Running startup tasks.");
         appContext.getBean(AdminAccountGenerator.class).initSystemAdmin();
         appContext.getBean(VocabularyAccessControlListGenerator.class).generateMissingAccessControlLists();
+        appContext.getBeanProvider(EmbeddedSearchIndex.class).ifAvailable(EmbeddedSearchIndex::rebuild);
     }
 
     @Override
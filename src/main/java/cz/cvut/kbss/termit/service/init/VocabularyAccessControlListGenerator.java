@@ -20,7 +20,7 @@ package cz.cvut.kbss.termit.service.init;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.termit.model.acl.AccessControlList;
 import cz.cvut.kbss.termit.service.business.AccessControlListService;
-import cz.cvut.kbss.termit.service.repository.VocabularyRepositoryService;
+import cz.cvut.kbss.termit.util.Utils;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,23 +30,25 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class VocabularyAccessControlListGenerator {
 
     private static final Logger LOG = LoggerFactory.getLogger(VocabularyAccessControlListGenerator.class);
 
-    private final EntityManager em;
+    /**
+     * Maximum number of ACLs created and linked to vocabularies in one batch.
+     */
+    static final int BATCH_SIZE = 100;
 
-    private final VocabularyRepositoryService vocabularyService;
+    private final EntityManager em;
 
     private final AccessControlListService aclService;
 
-    public VocabularyAccessControlListGenerator(EntityManager em,
-                                                VocabularyRepositoryService vocabularyService,
-                                                AccessControlListService aclService) {
+    public VocabularyAccessControlListGenerator(EntityManager em, AccessControlListService aclService) {
         this.em = em;
-        this.vocabularyService = vocabularyService;
         this.aclService = aclService;
     }
 
@@ -65,14 +67,33 @@ public class VocabularyAccessControlListGenerator {
         LOG.debug("Generating missing vocabulary access control lists (ACLs).");
         final List<URI> vocabsWithoutAcl = resolveVocabulariesWithoutAcl();
         LOG.trace("Generating access control lists for vocabularies: {}.", vocabsWithoutAcl);
-        vocabsWithoutAcl.forEach(vUri -> {
-            final cz.cvut.kbss.termit.model.Vocabulary v = vocabularyService.findRequired(vUri);
-            final AccessControlList acl = aclService.createFor(v);
-            v.setAcl(acl.getUri());
-        });
+        for (int i = 0; i < vocabsWithoutAcl.size(); i += BATCH_SIZE) {
+            final List<URI> batch = vocabsWithoutAcl.subList(i, Math.min(i + BATCH_SIZE, vocabsWithoutAcl.size()));
+            linkAccessControlLists(aclService.createFor(batch));
+        }
+        if (!vocabsWithoutAcl.isEmpty()) {
+            em.getEntityManagerFactory().getCache().evict(cz.cvut.kbss.termit.model.Vocabulary.class);
+        }
         LOG.trace("Finished generating {} vocabulary ACLs.", vocabsWithoutAcl.size());
     }
 
+    /**
+     * Links the specified ACLs to their vocabularies in a single update, bypassing loading of the vocabularies.
+     */
+    private void linkAccessControlLists(Map<URI, AccessControlList> acls) {
+        // java.net.URI does not allow characters which could break out of an IRI reference
+        final String values = acls.entrySet().stream()
+                                  .map(e -> "(" + Utils.uriToString(e.getKey()) + " " +
+                                          Utils.uriToString(e.getValue().getUri()) + ")")
+                                  .collect(Collectors.joining(" "));
+        em.createNativeQuery("INSERT { GRAPH ?g { ?v ?hasAcl ?acl . } } WHERE { " +
+                                     "VALUES (?v ?acl) { " + values + " } " +
+                                     "GRAPH ?g { ?v a ?vocabulary . } }")
+          .setParameter("hasAcl", URI.create(Vocabulary.s_p_ma_seznam_rizeni_pristupu))
+          .setParameter("vocabulary", URI.create(Vocabulary.s_c_slovnik))
+          .executeUpdate();
+    }
+
     private List<URI> resolveVocabulariesWithoutAcl() {
         return em.createNativeQuery(
                          "SELECT DISTINCT ?v WHERE { ?v a ?vocabulary . FILTER NOT EXISTS { ?v ?hasAcl ?acl . } }", URI.class)
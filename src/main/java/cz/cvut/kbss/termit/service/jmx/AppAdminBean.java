@@ -27,7 +27,6 @@ import jakarta.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.jmx.export.annotation.ManagedOperation;
@@ -58,7 +57,6 @@ public class AppAdminBean implements SelfNaming {
         this.beanName = config.getJmxBeanName();
     }
 
-    @CacheEvict(allEntries = true, cacheNames = {"vocabularies"})
     @ManagedOperation(description = "Invalidates the application caches.")
     public void invalidateCaches() {
         LOG.info("Invalidating application caches...");
@@ -0,0 +1,284 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.mail;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.cvut.kbss.termit.exception.PostmanException;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Durable queue of email messages waiting to be sent.
+ * <p>
+ * Messages are stored as individual files in the outbox directory. Unless configured otherwise, the directory is
+ * located in the file storage (see {@link Configuration.File#getStorage()}), so that it survives application and host
+ * restarts. A background dispatcher periodically sends pending messages in
+ * batches using {@link Postman#sendMessages(List)}. Messages that fail to be sent are retried with an exponential
+ * backoff. When the maximum number of attempts is reached, the message is moved to a {@code failed} subdirectory of the
+ * outbox and is not retried anymore.
+ * <p>
+ * Since the queue is persisted, messages enqueued but not sent before application shutdown are sent after the
+ * application is started again.
+ * <p>
+ * If the mail server is not configured, messages are not enqueued and messages already in the outbox are left in
+ * place until it is.
+ */
+@Service
+public class MailOutbox {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MailOutbox.class);
+
+    static final String DEFAULT_DIRECTORY = ".mail-outbox";
+    static final String FAILED_DIRECTORY = "failed";
+    private static final String ENTRY_SUFFIX = ".json";
+
+    private final Configuration.Mail.Outbox config;
+
+    private final Postman postman;
+
+    private final Clock clock;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Path directory;
+
+    @Autowired
+    public MailOutbox(Configuration config, Postman postman) {
+        this(config, postman, Clock.systemUTC());
+    }
+
+    MailOutbox(Configuration config, Postman postman, Clock clock) {
+        this.config = config.getMail().getOutbox();
+        this.postman = postman;
+        this.clock = clock;
+        this.directory = resolveDirectory(this.config, config.getFile());
+    }
+
+    private static Path resolveDirectory(Configuration.Mail.Outbox config, Configuration.File fileConfig) {
+        if (config.getDirectory() != null) {
+            return Path.of(config.getDirectory());
+        }
+        if (fileConfig.getStorage() == null) {
+            throw new PostmanException("Mail outbox directory is not configured and there is no file storage to " +
+                                               "create it in.");
+        }
+        return Path.of(fileConfig.getStorage(), DEFAULT_DIRECTORY);
+    }
+
+    /**
+     * Enqueues the specified message for sending.
+     * <p>
+     * If there is an active transaction, the message is stored in the outbox only after the transaction commits, so
+     * that no message is sent about changes which have been rolled back. Otherwise, it is stored immediately.
+     * <p>
+     * If the mail server is not configured, the message is dropped.
+     *
+     * @param message Message to send
+     */
+    public void enqueue(Message message) {
+        Objects.requireNonNull(message);
+        if (!postman.isConfigured()) {
+            LOG.warn("Mail server not configured. Message {} will not be sent.", message);
+            return;
+        }
+        LOG.debug("Enqueuing message {}.", message);
+        final Instant now = clock.instant();
+        final OutboxEntry entry = new OutboxEntry(UUID.randomUUID().toString(), List.copyOf(message.getRecipients()),
+                                                  message.getSubject(), message.getContent(),
+                                                  message.getAttachments().stream().map(File::getAbsolutePath)
+                                                         .collect(Collectors.toList()), now.toEpochMilli(), 0,
+                                                  now.toEpochMilli());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(entry);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                write(entry);
+            }
+        });
+    }
+
+    /**
+     * Sends messages whose next sending attempt is due.
+     * <p>
+     * Messages are sent in batches of the configured size, oldest first. Nothing is sent (and messages are kept in the
+     * outbox) while the mail server is not configured.
+     */
+    @Scheduled(fixedDelayString = "${termit.mail.outbox.dispatchInterval:30000}")
+    public synchronized void dispatch() {
+        if (!postman.isConfigured()) {
+            return;
+        }
+        final List<OutboxEntry> due = loadDueEntries();
+        if (due.isEmpty()) {
+            return;
+        }
+        LOG.debug("Dispatching {} queued messages.", due.size());
+        for (int i = 0; i < due.size(); i += config.getBatchSize()) {
+            sendBatch(due.subList(i, Math.min(i + config.getBatchSize(), due.size())));
+        }
+    }
+
+    private List<OutboxEntry> loadDueEntries() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        final long now = clock.instant().toEpochMilli();
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(ENTRY_SUFFIX))
+                        .map(this::read)
+                        .flatMap(Optional::stream)
+                        .filter(e -> e.nextAttempt() <= now)
+                        .sorted(Comparator.comparingLong(OutboxEntry::created))
+                        .collect(Collectors.toList());
+        } catch (IOException e) {
+            LOG.error("Unable to list mail outbox directory {}.", directory, e);
+            return List.of();
+        }
+    }
+
+    private void sendBatch(List<OutboxEntry> batch) {
+        final List<Message> messages = new ArrayList<>(batch.size());
+        batch.forEach(e -> messages.add(e.toMessage()));
+        final Map<Message, Exception> failed = postman.sendMessages(messages);
+        for (int i = 0; i < batch.size(); i++) {
+            final OutboxEntry entry = batch.get(i);
+            if (failed.containsKey(messages.get(i))) {
+                onFailure(entry);
+            } else {
+                delete(entry);
+            }
+        }
+    }
+
+    private void onFailure(OutboxEntry entry) {
+        final int attempts = entry.attempts() + 1;
+        if (attempts >= config.getMaxAttempts()) {
+            LOG.error("Giving up sending message '{}' to {} after {} attempts.", entry.subject(), entry.recipients(),
+                      attempts);
+            moveToFailed(entry);
+            return;
+        }
+        final Duration delay = config.getRetryDelay().multipliedBy(1L << Math.min(attempts - 1, 20));
+        LOG.warn("Unable to send message '{}' to {}. Will retry in {}.", entry.subject(), entry.recipients(), delay);
+        write(entry.retryAt(attempts, clock.instant().plus(delay).toEpochMilli()));
+    }
+
+    private void write(OutboxEntry entry) {
+        try {
+            Files.createDirectories(directory);
+            final Path tmp = directory.resolve(entry.id() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), entry);
+            Files.move(tmp, entryFile(entry), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new PostmanException("Unable to store message in mail outbox.", e);
+        }
+    }
+
+    private Optional<OutboxEntry> read(Path file) {
+        try {
+            return Optional.of(objectMapper.readValue(file.toFile(), OutboxEntry.class));
+        } catch (IOException e) {
+            LOG.error("Unable to read mail outbox entry {}.", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private void delete(OutboxEntry entry) {
+        try {
+            Files.deleteIfExists(entryFile(entry));
+        } catch (IOException e) {
+            LOG.error("Unable to remove sent message {} from mail outbox.", entry.id(), e);
+        }
+    }
+
+    private void moveToFailed(OutboxEntry entry) {
+        try {
+            final Path failedDir = Files.createDirectories(directory.resolve(FAILED_DIRECTORY));
+            Files.move(entryFile(entry), failedDir.resolve(entryFile(entry).getFileName()),
+                       StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.error("Unable to move failed message {} out of mail outbox.", entry.id(), e);
+        }
+    }
+
+    private Path entryFile(OutboxEntry entry) {
+        return directory.resolve(entry.id() + ENTRY_SUFFIX);
+    }
+
+    /**
+     * Gets the number of messages waiting in the outbox, regardless of whether their sending is due.
+     *
+     * @return Number of pending messages
+     */
+    public int getPendingCount() {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (final Stream<Path> files = Files.list(directory)) {
+            return (int) files.filter(f -> f.getFileName().toString().endsWith(ENTRY_SUFFIX)).count();
+        } catch (IOException e) {
+            LOG.error("Unable to list mail outbox directory {}.", directory, e);
+            return 0;
+        }
+    }
+
+    /**
+     * Persistent representation of a message.
+     */
+    record OutboxEntry(String id, List<String> recipients, String subject, String content, List<String> attachments,
+                       long created, int attempts, long nextAttempt) {
+
+        Message toMessage() {
+            final Message.MessageBuilder builder = Message.to(recipients.toArray(new String[0])).subject(subject)
+                                                          .content(content);
+            attachments.forEach(a -> builder.attach(new File(a)));
+            return builder.build();
+        }
+
+        OutboxEntry retryAt(int attempts, long nextAttempt) {
+            return new OutboxEntry(id, recipients, subject, content, attachments, created, attempts, nextAttempt);
+        }
+    }
+}
@@ -33,6 +33,7 @@ import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class MessageComposer {
@@ -45,6 +46,11 @@ public class MessageComposer {
 
     private final VelocityEngine velocityEngine;
 
+    /**
+     * Resolved templates, the template set is fixed and small, so they are kept for the lifetime of the application.
+     */
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
     public MessageComposer(Configuration config) {
         this.config = config;
         this.velocityEngine = new VelocityEngine();
@@ -63,7 +69,7 @@ public class MessageComposer {
     public String composeMessage(String templateName, Map<String, Object> variables) {
         Objects.requireNonNull(templateName);
         Objects.requireNonNull(variables);
-        final Template template = loadTemplate(templateName);
+        final Template template = templates.computeIfAbsent(templateName, this::loadTemplate);
         final VelocityContext context = new VelocityContext(variables);
         final StringWriter stringWriter = new StringWriter();
         template.merge(context, stringWriter);
@@ -28,6 +28,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
@@ -35,6 +36,12 @@ import org.springframework.stereotype.Service;
 import javax.annotation.PostConstruct;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Service
@@ -70,6 +77,15 @@ public class Postman {
         }
     }
 
+    /**
+     * Checks whether the mail server is configured, i.e., whether messages can be sent.
+     *
+     * @return {@code true} if the mail server is configured, {@code false} otherwise
+     */
+    public boolean isConfigured() {
+        return mailSender != null;
+    }
+
     /**
      * Sends an email message according to the specification.
      *
@@ -84,16 +100,7 @@ public class Postman {
         try {
             LOG.debug("Sending mail: {}", message);
 
-            final MimeMessage mail = mailSender.createMimeMessage();
-            final MimeMessageHelper helper = new MimeMessageHelper(mail, true);
-            helper.setFrom(new InternetAddress(sender != null ? sender : senderUsername, FROM_NICKNAME, StandardCharsets.UTF_8.toString()));
-            helper.setTo(message.getRecipients().toArray(new String[]{}));
-            helper.setSubject(message.getSubject());
-            helper.setText(message.getContent(), true);
-
-            addAttachments(message, helper);
-
-            mailSender.send(mail);
+            mailSender.send(createMimeMessage(message));
 
             LOG.trace("Mail successfully sent.");
         } catch (MailException | MessagingException | UnsupportedEncodingException e) {
@@ -102,6 +109,72 @@ public class Postman {
         }
     }
 
+    /**
+     * Sends the specified email messages in a single batch.
+     * <p>
+     * The messages are passed to the mail sender together, so that it can send them over a single connection to the
+     * mail server. Unlike {@link #sendMessage(Message)}, this method does not throw an exception when sending fails.
+     * Instead, it returns the messages that could not be sent together with the corresponding errors.
+     *
+     * @param messages Messages to send
+     * @return Map of messages that could not be sent to the reason of the failure, empty if all messages were sent
+     */
+    public Map<Message, Exception> sendMessages(List<Message> messages) {
+        Objects.requireNonNull(messages);
+        if (mailSender == null) {
+            LOG.warn("Mail server not configured. Cannot send messages {}.", messages);
+            return Collections.emptyMap();
+        }
+        final Map<Message, Exception> failed = new HashMap<>();
+        final Map<MimeMessage, Message> mails = new IdentityHashMap<>(messages.size());
+        final List<MimeMessage> batch = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            try {
+                final MimeMessage mail = createMimeMessage(message);
+                mails.put(mail, message);
+                batch.add(mail);
+            } catch (MessagingException | UnsupportedEncodingException | PostmanException e) {
+                LOG.error("Unable to create message {}.", message, e);
+                failed.put(message, e);
+            }
+        }
+        if (batch.isEmpty()) {
+            return failed;
+        }
+        try {
+            LOG.debug("Sending batch of {} mails.", batch.size());
+            mailSender.send(batch.toArray(new MimeMessage[0]));
+            LOG.trace("Mails successfully sent.");
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                LOG.error("Unable to send messages.", e);
+                mails.values().forEach(m -> failed.put(m, e));
+            } else {
+                e.getFailedMessages().forEach((mail, ex) -> {
+                    final Message message = mails.get(mail);
+                    LOG.error("Unable to send message {}.", message, ex);
+                    failed.put(message, ex);
+                });
+            }
+        } catch (MailException e) {
+            LOG.error("Unable to send messages.", e);
+            mails.values().forEach(m -> failed.put(m, e));
+        }
+        return failed;
+    }
+
+    private MimeMessage createMimeMessage(Message message) throws MessagingException, UnsupportedEncodingException {
+        final MimeMessage mail = mailSender.createMimeMessage();
+        final MimeMessageHelper helper = new MimeMessageHelper(mail, true);
+        helper.setFrom(new InternetAddress(sender != null ? sender : senderUsername, FROM_NICKNAME, StandardCharsets.UTF_8.toString()));
+        helper.setTo(message.getRecipients().toArray(new String[]{}));
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getContent(), true);
+
+        addAttachments(message, helper);
+        return mail;
+    }
+
     private void addAttachments(Message message, MimeMessageHelper helper) {
         message.getAttachments().forEach(f -> {
             try {
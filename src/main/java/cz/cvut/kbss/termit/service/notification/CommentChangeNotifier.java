@@ -21,7 +21,6 @@ import cz.cvut.kbss.termit.model.Asset;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.model.UserAccount;
-import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.comment.Comment;
 import cz.cvut.kbss.termit.service.business.TermService;
 import cz.cvut.kbss.termit.service.business.UserService;
@@ -83,6 +82,9 @@ public class CommentChangeNotifier {
     /**
      * Finds changes to comments in the specified time interval and creates a notification message that can be sent to
      * selected recipients.
+     * <p>
+     * The content of the message does not depend on the recipient, so it is rendered only once and a single message is
+     * addressed to all the recipients. Per-recipient rendering is not supported.
      *
      * @param from Interval start
      * @param to   Interval end
@@ -95,9 +97,11 @@ public class CommentChangeNotifier {
             return Optional.empty();
         }
         final Map<String, Object> variables = new HashMap<>();
+        final Map<Asset<?>, MessageAssetFactory.MessageAsset> messageAssets = messageAssetFactory.createAll(
+                comments.keySet());
         final List<AssetWithComments> assetsWithComments = comments.entrySet().stream()
                                                                    .map(e -> new AssetWithComments(
-                                                                           messageAssetFactory.create(e.getKey()),
+                                                                           messageAssets.get(e.getKey()),
                                                                            e.getValue().stream()
                                                                             .map(CommentForMessage::new)
                                                                             .collect(Collectors.toList())))
@@ -125,7 +129,7 @@ public class CommentChangeNotifier {
         final List<Comment> comments = commentService.findAll(null, from, to);
         final Map<URI, List<Comment>> reducer = mapCommentsByAsset(comments);
         final Map<Asset<?>, List<Comment>> result = new HashMap<>();
-        reducer.forEach((assetUri, lst) -> loadAsset(assetUri).ifPresent(a -> result.put(a, lst)));
+        loadAssets(reducer.keySet()).forEach(a -> result.put(a, reducer.get(a.getUri())));
         LOG.trace("Found comment changes (comments added or updated) for {} assets.", result.size());
         return result;
     }
@@ -139,10 +143,10 @@ public class CommentChangeNotifier {
         return reducer;
     }
 
-    private Optional<? extends Asset<?>> loadAsset(URI uri) {
+    private List<? extends Asset<?>> loadAssets(Collection<URI> uris) {
         // Note that this current works only for terms, as other types of assets are not commented.
         // If comments are added to other types of assets, this method will have to be modified to account for that.
-        return termService.find(uri);
+        return termService.findAllById(uris);
     }
 
     /**
@@ -169,8 +173,8 @@ public class CommentChangeNotifier {
     private Set<UserAccount> resolveTermVocabularyAuthors(Map<Asset<?>, List<Comment>> commentChanges) {
         final Set<URI> vocabularyUris = commentChanges.keySet().stream().filter(a -> a instanceof Term)
                                                       .map(a -> ((Term) a).getVocabulary()).collect(Collectors.toSet());
-        return vocabularyUris.stream().map(vUri -> changeRecordService.getAuthors(new Vocabulary(vUri)))
-                             .flatMap(Collection::stream).map(User::toUserAccount).collect(Collectors.toSet());
+        return changeRecordService.getAuthors(vocabularyUris).stream().map(User::toUserAccount)
+                                  .collect(Collectors.toSet());
     }
 
     /**
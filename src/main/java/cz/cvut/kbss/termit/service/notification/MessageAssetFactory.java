@@ -26,6 +26,10 @@ import cz.cvut.kbss.termit.service.mail.ApplicationLinkBuilder;
 import cz.cvut.kbss.termit.service.repository.DataRepositoryService;
 import org.springframework.stereotype.Component;
 
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 @Component
@@ -41,7 +45,25 @@ public class MessageAssetFactory {
     }
 
     public MessageAsset create(Asset<?> asset) {
+        return create(asset, new MessageLabelExtractor(dataService));
+    }
+
+    /**
+     * Creates message assets for all the specified assets.
+     * <p>
+     * Labels of vocabularies shared by the assets are resolved only once.
+     *
+     * @param assets Assets to create message assets for
+     * @return Map of the specified assets to the corresponding message assets
+     */
+    public Map<Asset<?>, MessageAsset> createAll(Collection<? extends Asset<?>> assets) {
         final MessageLabelExtractor labelExtractor = new MessageLabelExtractor(dataService);
+        final Map<Asset<?>, MessageAsset> result = new HashMap<>(assets.size());
+        assets.forEach(a -> result.put(a, create(a, labelExtractor)));
+        return result;
+    }
+
+    private MessageAsset create(Asset<?> asset, MessageLabelExtractor labelExtractor) {
         asset.accept(labelExtractor);
         return new MessageAsset(labelExtractor.label, linkBuilder.linkTo(asset));
     }
@@ -49,6 +71,8 @@ public class MessageAssetFactory {
     private static class MessageLabelExtractor implements AssetVisitor {
         private final DataRepositoryService dataService;
 
+        private final Map<URI, String> vocabularyLabels = new HashMap<>();
+
         String label;
 
         private MessageLabelExtractor(DataRepositoryService dataService) {
@@ -57,7 +81,10 @@ public class MessageAssetFactory {
 
         @Override
         public void visitTerm(AbstractTerm term) {
-            this.label = term.getPrimaryLabel() + " (" + dataService.getLabel(term.getVocabulary(), null).orElse("") + ")";
+            final String vocabularyLabel = vocabularyLabels.computeIfAbsent(term.getVocabulary(),
+                                                                            v -> dataService.getLabel(v, null)
+                                                                                            .orElse(""));
+            this.label = term.getPrimaryLabel() + " (" + vocabularyLabel + ")";
         }
 
         @Override
@@ -18,7 +18,7 @@
 package cz.cvut.kbss.termit.service.notification;
 
 import cz.cvut.kbss.termit.service.mail.Message;
-import cz.cvut.kbss.termit.service.mail.Postman;
+import cz.cvut.kbss.termit.service.mail.MailOutbox;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Utils;
 import org.slf4j.Logger;
@@ -42,18 +42,20 @@ public class NotificationService {
 
     private final CommentChangeNotifier commentChangeNotifier;
 
-    private final Postman postman;
+    private final MailOutbox mailOutbox;
 
-    public NotificationService(Configuration config, CommentChangeNotifier commentChangeNotifier, Postman postman) {
+    public NotificationService(Configuration config, CommentChangeNotifier commentChangeNotifier,
+                               MailOutbox mailOutbox) {
         this.scheduleConfig = config.getSchedule();
         this.commentChangeNotifier = commentChangeNotifier;
-        this.postman = postman;
+        this.mailOutbox = mailOutbox;
     }
 
     /**
      * Notifies selected users of comments created since last notification.
      * <p>
-     * Scheduling is done via configured CRON expression.
+     * Scheduling is done via configured CRON expression. The notification is not sent directly, it is enqueued in the
+     * {@link MailOutbox}.
      */
     @Scheduled(cron = "${termit.schedule.cron.notification.comments:-}")
     public void notifyOfCommentChanges() {
@@ -61,7 +63,7 @@ public class NotificationService {
         final Instant now = Utils.timestamp();
         final Instant previous = resolvePreviousRun(now, scheduleConfig.getCron().getNotification().getComments());
         final Optional<Message> changeNotificationMessage = commentChangeNotifier.createCommentChangesMessage(previous, now);
-        changeNotificationMessage.ifPresent(postman::sendMessage);
+        changeNotificationMessage.ifPresent(mailOutbox::enqueue);
     }
 
     private static Instant resolvePreviousRun(Instant now, String cronExpression) {
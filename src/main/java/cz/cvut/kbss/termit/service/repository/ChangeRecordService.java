@@ -25,7 +25,10 @@ import cz.cvut.kbss.termit.service.changetracking.ChangeRecordProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.net.URI;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Service
@@ -56,4 +59,26 @@ public class ChangeRecordService implements ChangeRecordProvider<HasIdentifier>
     public Set<User> getAuthors(HasIdentifier asset) {
         return changeRecordDao.getAuthors(asset);
     }
+
+    /**
+     * Gets authors of all the specified assets.
+     *
+     * @param assets Identifiers of assets whose authors to get
+     * @return A set of zero or more users who authored at least one of the specified assets
+     * @see #getAuthors(HasIdentifier)
+     */
+    public Set<User> getAuthors(Collection<URI> assets) {
+        return changeRecordDao.getAuthors(assets);
+    }
+
+    /**
+     * Gets authors of each of the specified assets.
+     *
+     * @param assets Identifiers of assets whose authors to get
+     * @return Map of asset identifiers to their authors, assets without recorded authors are not contained in the map
+     * @see #getAuthors(HasIdentifier)
+     */
+    public Map<URI, Set<User>> getAuthorsByAsset(Collection<URI> assets) {
+        return changeRecordDao.getAuthorsByAsset(assets);
+    }
 }
@@ -25,7 +25,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -78,4 +80,15 @@ public class DataRepositoryService {
     public Optional<String> getLabel(URI id, @Nullable String language) {
         return dataDao.getLabel(id, language);
     }
+
+    /**
+     * Gets labels of resources with the specified identifiers.
+     *
+     * @param ids      Resource identifiers
+     * @param language Label language, if null, configured persistence unit language is used instead
+     * @return Map of resource identifiers to their labels, resources without a label are omitted
+     */
+    public Map<URI, String> getLabels(Collection<URI> ids, @Nullable String language) {
+        return dataDao.getLabels(ids, language);
+    }
 }
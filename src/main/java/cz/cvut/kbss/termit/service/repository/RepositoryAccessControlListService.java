@@ -19,10 +19,12 @@ package cz.cvut.kbss.termit.service.repository;
 
 import cz.cvut.kbss.termit.dto.acl.AccessControlListDto;
 import cz.cvut.kbss.termit.dto.mapper.DtoMapper;
+import cz.cvut.kbss.termit.event.AccessControlListModifiedEvent;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.exception.UnsupportedOperationException;
 import cz.cvut.kbss.termit.model.AccessControlAgent;
 import cz.cvut.kbss.termit.model.Asset;
+import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.model.UserRole;
 import cz.cvut.kbss.termit.model.acl.AccessControlList;
 import cz.cvut.kbss.termit.model.acl.AccessControlRecord;
@@ -38,23 +40,36 @@ import cz.cvut.kbss.termit.util.Utils;
 import jakarta.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.net.URI;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-@CacheConfig(cacheNames = "acls")
+@CacheConfig(cacheNames = RepositoryAccessControlListService.CACHE_NAME)
 @Service
 public class RepositoryAccessControlListService implements AccessControlListService {
 
+    /**
+     * Name of the cache of ACLs, mapped by identifiers of their subjects.
+     */
+    public static final String CACHE_NAME = "acls";
+
     private static final Logger LOG = LoggerFactory.getLogger(RepositoryAccessControlListService.class);
 
     private final AccessControlListDao dao;
@@ -69,15 +84,23 @@ public class RepositoryAccessControlListService implements AccessControlListServ
 
     private final Configuration.ACL aclConfig;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
     public RepositoryAccessControlListService(AccessControlListDao dao, ChangeRecordService changeRecordService,
                                               UserRoleRepositoryService userRoleService,
-                                              DtoMapper dtoMapper, SecurityUtils securityUtils, Configuration config) {
+                                              DtoMapper dtoMapper, SecurityUtils securityUtils, Configuration config,
+                                              ApplicationEventPublisher eventPublisher,
+                                              ObjectProvider<CacheManager> cacheManager) {
         this.dao = dao;
         this.changeRecordService = changeRecordService;
         this.userRoleService = userRoleService;
         this.dtoMapper = dtoMapper;
         this.securityUtils = securityUtils;
         this.aclConfig = config.getAcl();
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
     }
 
     @Override
@@ -101,6 +124,31 @@ public class RepositoryAccessControlListService implements AccessControlListServ
         return findFor(subject).map(dtoMapper::accessControlListToDto);
     }
 
+    /**
+     * Loads ACLs of those of the specified subjects which are not cached yet into the cache.
+     * <p>
+     * Does nothing when caching is disabled.
+     *
+     * @param subjects Subjects whose ACLs to load
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void prefetch(Collection<? extends HasIdentifier> subjects) {
+        Objects.requireNonNull(subjects);
+        final Cache cache = Optional.ofNullable(cacheManager.getIfAvailable()).map(cm -> cm.getCache(CACHE_NAME))
+                                    .orElse(null);
+        if (cache == null) {
+            return;
+        }
+        final List<URI> missing = subjects.stream().map(HasIdentifier::getUri).distinct()
+                                          .filter(uri -> cache.get(uri) == null).toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        LOG.trace("Prefetching ACLs of {} subjects.", missing.size());
+        dao.findAllFor(missing).forEach(cache::put);
+    }
+
     @CachePut(key = "#p0.uri")
     @Transactional
     @Override
@@ -114,16 +162,36 @@ public class RepositoryAccessControlListService implements AccessControlListServ
         return acl;
     }
 
+    @Transactional
+    @Override
+    public Map<URI, AccessControlList> createFor(Collection<URI> subjects) {
+        Objects.requireNonNull(subjects);
+        LOG.debug("Creating ACLs for {} subjects.", subjects.size());
+        final Map<URI, Set<User>> authors = changeRecordService.getAuthorsByAsset(subjects);
+        final List<UserRole> roles = userRoleService.findAll();
+        final Map<URI, AccessControlList> result = new LinkedHashMap<>(subjects.size());
+        subjects.forEach(subject -> {
+            final AccessControlList acl = new AccessControlList();
+            setInitialAccessControlRecords(acl, authors.getOrDefault(subject, Set.of()), roles);
+            dao.persist(acl);
+            result.put(subject, acl);
+        });
+        return result;
+    }
+
     private void setInitialAccessControlRecords(HasIdentifier subject, AccessControlList acl) {
+        setInitialAccessControlRecords(acl, changeRecordService.getAuthors(subject), userRoleService.findAll());
+    }
+
+    private void setInitialAccessControlRecords(AccessControlList acl, Collection<User> authors,
+                                                List<UserRole> roles) {
         // Add current user - author in case the subject is just being created
         if (SecurityUtils.authenticated()) {
             acl.addRecord(new UserAccessControlRecord(AccessLevel.SECURITY, securityUtils.getCurrentUser().toUser()));
         }
         // Add possible authors in case the subject already existed
-        changeRecordService.getAuthors(subject)
-                           .forEach(u -> acl.addRecord(new UserAccessControlRecord(AccessLevel.SECURITY, u)));
+        authors.forEach(u -> acl.addRecord(new UserAccessControlRecord(AccessLevel.SECURITY, u)));
         // Add record with configured access level for reader and editor user roles
-        final List<UserRole> roles = userRoleService.findAll();
         roles.stream().filter(ur -> cz.cvut.kbss.termit.security.model.UserRole.FULL_USER.getType().equals(ur.getUri()
                                                                                                              .toString()))
              .findAny().ifPresent(
@@ -141,7 +209,10 @@ public class RepositoryAccessControlListService implements AccessControlListServ
     public void remove(AccessControlList acl) {
         Objects.requireNonNull(acl);
         LOG.debug("Removing ACL {}.", acl);
+        // Resolve the subject before the ACL is detached from it
+        final URI subject = dao.resolveSubjectOf(acl).orElse(null);
         dao.remove(acl);
+        eventPublisher.publishEvent(new AccessControlListModifiedEvent(this, acl, subject));
     }
 
     @Override
@@ -166,6 +237,7 @@ public class RepositoryAccessControlListService implements AccessControlListServ
         toUpdate.addRecord(record);
         // Explicitly update to trigger merge of the new record
         dao.update(toUpdate);
+        publishModified(toUpdate);
     }
 
     @CacheEvict(keyGenerator = "accessControlListCacheKeyGenerator")
@@ -182,6 +254,7 @@ public class RepositoryAccessControlListService implements AccessControlListServ
         verifyUserRoleRecordsArePresent(toUpdate);
         // Explicitly update to remove orphans
         dao.update(toUpdate);
+        publishModified(toUpdate);
     }
 
     private void verifyUserRoleRecordsArePresent(AccessControlList acl) {
@@ -215,6 +288,12 @@ public class RepositoryAccessControlListService implements AccessControlListServ
                            record.getAccessLevel(), Utils.uriToString(record.getUri()), toUpdate);
                  r.setAccessLevel(record.getAccessLevel());
              });
+        publishModified(toUpdate);
+    }
+
+    private void publishModified(AccessControlList acl) {
+        eventPublisher.publishEvent(
+                new AccessControlListModifiedEvent(this, acl, dao.resolveSubjectOf(acl).orElse(null)));
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,182 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.repository;
+
+import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.longrunning.LongRunningTask;
+import cz.cvut.kbss.termit.util.longrunning.LongRunningTaskScheduler;
+import cz.cvut.kbss.termit.util.longrunning.LongRunningTasksRegistry;
+import cz.cvut.kbss.termit.util.throttle.SynchronousTransactionExecutor;
+import jakarta.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Removes term occurrences whose sources no longer exist in the repository.
+ * <p>
+ * The orphaned sources are determined once at the beginning of the cleanup and then processed in chunks of configured
+ * size, each chunk in a separate transaction, so that the cleanup does not hold a single long-running transaction.
+ * Since every chunk is committed separately, an interrupted cleanup just continues with the remaining orphans on its
+ * next run.
+ * <p>
+ * When processing of a chunk takes longer than the configured latency threshold, the repository is considered busy
+ * and the cleanup pauses before the next chunk, giving way to other repository clients.
+ */
+@Component
+public class TermOccurrenceOrphanCleanup extends LongRunningTaskScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TermOccurrenceOrphanCleanup.class);
+
+    static final String TASK_NAME = "Cleanup of orphaned term occurrences";
+
+    private final TermOccurrenceDao termOccurrenceDao;
+
+    private final SynchronousTransactionExecutor transactionExecutor;
+
+    private final Configuration.TextAnalysis config;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public TermOccurrenceOrphanCleanup(TermOccurrenceDao termOccurrenceDao,
+                                       SynchronousTransactionExecutor transactionExecutor,
+                                       LongRunningTasksRegistry registry, Configuration config) {
+        super(registry);
+        this.termOccurrenceDao = termOccurrenceDao;
+        this.transactionExecutor = transactionExecutor;
+        this.config = config.getTextAnalysis();
+    }
+
+    /**
+     * Runs the cleanup.
+     * <p>
+     * If the cleanup is already running, this call does nothing.
+     */
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            LOG.debug("Orphaned term occurrences cleanup is already running.");
+            return;
+        }
+        final CleanupTask task = new CleanupTask();
+        try {
+            task.start();
+            notifyTaskChanged(task);
+            process(task);
+        } finally {
+            task.finish();
+            notifyTaskChanged(task);
+            running.set(false);
+        }
+        LOG.debug("Orphaned term occurrences cleanup finished. Removed occurrences of {} orphaned sources.",
+                  task.processed);
+    }
+
+    private void process(CleanupTask task) {
+        final int batchSize = config.getOrphanCleanupBatchSize();
+        final Duration threshold = config.getOrphanCleanupLatencyThreshold();
+        final AtomicReference<List<URI>> orphans = new AtomicReference<>();
+        transactionExecutor.execute(() -> orphans.set(termOccurrenceDao.findOrphanedSources()));
+        final List<URI> sources = orphans.get();
+        LOG.trace("Found {} orphaned term occurrence sources.", sources.size());
+        for (int i = 0; i < sources.size(); i += batchSize) {
+            final long start = System.nanoTime();
+            final List<URI> batch = sources.subList(i, Math.min(i + batchSize, sources.size()));
+            transactionExecutor.execute(() -> termOccurrenceDao.removeAllOrphanedOf(batch));
+            task.processed += batch.size();
+            notifyTaskChanged(task);
+            final Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            LOG.trace("Removed occurrences of {} orphaned sources in {}.", batch.size(), elapsed);
+            if (i + batchSize < sources.size() && elapsed.compareTo(threshold) > 0 && !pause(elapsed)) {
+                return;
+            }
+        }
+    }
+
+    private static boolean pause(Duration duration) {
+        LOG.trace("Repository appears to be busy, pausing orphaned term occurrences cleanup for {}.", duration);
+        try {
+            Thread.sleep(duration.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Orphaned term occurrences cleanup interrupted, it will continue on its next run.");
+            return false;
+        }
+    }
+
+    private static class CleanupTask implements LongRunningTask {
+
+        private final UUID uuid = UUID.randomUUID();
+
+        private volatile Instant startedAt;
+
+        private volatile boolean done;
+
+        private volatile int processed;
+
+        void start() {
+            this.startedAt = Instant.now();
+        }
+
+        void finish() {
+            this.done = true;
+        }
+
+        @Override
+        public String getName() {
+            return TASK_NAME;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return startedAt != null && !done;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done;
+        }
+
+        @Nonnull
+        @Override
+        public Optional<Instant> startedAt() {
+            return Optional.ofNullable(startedAt);
+        }
+
+        @Nonnull
+        @Override
+        public UUID getUuid() {
+            return uuid;
+        }
+
+        @Override
+        public String getProgress() {
+            return processed + " orphaned sources cleaned up";
+        }
+    }
+}
@@ -50,12 +50,16 @@ public class TermOccurrenceRepositoryService implements TermOccurrenceService {
 
     private final ResourceRepositoryService resourceService;
 
+    private final TermOccurrenceOrphanCleanup orphanCleanup;
+
     @Autowired
     public TermOccurrenceRepositoryService(TermOccurrenceDao termOccurrenceDao, TermRepositoryService termService,
-                                           ResourceRepositoryService resourceService) {
+                                           ResourceRepositoryService resourceService,
+                                           TermOccurrenceOrphanCleanup orphanCleanup) {
         this.termOccurrenceDao = termOccurrenceDao;
         this.termService = termService;
         this.resourceService = resourceService;
+        this.orphanCleanup = orphanCleanup;
     }
 
     @Transactional
@@ -119,12 +123,14 @@ public class TermOccurrenceRepositoryService implements TermOccurrenceService {
     /**
      * Cleans up possibly orphaned term occurrences.
      * <p>
-     * Such occurrences reference targets whose sources no longer exist in the repository.
+     * Such occurrences reference targets whose sources no longer exist in the repository. The orphans are removed in
+     * chunks, each in a separate transaction.
+     *
+     * @see TermOccurrenceOrphanCleanup
      */
     @Scheduled(cron = SCHEDULING_PATTERN)
-    @Transactional
     public void cleanupOrphans() {
         LOG.debug("Executing orphaned term occurrences cleanup.");
-        termOccurrenceDao.removeAllOrphans();
+        orphanCleanup.run();
     }
 }
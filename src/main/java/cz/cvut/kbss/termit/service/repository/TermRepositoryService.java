@@ -23,12 +23,14 @@ import cz.cvut.kbss.termit.dto.TermInfo;
 import cz.cvut.kbss.termit.dto.assignment.TermOccurrences;
 import cz.cvut.kbss.termit.dto.listing.TermDto;
 import cz.cvut.kbss.termit.exception.AssetRemovalException;
+import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.exception.UnsupportedOperationException;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 import cz.cvut.kbss.termit.persistence.dao.BaseAssetDao;
 import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import cz.cvut.kbss.termit.persistence.dao.TermFetchProfile;
 import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.snapshot.SnapshotProvider;
@@ -50,6 +52,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
@@ -126,11 +129,11 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term, Term
 
     @Override
     protected void postUpdate(@Nonnull Term instance) {
-        final Vocabulary vocabulary = vocabularyService.getReference(instance.getVocabulary());
+        final Vocabulary vocabulary = vocabularyService.findRequiredWithoutRootTerms(instance.getVocabulary());
         if (instance.hasParentInSameVocabulary()) {
-            vocabulary.getGlossary().removeRootTerm(instance);
+            vocabularyService.removeRootTerm(vocabulary, instance);
         } else {
-            vocabulary.getGlossary().addRootTerm(instance);
+            vocabularyService.addRootTerm(vocabulary, instance);
         }
     }
 
@@ -149,7 +152,7 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term, Term
         instance.splitExternalAndInternalParents();
 
         assert !instance.hasParentInSameVocabulary();
-        addTermAsRootToGlossary(instance, vocabulary.getUri());
+        vocabularyService.addRootTerm(vocabulary, instance);
         termDao.persist(instance, vocabulary);
     }
 
@@ -168,13 +171,6 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term, Term
                                                     termLabel.get(config.getPersistence().getLanguage()));
     }
 
-    private void addTermAsRootToGlossary(Term instance, URI vocabularyIri) {
-        // Load vocabulary so that it is managed and changes to it (resp. the glossary) are persisted on commit
-        final Vocabulary toUpdate = vocabularyService.getReference(vocabularyIri);
-        instance.setGlossary(toUpdate.getGlossary().getUri());
-        toUpdate.getGlossary().addRootTerm(instance);
-    }
-
     @Transactional
     public void addChildTerm(Term instance, Term parentTerm) {
         Objects.requireNonNull(instance);
@@ -185,12 +181,12 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term, Term
                 instance.getVocabulary() != null ? instance.getVocabulary() : parentTerm.getVocabulary();
         prepareTermForPersist(instance, vocabularyIri);
 
-        final Vocabulary vocabulary = vocabularyService.getReference(vocabularyIri);
+        final Vocabulary vocabulary = vocabularyService.findRequiredWithoutRootTerms(vocabularyIri);
         instance.setGlossary(vocabulary.getGlossary().getUri());
         instance.addParentTerm(parentTerm);
         instance.splitExternalAndInternalParents();
         if (!instance.hasParentInSameVocabulary()) {
-            addTermAsRootToGlossary(instance, vocabularyIri);
+            vocabularyService.addRootTerm(vocabulary, instance);
         }
 
         termDao.persist(instance, vocabulary);
@@ -210,6 +206,47 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term, Term
         return termDao.findAll(vocabulary);
     }
 
+    /**
+     * Finds a term with the specified identifier, resolving only derived attributes included in the specified fetch
+     * profile.
+     *
+     * @param id      Term identifier
+     * @param profile Determines which derived attributes are resolved
+     * @return Matching term
+     * @throws NotFoundException If no matching term is found
+     * @see #findRequired(URI)
+     */
+    public Term findRequired(URI id, TermFetchProfile profile) {
+        return termDao.find(id, profile).orElseThrow(() -> NotFoundException.create(Term.class.getSimpleName(), id));
+    }
+
+    /**
+     * Gets all terms with the specified identifiers.
+     * <p>
+     * Only basic term data are loaded, inferred attributes like sub-terms are not resolved.
+     *
+     * @param ids Term identifiers
+     * @return List of matching terms
+     */
+    @Transactional(readOnly = true)
+    public List<Term> findAllById(Collection<URI> ids) {
+        return termDao.findAllById(ids);
+    }
+
+    /**
+     * Gets all terms from a vocabulary and passes them to the specified consumer in batches.
+     * <p>
+     * This is a streaming alternative to {@link #findAll(Vocabulary)} which does not hold the whole result in memory.
+     *
+     * @param vocabulary Vocabulary whose terms should be returned. A reference is sufficient
+     * @param batchSize  Maximum number of terms passed to the consumer at once
+     * @param consumer   Consumer of term batches, batches are ordered by label
+     */
+    @Transactional(readOnly = true)
+    public void findAll(Vocabulary vocabulary, int batchSize, Consumer<List<TermDto>> consumer) {
+        termDao.findAll(vocabulary, batchSize, consumer);
+    }
+
     /**
      * Gets all terms from a vocabulary, regardless of their position in the term hierarchy.
      * <p>
@@ -238,6 +275,21 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term, Term
         return termDao.findAllIncludingImported(vocabulary);
     }
 
+    /**
+     * Gets all terms from the specified vocabulary and its imports (transitive) and passes them to the specified
+     * consumer in batches.
+     * <p>
+     * This is a streaming alternative to {@link #findAllIncludingImported(Vocabulary)}.
+     *
+     * @param vocabulary Base vocabulary for the vocabulary import closure
+     * @param batchSize  Maximum number of terms passed to the consumer at once
+     * @param consumer   Consumer of term batches, batches are ordered by label
+     */
+    @Transactional(readOnly = true)
+    public void findAllIncludingImported(Vocabulary vocabulary, int batchSize, Consumer<List<TermDto>> consumer) {
+        termDao.findAllIncludingImported(vocabulary, batchSize, consumer);
+    }
+
     /**
      * Finds all root terms (terms without parent term) in the specified vocabulary.
      * <p>
@@ -441,8 +493,8 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term, Term
     protected void postRemove(@Nonnull Term instance) {
         super.postRemove(instance);
         if (!instance.hasParentInSameVocabulary()) {
-            final Vocabulary v = vocabularyService.findRequired(instance.getVocabulary());
-            v.getGlossary().removeRootTerm(instance);
+            vocabularyService.removeRootTerm(vocabularyService.findRequiredWithoutRootTerms(instance.getVocabulary()),
+                                             instance);
         }
     }
 
@@ -28,6 +28,7 @@ import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.exception.importing.VocabularyImportException;
 import cz.cvut.kbss.termit.model.Glossary;
 import cz.cvut.kbss.termit.model.Model;
+import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.resource.Document;
@@ -50,9 +51,6 @@ import org.apache.tika.Tika;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaCoreProperties;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
@@ -69,7 +67,6 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-@CacheConfig(cacheNames = "vocabularies")
 @Service
 public class VocabularyRepositoryService extends BaseAssetRepositoryService<Vocabulary, VocabularyDto> {
 
@@ -103,11 +100,31 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
         return vocabularyDao;
     }
 
-    // Cache only if all vocabularies are editable
-    @Cacheable(condition = "@'termit-cz.cvut.kbss.termit.util.Configuration'.workspace.allVocabulariesEditable")
+    /**
+     * Loads listing DTOs of all vocabularies.
+     * <p>
+     * The listing is retrieved from the DAO, which caches it. Vocabularies which are not editable in the current
+     * workspace are marked as read-only on copies of the cached DTOs.
+     *
+     * @return List of vocabulary DTOs
+     */
     @Override
     public List<VocabularyDto> findAll() {
-        return super.findAll();
+        final List<VocabularyDto> vocabularies = vocabularyDao.findAllDtos();
+        if (config.getWorkspace().isAllVocabulariesEditable()) {
+            return vocabularies;
+        }
+        return vocabularies.stream().map(v -> {
+            if (editableVocabularies.isEditable(v.getUri())) {
+                return v;
+            }
+            final VocabularyDto readOnly = new VocabularyDto(v);
+            if (readOnly.getTypes() == null) {
+                readOnly.setTypes(new HashSet<>());
+            }
+            readOnly.getTypes().add(cz.cvut.kbss.termit.util.Vocabulary.s_c_pouze_pro_cteni);
+            return readOnly;
+        }).collect(Collectors.toList());
     }
 
     @Override
@@ -124,7 +141,6 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
         return dtoMapper.vocabularyToVocabularyDto(entity);
     }
 
-    @CacheEvict(allEntries = true)
     @Override
     @Transactional
     public void persist(@Nonnull Vocabulary instance) {
@@ -200,7 +216,6 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
     }
 
     @PreAuthorize("@vocabularyAuthorizationService.canModify(#instance)")
-    @CacheEvict(allEntries = true)
     @Override
     @Transactional
     public Vocabulary update(Vocabulary instance) {
@@ -215,6 +230,41 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
         return vocabularyDao.getRelatedVocabularies(entity, Constants.SKOS_CONCEPT_MATCH_RELATIONSHIPS);
     }
 
+    /**
+     * Gets a vocabulary with the specified identifier without loading root terms of its glossary.
+     * <p>
+     * Only identifiers of the vocabulary, its glossary and model are available in the result.
+     *
+     * @param id Vocabulary identifier
+     * @return Vocabulary projection
+     * @throws NotFoundException When no matching vocabulary exists
+     * @see VocabularyDao#findWithoutRootTerms(URI)
+     */
+    public Vocabulary findRequiredWithoutRootTerms(URI id) {
+        return vocabularyDao.findWithoutRootTerms(id)
+                            .orElseThrow(() -> NotFoundException.create(Vocabulary.class.getSimpleName(), id));
+    }
+
+    /**
+     * Adds the specified term to root terms of the glossary of the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary whose glossary to update
+     * @param term       Term to add
+     */
+    public void addRootTerm(Vocabulary vocabulary, Term term) {
+        vocabularyDao.addRootTerm(vocabulary, term.getUri());
+    }
+
+    /**
+     * Removes the specified term from root terms of the glossary of the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary whose glossary to update
+     * @param term       Term to remove
+     */
+    public void removeRootTerm(Vocabulary vocabulary, Term term) {
+        vocabularyDao.removeRootTerm(vocabulary, term.getUri());
+    }
+
     @Transactional(readOnly = true)
     public List<AggregatedChangeInfo> getChangesOfContent(Vocabulary vocabulary) {
         return vocabularyDao.getChangesOfContent(vocabulary);
@@ -232,7 +282,6 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
         return vocabularyDao.getDetailedHistoryOfContent(vocabulary, pageReq);
     }
 
-    @CacheEvict(allEntries = true)
     @Transactional
     public Vocabulary importVocabulary(boolean rename, MultipartFile file) {
         Objects.requireNonNull(file);
@@ -255,7 +304,6 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
         return new Tika().detect(file.getInputStream(), metadata);
     }
 
-    @CacheEvict(allEntries = true)
     @Transactional
     public Vocabulary importVocabulary(URI vocabularyIri, MultipartFile file) {
         Objects.requireNonNull(file);
@@ -283,7 +331,6 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
      * </ul>
      */
     @PreAuthorize("@vocabularyAuthorizationService.canRemove(#instance)")
-    @CacheEvict(allEntries = true)
     @Transactional
     @Override
     public void remove(Vocabulary instance) {
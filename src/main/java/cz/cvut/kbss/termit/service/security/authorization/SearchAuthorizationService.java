@@ -24,6 +24,7 @@ import cz.cvut.kbss.termit.model.Vocabulary;
 import jakarta.annotation.Nonnull;
 import org.springframework.stereotype.Service;
 
+import java.net.URI;
 import java.util.Objects;
 
 /**
@@ -57,6 +58,19 @@ public class SearchAuthorizationService {
         }
     }
 
+    /**
+     * Checks if the current user can search in the specified vocabulary.
+     * <p>
+     * Authorization is based on vocabulary ACL.
+     *
+     * @param vocabulary Identifier of the vocabulary to search in
+     * @return {@code true} if the current user can read the specified vocabulary, {@code false} otherwise
+     */
+    public boolean canSearchIn(@Nonnull URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return vocabularyAuthorizationService.canRead(new Vocabulary(vocabulary));
+    }
+
     /**
      * Checks if the current user has read access to the specified faceted term search result.
      * <p>
@@ -21,6 +21,7 @@ import cz.cvut.kbss.termit.model.AbstractTerm;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.Objects;
 
 /**
@@ -79,6 +80,20 @@ public class TermAuthorizationService implements AssetAuthorizationService<Abstr
         return vocabularyAuthorizationService.canModify(getVocabulary(asset));
     }
 
+    /**
+     * Checks if the current user can modify all the specified terms.
+     * <p>
+     * Each vocabulary containing any of the terms is checked only once.
+     *
+     * @param terms Terms to check
+     * @return {@code true} if the current user is authorized to modify vocabularies of all the specified terms,
+     * {@code false} otherwise
+     */
+    public boolean canModifyAll(Collection<? extends AbstractTerm> terms) {
+        Objects.requireNonNull(terms);
+        return terms.stream().map(this::getVocabulary).distinct().allMatch(vocabularyAuthorizationService::canModify);
+    }
+
     @Override
     public boolean canRemove(AbstractTerm asset) {
         return vocabularyAuthorizationService.canRemove(getVocabulary(asset));
@@ -28,6 +28,7 @@ import org.springframework.validation.annotation.Validated;
 import java.time.Duration;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * Represents application-wide configuration.
@@ -130,6 +131,10 @@ public class Configuration {
     private Language language = new Language();
     @Valid
     private Template template = new Template();
+    @Valid
+    private Cluster cluster = new Cluster();
+    @Valid
+    private Search search = new Search();
 
     public String getUrl() {
         return url;
@@ -315,6 +320,22 @@ public class Configuration {
         this.template = template;
     }
 
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public void setCluster(Cluster cluster) {
+        this.cluster = cluster;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public void setSearch(Search search) {
+        this.search = search;
+    }
+
     public Duration getThrottleThreshold() {
         return throttleThreshold;
     }
@@ -343,6 +364,38 @@ public class Configuration {
          */
         @NotNull
         String language;
+        /**
+         * Maximum number of resource labels kept in the label cache.
+         * <p>
+         * Setting this to {@code 0} disables label caching.
+         */
+        @Min(0)
+        int labelCacheSize = 10_000;
+        /**
+         * Time after which a cached resource label expires.
+         * <p>
+         * Bounds staleness of labels changed by means which do not publish any cache invalidation, e.g., direct
+         * repository updates.
+         *
+         * @configurationdoc.default 10 minutes
+         */
+        @NotNull
+        Duration labelCacheTimeToLive = Duration.ofMinutes(10);
+        /**
+         * Whether executions of repository queries are measured.
+         * <p>
+         * Query statistics are exposed via JMX.
+         */
+        boolean queryStatistics = true;
+        /**
+         * Queries running at least this long are written into the slow query log together with their parameters.
+         * <p>
+         * Setting this to {@code 0} disables the slow query log.
+         *
+         * @configurationdoc.default 1 second
+         */
+        @NotNull
+        Duration slowQueryThreshold = Duration.ofSeconds(1);
 
         public String getDriver() {
             return driver;
@@ -359,6 +412,38 @@ public class Configuration {
         public void setLanguage(String language) {
             this.language = language;
         }
+
+        public int getLabelCacheSize() {
+            return labelCacheSize;
+        }
+
+        public void setLabelCacheSize(int labelCacheSize) {
+            this.labelCacheSize = labelCacheSize;
+        }
+
+        public Duration getLabelCacheTimeToLive() {
+            return labelCacheTimeToLive;
+        }
+
+        public void setLabelCacheTimeToLive(Duration labelCacheTimeToLive) {
+            this.labelCacheTimeToLive = labelCacheTimeToLive;
+        }
+
+        public boolean isQueryStatistics() {
+            return queryStatistics;
+        }
+
+        public void setQueryStatistics(boolean queryStatistics) {
+            this.queryStatistics = queryStatistics;
+        }
+
+        public Duration getSlowQueryThreshold() {
+            return slowQueryThreshold;
+        }
+
+        public void setSlowQueryThreshold(Duration slowQueryThreshold) {
+            this.slowQueryThreshold = slowQueryThreshold;
+        }
     }
 
     @Validated
@@ -640,6 +725,20 @@ public class Configuration {
          */
         String secretKey;
 
+        /**
+         * How long a user resolved from a JWT is cached before it is loaded from the repository again.
+         * <p>
+         * Cached users are evicted immediately when their account is updated (e.g., locked, disabled, role change).
+         */
+        Duration principalCacheTtl = Duration.ofSeconds(30);
+
+        /**
+         * Remaining lifetime of a JWT under which a new token is issued on request.
+         * <p>
+         * Tokens whose remaining lifetime is longer are not re-issued.
+         */
+        Duration refreshThreshold = Duration.ofHours(12);
+
         public String getSecretKey() {
             return secretKey;
         }
@@ -647,10 +746,40 @@ public class Configuration {
         public void setSecretKey(String secretKey) {
             this.secretKey = secretKey;
         }
+
+        public Duration getPrincipalCacheTtl() {
+            return principalCacheTtl;
+        }
+
+        public void setPrincipalCacheTtl(Duration principalCacheTtl) {
+            this.principalCacheTtl = principalCacheTtl;
+        }
+
+        public Duration getRefreshThreshold() {
+            return refreshThreshold;
+        }
+
+        public void setRefreshThreshold(Duration refreshThreshold) {
+            this.refreshThreshold = refreshThreshold;
+        }
     }
 
     @Validated
     public static class TextAnalysis {
+
+        public enum AnnotatorType {
+            REMOTE, EMBEDDED
+        }
+
+        /**
+         * Determines whether text is annotated by the remote text analysis service or by the embedded dictionary-based
+         * annotator.
+         * <p>
+         * The embedded annotator matches normalized labels of terms from the analyzed vocabularies in the text. It does
+         * not need the text analysis service URL to be configured.
+         */
+        private AnnotatorType annotator = AnnotatorType.REMOTE;
+
         /**
          * URL of the text analysis service.
          */
@@ -670,6 +799,58 @@ public class Configuration {
 
         private boolean disableVocabularyAnalysisOnTermEdit = false;
 
+        /**
+         * Number of term occurrences written into the repository at once when saving results of text analysis.
+         */
+        @Min(1)
+        private int termOccurrenceBatchSize = 1000;
+
+        /**
+         * Whether to save results of text analysis incrementally.
+         * <p>
+         * When enabled, only the difference between the existing and the newly resolved term occurrences is written
+         * into the repository instead of replacing all the existing occurrences.
+         */
+        private boolean incrementalOccurrenceSaving = false;
+
+        /**
+         * Whether to analyze definitions of multiple terms in a single request to the text analysis service.
+         * <p>
+         * When enabled, bulk analysis of term definitions (e.g., of all terms in a vocabulary) packs the definitions
+         * into one document per batch and saves the resulting occurrences in bulk.
+         */
+        private boolean batchTermDefinitionAnalysis = false;
+
+        /**
+         * Maximum number of term definitions sent to the text analysis service in one request when batch term
+         * definition analysis is enabled.
+         */
+        @Min(1)
+        private int termDefinitionBatchSize = 100;
+
+        /**
+         * Number of orphaned term occurrence sources whose occurrences are removed in one transaction by the scheduled
+         * cleanup.
+         */
+        @Min(1)
+        private int orphanCleanupBatchSize = 100;
+
+        /**
+         * Maximum time processing of one batch of orphaned term occurrences should take.
+         * <p>
+         * When a batch takes longer, the repository is considered busy and the cleanup pauses before processing the
+         * next batch.
+         */
+        private Duration orphanCleanupLatencyThreshold = Duration.ofSeconds(2);
+
+        public AnnotatorType getAnnotator() {
+            return annotator;
+        }
+
+        public void setAnnotator(AnnotatorType annotator) {
+            this.annotator = annotator;
+        }
+
         public String getUrl() {
             return url;
         }
@@ -701,6 +882,54 @@ public class Configuration {
         public void setDisableVocabularyAnalysisOnTermEdit(boolean disableVocabularyAnalysisOnTermEdit) {
             this.disableVocabularyAnalysisOnTermEdit = disableVocabularyAnalysisOnTermEdit;
         }
+
+        public int getTermOccurrenceBatchSize() {
+            return termOccurrenceBatchSize;
+        }
+
+        public void setTermOccurrenceBatchSize(int termOccurrenceBatchSize) {
+            this.termOccurrenceBatchSize = termOccurrenceBatchSize;
+        }
+
+        public boolean isIncrementalOccurrenceSaving() {
+            return incrementalOccurrenceSaving;
+        }
+
+        public void setIncrementalOccurrenceSaving(boolean incrementalOccurrenceSaving) {
+            this.incrementalOccurrenceSaving = incrementalOccurrenceSaving;
+        }
+
+        public boolean isBatchTermDefinitionAnalysis() {
+            return batchTermDefinitionAnalysis;
+        }
+
+        public void setBatchTermDefinitionAnalysis(boolean batchTermDefinitionAnalysis) {
+            this.batchTermDefinitionAnalysis = batchTermDefinitionAnalysis;
+        }
+
+        public int getTermDefinitionBatchSize() {
+            return termDefinitionBatchSize;
+        }
+
+        public void setTermDefinitionBatchSize(int termDefinitionBatchSize) {
+            this.termDefinitionBatchSize = termDefinitionBatchSize;
+        }
+
+        public int getOrphanCleanupBatchSize() {
+            return orphanCleanupBatchSize;
+        }
+
+        public void setOrphanCleanupBatchSize(int orphanCleanupBatchSize) {
+            this.orphanCleanupBatchSize = orphanCleanupBatchSize;
+        }
+
+        public Duration getOrphanCleanupLatencyThreshold() {
+            return orphanCleanupLatencyThreshold;
+        }
+
+        public void setOrphanCleanupLatencyThreshold(Duration orphanCleanupLatencyThreshold) {
+            this.orphanCleanupLatencyThreshold = orphanCleanupLatencyThreshold;
+        }
     }
 
     @Validated
@@ -751,6 +980,24 @@ public class Configuration {
         @NotNull
         private boolean allVocabulariesEditable = true;
 
+        /**
+         * Maximum number of user workspaces whose state is cached in memory when clustering is enabled.
+         * <p>
+         * When the limit is exceeded, state of the least recently used workspace is discarded from the cache and it is
+         * reloaded from the repository when needed again.
+         */
+        @Min(1)
+        private int stateCacheSize = 10_000;
+
+        /**
+         * How long vocabularies registered as editable in a user workspace are kept.
+         * <p>
+         * The time is counted from the last registration in the workspace. Workspace state is also cleared when the
+         * user logs out.
+         */
+        @NotNull
+        private Duration stateTimeToLive = Duration.ofDays(1);
+
         public boolean isAllVocabulariesEditable() {
             return allVocabulariesEditable;
         }
@@ -758,6 +1005,22 @@ public class Configuration {
         public void setAllVocabulariesEditable(boolean allVocabulariesEditable) {
             this.allVocabulariesEditable = allVocabulariesEditable;
         }
+
+        public int getStateCacheSize() {
+            return stateCacheSize;
+        }
+
+        public void setStateCacheSize(int stateCacheSize) {
+            this.stateCacheSize = stateCacheSize;
+        }
+
+        public Duration getStateTimeToLive() {
+            return stateTimeToLive;
+        }
+
+        public void setStateTimeToLive(Duration stateTimeToLive) {
+            this.stateTimeToLive = stateTimeToLive;
+        }
     }
 
     @Validated
@@ -848,6 +1111,8 @@ public class Configuration {
          */
         private String sender;
 
+        private Outbox outbox = new Outbox();
+
         public String getSender() {
             return sender;
         }
@@ -855,6 +1120,79 @@ public class Configuration {
         public void setSender(String sender) {
             this.sender = sender;
         }
+
+        public Outbox getOutbox() {
+            return outbox;
+        }
+
+        public void setOutbox(Outbox outbox) {
+            this.outbox = outbox;
+        }
+
+        /**
+         * Configuration of the outbox used to send emails asynchronously.
+         */
+        @Validated
+        public static class Outbox {
+
+            /**
+             * Directory in which messages waiting for dispatch are stored.
+             * <p>
+             * If not specified, a {@code .mail-outbox} directory in the file storage ({@link File#getStorage()}) is
+             * used. The directory must survive application restarts.
+             */
+            private String directory;
+
+            /**
+             * Maximum number of messages sent over a single connection to the mail server.
+             */
+            @Min(1)
+            private int batchSize = 50;
+
+            /**
+             * Maximum number of attempts to send a message. When exceeded, the message is moved aside and not retried
+             * anymore.
+             */
+            @Min(1)
+            private int maxAttempts = 5;
+
+            /**
+             * Delay before the first retry of a failed message. The delay doubles with each subsequent failed attempt.
+             */
+            private Duration retryDelay = Duration.ofMinutes(1);
+
+            public String getDirectory() {
+                return directory;
+            }
+
+            public void setDirectory(String directory) {
+                this.directory = directory;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public int getMaxAttempts() {
+                return maxAttempts;
+            }
+
+            public void setMaxAttempts(int maxAttempts) {
+                this.maxAttempts = maxAttempts;
+            }
+
+            public Duration getRetryDelay() {
+                return retryDelay;
+            }
+
+            public void setRetryDelay(Duration retryDelay) {
+                this.retryDelay = retryDelay;
+            }
+        }
     }
 
     /**
@@ -1017,4 +1355,171 @@ public class Configuration {
             this.excelImport = excelImport;
         }
     }
+
+    /**
+     * Configuration of cooperation of multiple TermIt instances running against the same repository.
+     */
+    @Validated
+    public static class Cluster {
+
+        /**
+         * Whether cache invalidations should be propagated to other TermIt instances.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Identifier of this instance.
+         * <p>
+         * If not specified, a random identifier is generated on startup.
+         */
+        private String nodeId = UUID.randomUUID().toString();
+
+        /**
+         * Identifier of the repository context in which messages exchanged by the instances are stored.
+         */
+        private String context = "http://onto.fel.cvut.cz/ontologies/termit/cluster";
+
+        /**
+         * Interval at which pending invalidations are sent to and received from other instances.
+         * <p>
+         * Invalidations of the same cache within one interval are coalesced into a single message.
+         */
+        private Duration syncInterval = Duration.ofSeconds(2);
+
+        /**
+         * How long messages are kept in the repository before they are removed.
+         * <p>
+         * Should be considerably larger than the sync interval and the possible clock skew between the instances.
+         */
+        private Duration messageRetention = Duration.ofMinutes(5);
+
+        /**
+         * Duration of a lease by which an instance claims execution of a throttled task (e.g., text analysis of a
+         * file).
+         * <p>
+         * The lease is renewed while the task is running, so this is the maximum time for which other instances wait
+         * for a task of an instance which crashed.
+         */
+        private Duration leaseDuration = Duration.ofMinutes(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public void setNodeId(String nodeId) {
+            this.nodeId = nodeId;
+        }
+
+        public String getContext() {
+            return context;
+        }
+
+        public void setContext(String context) {
+            this.context = context;
+        }
+
+        public Duration getSyncInterval() {
+            return syncInterval;
+        }
+
+        public void setSyncInterval(Duration syncInterval) {
+            this.syncInterval = syncInterval;
+        }
+
+        public Duration getMessageRetention() {
+            return messageRetention;
+        }
+
+        public void setMessageRetention(Duration messageRetention) {
+            this.messageRetention = messageRetention;
+        }
+
+        public Duration getLeaseDuration() {
+            return leaseDuration;
+        }
+
+        public void setLeaseDuration(Duration leaseDuration) {
+            this.leaseDuration = leaseDuration;
+        }
+    }
+
+    /**
+     * Configuration of the embedded full-text search index (used with the {@code embedded-lucene} Spring profile).
+     */
+    @Validated
+    public static class Search {
+
+        /**
+         * Path to the directory where the embedded full-text index is stored.
+         * <p>
+         * If not specified, the index is kept in memory only. Either way, the index is rebuilt from the repository on
+         * startup, but a persistent index can be searched while the rebuild is running.
+         */
+        private String indexDirectory;
+
+        /**
+         * Maximum number of results of a full-text search which does not specify a page.
+         */
+        @Min(1)
+        private int maxResults = 1000;
+
+        /**
+         * Additional term properties whose values are kept in the in-memory faceted search index.
+         * <p>
+         * Types, states and vocabularies of terms are always indexed. Faceted search by other properties is evaluated
+         * in the repository.
+         */
+        @NotNull
+        private Set<String> facetProperties = Set.of();
+
+        /**
+         * Maximum number of terms matched by faceted search parameters on properties which are not indexed for the
+         * in-memory faceted search index to be used.
+         * <p>
+         * Terms matching such parameters are loaded from the repository and intersected with the index. When they are
+         * more, the search is evaluated in the repository and facet value counts are not provided.
+         */
+        @Min(1)
+        private int facetCandidateLimit = 10000;
+
+        public String getIndexDirectory() {
+            return indexDirectory;
+        }
+
+        public void setIndexDirectory(String indexDirectory) {
+            this.indexDirectory = indexDirectory;
+        }
+
+        public int getMaxResults() {
+            return maxResults;
+        }
+
+        public void setMaxResults(int maxResults) {
+            this.maxResults = maxResults;
+        }
+
+        public Set<String> getFacetProperties() {
+            return facetProperties;
+        }
+
+        public void setFacetProperties(Set<String> facetProperties) {
+            this.facetProperties = facetProperties;
+        }
+
+        public int getFacetCandidateLimit() {
+            return facetCandidateLimit;
+        }
+
+        public void setFacetCandidateLimit(int facetCandidateLimit) {
+            this.facetCandidateLimit = facetCandidateLimit;
+        }
+    }
 }
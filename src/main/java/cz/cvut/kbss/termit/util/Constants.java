@@ -62,6 +62,12 @@ public class Constants {
      */
     public static final Pageable DEFAULT_PAGE_SPEC = PageRequest.of(0, DEFAULT_PAGE_SIZE);
 
+    /**
+     * Number of items loaded and enriched at once when a collection is streamed to the client instead of being
+     * materialized in memory.
+     */
+    public static final int STREAMING_BATCH_SIZE = 100;
+
     /**
      * Path to directory containing queries used by the system.
      * <p>
@@ -0,0 +1,99 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.util;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Resource whose content is generated on demand by writing it into an output stream.
+ * <p>
+ * This allows to send large generated content (e.g., exports) directly to the client, without holding all of it in
+ * memory. Consumers able to provide an output stream should use {@link #writeTo(OutputStream)}. {@link
+ * #getInputStream()} is supported as well, but it buffers the whole content in memory.
+ * <p>
+ * Note that the content is generated anew on every access.
+ */
+public class TypeAwareStreamingResource extends AbstractResource implements TypeAwareResource {
+
+    private final ContentWriter writer;
+    private final String mediaType;
+    private final String fileExtension;
+
+    public TypeAwareStreamingResource(ContentWriter writer, String mediaType, String fileExtension) {
+        this.writer = Objects.requireNonNull(writer);
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * Writes content of this resource into the specified output stream.
+     * <p>
+     * The stream is not closed by this method.
+     *
+     * @param out Target stream
+     * @throws IOException When writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        writer.writeTo(out);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        writeTo(bos);
+        return new ByteArrayInputStream(bos.toByteArray());
+    }
+
+    @Override
+    public String getDescription() {
+        return "Streaming resource [" + mediaType + "]";
+    }
+
+    @Override
+    public Optional<String> getMediaType() {
+        return Optional.ofNullable(mediaType);
+    }
+
+    @Override
+    public Optional<String> getFileExtension() {
+        return Optional.ofNullable(fileExtension);
+    }
+
+    /**
+     * Generates content of a {@link TypeAwareStreamingResource}.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+
+        /**
+         * Writes the content into the specified stream.
+         *
+         * @param out Target stream
+         * @throws IOException When writing fails
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
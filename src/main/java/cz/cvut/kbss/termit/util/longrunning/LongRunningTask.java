@@ -40,4 +40,13 @@ public interface LongRunningTask {
 
     @Nonnull
     UUID getUuid();
+
+    /**
+     * @return human-readable description of the task progress (e.g., the number of processed items),
+     * or {@code null} if the task does not report progress.
+     */
+    @Nullable
+    default String getProgress() {
+        return null;
+    }
 }
@@ -19,12 +19,15 @@ public class LongRunningTaskStatus implements Serializable {
 
     private final Instant startedAt;
 
+    private final String progress;
+
     public LongRunningTaskStatus(@Nonnull LongRunningTask task) {
         Objects.requireNonNull(task.getName());
         this.name = task.getName();
         this.startedAt = task.startedAt().map(time -> time.truncatedTo(ChronoUnit.SECONDS)).orElse(null);
         this.state = State.of(task);
         this.uuid = task.getUuid();
+        this.progress = task.getProgress();
     }
 
     public @Nonnull String getName() {
@@ -43,9 +46,14 @@ public class LongRunningTaskStatus implements Serializable {
         return uuid;
     }
 
+    public @Nullable String getProgress() {
+        return progress;
+    }
+
     @Override
     public String toString() {
-        return "{" + state.name() + (startedAt == null ? "" : ", startedAt=" + startedAt) + ", " + uuid + "}";
+        return "{" + state.name() + (startedAt == null ? "" : ", startedAt=" + startedAt) +
+                (progress == null ? "" : ", progress=" + progress) + ", " + uuid + "}";
     }
 
     public enum State {
@@ -0,0 +1,356 @@
+package cz.cvut.kbss.termit.util.throttle;
+
+import cz.cvut.kbss.termit.exception.TermItException;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.longrunning.LongRunningTask;
+import cz.cvut.kbss.termit.util.longrunning.LongRunningTaskScheduler;
+import cz.cvut.kbss.termit.util.longrunning.LongRunningTasksRegistry;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Coordinates execution of throttled tasks between TermIt instances running against the same repository.
+ * <p>
+ * Before a throttled task is executed, the instance acquires a lease of the task in the shared
+ * {@link ThrottleLeaseStore}. While the lease is held by another instance, the task waits. When the lease is released
+ * and the run completed under it started no sooner than the task was requested on this instance, the task is not
+ * executed at all, as its results are already stored in the repository. Leases of running tasks are periodically
+ * renewed, so that a lease of an instance which crashed expires and other instances can take over. A task whose lease
+ * is lost is aborted. Expiration of leases is determined by the clock of the lease store, the local clock is used only
+ * to translate the time the task was requested at and to detect that renewals failed for longer than the lease
+ * duration.
+ * <p>
+ * Tasks running on other instances are reported to the {@link LongRunningTasksRegistry}, so that users see the status
+ * of long-running tasks of the whole cluster.
+ * <p>
+ * Renewals run in a dedicated scheduler, so that they are not starved by the long-running tasks themselves.
+ */
+@Component
+@ConditionalOnProperty(prefix = "termit.cluster", name = "enabled", havingValue = "true")
+public class DistributedThrottleCoordinator extends LongRunningTaskScheduler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DistributedThrottleCoordinator.class);
+
+    private final ThrottleLeaseStore leaseStore;
+
+    private final TaskScheduler scheduler;
+
+    private final String nodeId;
+
+    private final Duration leaseDuration;
+
+    private final Duration pollInterval;
+
+    private final Clock clock;
+
+    /**
+     * Tasks running on other instances, mapped by task identifiers.
+     */
+    private final Map<String, RemoteTask> remoteTasks = new ConcurrentHashMap<>();
+
+    private ScheduledFuture<?> refreshTask;
+
+    @Autowired
+    public DistributedThrottleCoordinator(ThrottleLeaseStore leaseStore, LongRunningTasksRegistry registry,
+                                          Configuration config) {
+        this(leaseStore, createScheduler(), registry, config.getCluster(), Clock.systemUTC());
+    }
+
+    DistributedThrottleCoordinator(ThrottleLeaseStore leaseStore, TaskScheduler scheduler,
+                                   LongRunningTasksRegistry registry, Configuration.Cluster config, Clock clock) {
+        super(registry);
+        this.leaseStore = leaseStore;
+        this.scheduler = scheduler;
+        this.nodeId = config.getNodeId();
+        this.leaseDuration = config.getLeaseDuration();
+        this.pollInterval = config.getSyncInterval();
+        this.clock = clock;
+    }
+
+    private static TaskScheduler createScheduler() {
+        final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("TermItLeases-");
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    @PostConstruct
+    void start() {
+        this.refreshTask = scheduler.scheduleWithFixedDelay(this::refreshRemoteTasks, pollInterval);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+        }
+        if (scheduler instanceof ThreadPoolTaskScheduler threadPoolTaskScheduler) {
+            threadPoolTaskScheduler.shutdown();
+        }
+    }
+
+    /**
+     * Executes the specified task unless another instance has already executed it since it was requested.
+     * <p>
+     * Blocks while the task is being executed by another instance. Tasks whose results are not shared with other
+     * instances (e.g., kept in memory) are always executed, the lease only ensures they do not run on multiple instances
+     * at once.
+     * <p>
+     * If the lease cannot be renewed while the task is running, the task is aborted by invoking {@code abort} and
+     * interrupting the thread executing it, as another instance may take the lease over.
+     * <p>
+     * If the lease store is not available, the task is executed without coordination.
+     *
+     * @param taskId      Identifier of the task, must be the same on all instances
+     * @param name        Name of the task, used for reporting
+     * @param requestedAt When the task was requested, {@code null} if a run on another instance cannot replace the
+     *                    execution on this instance
+     * @param task        Task to execute, returns whether it completed successfully
+     * @param abort       Aborts the task when its lease is lost
+     * @return {@code true} if the task has been executed by this instance, {@code false} if it has been executed by
+     * another instance
+     */
+    public boolean execute(@Nonnull String taskId, @Nullable String name, @Nullable Instant requestedAt,
+                           @Nonnull BooleanSupplier task, @Nonnull Runnable abort) {
+        try {
+            if (!acquire(taskId, name, requestedAt != null ? toStoreTime(requestedAt) : null)) {
+                return false;
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Unable to coordinate task '{}' with other instances, executing it without coordination.", taskId,
+                     e);
+            task.getAsBoolean();
+            return true;
+        }
+        runUnderLease(taskId, task, abort);
+        return true;
+    }
+
+    /**
+     * Converts the specified local time to the time of the lease store, so that it can be compared with times of
+     * leases regardless of the difference between clocks of this instance and the store.
+     */
+    private Instant toStoreTime(Instant localTime) {
+        return localTime.plus(Duration.between(clock.instant(), leaseStore.currentTime()));
+    }
+
+    /**
+     * Waits until the lease of the specified task is acquired or the task is satisfied by another instance.
+     *
+     * @param requestedAt When the task was requested, according to the clock of the lease store. {@code null} if the
+     *                    task cannot be satisfied by another instance
+     * @return {@code true} if the lease has been acquired, {@code false} if the task has been executed by another
+     * instance
+     */
+    private boolean acquire(String taskId, String name, @Nullable Instant requestedAt) {
+        while (true) {
+            final Optional<ThrottleLease> lease = leaseStore.find(taskId);
+            if (requestedAt != null && lease.map(l -> l.isSatisfied(requestedAt)).orElse(false)) {
+                LOG.trace("Task '{}' already executed by another instance.", taskId);
+                return false;
+            }
+            if (lease.map(l -> l.held() && !nodeId.equals(l.owner())).orElse(false)) {
+                LOG.trace("Task '{}' is being executed by instance {}, waiting.", taskId, lease.get().owner());
+                pause();
+                continue;
+            }
+            if (leaseStore.tryAcquire(taskId, name, nodeId, leaseDuration)) {
+                return true;
+            }
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pollInterval.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TermItException("Interrupted while waiting for a task running on another instance.", e);
+        }
+    }
+
+    private void runUnderLease(String taskId, BooleanSupplier task, Runnable abort) {
+        final LeasedRun run = new LeasedRun(Thread.currentThread(), abort, clock.instant());
+        final ScheduledFuture<?> renewal = scheduler.scheduleAtFixedRate(
+                () -> renew(taskId, run), clock.instant().plus(leaseDuration.dividedBy(3)),
+                leaseDuration.dividedBy(3));
+        boolean completed = false;
+        try {
+            completed = task.getAsBoolean();
+        } finally {
+            renewal.cancel(false);
+            if (!run.finish()) {
+                try {
+                    leaseStore.release(taskId, nodeId, completed);
+                } catch (RuntimeException e) {
+                    LOG.warn("Unable to release lease of task '{}', it will expire in {}.", taskId, leaseDuration, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Renews lease of the specified run and aborts the run when the lease is lost or has expired because it could not
+     * be renewed.
+     */
+    private void renew(String taskId, LeasedRun run) {
+        try {
+            if (leaseStore.renew(taskId, nodeId, leaseDuration)) {
+                run.renewedAt = clock.instant();
+                return;
+            }
+            LOG.warn("Lease of task '{}' has been lost, aborting the task.", taskId);
+        } catch (RuntimeException e) {
+            if (clock.instant().isBefore(run.renewedAt.plus(leaseDuration))) {
+                LOG.warn("Unable to renew lease of task '{}', will retry.", taskId, e);
+                return;
+            }
+            LOG.warn("Unable to renew lease of task '{}' before it expired, aborting the task.", taskId, e);
+        }
+        run.abort();
+    }
+
+    /**
+     * Reconciles tasks reported as running on other instances with leases in the lease store and removes stale
+     * leases.
+     */
+    void refreshRemoteTasks() {
+        try {
+            final Map<String, ThrottleLease> held = leaseStore.findHeld().stream()
+                                                              .filter(l -> !nodeId.equals(l.owner()))
+                                                              .collect(Collectors.toMap(ThrottleLease::task,
+                                                                                        l -> l, (a, b) -> a));
+            held.forEach((taskId, lease) -> {
+                if (!remoteTasks.containsKey(taskId)) {
+                    final RemoteTask task = new RemoteTask(lease);
+                    remoteTasks.put(taskId, task);
+                    notifyTaskChanged(task);
+                }
+            });
+            final Set<String> finished = remoteTasks.keySet().stream().filter(k -> !held.containsKey(k))
+                                                    .collect(Collectors.toSet());
+            finished.forEach(taskId -> {
+                final RemoteTask task = remoteTasks.remove(taskId);
+                task.done = true;
+                notifyTaskChanged(task);
+            });
+            leaseStore.prune(leaseDuration);
+        } catch (RuntimeException e) {
+            LOG.warn("Unable to refresh status of tasks running on other instances.", e);
+        }
+    }
+
+    /**
+     * Task running on this instance under a lease.
+     */
+    private static class LeasedRun {
+
+        private final Thread thread;
+
+        private final Runnable abort;
+
+        private volatile Instant renewedAt;
+
+        private boolean aborted;
+
+        private boolean finished;
+
+        private LeasedRun(Thread thread, Runnable abort, Instant renewedAt) {
+            this.thread = thread;
+            this.abort = abort;
+            this.renewedAt = renewedAt;
+        }
+
+        private synchronized void abort() {
+            if (aborted || finished) {
+                return;
+            }
+            this.aborted = true;
+            abort.run();
+            thread.interrupt();
+        }
+
+        /**
+         * Marks the run as finished. Must be called by the thread which executed the run.
+         *
+         * @return Whether the run has been aborted
+         */
+        private synchronized boolean finish() {
+            this.finished = true;
+            if (aborted) {
+                // Clear the interrupt, so that it does not affect other tasks executed by the thread
+                Thread.interrupted();
+            }
+            return aborted;
+        }
+    }
+
+    /**
+     * Task running on another instance.
+     */
+    private static class RemoteTask implements LongRunningTask {
+
+        private final UUID uuid = UUID.randomUUID();
+
+        private final ThrottleLease lease;
+
+        private volatile boolean done;
+
+        private RemoteTask(ThrottleLease lease) {
+            this.lease = lease;
+        }
+
+        @Override
+        public String getName() {
+            return lease.name();
+        }
+
+        @Override
+        public boolean isRunning() {
+            return !done;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done;
+        }
+
+        @Nonnull
+        @Override
+        public Optional<Instant> startedAt() {
+            return Optional.ofNullable(lease.startedAt());
+        }
+
+        @Nonnull
+        @Override
+        public UUID getUuid() {
+            return uuid;
+        }
+
+        @Override
+        public String getProgress() {
+            return "Running on instance " + lease.owner();
+        }
+    }
+}
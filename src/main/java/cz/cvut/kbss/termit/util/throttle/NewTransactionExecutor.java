@@ -0,0 +1,26 @@
+package cz.cvut.kbss.termit.util.throttle;
+
+import jakarta.annotation.Nonnull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executes the runnable synchronously in a new transaction.
+ * <p>
+ * Unlike {@link SynchronousTransactionExecutor}, the current transaction (if any) is suspended, so that the changes
+ * made by the runnable are committed as soon as it finishes.
+ *
+ * @see Propagation#REQUIRES_NEW
+ */
+@Component
+public class NewTransactionExecutor implements Executor {
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Override
+    public void execute(@Nonnull Runnable command) {
+        command.run();
+    }
+}
@@ -0,0 +1,22 @@
+package cz.cvut.kbss.termit.util.throttle;
+
+import jakarta.annotation.Nonnull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executes the runnable synchronously in a read-only transaction.
+ *
+ * @see SynchronousTransactionExecutor
+ */
+@Component
+public class ReadOnlyTransactionExecutor implements Executor {
+
+    @Transactional(readOnly = true)
+    @Override
+    public void execute(@Nonnull Runnable command) {
+        command.run();
+    }
+}
@@ -3,6 +3,7 @@ package cz.cvut.kbss.termit.util.throttle;
 import cz.cvut.kbss.termit.TermItApplication;
 import cz.cvut.kbss.termit.exception.TermItException;
 import cz.cvut.kbss.termit.exception.ThrottleAspectException;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Pair;
 import cz.cvut.kbss.termit.util.longrunning.LongRunningTaskScheduler;
@@ -33,6 +34,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.net.URI;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
@@ -131,6 +133,12 @@ public class ThrottleAspect extends LongRunningTaskScheduler {
 
     private final Configuration configuration;
 
+    /**
+     * Coordinates execution of throttled tasks with other TermIt instances sharing the repository. The reference might
+     * be null.
+     */
+    private DistributedThrottleCoordinator coordinator;
+
     @Autowired
     public ThrottleAspect(@Qualifier("longRunningTaskScheduler") TaskScheduler taskScheduler,
                           SynchronousTransactionExecutor transactionExecutor,
@@ -167,6 +175,16 @@ public class ThrottleAspect extends LongRunningTaskScheduler {
         lastClear = new AtomicReference<>(Instant.now(clock));
     }
 
+    /**
+     * Sets the coordinator of throttled tasks across TermIt instances.
+     * <p>
+     * The coordinator is available only when clustering is enabled.
+     */
+    @Autowired(required = false)
+    public void setCoordinator(DistributedThrottleCoordinator coordinator) {
+        this.coordinator = coordinator;
+    }
+
     private static StandardEvaluationContext makeDefaultContext() {
         StandardEvaluationContext standardEvaluationContext = new StandardEvaluationContext();
         standardEvaluationContext.addPropertyAccessor(DataBindingPropertyAccessor.forReadOnlyAccess());
@@ -362,7 +380,12 @@ public class ThrottleAspect extends LongRunningTaskScheduler {
                                                                                                       Transactional.class);
 
         // create a task which will be scheduled with executor
-        final Runnable toSchedule = createRunnableToSchedule(throttledFuture, identifier, withTransaction);
+        // only results of void methods are stored in the repository and can thus be shared with other instances,
+        // provided that all the arguments can be identified across instances
+        final String distributedIdentifier = makeDistributedIdentifier(joinPoint, identifier);
+        final boolean sharedResult = isVoid && hasIdentifiableArguments(joinPoint);
+        final Runnable toSchedule = createRunnableToSchedule(throttledFuture, identifier, distributedIdentifier,
+                                                             sharedResult, withTransaction);
 
         return new Pair<>(toSchedule, throttledFuture);
     }
@@ -383,9 +406,16 @@ public class ThrottleAspect extends LongRunningTaskScheduler {
         return throttledThreads.size();
     }
 
+    /**
+     * @param distributedIdentifier Identifier of the task shared with other TermIt instances
+     * @param sharedResult          Whether the result of the task is shared with other instances, so that a run on
+     *                              another instance may replace execution of the task on this instance
+     */
     private Runnable createRunnableToSchedule(ThrottledFuture<?> throttledFuture, Identifier identifier,
+                                              String distributedIdentifier, boolean sharedResult,
                                               boolean withTransaction) {
         final Supplier<SecurityContext> securityContext = SecurityContextHolder.getDeferredContext();
+        final Instant requestedAt = Instant.now(clock);
         return () -> {
             if (throttledFuture.isDone()) {
                 return;
@@ -401,10 +431,25 @@ public class ThrottleAspect extends LongRunningTaskScheduler {
             SecurityContextHolder.setContext(securityContext.get());
             try {
                 // fulfill the future
-                if (withTransaction) {
-                    transactionExecutor.execute(() -> throttledFuture.run(this::notifyTaskChanged));
+                final Runnable execution = () -> {
+                    if (withTransaction) {
+                        transactionExecutor.execute(() -> throttledFuture.run(this::notifyTaskChanged));
+                    } else {
+                        throttledFuture.run(this::notifyTaskChanged);
+                    }
+                };
+                if (coordinator != null) {
+                    final boolean executed = coordinator.execute(distributedIdentifier, throttledFuture.getName(),
+                                                                 sharedResult ? requestedAt : null, () -> {
+                                execution.run();
+                                return !throttledFuture.isCompletedExceptionally();
+                            }, () -> throttledFuture.cancel(true));
+                    if (!executed) {
+                        LOG.trace("Throttled task '{}' already executed by another instance.", identifier);
+                        throttledFuture.skip();
+                    }
                 } else {
-                    throttledFuture.run(this::notifyTaskChanged);
+                    execution.run();
                 }
                 // update last run timestamp
                 synchronized (lastRun) {
@@ -546,6 +591,59 @@ public class ThrottleAspect extends LongRunningTaskScheduler {
         return new Identifier(groupIdentifier, joinPoint.getSignature().toShortString() + "-" + identifier);
     }
 
+    /**
+     * Constructs identifier of a task shared with other TermIt instances.
+     * <p>
+     * Unlike the local identifier, it includes all arguments of the call, so that a run with different arguments (e.g.,
+     * different vocabularies or a forced analysis) is not considered to satisfy the request on another instance.
+     * Arguments which cannot be identified across instances (e.g., streams) are represented only by a placeholder.
+     */
+    private static String makeDistributedIdentifier(JoinPoint joinPoint, Identifier identifier) {
+        return identifier.getGroup() + "|" + identifier.getIdentifier() + "|" +
+                arguments(joinPoint).map(arg -> argumentIdentifier(arg).orElse("?")).collect(Collectors.joining(","));
+    }
+
+    private static boolean hasIdentifiableArguments(JoinPoint joinPoint) {
+        return arguments(joinPoint).allMatch(arg -> argumentIdentifier(arg).isPresent());
+    }
+
+    private static Stream<Object> arguments(JoinPoint joinPoint) {
+        return joinPoint.getArgs() != null ? Arrays.stream(joinPoint.getArgs()) : Stream.empty();
+    }
+
+    /**
+     * Represents the specified argument so that the representation is the same on all TermIt instances.
+     *
+     * @return Representation of the argument, empty if the argument cannot be identified across instances (e.g., a
+     * stream)
+     */
+    private static Optional<String> argumentIdentifier(Object argument) {
+        if (argument == null || argument instanceof URI || argument instanceof CharSequence ||
+                argument instanceof Number || argument instanceof Boolean || argument instanceof Enum<?>) {
+            return Optional.of(String.valueOf(argument));
+        }
+        if (argument instanceof HasIdentifier hasIdentifier) {
+            return Optional.ofNullable(hasIdentifier.getUri()).map(URI::toString);
+        }
+        if (argument instanceof Collection<?> collection) {
+            return joinIdentifiers(collection.stream().map(ThrottleAspect::argumentIdentifier), "[", "]");
+        }
+        if (argument instanceof Map<?, ?> map) {
+            return joinIdentifiers(map.entrySet().stream().map(e -> argumentIdentifier(e.getKey()).flatMap(
+                    k -> argumentIdentifier(e.getValue()).map(v -> k + "=" + v))), "{", "}");
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<String> joinIdentifiers(Stream<Optional<String>> identifiers, String prefix,
+                                                    String suffix) {
+        final List<Optional<String>> list = identifiers.toList();
+        if (list.stream().anyMatch(Optional::isEmpty)) {
+            return Optional.empty();
+        }
+        return Optional.of(list.stream().map(Optional::get).sorted().collect(Collectors.joining(",", prefix, suffix)));
+    }
+
     private @Nullable Object resultVoidOrFuture(@Nonnull MethodSignature signature, ThrottledFuture<Object> future)
             throws IllegalCallerException {
         Class<?> returnType = signature.getReturnType();
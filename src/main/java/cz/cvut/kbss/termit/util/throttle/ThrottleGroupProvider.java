@@ -1,6 +1,8 @@
 package cz.cvut.kbss.termit.util.throttle;
 
 import java.net.URI;
+import java.util.Collection;
+import java.util.stream.Collectors;
 
 /**
  * Provides static methods allowing construction of dynamic group identifiers
@@ -23,6 +25,11 @@ public class ThrottleGroupProvider {
         return TEXT_ANALYSIS_VOCABULARIES + "_" + vocabulary;
     }
 
+    public static String getTextAnalysisVocabulariesTerms(Collection<URI> vocabularies) {
+        return TEXT_ANALYSIS_VOCABULARIES + "_" + vocabularies.stream().map(URI::toString).distinct().sorted()
+                                                              .collect(Collectors.joining("_"));
+    }
+
     public static String getTextAnalysisVocabularyTerm(URI vocabulary, URI term) {
         return TEXT_ANALYSIS_VOCABULARIES + "_" + vocabulary + "_" + term;
     }
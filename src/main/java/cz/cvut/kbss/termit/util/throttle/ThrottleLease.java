@@ -0,0 +1,45 @@
+package cz.cvut.kbss.termit.util.throttle;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Lease of a throttled task shared by TermIt instances.
+ * <p>
+ * A lease is held by at most one instance at a time. Once released, the lease remembers when its last successfully
+ * completed run started, so that other instances can recognize that their request for the task has already been
+ * satisfied.
+ * <p>
+ * All times are given by the clock of the {@link ThrottleLeaseStore}, so that leases do not depend on clocks of the
+ * individual instances.
+ *
+ * @param task                  Identifier of the throttled task
+ * @param name                  Human-readable name of the task, possibly {@code null}
+ * @param owner                 Identifier of the instance holding the lease, {@code null} if the lease is not held
+ * @param startedAt             When the current holder acquired the lease, {@code null} if the lease is not held
+ * @param expiresAt             When the lease expires unless renewed, {@code null} if the lease is not held
+ * @param lastCompletedRunStart When the last successfully completed run of the task started, possibly {@code null}
+ * @param held                  Whether the lease was held by an instance when it was read, as determined by the clock
+ *                              of the {@link ThrottleLeaseStore}
+ */
+public record ThrottleLease(@Nonnull String task, @Nullable String name, @Nullable String owner,
+                            @Nullable Instant startedAt, @Nullable Instant expiresAt,
+                            @Nullable Instant lastCompletedRunStart, boolean held) {
+
+    public ThrottleLease {
+        Objects.requireNonNull(task);
+    }
+
+    /**
+     * Checks whether a run of the task requested at the specified time has already been completed.
+     *
+     * @param requestedAt Time at which the run was requested, according to the clock of the lease store
+     * @return {@code true} if the last completed run started no sooner than the specified time
+     */
+    public boolean isSatisfied(@Nonnull Instant requestedAt) {
+        return lastCompletedRunStart != null && !lastCompletedRunStart.isBefore(requestedAt);
+    }
+}
@@ -0,0 +1,86 @@
+package cz.cvut.kbss.termit.util.throttle;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage of {@link ThrottleLease}s shared by TermIt instances running against the same repository.
+ * <p>
+ * Implementations must guarantee that a lease is acquired by at most one instance at a time. Times of leases are
+ * determined by the clock of the store, so that clocks of the instances need not be synchronized.
+ */
+public interface ThrottleLeaseStore {
+
+    /**
+     * Gets the current time according to the clock of the store.
+     *
+     * @return Current time of the store
+     */
+    Instant currentTime();
+
+    /**
+     * Finds lease of the specified task.
+     *
+     * @param task Task identifier
+     * @return Matching lease, empty if the task has never been leased or its lease has been pruned
+     */
+    Optional<ThrottleLease> find(@Nonnull String task);
+
+    /**
+     * Finds leases which are currently held.
+     *
+     * @return List of held leases
+     */
+    List<ThrottleLease> findHeld();
+
+    /**
+     * Attempts to acquire lease of the specified task.
+     * <p>
+     * The lease is acquired only if it is not currently held by another instance.
+     *
+     * @param task     Task identifier
+     * @param name     Task name
+     * @param owner    Identifier of the acquiring instance
+     * @param duration How long the lease is held unless renewed
+     * @return {@code true} if the lease has been acquired, {@code false} otherwise
+     */
+    boolean tryAcquire(@Nonnull String task, @Nullable String name, @Nonnull String owner,
+                       @Nonnull Duration duration);
+
+    /**
+     * Extends lease of the specified task held by the specified instance.
+     * <p>
+     * Does nothing if the lease is not held by the specified instance.
+     *
+     * @param task     Task identifier
+     * @param owner    Identifier of the instance holding the lease
+     * @param duration How long from now the lease is held unless renewed again
+     * @return {@code true} if the lease is held by the specified instance after the renewal, {@code false} if it has
+     * been lost, e.g., taken over by another instance after it expired
+     */
+    boolean renew(@Nonnull String task, @Nonnull String owner, @Nonnull Duration duration);
+
+    /**
+     * Releases lease of the specified task held by the specified instance.
+     * <p>
+     * Does nothing if the lease is not held by the specified instance.
+     *
+     * @param task      Task identifier
+     * @param owner     Identifier of the instance holding the lease
+     * @param completed Whether the run executed under the lease completed successfully. If so, start of the lease is
+     *                  recorded as start of the last completed run
+     */
+    void release(@Nonnull String task, @Nonnull String owner, boolean completed);
+
+    /**
+     * Removes leases which are not held and whose last run completed more than the specified time ago.
+     *
+     * @param retention How long released leases are kept
+     */
+    void prune(@Nonnull Duration retention);
+}
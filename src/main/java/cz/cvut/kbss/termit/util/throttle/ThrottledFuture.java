@@ -217,6 +217,39 @@ public class ThrottledFuture<T> implements CacheableFuture<T>, LongRunningTask {
         }
     }
 
+    /**
+     * Completes this future without executing its task, as if the task returned {@code null}.
+     * <p>
+     * Completion callbacks are invoked as if the task was executed. Used when the work of the task has already been done
+     * elsewhere, e.g., by another TermIt instance sharing the same repository.
+     */
+    protected void skip() {
+        lock.lock();
+        try {
+            if (isDone()) {
+                return;
+            }
+            callbackLock.lock();
+            try {
+                onCompletion.forEach(c -> c.accept(null));
+            } finally {
+                callbackLock.unlock();
+            }
+            future.complete(null);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return {@code true} if the task of this future failed with an exception
+     */
+    public boolean isCompletedExceptionally() {
+        return future.isCompletedExceptionally();
+    }
+
     @Override
     public @Nullable String getName() {
         return this.name;
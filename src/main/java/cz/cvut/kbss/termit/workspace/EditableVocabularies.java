@@ -21,14 +21,21 @@ import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.util.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.event.LogoutSuccessEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
-import java.io.Serializable;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 
 import static cz.cvut.kbss.termit.util.Utils.uriToString;
 
@@ -41,26 +48,53 @@ import static cz.cvut.kbss.termit.util.Utils.uriToString;
  * <p>
  * This bean then allows checking whether a vocabulary is editable and what repository context it occupies (important
  * especially for the working copy scenario).
+ * <p>
+ * The subset of editable vocabularies is kept per user (workspace) in a {@link WorkspaceStateStore}, not in the HTTP
+ * session. Workspaces are identified by an opaque identifier derived from the username, so that usernames are not
+ * stored with workspace state. When no user is authenticated (e.g., in on-startup tasks), no vocabularies are
+ * registered as editable. The workspace is cleared when the user logs out.
  */
 @Component
-public class EditableVocabularies implements Serializable {
+public class EditableVocabularies {
 
     private static final Logger LOG = LoggerFactory.getLogger(EditableVocabularies.class);
 
-    private static final EditableVocabulariesHolder SHARED = new EditableVocabulariesHolder.SharedEditableVocabulariesHolder();
-
     private final boolean allVocabulariesEditable;
 
-    private final ObjectProvider<EditableVocabulariesHolder> editableVocabularies;
+    private final WorkspaceStateStore stateStore;
 
-    public EditableVocabularies(Configuration configuration,
-                                ObjectProvider<EditableVocabulariesHolder> editableVocabularies) {
+    public EditableVocabularies(Configuration configuration, WorkspaceStateStore stateStore) {
         this.allVocabulariesEditable = configuration.getWorkspace().isAllVocabulariesEditable();
-        this.editableVocabularies = editableVocabularies;
+        this.stateStore = stateStore;
+    }
+
+    /**
+     * Gets identifier of the workspace of the current user.
+     *
+     * @return Workspace identifier, empty if no user is authenticated
+     */
+    private static Optional<String> currentWorkspace() {
+        return workspaceOf(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private static Optional<String> workspaceOf(Authentication authentication) {
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken ||
+                authentication.getName() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(
+                UUID.nameUUIDFromBytes(authentication.getName().getBytes(StandardCharsets.UTF_8)).toString());
+    }
+
+    private Map<URI, URI> currentState() {
+        return currentWorkspace().map(stateStore::get).orElse(Map.of());
     }
 
     /**
      * Registers an editable copy of the vocabulary with the specified identifier to the specified repository context.
+     * <p>
+     * The registration is done in the workspace of the current user. If no user is authenticated, this method does
+     * nothing.
      *
      * @param vocabularyUri Vocabulary identifier
      * @param contextUri    Identifier of the context in which the editable data are
@@ -68,24 +102,35 @@ public class EditableVocabularies implements Serializable {
     public void registerEditableVocabulary(URI vocabularyUri, URI contextUri) {
         Objects.requireNonNull(vocabularyUri);
         Objects.requireNonNull(contextUri);
-        LOG.debug("Registering working context {} for vocabulary {}.", uriToString(contextUri),
-                  uriToString(vocabularyUri));
-        editableVocabularies.getObject().registerEditableVocabulary(vocabularyUri, contextUri);
+        currentWorkspace().ifPresentOrElse(workspace -> {
+            LOG.debug("Registering working context {} for vocabulary {}.", uriToString(contextUri),
+                      uriToString(vocabularyUri));
+            stateStore.register(workspace, vocabularyUri, contextUri);
+        }, () -> LOG.debug("No user authenticated, skipping registration of working context {} for vocabulary {}.",
+                           uriToString(contextUri), uriToString(vocabularyUri)));
     }
 
     /**
      * Clears the registered contexts.
      */
     public void clear() {
-        editableVocabularies.ifAvailable(EditableVocabulariesHolder::clear);
+        currentWorkspace().ifPresent(stateStore::clear);
+    }
+
+    /**
+     * Clears the workspace of a user who has logged out.
+     */
+    @EventListener
+    public void onLogout(LogoutSuccessEvent event) {
+        workspaceOf(event.getAuthentication()).ifPresent(stateStore::clear);
     }
 
     /**
      * Checks whether the specified vocabulary is editable.
      * <p>
      * A vocabulary is editable either if all vocabularies are editable (configured via {@link
-     * cz.cvut.kbss.termit.util.Configuration.Workspace}) or when this instance contains a reference to a context
-     * containing a working copy of the specified vocabulary.
+     * cz.cvut.kbss.termit.util.Configuration.Workspace}) or when the workspace of the current user contains a reference
+     * to a context containing a working copy of the specified vocabulary.
      *
      * @param vocabulary Vocabulary to check
      * @return {@code true} when vocabulary is editable, {@code false otherwise}
@@ -97,8 +142,7 @@ public class EditableVocabularies implements Serializable {
 
     public boolean isEditable(URI vocabularyUri) {
         Objects.requireNonNull(vocabularyUri);
-        return allVocabulariesEditable || editableVocabularies.getIfAvailable(() -> SHARED)
-                                                              .hasRegisteredVocabulary(vocabularyUri);
+        return allVocabulariesEditable || currentState().containsKey(vocabularyUri);
     }
 
     public Optional<URI> getVocabularyContext(Vocabulary vocabulary) {
@@ -108,7 +152,7 @@ public class EditableVocabularies implements Serializable {
 
     public Optional<URI> getVocabularyContext(URI vocabularyUri) {
         Objects.requireNonNull(vocabularyUri);
-        return editableVocabularies.getIfAvailable(() -> SHARED).getVocabularyContext(vocabularyUri);
+        return Optional.ofNullable(currentState().get(vocabularyUri));
     }
 
     /**
@@ -117,6 +161,6 @@ public class EditableVocabularies implements Serializable {
      * @return Set of context identifiers
      */
     public Set<URI> getRegisteredContexts() {
-        return editableVocabularies.getIfAvailable(() -> SHARED).getRegisteredContexts();
+        return new HashSet<>(currentState().values());
     }
 }
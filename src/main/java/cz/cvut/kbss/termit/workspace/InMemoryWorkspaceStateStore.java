@@ -0,0 +1,104 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.workspace;
+
+import cz.cvut.kbss.termit.util.Configuration;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps workspace state in memory of this instance.
+ * <p>
+ * State of a workspace is kept until it expires or is cleared, it is never discarded to make room for other
+ * workspaces. Expired state is removed when it is accessed and whenever a vocabulary is registered.
+ */
+@Component
+@ConditionalOnProperty(prefix = "termit.cluster", name = "enabled", havingValue = "false", matchIfMissing = true)
+public class InMemoryWorkspaceStateStore implements WorkspaceStateStore {
+
+    private final ConcurrentMap<String, State> workspaces = new ConcurrentHashMap<>();
+
+    private final Duration timeToLive;
+
+    private final Clock clock;
+
+    @Autowired
+    public InMemoryWorkspaceStateStore(Configuration config) {
+        this(config.getWorkspace().getStateTimeToLive(), Clock.systemUTC());
+    }
+
+    InMemoryWorkspaceStateStore(Duration timeToLive, Clock clock) {
+        this.timeToLive = Objects.requireNonNull(timeToLive);
+        this.clock = clock;
+    }
+
+    @Nonnull
+    @Override
+    public Map<URI, URI> get(@Nonnull String workspaceId) {
+        Objects.requireNonNull(workspaceId);
+        final State state = workspaces.get(workspaceId);
+        if (state == null) {
+            return Map.of();
+        }
+        if (state.isExpired(clock.instant())) {
+            workspaces.remove(workspaceId, state);
+            return Map.of();
+        }
+        return state.editableVocabularies();
+    }
+
+    @Override
+    public void register(@Nonnull String workspaceId, @Nonnull URI vocabularyUri, @Nonnull URI contextUri) {
+        Objects.requireNonNull(workspaceId);
+        Objects.requireNonNull(vocabularyUri);
+        Objects.requireNonNull(contextUri);
+        final Instant now = clock.instant();
+        workspaces.values().removeIf(s -> s.isExpired(now));
+        workspaces.compute(workspaceId, (k, current) -> {
+            final Map<URI, URI> vocabularies = current != null && !current.isExpired(now) ?
+                                               new HashMap<>(current.editableVocabularies()) : new HashMap<>();
+            vocabularies.put(vocabularyUri, contextUri);
+            return new State(Map.copyOf(vocabularies), now.plus(timeToLive));
+        });
+    }
+
+    @Override
+    public void clear(@Nonnull String workspaceId) {
+        Objects.requireNonNull(workspaceId);
+        workspaces.remove(workspaceId);
+    }
+
+    private record State(Map<URI, URI> editableVocabularies, Instant expiresAt) {
+
+        private boolean isExpired(Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+}
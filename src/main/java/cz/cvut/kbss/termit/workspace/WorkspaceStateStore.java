@@ -0,0 +1,64 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.workspace;
+
+import jakarta.annotation.Nonnull;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Stores state of user workspaces, i.e., vocabularies open for editing and contexts containing their working copies.
+ * <p>
+ * Workspace state is not bound to an HTTP session, so any TermIt instance is able to serve any request of the user.
+ * State of a workspace expires after a configured time since the last registration in it.
+ * <p>
+ * Workspaces are identified by opaque identifiers, implementations should not assume they can be mapped back to
+ * users.
+ */
+public interface WorkspaceStateStore {
+
+    /**
+     * Gets editable vocabularies registered in the specified workspace.
+     *
+     * @param workspaceId Workspace identifier
+     * @return Unmodifiable map of vocabulary identifiers to identifiers of contexts containing their editable copies,
+     * empty if the workspace has no registered vocabularies or its state has expired
+     */
+    @Nonnull
+    Map<URI, URI> get(@Nonnull String workspaceId);
+
+    /**
+     * Registers an editable copy of the specified vocabulary in the specified workspace.
+     * <p>
+     * The registration is atomic, concurrent registrations of different vocabularies in the same workspace do not
+     * overwrite each other. A previous registration of the same vocabulary is replaced.
+     *
+     * @param workspaceId   Workspace identifier
+     * @param vocabularyUri Vocabulary identifier
+     * @param contextUri    Identifier of the context containing the editable copy of the vocabulary
+     */
+    void register(@Nonnull String workspaceId, @Nonnull URI vocabularyUri, @Nonnull URI contextUri);
+
+    /**
+     * Removes all editable vocabularies registered in the specified workspace.
+     *
+     * @param workspaceId Workspace identifier
+     */
+    void clear(@Nonnull String workspaceId);
+}
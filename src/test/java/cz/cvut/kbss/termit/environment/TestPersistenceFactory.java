@@ -39,7 +39,7 @@ import static cz.cvut.kbss.jopa.model.JOPAPersistenceProperties.PREFER_MULTILING
 
 @Configuration
 @EnableConfigurationProperties(cz.cvut.kbss.termit.util.Configuration.class)
-@Profile("test")
+@Profile({"test", "benchmark"})
 public class TestPersistenceFactory {
 
     private final cz.cvut.kbss.termit.util.Configuration config;
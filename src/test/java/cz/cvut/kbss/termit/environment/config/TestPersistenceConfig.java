@@ -21,8 +21,7 @@ import cz.cvut.kbss.termit.config.PersistenceConfig;
 import cz.cvut.kbss.termit.environment.TestPersistenceFactory;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.workspace.EditableVocabularies;
-import cz.cvut.kbss.termit.workspace.EditableVocabulariesHolder;
-import org.springframework.beans.factory.ObjectProvider;
+import cz.cvut.kbss.termit.workspace.InMemoryWorkspaceStateStore;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
@@ -42,8 +41,8 @@ import static org.mockito.Mockito.spy;
 public class TestPersistenceConfig {
 
     @Bean
-    public EditableVocabularies editableVocabularies(Configuration config, ObjectProvider<EditableVocabulariesHolder> editableVocabulariesHolder) {
-        return new EditableVocabularies(config, editableVocabulariesHolder);
+    public EditableVocabularies editableVocabularies(Configuration config) {
+        return new EditableVocabularies(config, new InMemoryWorkspaceStateStore(config));
     }
 
     @Bean("spiedPublisher")
@@ -24,10 +24,15 @@ import cz.cvut.kbss.termit.model.selector.Selector;
 import cz.cvut.kbss.termit.service.document.html.DummySelectorGenerator;
 import cz.cvut.kbss.termit.service.document.html.HtmlSelectorGenerators;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.longrunning.LongRunningTasksRegistry;
+import cz.cvut.kbss.termit.util.throttle.NewTransactionExecutor;
+import cz.cvut.kbss.termit.util.throttle.ReadOnlyTransactionExecutor;
+import cz.cvut.kbss.termit.util.throttle.SynchronousTransactionExecutor;
 import org.jsoup.nodes.Element;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Primary;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.converter.ResourceHttpMessageConverter;
@@ -52,6 +57,8 @@ import static org.mockito.Mockito.when;
 
 @TestConfiguration
 @ComponentScan(basePackages = "cz.cvut.kbss.termit.service")
+@Import({SynchronousTransactionExecutor.class, NewTransactionExecutor.class, ReadOnlyTransactionExecutor.class,
+         LongRunningTasksRegistry.class})
 public class TestServiceConfig {
 
     @Bean
@@ -0,0 +1,123 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.cluster;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import cz.cvut.kbss.termit.service.cluster.Invalidation;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RepositoryClusterTransportTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    private RepositoryClusterTransport nodeA;
+
+    private RepositoryClusterTransport nodeB;
+
+    @BeforeEach
+    void setUp() {
+        try (final RepositoryConnection con = em.unwrap(Repository.class).getConnection()) {
+            con.clear(con.getValueFactory().createIRI(new Configuration.Cluster().getContext()));
+        }
+        this.nodeA = transport("A", Clock.systemUTC());
+        this.nodeB = transport("B", Clock.systemUTC());
+        nodeA.receive();
+        nodeB.receive();
+    }
+
+    private RepositoryClusterTransport transport(String nodeId, Clock clock) {
+        final Configuration.Cluster config = new Configuration.Cluster();
+        config.setNodeId(nodeId);
+        return new RepositoryClusterTransport(em, config, clock);
+    }
+
+    @Test
+    void receiveReturnsInvalidationsSentByOtherNode() {
+        final List<Invalidation> invalidations = List.of(Invalidation.of(Invalidation.Type.LAST_MODIFIED),
+                                                         Invalidation.of(Invalidation.Type.VOCABULARY_CREATED,
+                                                                         Generator.generateUri()));
+        nodeA.send(invalidations);
+
+        assertEquals(new HashSet<>(invalidations), new HashSet<>(nodeB.receive()));
+    }
+
+    @Test
+    void receiveDoesNotReturnInvalidationsSentBySameNode() {
+        nodeA.send(List.of(Invalidation.of(Invalidation.Type.EVICT_ALL)));
+
+        assertTrue(nodeA.receive().isEmpty());
+    }
+
+    @Test
+    void receiveReturnsInvalidationsOnlyOnce() {
+        nodeA.send(List.of(Invalidation.of(Invalidation.Type.EVICT_ALL)));
+        assertEquals(1, nodeB.receive().size());
+
+        assertTrue(nodeB.receive().isEmpty());
+    }
+
+    @Test
+    void firstReceiveSkipsInvalidationsSentBeforeNodeStarted() {
+        nodeA.send(List.of(Invalidation.of(Invalidation.Type.EVICT_ALL)));
+
+        final RepositoryClusterTransport nodeC = transport("C", Clock.systemUTC());
+        assertTrue(nodeC.receive().isEmpty());
+        nodeA.send(List.of(Invalidation.of(Invalidation.Type.LAST_MODIFIED)));
+        assertEquals(List.of(Invalidation.of(Invalidation.Type.LAST_MODIFIED)), nodeC.receive());
+    }
+
+    @Test
+    void sendRemovesMessagesOlderThanRetentionPeriod() {
+        final Duration retention = new Configuration.Cluster().getMessageRetention();
+        final Clock past = Clock.fixed(Instant.now().minus(retention.multipliedBy(2)), ZoneOffset.UTC);
+        transport("C", past).send(List.of(Invalidation.of(Invalidation.Type.EVICT_ALL)));
+        assertEquals(1, countMessages());
+
+        nodeA.send(List.of(Invalidation.of(Invalidation.Type.LAST_MODIFIED)));
+        assertEquals(1, countMessages());
+    }
+
+    private int countMessages() {
+        final Repository repository = em.unwrap(Repository.class);
+        try (final RepositoryConnection con = repository.getConnection()) {
+            final ValueFactory vf = con.getValueFactory();
+            return con.getStatements(null, RDF.TYPE, vf.createIRI(RepositoryClusterTransport.MESSAGE), false)
+                      .stream().toList().size();
+        }
+    }
+}
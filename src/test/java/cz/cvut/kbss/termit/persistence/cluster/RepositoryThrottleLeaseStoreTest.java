@@ -0,0 +1,207 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.cluster;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.throttle.ThrottleLease;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RepositoryThrottleLeaseStoreTest extends BaseDaoTestRunner {
+
+    private static final String TASK = "group|task";
+
+    private static final Duration DURATION = Duration.ofSeconds(60);
+
+    @Autowired
+    private EntityManager em;
+
+    private final Configuration.Cluster config = new Configuration.Cluster();
+
+    private RepositoryThrottleLeaseStore sut;
+
+    @BeforeEach
+    void setUp() {
+        try (final RepositoryConnection con = em.unwrap(Repository.class).getConnection()) {
+            con.clear(con.getValueFactory().createIRI(config.getContext()));
+        }
+        this.sut = new RepositoryThrottleLeaseStore(em, config);
+    }
+
+    /**
+     * Inserts a lease with the specified times directly into the repository.
+     */
+    private void insertLease(String task, String owner, Instant start, Instant expiry, Instant lastCompletedRunStart) {
+        try (final RepositoryConnection con = em.unwrap(Repository.class).getConnection()) {
+            final ValueFactory vf = con.getValueFactory();
+            final IRI ctx = vf.createIRI(config.getContext());
+            final IRI lease = RepositoryThrottleLeaseStore.leaseIri(vf, task);
+            con.add(lease, RDF.TYPE, vf.createIRI(RepositoryThrottleLeaseStore.LEASE), ctx);
+            con.add(lease, vf.createIRI(RepositoryThrottleLeaseStore.HAS_TASK), vf.createLiteral(task), ctx);
+            if (owner != null) {
+                con.add(lease, vf.createIRI(RepositoryThrottleLeaseStore.HAS_OWNER), vf.createLiteral(owner), ctx);
+                con.add(lease, vf.createIRI(RepositoryThrottleLeaseStore.HAS_START),
+                        vf.createLiteral(Date.from(start)), ctx);
+                con.add(lease, vf.createIRI(RepositoryThrottleLeaseStore.HAS_EXPIRY),
+                        vf.createLiteral(Date.from(expiry)), ctx);
+            }
+            if (lastCompletedRunStart != null) {
+                con.add(lease, vf.createIRI(RepositoryThrottleLeaseStore.HAS_LAST_COMPLETED_RUN_START),
+                        vf.createLiteral(Date.from(lastCompletedRunStart)), ctx);
+            }
+        }
+    }
+
+    @Test
+    void currentTimeReturnsTimeOfRepository() {
+        final Instant before = Instant.now().minusSeconds(1);
+        final Instant result = sut.currentTime();
+        assertTrue(result.isAfter(before));
+        assertTrue(result.isBefore(Instant.now().plusSeconds(1)));
+    }
+
+    @Test
+    void tryAcquireAcquiresLeaseWhichHasNeverBeenHeldUsingTimeOfRepository() {
+        assertTrue(sut.tryAcquire(TASK, "Task", "A", DURATION));
+
+        final ThrottleLease result = sut.find(TASK).orElseThrow();
+        assertEquals("Task", result.name());
+        assertEquals("A", result.owner());
+        assertTrue(result.held());
+        assertNotNull(result.startedAt());
+        assertEquals(result.startedAt().plus(DURATION), result.expiresAt());
+    }
+
+    @Test
+    void tryAcquireDoesNotAcquireLeaseHeldByAnotherInstance() {
+        assertTrue(sut.tryAcquire(TASK, "Task", "A", DURATION));
+
+        assertFalse(sut.tryAcquire(TASK, "Task", "B", DURATION));
+        assertEquals("A", sut.find(TASK).map(ThrottleLease::owner).orElseThrow());
+    }
+
+    @Test
+    void tryAcquireAcquiresExpiredLeaseOfAnotherInstance() {
+        final Instant now = sut.currentTime();
+        insertLease(TASK, "A", now.minusSeconds(120), now.minusSeconds(60), null);
+
+        assertTrue(sut.tryAcquire(TASK, "Task", "B", DURATION));
+        final ThrottleLease result = sut.find(TASK).orElseThrow();
+        assertEquals("B", result.owner());
+        assertTrue(result.held());
+    }
+
+    @Test
+    void tryAcquireDoesNotAcquireLeaseWhichExpiresByLocalClockButNotByRepositoryClock() {
+        final Instant now = sut.currentTime();
+        insertLease(TASK, "A", now, now.plusSeconds(5), null);
+
+        assertFalse(sut.tryAcquire(TASK, "Task", "B", DURATION));
+    }
+
+    @Test
+    void releaseRecordsStartOfLeaseAsCompletedRunAndAllowsOthersToAcquireLease() {
+        sut.tryAcquire(TASK, "Task", "A", DURATION);
+        final Instant startedAt = sut.find(TASK).map(ThrottleLease::startedAt).orElseThrow();
+
+        sut.release(TASK, "A", true);
+        final ThrottleLease result = sut.find(TASK).orElseThrow();
+        assertFalse(result.held());
+        assertEquals(startedAt, result.lastCompletedRunStart());
+        assertTrue(sut.tryAcquire(TASK, "Task", "B", DURATION));
+    }
+
+    @Test
+    void releaseKeepsPreviousCompletedRunWhenRunFailed() {
+        final Instant now = sut.currentTime();
+        insertLease(TASK, "A", now, now.plusSeconds(60), now.minusSeconds(60));
+
+        sut.release(TASK, "A", false);
+        final ThrottleLease result = sut.find(TASK).orElseThrow();
+        assertFalse(result.held());
+        assertEquals(now.minusSeconds(60), result.lastCompletedRunStart());
+    }
+
+    @Test
+    void releaseDoesNothingWhenLeaseIsHeldByAnotherInstance() {
+        sut.tryAcquire(TASK, "Task", "A", DURATION);
+
+        sut.release(TASK, "B", true);
+        assertTrue(sut.find(TASK).orElseThrow().held());
+    }
+
+    @Test
+    void renewExtendsLeaseExpiration() {
+        final Instant now = sut.currentTime();
+        insertLease(TASK, "A", now.minusSeconds(120), now.minusSeconds(60), null);
+
+        assertTrue(sut.renew(TASK, "A", DURATION));
+        final ThrottleLease result = sut.find(TASK).orElseThrow();
+        assertTrue(result.held());
+        assertTrue(result.expiresAt().isAfter(now));
+    }
+
+    @Test
+    void renewDoesNothingWhenLeaseIsHeldByAnotherInstance() {
+        final Instant now = sut.currentTime();
+        insertLease(TASK, "A", now.minusSeconds(120), now.minusSeconds(60), null);
+
+        assertFalse(sut.renew(TASK, "B", DURATION));
+        assertFalse(sut.find(TASK).orElseThrow().held());
+    }
+
+    @Test
+    void findHeldReturnsOnlyLeasesWhichAreHeld() {
+        sut.tryAcquire(TASK, "Task", "A", DURATION);
+        sut.tryAcquire("released", "Released", "A", DURATION);
+        sut.release("released", "A", true);
+
+        final List<ThrottleLease> result = sut.findHeld();
+        assertEquals(1, result.size());
+        assertEquals(TASK, result.get(0).task());
+    }
+
+    @Test
+    void pruneRemovesReleasedLeasesCompletedBeforeRetention() {
+        final Instant now = sut.currentTime();
+        insertLease(TASK, null, null, null, now.minusSeconds(600));
+        sut.tryAcquire("held", "Held", "A", DURATION);
+
+        sut.prune(DURATION);
+        assertTrue(sut.find(TASK).isEmpty());
+        assertTrue(sut.find("held").isPresent());
+    }
+}
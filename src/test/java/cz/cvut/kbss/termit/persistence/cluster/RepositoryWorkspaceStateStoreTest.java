@@ -0,0 +1,154 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.cluster;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RepositoryWorkspaceStateStoreTest extends BaseDaoTestRunner {
+
+    private static final String WORKSPACE = "0c8fd3b8-4c9e-3ad5-9d4d-8d0bb2d4f5a1";
+
+    private static final Duration TIME_TO_LIVE = Duration.ofHours(1);
+
+    @Autowired
+    private EntityManager em;
+
+    private final Configuration.Cluster config = new Configuration.Cluster();
+
+    @BeforeEach
+    void setUp() {
+        try (final RepositoryConnection con = em.unwrap(Repository.class).getConnection()) {
+            con.clear(con.getValueFactory().createIRI(config.getContext()));
+        }
+    }
+
+    private RepositoryWorkspaceStateStore store(Clock clock) {
+        return new RepositoryWorkspaceStateStore(em, config, 10, TIME_TO_LIVE, clock);
+    }
+
+    @Test
+    void getReturnsStateRegisteredByAnotherInstance() {
+        final URI vocabularyOne = Generator.generateUri();
+        final URI contextOne = Generator.generateUri();
+        final URI vocabularyTwo = Generator.generateUri();
+        final URI contextTwo = Generator.generateUri();
+        transactional(() -> store(Clock.systemUTC()).register(WORKSPACE, vocabularyOne, contextOne));
+        transactional(() -> store(Clock.systemUTC()).register(WORKSPACE, vocabularyTwo, contextTwo));
+
+        assertEquals(Map.of(vocabularyOne, contextOne, vocabularyTwo, contextTwo),
+                     store(Clock.systemUTC()).get(WORKSPACE));
+    }
+
+    @Test
+    void registerReplacesPreviousRegistrationOfSameVocabulary() {
+        final RepositoryWorkspaceStateStore sut = store(Clock.systemUTC());
+        final URI vocabulary = Generator.generateUri();
+        final URI context = Generator.generateUri();
+        transactional(() -> sut.register(WORKSPACE, vocabulary, Generator.generateUri()));
+
+        transactional(() -> sut.register(WORKSPACE, vocabulary, context));
+        assertEquals(Map.of(vocabulary, context), sut.get(WORKSPACE));
+    }
+
+    @Test
+    void registerDiscardsRegistrationWhenTransactionRollsBack() {
+        final RepositoryWorkspaceStateStore sut = store(Clock.systemUTC());
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            sut.register(WORKSPACE, Generator.generateUri(), Generator.generateUri());
+            status.setRollbackOnly();
+        });
+
+        assertTrue(sut.get(WORKSPACE).isEmpty());
+    }
+
+    @Test
+    void getReturnsEmptyMapForUnknownWorkspace() {
+        assertTrue(store(Clock.systemUTC()).get(WORKSPACE).isEmpty());
+    }
+
+    @Test
+    void clearRemovesAllRegistrations() {
+        final RepositoryWorkspaceStateStore sut = store(Clock.systemUTC());
+        transactional(() -> sut.register(WORKSPACE, Generator.generateUri(), Generator.generateUri()));
+
+        sut.clear(WORKSPACE);
+        assertTrue(store(Clock.systemUTC()).get(WORKSPACE).isEmpty());
+    }
+
+    @Test
+    void getIgnoresExpiredStateAndRegisterDoesNotReviveIt() {
+        final URI vocabulary = Generator.generateUri();
+        try (final RepositoryConnection con = em.unwrap(Repository.class).getConnection()) {
+            final ValueFactory vf = con.getValueFactory();
+            final IRI ctx = vf.createIRI(config.getContext());
+            final IRI workspace = RepositoryWorkspaceStateStore.workspaceIri(vf, WORKSPACE);
+            con.add(workspace, RDF.TYPE, vf.createIRI(RepositoryWorkspaceStateStore.WORKSPACE), ctx);
+            con.add(workspace, vf.createIRI(RepositoryWorkspaceStateStore.HAS_EDITABLE_VOCABULARY),
+                    vf.createLiteral(Generator.generateUri() + " " + Generator.generateUri()), ctx);
+            con.add(workspace, vf.createIRI(RepositoryWorkspaceStateStore.HAS_EXPIRY),
+                    vf.createLiteral(Date.from(Instant.now().minusSeconds(60))), ctx);
+        }
+        assertTrue(store(Clock.systemUTC()).get(WORKSPACE).isEmpty());
+
+        final URI context = Generator.generateUri();
+        transactional(() -> store(Clock.systemUTC()).register(WORKSPACE, vocabulary, context));
+        assertEquals(Map.of(vocabulary, context), store(Clock.systemUTC()).get(WORKSPACE));
+    }
+
+    @Test
+    void getReloadsCachedStateOlderThanSyncInterval() {
+        final Instant now = Instant.now();
+        final Clock clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(now);
+        final RepositoryWorkspaceStateStore sut = store(clock);
+        assertTrue(sut.get(WORKSPACE).isEmpty());
+        final URI vocabulary = Generator.generateUri();
+        final URI context = Generator.generateUri();
+        transactional(() -> store(Clock.fixed(now, ZoneOffset.UTC)).register(WORKSPACE, vocabulary, context));
+        // Still cached
+        assertTrue(sut.get(WORKSPACE).isEmpty());
+
+        when(clock.instant()).thenReturn(now.plus(config.getSyncInterval()));
+        assertEquals(Map.of(vocabulary, context), sut.get(WORKSPACE));
+    }
+}
@@ -0,0 +1,146 @@
+package cz.cvut.kbss.termit.persistence.context;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.descriptors.EntityDescriptor;
+import cz.cvut.kbss.termit.dto.PrefixDeclaration;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.VocabularyContentModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyWillBeRemovedEvent;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class VocabularyTopologyRegistryTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DescriptorFactory descriptorFactory;
+
+    private final TaskScheduler scheduler = mock(TaskScheduler.class);
+
+    private VocabularyTopologyRegistry sut;
+
+    @BeforeEach
+    void setUp() {
+        this.sut = new VocabularyTopologyRegistry(em, scheduler);
+    }
+
+    @Test
+    void loadLoadsContextsImportClosureAndPrefixes() {
+        final Vocabulary base = Generator.generateVocabularyWithId();
+        final Vocabulary imported = Generator.generateVocabularyWithId();
+        final Vocabulary transitive = Generator.generateVocabularyWithId();
+        base.setImportedVocabularies(Set.of(imported.getUri()));
+        imported.setImportedVocabularies(Set.of(transitive.getUri()));
+        base.setProperties(new HashMap<>());
+        base.getProperties().put(cz.cvut.kbss.termit.util.Vocabulary.s_p_preferredNamespacePrefix,
+                                 Collections.singleton("base"));
+        base.getProperties().put(cz.cvut.kbss.termit.util.Vocabulary.s_p_preferredNamespaceUri,
+                                 Collections.singleton(base.getUri() + "/"));
+        final URI baseContext = Generator.generateUri();
+        transactional(() -> {
+            em.persist(base, new EntityDescriptor(baseContext));
+            em.persist(imported, new EntityDescriptor(imported.getUri()));
+            em.persist(transitive, new EntityDescriptor(transitive.getUri()));
+        });
+
+        sut.load();
+        final VocabularyTopology result = sut.getTopology();
+        assertEquals(List.of(baseContext), result.getContexts(base.getUri()));
+        assertThat(result.getImportClosure(base.getUri()), containsInAnyOrder(imported.getUri(), transitive.getUri()));
+        assertEquals(new PrefixDeclaration("base", base.getUri() + "/"), result.getPrefix(base.getUri()));
+        assertEquals(PrefixDeclaration.EMPTY_PREFIX, result.getPrefix(imported.getUri()));
+    }
+
+    @Test
+    void refreshUpdatesImportsOfSpecifiedVocabularyOnly() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final Vocabulary imported = Generator.generateVocabularyWithId();
+        transactional(() -> {
+            em.persist(vocabulary, new EntityDescriptor(vocabulary.getUri()));
+            em.persist(imported, new EntityDescriptor(imported.getUri()));
+        });
+        sut.load();
+        final VocabularyTopology original = sut.getTopology();
+        assertTrue(original.getImportClosure(vocabulary.getUri()).isEmpty());
+
+        vocabulary.setImportedVocabularies(Set.of(imported.getUri()));
+        transactional(() -> em.merge(vocabulary, new EntityDescriptor(vocabulary.getUri())));
+        sut.refresh(vocabulary.getUri());
+
+        assertEquals(Set.of(imported.getUri()), sut.getTopology().getImportClosure(vocabulary.getUri()));
+        // Previous snapshot is not affected
+        assertTrue(original.getImportClosure(vocabulary.getUri()).isEmpty());
+    }
+
+    @Test
+    void onVocabularyRemovedRemovesVocabularyAndReferencesToIt() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final Vocabulary imported = Generator.generateVocabularyWithId();
+        vocabulary.setImportedVocabularies(Set.of(imported.getUri()));
+        transactional(() -> {
+            em.persist(vocabulary, new EntityDescriptor(vocabulary.getUri()));
+            em.persist(imported, new EntityDescriptor(imported.getUri()));
+        });
+        sut.load();
+
+        sut.onVocabularyRemoved(new VocabularyWillBeRemovedEvent(this, imported.getUri()));
+        assertFalse(sut.getTopology().contains(imported.getUri()));
+        assertTrue(sut.getTopology().getImportClosure(vocabulary.getUri()).isEmpty());
+    }
+
+    @Test
+    void onVocabularyContentModifiedRefreshesModifiedAndReferencingVocabulariesAsynchronouslyOnce() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final Vocabulary referencing = Generator.generateVocabularyWithId();
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        final Term referencingTerm = Generator.generateTermWithId(referencing.getUri());
+        referencingTerm.addExactMatch(new TermInfo(term));
+        transactional(() -> {
+            em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary));
+            em.persist(referencing, descriptorFactory.vocabularyDescriptor(referencing));
+            em.persist(term, descriptorFactory.termDescriptor(vocabulary));
+            em.persist(referencingTerm, descriptorFactory.termDescriptor(referencing));
+            Generator.addTermInVocabularyRelationship(term, vocabulary.getUri(), em);
+            Generator.addTermInVocabularyRelationship(referencingTerm, referencing.getUri(), em);
+        });
+        sut.load();
+        assertEquals(Set.of(referencing.getUri()), sut.getTopology().getVocabulariesReferencing(vocabulary.getUri()));
+
+        transactional(() -> em.remove(em.find(Term.class, term.getUri(), descriptorFactory.termDescriptor(vocabulary))));
+        sut.onVocabularyContentModified(new VocabularyContentModifiedEvent(this, vocabulary.getUri()));
+        sut.onVocabularyContentModified(new VocabularyContentModifiedEvent(this, vocabulary.getUri()));
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(2)).schedule(captor.capture(), any(Instant.class));
+        // Topology is not refreshed until the scheduled refreshes run
+        assertFalse(sut.getTopology().getVocabulariesReferencing(vocabulary.getUri()).isEmpty());
+
+        captor.getAllValues().forEach(Runnable::run);
+        assertTrue(sut.getTopology().getVocabulariesReferencing(vocabulary.getUri()).isEmpty());
+    }
+}
@@ -0,0 +1,46 @@
+package cz.cvut.kbss.termit.persistence.context;
+
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.environment.Generator;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VocabularyTopologyTest {
+
+    private static VocabularyTopology.Node node(URI vocabulary, Set<URI> imports, Map<URI, Set<URI>> relationships) {
+        return new VocabularyTopology.Node(vocabulary, List.of(vocabulary), imports, relationships, null);
+    }
+
+    @Test
+    void getImportClosureHandlesImportCycles() {
+        final URI a = Generator.generateUri();
+        final URI b = Generator.generateUri();
+        final URI c = Generator.generateUri();
+        final VocabularyTopology sut = VocabularyTopology.of(List.of(node(a, Set.of(b), Map.of()),
+                                                                     node(b, Set.of(c), Map.of()),
+                                                                     node(c, Set.of(a), Map.of())));
+        assertEquals(Set.of(a, b, c), sut.getImportClosure(a));
+    }
+
+    @Test
+    void getRelatedVocabulariesFollowsImportsAndSpecifiedTermRelationshipsOnly() {
+        final URI a = Generator.generateUri();
+        final URI b = Generator.generateUri();
+        final URI c = Generator.generateUri();
+        final URI d = Generator.generateUri();
+        final URI exactMatch = URI.create(SKOS.EXACT_MATCH);
+        final URI related = URI.create(SKOS.RELATED);
+        final VocabularyTopology sut = VocabularyTopology.of(
+                List.of(node(a, Set.of(b), Map.of(exactMatch, Set.of(c))),
+                        node(b, Set.of(), Map.of(related, Set.of(d))),
+                        node(c, Set.of(), Map.of()),
+                        node(d, Set.of(), Map.of())));
+        assertEquals(Set.of(a, b, c), sut.getRelatedVocabularies(a, Set.of(exactMatch)));
+    }
+}
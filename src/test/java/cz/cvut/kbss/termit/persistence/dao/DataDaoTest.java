@@ -51,6 +51,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import java.io.IOException;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
@@ -188,6 +189,92 @@ class DataDaoTest extends BaseDaoTestRunner {
         assertFalse(result.isPresent());
     }
 
+    @Test
+    void getLabelsReturnsLabelsOfSpecifiedResources() {
+        enableRdfsInference(em);    // skos:prefLabel is a subPropertyOf rdfs:label
+        final Term termOne = Generator.generateTermWithId();
+        final Term termTwo = Generator.generateTermWithId();
+        transactional(() -> {
+            em.persist(termOne);
+            em.persist(termTwo);
+        });
+        final URI unknown = Generator.generateUri();
+        final URI relative = URI.create("test");
+
+        final Map<URI, String> result = sut.getLabels(List.of(termOne.getUri(), termTwo.getUri(), unknown, relative),
+                                                      null);
+        assertEquals(Map.of(termOne.getUri(), termOne.getPrimaryLabel(), termTwo.getUri(),
+                            termTwo.getPrimaryLabel(), relative, relative.toString()), result);
+    }
+
+    @Test
+    void getLabelsOmitsResourcesWithMultipleLabels() {
+        enableRdfsInference(em);    // skos:prefLabel is a subPropertyOf rdfs:label
+        final Term term = Generator.generateTermWithId();
+        transactional(() -> {
+            final Repository repo = em.unwrap(Repository.class);
+            final ValueFactory vf = repo.getValueFactory();
+            try (final RepositoryConnection connection = repo.getConnection()) {
+                connection.add(vf.createIRI(term.getUri().toString()), RDF.TYPE, SKOS.CONCEPT);
+                connection.add(vf.createIRI(term.getUri().toString()), SKOS.PREF_LABEL,
+                               vf.createLiteral(term.getPrimaryLabel()));
+                connection.add(vf.createIRI(term.getUri().toString()), SKOS.PREF_LABEL,
+                               vf.createLiteral("Another label"));
+                connection.commit();
+            }
+        });
+
+        assertTrue(sut.getLabels(List.of(term.getUri()), null).isEmpty());
+    }
+
+    @Test
+    void getLabelReturnsCachedLabelUntilLabelCacheIsEvicted() {
+        final URI id = Generator.generateUri();
+        addLabel(id, "Original");
+        assertEquals(Optional.of("Original"), sut.getLabel(id));
+        transactional(() -> {
+            final Repository repo = em.unwrap(Repository.class);
+            final ValueFactory vf = repo.getValueFactory();
+            try (final RepositoryConnection connection = repo.getConnection()) {
+                connection.remove(vf.createIRI(id.toString()), RDFS.LABEL, null);
+            }
+        });
+        addLabel(id, "Updated");
+
+        assertEquals(Optional.of("Original"), sut.getLabel(id));
+        assertEquals(Map.of(id, "Original"), sut.getLabels(List.of(id), null));
+        sut.onEvictCache();
+        assertEquals(Map.of(id, "Updated"), sut.getLabels(List.of(id), null));
+        assertEquals(Optional.of("Updated"), sut.getLabel(id));
+    }
+
+    @Test
+    void getLabelDoesNotCacheLabelReadInReadWriteTransaction() {
+        final URI id = Generator.generateUri();
+        addLabel(id, "Original");
+        transactional(() -> assertEquals(Optional.of("Original"), sut.getLabel(id)));
+        transactional(() -> {
+            final Repository repo = em.unwrap(Repository.class);
+            final ValueFactory vf = repo.getValueFactory();
+            try (final RepositoryConnection connection = repo.getConnection()) {
+                connection.remove(vf.createIRI(id.toString()), RDFS.LABEL, null);
+            }
+        });
+        addLabel(id, "Updated");
+
+        assertEquals(Optional.of("Updated"), sut.getLabel(id));
+    }
+
+    private void addLabel(URI id, String label) {
+        transactional(() -> {
+            final Repository repo = em.unwrap(Repository.class);
+            final ValueFactory vf = repo.getValueFactory();
+            try (final RepositoryConnection connection = repo.getConnection()) {
+                connection.add(vf.createIRI(id.toString()), RDFS.LABEL, vf.createLiteral(label, Environment.LANGUAGE));
+            }
+        });
+    }
+
     @Test
     void persistSavesSpecifiedResource() {
         final RdfsResource resource =
@@ -31,6 +31,8 @@ import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.util.HasIdentifier;
 import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.dao.search.TermFacetIndex;
+import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
@@ -39,8 +41,10 @@ import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
 
 import java.net.URI;
 import java.util.ArrayList;
@@ -48,6 +52,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -79,6 +84,9 @@ class SearchDaoTest extends BaseDaoTestRunner {
     @Autowired
     private DescriptorFactory descriptorFactory;
 
+    @Autowired
+    private Configuration config;
+
     @Autowired
     private SearchDao sut;
 
@@ -120,6 +128,46 @@ class SearchDaoTest extends BaseDaoTestRunner {
         assertThat(termResults, containsSameEntities(matching));
     }
 
+    @Test
+    void fullTextSearchOfTermsFindsMatchingTermsOnlyInSpecifiedVocabularies() {
+        final Collection<Term> matching = terms.stream().filter(t -> t.getPrimaryLabel().contains("Matching"))
+                                               .collect(Collectors.toList());
+
+        final Page<FullTextSearchResult> result = sut.fullTextSearchOfTerms("matching", Set.of(vocabulary.getUri()),
+                                                                            Constants.DEFAULT_PAGE_SPEC);
+        assertEquals(matching.size(), result.getNumberOfElements());
+        assertThat(result.getContent(), containsSameEntities(matching));
+        assertTrue(result.getContent().stream().allMatch(r -> r.hasType(SKOS.CONCEPT)));
+        assertTrue(sut.fullTextSearchOfTerms("matching", Set.of(vocabularies.get(0).getUri()),
+                                             Constants.DEFAULT_PAGE_SPEC).isEmpty());
+    }
+
+    @Test
+    void fullTextSearchOfTermsReturnsRequestedPageWithTotalNumberOfResults() {
+        final Vocabulary pagedVocabulary = Generator.generateVocabularyWithId();
+        final List<Term> paged = IntStream.range(0, 5).mapToObj(i -> {
+            final Term t = Generator.generateTermWithId(pagedVocabulary.getUri());
+            t.setPrimaryLabel("Paged term " + i);
+            pagedVocabulary.getGlossary().addRootTerm(t);
+            return t;
+        }).toList();
+        transactional(() -> {
+            em.persist(pagedVocabulary, descriptorFactory.vocabularyDescriptor(pagedVocabulary));
+            paged.forEach(t -> em.persist(t, descriptorFactory.termDescriptor(t)));
+        });
+
+        final Page<FullTextSearchResult> firstPage = sut.fullTextSearchOfTerms("paged",
+                                                                               Set.of(pagedVocabulary.getUri()),
+                                                                               PageRequest.of(0, 2));
+        assertEquals(2, firstPage.getNumberOfElements());
+        assertEquals(paged.size(), firstPage.getTotalElements());
+        final Page<FullTextSearchResult> lastPage = sut.fullTextSearchOfTerms("paged",
+                                                                              Set.of(pagedVocabulary.getUri()),
+                                                                              PageRequest.of(2, 2));
+        assertEquals(1, lastPage.getNumberOfElements());
+        assertEquals(paged.size(), lastPage.getTotalElements());
+    }
+
     private List<Term> generateTerms() {
         final List<Term> terms = new ArrayList<>(10);
         for (int i = 0; i < Generator.randomInt(5, 10); i++) {
@@ -305,4 +353,99 @@ class SearchDaoTest extends BaseDaoTestRunner {
         assertEquals(terms.size() / 2, resultTwo.size());
         assertThat(resultOne, not(containsSameEntities(resultTwo)));
     }
+
+    @Test
+    void facetedTermSearchMatchesValuesLiterallyInsteadOfInterpretingThemAsQuery() {
+        final SearchParam param = new SearchParam(URI.create(SKOS.NOTATION), Set.of("\") || true || (\""),
+                                                  MatchType.EXACT_MATCH);
+        assertTrue(sut.facetedTermSearch(Set.of(param), Constants.DEFAULT_PAGE_SPEC).isEmpty());
+    }
+
+    @Test
+    void facetedTermSearchEvaluatesIndexedParamsInFacetIndexAndOthersInRepository() {
+        final TermFacetIndex index = new TermFacetIndex(em, config, new SimpleAsyncTaskScheduler());
+        index.load();
+        sut.setFacetIndex(index);
+        try {
+            final Term sample = Generator.randomElement(terms);
+            final String type = sample.getTypes().stream().filter(t -> !SKOS.CONCEPT.equals(t)).findAny()
+                                      .orElseThrow();
+            final String notation = sample.getNotations().iterator().next();
+            final SearchParam typeParam = new SearchParam(URI.create(RDF.TYPE.stringValue()), Set.of(type),
+                                                          MatchType.IRI);
+            final SearchParam notationParam = new SearchParam(URI.create(SKOS.NOTATION), Set.of(notation),
+                                                              MatchType.EXACT_MATCH);
+            final List<Term> matchingTerms = terms.stream().filter(t -> t.hasType(type) &&
+                    t.getNotations().contains(notation)).toList();
+
+            final List<FacetedSearchResult> result = sut.facetedTermSearch(Set.of(typeParam, notationParam),
+                                                                           Constants.DEFAULT_PAGE_SPEC);
+            assertThat(result, containsSameEntities(matchingTerms));
+        } finally {
+            sut.setFacetIndex(null);
+        }
+    }
+
+    @Test
+    void facetedTermSearchEvaluatesSearchInRepositoryUntilFacetIndexIsLoaded() {
+        sut.setFacetIndex(new TermFacetIndex(em, config, new SimpleAsyncTaskScheduler()));
+        try {
+            final String type = TYPES[0];
+            final SearchParam typeParam = new SearchParam(URI.create(RDF.TYPE.stringValue()), Set.of(type),
+                                                          MatchType.IRI);
+            final List<Term> matchingTerms = terms.stream().filter(t -> t.hasType(type)).toList();
+
+            final List<FacetedSearchResult> result = sut.facetedTermSearch(Set.of(typeParam),
+                                                                           Constants.DEFAULT_PAGE_SPEC);
+            assertThat(result, containsSameEntities(matchingTerms));
+        } finally {
+            sut.setFacetIndex(null);
+        }
+    }
+
+    @Test
+    void countFacetsCountsValuesDisregardingParamsOnTheSameFacet() {
+        final TermFacetIndex index = new TermFacetIndex(em, config, new SimpleAsyncTaskScheduler());
+        index.load();
+        sut.setFacetIndex(index);
+        try {
+            final URI inVocabulary = URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku);
+            final SearchParam vocabularyParam = new SearchParam(inVocabulary, Set.of(vocabulary.getUri().toString()),
+                                                                MatchType.IRI);
+
+            final Map<URI, Map<String, Integer>> result = sut.countFacets(Set.of(vocabularyParam), v -> true);
+            for (String type : TYPES) {
+                assertEquals((int) terms.stream().filter(t -> t.hasType(type)).count(),
+                             result.get(URI.create(RDF.TYPE.stringValue())).getOrDefault(type, 0));
+            }
+            assertEquals(terms.size(), result.get(inVocabulary).get(vocabulary.getUri().toString()));
+            assertTrue(sut.countFacets(Set.of(vocabularyParam), v -> false).get(inVocabulary).isEmpty());
+        } finally {
+            sut.setFacetIndex(null);
+        }
+    }
+
+    @Test
+    void facetedTermSearchEvaluatesWholeSearchInRepositoryWhenNonIndexedParamsMatchTooManyTerms() {
+        final int originalLimit = config.getSearch().getFacetCandidateLimit();
+        config.getSearch().setFacetCandidateLimit(1);
+        try {
+            final SearchDao limitedSut = new SearchDao(em, config);
+            final TermFacetIndex index = new TermFacetIndex(em, config, new SimpleAsyncTaskScheduler());
+            index.load();
+            limitedSut.setFacetIndex(index);
+            final URI inVocabulary = URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku);
+            final SearchParam vocabularyParam = new SearchParam(inVocabulary, Set.of(vocabulary.getUri().toString()),
+                                                                MatchType.IRI);
+            final SearchParam labelParam = new SearchParam(URI.create(SKOS.PREF_LABEL), Set.of("label"),
+                                                           MatchType.SUBSTRING);
+
+            final List<FacetedSearchResult> result = limitedSut.facetedTermSearch(Set.of(vocabularyParam, labelParam),
+                                                                                  Constants.DEFAULT_PAGE_SPEC);
+            assertThat(result, containsSameEntities(terms));
+            assertTrue(limitedSut.countFacets(Set.of(vocabularyParam, labelParam), v -> true).isEmpty());
+        } finally {
+            config.getSearch().setFacetCandidateLimit(originalLimit);
+        }
+    }
 }
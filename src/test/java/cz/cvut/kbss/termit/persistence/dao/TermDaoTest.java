@@ -22,6 +22,7 @@ import cz.cvut.kbss.jopa.model.query.TypedQuery;
 import cz.cvut.kbss.jopa.vocabulary.DC;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.TermLabel;
 import cz.cvut.kbss.termit.dto.listing.TermDto;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
@@ -38,6 +39,7 @@ import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
+import cz.cvut.kbss.termit.persistence.monitoring.QueryStatistics;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
 import org.eclipse.rdf4j.model.IRI;
@@ -100,6 +102,9 @@ class TermDaoTest extends BaseTermDaoTestRunner {
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
+    @Autowired
+    private QueryStatistics queryStatistics;
+
     @BeforeEach
     void setUp() {
         super.setUp();
@@ -374,6 +379,7 @@ class TermDaoTest extends BaseTermDaoTestRunner {
                                                               .map(VocabularyContentModifiedEvent.class::cast).findFirst();
         assertTrue(evt.isPresent());
         assertEquals(vocabulary.getUri(), evt.get().getVocabularyIri());
+        assertEquals(term.getUri(), evt.get().getTermIri());
     }
 
     @Test
@@ -853,6 +859,44 @@ class TermDaoTest extends BaseTermDaoTestRunner {
         assertEquals(parent.getSubTerms(), result.get().getSubTerms());
     }
 
+    @Test
+    void findWithMinimalProfileDoesNotLoadSubTerms() {
+        enableRdfsInference(em);
+        final Term parent = persistParentWithChild();
+        em.getEntityManagerFactory().getCache().evictAll();
+        final Optional<Term> result = sut.find(parent.getUri(), TermFetchProfile.MINIMAL);
+        assertTrue(result.isPresent());
+        assertNull(result.get().getSubTerms());
+    }
+
+    @Test
+    void findWithHierarchyProfileLoadsSubTerms() {
+        enableRdfsInference(em);
+        final Term parent = persistParentWithChild();
+        final Optional<Term> result = sut.find(parent.getUri(), TermFetchProfile.HIERARCHY);
+        assertTrue(result.isPresent());
+        assertEquals(parent.getSubTerms(), result.get().getSubTerms());
+    }
+
+    @Test
+    void findWithNarrowerProfilesIssuesFewerQueries() {
+        enableRdfsInference(em);
+        final Term parent = persistParentWithChild();
+
+        final int minimal = countQueries(() -> sut.find(parent.getUri(), TermFetchProfile.MINIMAL));
+        final int hierarchy = countQueries(() -> sut.find(parent.getUri(), TermFetchProfile.HIERARCHY));
+        final int detail = countQueries(() -> sut.find(parent.getUri(), TermFetchProfile.DETAIL));
+        // Sub-terms are loaded by one query, inverse related, relatedMatch and exactMatch terms by one query each
+        assertEquals(minimal + 1, hierarchy);
+        assertEquals(minimal + 4, detail);
+    }
+
+    private int countQueries(Runnable action) {
+        queryStatistics.startRequest();
+        action.run();
+        return queryStatistics.finishRequest().getCount();
+    }
+
     @Test
     void termSupportsSimpleLiteralSources() {
         final Term term = Generator.generateTermWithId(vocabulary.getUri());
@@ -1208,6 +1252,40 @@ class TermDaoTest extends BaseTermDaoTestRunner {
         assertThat(result, hasItems(toDtos(terms).toArray(new TermDto[]{})));
     }
 
+    @Test
+    void findAllWithBatchSizePassesAllTermsInVocabularyToConsumerInBatchesOrderedByLabel() {
+        final List<Term> terms = generateTerms(5);
+        addTermsAndSave(terms, vocabulary);
+        terms.sort(Comparator.comparing(Term::getPrimaryLabel));
+
+        final List<List<TermDto>> batches = new ArrayList<>();
+        sut.findAll(vocabulary, 2, batches::add);
+        assertEquals(3, batches.size());
+        batches.forEach(b -> assertThat(b.size(), lessThan(3)));
+        assertEquals(toDtos(terms), batches.stream().flatMap(List::stream).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findAllIncludingImportedWithBatchSizePassesTermsInVocabularyAndImportedVocabulariesToConsumer() {
+        final List<Term> terms = generateTerms(3);
+        addTermsAndSave(terms, vocabulary);
+        final Vocabulary parent = Generator.generateVocabularyWithId();
+        vocabulary.setImportedVocabularies(Collections.singleton(parent.getUri()));
+        transactional(() -> {
+            em.merge(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary));
+            em.persist(parent, descriptorFactory.vocabularyDescriptor(parent));
+        });
+        final List<Term> parentTerms = generateTerms(2);
+        addTermsAndSave(parentTerms, parent);
+
+        final List<TermDto> result = new ArrayList<>();
+        sut.findAllIncludingImported(vocabulary, 2, result::addAll);
+        final List<Term> allExpected = new ArrayList<>(terms);
+        allExpected.addAll(parentTerms);
+        allExpected.sort(Comparator.comparing(Term::getPrimaryLabel));
+        assertEquals(toDtos(allExpected), result);
+    }
+
     @Test
     void updateWithChangeInParentsEvictsChangedParentsSubTermsCache() {
         enableRdfsInference(em);
@@ -1313,6 +1391,20 @@ class TermDaoTest extends BaseTermDaoTestRunner {
         assertEquals(vocabulary.getUri(), evt.get().getVocabularyIri());
     }
 
+    @Test
+    void findAllLabelsReturnsLabelsOfSpecifiedTermsOnly() {
+        final Term one = Generator.generateTermWithId(vocabulary.getUri());
+        one.setAltLabels(new HashSet<>(Set.of(MultilingualString.create("alternative", Environment.LANGUAGE))));
+        final Term two = Generator.generateTermWithId(vocabulary.getUri());
+        addTermsAndSave(List.of(one, two), vocabulary);
+        final URI context = descriptorFactory.termDescriptor(vocabulary).getSingleContext().orElseThrow();
+
+        final List<TermLabel> result = sut.findAllLabels(context, List.of(one.getUri()), Environment.LANGUAGE);
+        assertEquals(2, result.size());
+        assertThat(result, hasItem(new TermLabel(one.getUri(), one.getLabel().get(Environment.LANGUAGE), true)));
+        assertThat(result, hasItem(new TermLabel(one.getUri(), "alternative", false)));
+    }
+
     @Test
     void setStateUpdatesStateOfSpecifiedTerm() {
         final Term term = Generator.generateTermWithId(vocabulary.getUri());
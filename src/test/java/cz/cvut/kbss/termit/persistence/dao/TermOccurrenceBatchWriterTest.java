@@ -0,0 +1,196 @@
+package cz.cvut.kbss.termit.persistence.dao;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.User;
+import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
+import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.model.selector.TextPositionSelector;
+import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TermOccurrenceBatchWriterTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TermOccurrenceDao dao;
+
+    private File file;
+
+    private Term term;
+
+    @BeforeEach
+    void setUp() {
+        final User user = Generator.generateUserWithId();
+        Environment.setCurrentUser(user);
+        this.file = Generator.generateFileWithId("test.html");
+        this.term = Generator.generateTermWithId();
+        transactional(() -> {
+            em.persist(user);
+            em.persist(file);
+        });
+        enableRdfsInference(em);
+    }
+
+    private TermOccurrence generateOccurrence(int i) {
+        final TermOccurrence occurrence = Generator.generateTermOccurrence(term, file, true);
+        occurrence.setUri(URI.create(TermOccurrence.resolveContext(file.getUri()) + "/" + i));
+        occurrence.getTarget().setSelectors(Set.of(new TextQuoteSelector("test text " + i, "prefix", "suffix"),
+                                                   new TextPositionSelector(i, i + 5)));
+        return occurrence;
+    }
+
+    @Test
+    void writeSavesOccurrencesWithTargetsAndSelectorsInBatches() {
+        final List<TermOccurrence> occurrences = IntStream.range(0, 5).mapToObj(this::generateOccurrence)
+                                                          .collect(Collectors.toList());
+        try (final TermOccurrenceBatchWriter sut = dao.createBatchWriter(file, 2)) {
+            occurrences.forEach(sut::write);
+            sut.commit();
+        }
+
+        em.getEntityManagerFactory().getCache().evictAll();
+        final List<TermOccurrence> result = dao.findAllTargeting(file);
+        assertEquals(occurrences.size(), result.size());
+        for (TermOccurrence to : result) {
+            final TermOccurrence expected = occurrences.stream().filter(o -> o.getUri().equals(to.getUri()))
+                                                       .findAny().orElseThrow();
+            assertEquals(term.getUri(), to.getTerm());
+            assertTrue(to.isSuggested());
+            assertNotNull(to.getTarget().getUri());
+            assertEquals(expected.getTarget().getSelectors(), to.getTarget().getSelectors());
+        }
+    }
+
+    @Test
+    void writeSkipsOccurrencesWithAlreadyWrittenIdentifier() {
+        final TermOccurrence occurrence = generateOccurrence(0);
+        try (final TermOccurrenceBatchWriter sut = dao.createBatchWriter(file, 10)) {
+            assertTrue(sut.write(occurrence));
+            assertFalse(sut.write(generateOccurrence(0)));
+            assertEquals(1, sut.getWrittenCount());
+            sut.commit();
+        }
+        assertEquals(1, dao.findAllTargeting(file).size());
+    }
+
+    @Test
+    void removeAllRemovesExistingOccurrencesFromSourceContext() {
+        try (final TermOccurrenceBatchWriter sut = dao.createBatchWriter(file, 10)) {
+            sut.write(generateOccurrence(0));
+            sut.commit();
+        }
+        assertFalse(dao.findAllTargeting(file).isEmpty());
+
+        try (final TermOccurrenceBatchWriter sut = dao.createBatchWriter(file, 10)) {
+            sut.removeAll();
+            sut.write(generateOccurrence(1));
+            sut.commit();
+        }
+        final List<TermOccurrence> result = dao.findAllTargeting(file);
+        assertEquals(1, result.size());
+        assertEquals(generateOccurrence(1).getUri(), result.get(0).getUri());
+    }
+
+    @Test
+    void removeRemovesOccurrenceWithTargetAndSelectorsAndKeepsOthers() {
+        try (final TermOccurrenceBatchWriter sut = dao.createBatchWriter(file, 10)) {
+            sut.write(generateOccurrence(0));
+            sut.write(generateOccurrence(1));
+            sut.commit();
+        }
+        final TermOccurrence toRemove = dao.findAllTargeting(file).stream()
+                                           .filter(o -> o.getUri().equals(generateOccurrence(0).getUri()))
+                                           .findAny().orElseThrow();
+
+        try (final TermOccurrenceBatchWriter sut = dao.createBatchWriter(file, 10)) {
+            sut.remove(toRemove);
+            sut.commit();
+            assertTrue(sut.getRemovedStatementCount() > 0);
+            assertEquals(0, sut.getAddedStatementCount());
+        }
+        final List<TermOccurrence> result = dao.findAllTargeting(file);
+        assertEquals(1, result.size());
+        assertEquals(generateOccurrence(1).getUri(), result.get(0).getUri());
+        assertFalse(em.createNativeQuery("ASK WHERE { GRAPH ?g { ?x ?y ?z . } }", Boolean.class)
+                      .setParameter("x", toRemove.getTarget().getUri()).getSingleResult());
+    }
+
+    @Test
+    void updateSuggestedChangesSuggestionStateOfExistingOccurrence() {
+        try (final TermOccurrenceBatchWriter sut = dao.createBatchWriter(file, 10)) {
+            sut.write(generateOccurrence(0));
+            sut.commit();
+        }
+        final TermOccurrence existing = dao.findAllTargeting(file).get(0);
+        assertTrue(existing.isSuggested());
+
+        try (final TermOccurrenceBatchWriter sut = dao.createBatchWriter(file, 10)) {
+            sut.updateSuggested(existing, false);
+            sut.commit();
+        }
+        assertFalse(dao.findAllTargeting(file).get(0).isSuggested());
+    }
+
+    @Test
+    void closeRollsBackRemovalAndWrittenBatchesWhenWriterWasNotCommitted() {
+        try (final TermOccurrenceBatchWriter sut = dao.createBatchWriter(file, 10)) {
+            sut.write(generateOccurrence(0));
+            sut.commit();
+        }
+
+        try (final TermOccurrenceBatchWriter sut = dao.createBatchWriter(file, 1)) {
+            sut.removeAll();
+            sut.write(generateOccurrence(1));
+            sut.write(generateOccurrence(2));
+        }
+        final List<TermOccurrence> result = dao.findAllTargeting(file);
+        assertEquals(1, result.size());
+        assertEquals(generateOccurrence(0).getUri(), result.get(0).getUri());
+    }
+
+    @Test
+    void commitWithinTransactionAppliesChangesWhenTransactionCommits() {
+        transactional(() -> {
+            try (final TermOccurrenceBatchWriter sut = dao.createBatchWriter(file, 10)) {
+                sut.write(generateOccurrence(0));
+                sut.commit();
+            }
+            // Closing the writer does not roll back changes bound to the transaction
+        });
+        assertEquals(1, dao.findAllTargeting(file).size());
+    }
+
+    @Test
+    void commitWithinTransactionDiscardsChangesWhenTransactionRollsBack() {
+        assertThrows(IllegalStateException.class, () -> transactional(() -> {
+            try (final TermOccurrenceBatchWriter sut = dao.createBatchWriter(file, 1)) {
+                sut.write(generateOccurrence(0));
+                sut.write(generateOccurrence(1));
+                sut.commit();
+            }
+            throw new IllegalStateException("Rollback");
+        }));
+        assertTrue(dao.findAllTargeting(file).isEmpty());
+    }
+}
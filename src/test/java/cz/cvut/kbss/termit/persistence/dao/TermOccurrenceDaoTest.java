@@ -57,6 +57,7 @@ import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.emptyCollectionOf;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -360,15 +361,47 @@ class TermOccurrenceDaoTest extends BaseDaoTestRunner {
     }
 
     @Test
-    void removeAllOrphansRemovesOccurrencesWithNonExistentTargetSource() {
+    void removeAllOrphanedOfRemovesOccurrencesWithNonExistentTargetSource() {
         final File file = Generator.generateFileWithId(FILE_LABEL);
         generateOccurrences(true, file);
         transactional(() -> em.remove(em.getReference(File.class, file.getUri())));
         assertFalse(sut.findAllTargeting(file).isEmpty());
-        transactional(() -> sut.removeAllOrphans());
+        transactional(() -> sut.removeAllOrphanedOf(sut.findOrphanedSources()));
         assertTrue(sut.findAllTargeting(file).isEmpty());
     }
 
+    @Test
+    void findOrphanedSourcesReturnsSourcesWhichNoLongerExist() {
+        final File fOne = Generator.generateFileWithId("testOne.html");
+        final File fTwo = Generator.generateFileWithId("testTwo.html");
+        final File fThree = Generator.generateFileWithId("testThree.html");
+        generateOccurrences(false, fOne, fTwo, fThree);
+        transactional(() -> {
+            em.remove(em.getReference(File.class, fOne.getUri()));
+            em.remove(em.getReference(File.class, fTwo.getUri()));
+        });
+
+        final List<URI> result = sut.findOrphanedSources();
+        assertEquals(2, result.size());
+        assertThat(result, hasItems(fOne.getUri(), fTwo.getUri()));
+    }
+
+    @Test
+    void removeAllOrphanedOfRemovesOccurrencesOfSpecifiedSourcesOnly() {
+        final File fOne = Generator.generateFileWithId("testOne.html");
+        final File fTwo = Generator.generateFileWithId("testTwo.html");
+        generateOccurrences(false, fOne, fTwo);
+        transactional(() -> {
+            em.remove(em.getReference(File.class, fOne.getUri()));
+            em.remove(em.getReference(File.class, fTwo.getUri()));
+        });
+
+        transactional(() -> sut.removeAllOrphanedOf(List.of(fOne.getUri())));
+        assertTrue(sut.findAllTargeting(fOne).isEmpty());
+        assertFalse(sut.findAllTargeting(fTwo).isEmpty());
+        assertEquals(List.of(fTwo.getUri()), sut.findOrphanedSources());
+    }
+
     @Test
     void getOccurrenceInfoByTermRetrievesAggregateTermOccurrences() {
         final Term term = Generator.generateTermWithId();
@@ -0,0 +1,55 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextAnalysisRecordDaoTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private TextAnalysisRecordDao sut;
+
+    @Test
+    void saveDefinitionFingerprintsReplacesPreviousFingerprintsOfSpecifiedTerms() {
+        final URI termOne = Generator.generateUri();
+        final URI termTwo = Generator.generateUri();
+        transactional(() -> sut.saveDefinitionFingerprints(Map.of(termOne, "one", termTwo, "two")));
+        transactional(() -> sut.saveDefinitionFingerprints(Map.of(termOne, "changed")));
+
+        assertEquals(Map.of(termOne, "changed", termTwo, "two"),
+                     sut.findDefinitionFingerprints(Set.of(termOne, termTwo, Generator.generateUri())));
+    }
+
+    @Test
+    void removeDefinitionFingerprintsRemovesAllFingerprints() {
+        final URI term = Generator.generateUri();
+        transactional(() -> sut.saveDefinitionFingerprints(Map.of(term, "fingerprint")));
+
+        transactional(() -> sut.removeDefinitionFingerprints());
+        assertTrue(sut.findDefinitionFingerprints(Set.of(term)).isEmpty());
+    }
+}
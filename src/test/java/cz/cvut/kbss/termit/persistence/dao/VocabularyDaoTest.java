@@ -20,11 +20,13 @@ package cz.cvut.kbss.termit.persistence.dao;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.MultilingualString;
 import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
+import cz.cvut.kbss.jopa.vocabulary.DC;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.termit.dto.AggregatedChangeInfo;
 import cz.cvut.kbss.termit.dto.PrefixDeclaration;
 import cz.cvut.kbss.termit.dto.RdfsStatement;
 import cz.cvut.kbss.termit.dto.Snapshot;
+import cz.cvut.kbss.termit.dto.listing.VocabularyDto;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.event.AssetPersistEvent;
@@ -131,6 +133,73 @@ class VocabularyDaoTest extends BaseDaoTestRunner {
         }
     }
 
+    @Test
+    void findAllDtosReturnsListingOfVocabulariesOrderedByLabel() {
+        final List<Vocabulary> vocabularies = IntStream.range(0, 5).mapToObj(i -> Generator.generateVocabularyWithId())
+                                                       .collect(Collectors.toList());
+        vocabularies.get(0).setImportedVocabularies(Set.of(vocabularies.get(1).getUri()));
+        transactional(() -> vocabularies.forEach(v -> em.persist(v, descriptorFor(v))));
+
+        final List<VocabularyDto> result = sut.findAllDtos();
+        vocabularies.sort(Comparator.comparing(Vocabulary::getPrimaryLabel));
+        assertEquals(vocabularies.size(), result.size());
+        for (int i = 0; i < vocabularies.size(); i++) {
+            final Vocabulary expected = vocabularies.get(i);
+            assertEquals(expected.getUri(), result.get(i).getUri());
+            assertEquals(expected.getLabel(), result.get(i).getLabel());
+            assertEquals(expected.getImportedVocabularies(), result.get(i).getImportedVocabularies());
+        }
+    }
+
+    @Test
+    void findAllDtosReflectsVocabulariesPersistedAndUpdatedAfterListingWasLoaded() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        transactional(() -> em.persist(vocabulary, descriptorFor(vocabulary)));
+        assertEquals(1, sut.findAllDtos().size());
+
+        final String newName = "Updated vocabulary name";
+        vocabulary.setLabel(MultilingualString.create(newName, Environment.LANGUAGE));
+        transactional(() -> sut.update(vocabulary));
+        final Vocabulary added = Generator.generateVocabularyWithId();
+        transactional(() -> sut.persist(added));
+
+        final List<VocabularyDto> result = sut.findAllDtos();
+        assertEquals(2, result.size());
+        final Optional<VocabularyDto> updated = result.stream().filter(v -> vocabulary.getUri().equals(v.getUri()))
+                                                      .findFirst();
+        assertTrue(updated.isPresent());
+        assertEquals(newName, updated.get().getLabel().get(Environment.LANGUAGE));
+        assertTrue(result.stream().anyMatch(v -> added.getUri().equals(v.getUri())));
+    }
+
+    @Test
+    void findAllDtosIgnoresVocabularyDataInWorkspaceCopiesOfVocabularyContext() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        transactional(() -> em.persist(vocabulary, descriptorFor(vocabulary)));
+        final URI workingCopy = Generator.generateUri();
+        transactional(() -> {
+            final Repository repo = em.unwrap(Repository.class);
+            try (final RepositoryConnection connection = repo.getConnection()) {
+                final ValueFactory vf = connection.getValueFactory();
+                final IRI vocabularyIri = vf.createIRI(vocabulary.getUri().toString());
+                final IRI ctx = vf.createIRI(workingCopy.toString());
+                connection.begin();
+                connection.add(ctx, vf.createIRI(
+                                       cz.cvut.kbss.termit.util.Vocabulary.s_p_d_sgov_pracovni_prostor_pojem_vychazi_z_verze),
+                               vocabularyIri, ctx);
+                connection.add(vocabularyIri, RDF.TYPE, vf.createIRI(cz.cvut.kbss.termit.util.Vocabulary.s_c_slovnik),
+                               ctx);
+                connection.add(vocabularyIri, vf.createIRI(DC.Terms.TITLE),
+                               vf.createLiteral("Working copy label", Environment.LANGUAGE), ctx);
+                connection.commit();
+            }
+        });
+
+        final List<VocabularyDto> result = sut.findAllDtos();
+        assertEquals(1, result.size());
+        assertEquals(vocabulary.getLabel(), result.get(0).getLabel());
+    }
+
     @Test
     void persistSavesVocabularyIntoContextGivenByItsIri() {
         final Vocabulary vocabulary = Generator.generateVocabularyWithId();
@@ -255,6 +324,63 @@ class VocabularyDaoTest extends BaseDaoTestRunner {
         });
     }
 
+    @Test
+    void findWithoutRootTermsReturnsVocabularyWithGlossaryAndModelIdentifiersOnly() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final Term term = Generator.generateTermWithId();
+        vocabulary.getGlossary().addRootTerm(term);
+        transactional(() -> {
+            em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary));
+            em.persist(term, descriptorFactory.termDescriptor(vocabulary));
+        });
+
+        final Optional<Vocabulary> result = sut.findWithoutRootTerms(vocabulary.getUri());
+        assertTrue(result.isPresent());
+        assertEquals(vocabulary.getGlossary().getUri(), result.get().getGlossary().getUri());
+        assertEquals(vocabulary.getModel().getUri(), result.get().getModel().getUri());
+        assertNull(result.get().getGlossary().getRootTerms());
+        assertFalse(sut.findWithoutRootTerms(Generator.generateUri()).isPresent());
+    }
+
+    @Test
+    void addRootTermAddsTermToGlossaryRootTermsKeepingExistingOnes() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final Term existing = Generator.generateTermWithId();
+        final Term added = Generator.generateTermWithId();
+        vocabulary.getGlossary().addRootTerm(existing);
+        transactional(() -> {
+            em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary));
+            em.persist(existing, descriptorFactory.termDescriptor(vocabulary));
+            em.persist(added, descriptorFactory.termDescriptor(vocabulary));
+        });
+
+        transactional(() -> sut.addRootTerm(sut.findWithoutRootTerms(vocabulary.getUri()).get(), added.getUri()));
+        final Glossary result = em.find(Glossary.class, vocabulary.getGlossary().getUri(),
+                                        descriptorFactory.glossaryDescriptor(vocabulary));
+        assertEquals(Set.of(existing.getUri(), added.getUri()), result.getRootTerms());
+    }
+
+    @Test
+    void removeRootTermRemovesOnlySpecifiedTermFromGlossaryRootTerms() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final Term kept = Generator.generateTermWithId();
+        final Term removed = Generator.generateTermWithId();
+        vocabulary.getGlossary().addRootTerm(kept);
+        vocabulary.getGlossary().addRootTerm(removed);
+        transactional(() -> {
+            em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary));
+            em.persist(kept, descriptorFactory.termDescriptor(vocabulary));
+            em.persist(removed, descriptorFactory.termDescriptor(vocabulary));
+        });
+        // Load glossary into the second level cache
+        em.find(Glossary.class, vocabulary.getGlossary().getUri(), descriptorFactory.glossaryDescriptor(vocabulary));
+
+        transactional(() -> sut.removeRootTerm(vocabulary, removed.getUri()));
+        final Glossary result = em.find(Glossary.class, vocabulary.getGlossary().getUri(),
+                                        descriptorFactory.glossaryDescriptor(vocabulary));
+        assertEquals(Set.of(kept.getUri()), result.getRootTerms());
+    }
+
     @Test
     void hasInterVocabularyTermRelationshipsReturnsFalseForVocabulariesWithoutSKOSRelatedTerms() {
         final Vocabulary subjectVocabulary = Generator.generateVocabularyWithId();
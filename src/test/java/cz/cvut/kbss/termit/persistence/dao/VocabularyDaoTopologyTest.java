@@ -0,0 +1,167 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.dto.PrefixDeclaration;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.User;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.context.VocabularyTopologyRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link VocabularyDao} with the in-memory vocabulary topology registered.
+ */
+@ContextConfiguration(classes = VocabularyDaoTopologyTest.TopologyConfig.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class VocabularyDaoTopologyTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DescriptorFactory descriptorFactory;
+
+    @Autowired
+    private VocabularyTopologyRegistry registry;
+
+    @Autowired
+    private VocabularyDao sut;
+
+    @BeforeEach
+    void setUp() {
+        final User author = Generator.generateUserWithId();
+        transactional(() -> em.persist(author));
+        Environment.setCurrentUser(author);
+    }
+
+    private void persist(Vocabulary... vocabularies) {
+        transactional(() -> {
+            for (Vocabulary v : vocabularies) {
+                em.persist(v, descriptorFactory.vocabularyDescriptor(v));
+            }
+        });
+        // Data inserted directly into the repository, so the registry has to be reloaded
+        registry.load();
+    }
+
+    @Test
+    void getTransitivelyImportedVocabulariesReturnsImportClosureFromTopology() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final Vocabulary imported = Generator.generateVocabularyWithId();
+        final Vocabulary transitive = Generator.generateVocabularyWithId();
+        vocabulary.setImportedVocabularies(Set.of(imported.getUri()));
+        imported.setImportedVocabularies(Set.of(transitive.getUri()));
+        persist(vocabulary, imported, transitive);
+        assertTrue(registry.getTopology().contains(vocabulary.getUri()));
+
+        final Collection<URI> result = sut.getTransitivelyImportedVocabularies(vocabulary.getUri());
+        assertThat(result, containsInAnyOrder(imported.getUri(), transitive.getUri()));
+    }
+
+    @Test
+    void resolvePrefixReturnsPrefixDeclarationFromTopology() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        vocabulary.setProperties(new HashMap<>());
+        vocabulary.getProperties().put(cz.cvut.kbss.termit.util.Vocabulary.s_p_preferredNamespacePrefix,
+                                       Collections.singleton("vocab"));
+        vocabulary.getProperties().put(cz.cvut.kbss.termit.util.Vocabulary.s_p_preferredNamespaceUri,
+                                       Collections.singleton(vocabulary.getUri() + "/"));
+        persist(vocabulary);
+
+        assertEquals(new PrefixDeclaration("vocab", vocabulary.getUri() + "/"),
+                     sut.resolvePrefix(vocabulary.getUri()));
+    }
+
+    @Test
+    void getRelatedVocabulariesReturnsVocabulariesRelatedViaImportsAndTermRelationshipsFromTopology() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final Vocabulary imported = Generator.generateVocabularyWithId();
+        final Vocabulary related = Generator.generateVocabularyWithId();
+        vocabulary.setImportedVocabularies(Set.of(imported.getUri()));
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        final Term relatedTerm = Generator.generateTermWithId(related.getUri());
+        term.addExactMatch(new TermInfo(relatedTerm));
+        transactional(() -> {
+            em.persist(relatedTerm, descriptorFactory.termDescriptor(related));
+            em.persist(term, descriptorFactory.termDescriptor(vocabulary));
+            Generator.addTermInVocabularyRelationship(term, vocabulary.getUri(), em);
+            Generator.addTermInVocabularyRelationship(relatedTerm, related.getUri(), em);
+        });
+        persist(vocabulary, imported, related);
+
+        final Set<URI> result = sut.getRelatedVocabularies(vocabulary, List.of(URI.create(SKOS.EXACT_MATCH)));
+        assertThat(result, containsInAnyOrder(vocabulary.getUri(), imported.getUri(), related.getUri()));
+    }
+
+    @Test
+    void getTransitivelyImportedVocabulariesBypassesTopologyInTransactionWhichModifiedVocabulary() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final Vocabulary imported = Generator.generateVocabularyWithId();
+        persist(vocabulary, imported);
+
+        transactional(() -> {
+            vocabulary.setImportedVocabularies(Set.of(imported.getUri()));
+            sut.update(vocabulary);
+            assertTrue(registry.isModifiedInCurrentTransaction());
+            assertEquals(List.of(imported.getUri()), sut.getTransitivelyImportedVocabularies(vocabulary.getUri()));
+        });
+        assertFalse(registry.isModifiedInCurrentTransaction());
+        // Topology is updated after commit
+        assertEquals(Set.of(imported.getUri()), registry.getTopology().getImportClosure(vocabulary.getUri()));
+    }
+
+    /**
+     * Registers the topology registry, which is not registered in tests by default.
+     * <p>
+     * Intentionally not a {@code @Configuration} class, so that it is not picked up by component scanning in other
+     * tests.
+     */
+    static class TopologyConfig {
+
+        @Bean
+        public VocabularyTopologyRegistry vocabularyTopologyRegistry(EntityManager em) {
+            return new VocabularyTopologyRegistry(em, new SimpleAsyncTaskScheduler());
+        }
+    }
+}
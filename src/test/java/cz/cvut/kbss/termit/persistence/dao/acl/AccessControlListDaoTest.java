@@ -37,6 +37,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static cz.cvut.kbss.termit.environment.util.ContainsSameEntities.containsSameEntities;
@@ -98,6 +99,32 @@ class AccessControlListDaoTest extends BaseDaoTestRunner {
         assertFalse(result.isPresent());
     }
 
+    @Test
+    void findAllForRetrievesAccessControlListsWithRecordsForSpecifiedSubjects() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final Vocabulary withoutAcl = Generator.generateVocabularyWithId();
+        final AccessControlList acl = new AccessControlList();
+        final UserRole editorRole = new UserRole(URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_plny_uzivatel_termitu));
+        acl.addRecord(new RoleAccessControlRecord(AccessLevel.WRITE, editorRole));
+        final User user = Generator.generateUserAccount().toUser();
+        acl.addRecord(new UserAccessControlRecord(AccessLevel.SECURITY, user));
+        transactional(() -> {
+            em.persist(editorRole);
+            em.persist(user);
+            em.persist(acl, descriptorFactory.accessControlListDescriptor());
+            vocabulary.setAcl(acl.getUri());
+            em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary));
+            em.persist(withoutAcl, descriptorFactory.vocabularyDescriptor(withoutAcl));
+        });
+
+        final Map<URI, AccessControlList> result = sut.findAllFor(List.of(vocabulary.getUri(), withoutAcl.getUri()));
+        assertEquals(1, result.size());
+        final AccessControlList loaded = result.get(vocabulary.getUri());
+        assertNotNull(loaded);
+        assertEquals(acl.getUri(), loaded.getUri());
+        assertThat(loaded.getRecords(), containsSameEntities(acl.getRecords()));
+    }
+
     @Test
     void persistPersistsAccessControlListWithRecordsIntoContext() {
         final AccessControlList acl = new AccessControlList();
@@ -0,0 +1,154 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.lucene;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.dto.search.FullTextSearchResult;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmbeddedLuceneSearchDaoTest {
+
+    private static final String LANGUAGE = "cs";
+
+    private static final int MAX_RESULTS = 50;
+
+    @Mock
+    private EntityManager emMock;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private Configuration configMock;
+
+    @Mock
+    private EmbeddedSearchIndex indexMock;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    private Query queryMock;
+
+    private EmbeddedLuceneSearchDao sut;
+
+    @BeforeEach
+    void setUp() {
+        when(configMock.getPersistence().getLanguage()).thenReturn(LANGUAGE);
+        when(configMock.getSearch().getMaxResults()).thenReturn(MAX_RESULTS);
+        this.sut = new EmbeddedLuceneSearchDao(emMock, configMock, indexMock);
+    }
+
+    @Test
+    void fullTextSearchSearchesIndexForMaximumNumberOfResults() {
+        when(indexMock.isReady()).thenReturn(true);
+        final List<FullTextSearchResult> results = List.of(result());
+        when(indexMock.search(anyString(), anyString(), anyBoolean(), anyInt(), anyInt())).thenReturn(results);
+
+        assertEquals(results, sut.fullTextSearch("building"));
+        verify(indexMock).search("building", LANGUAGE, false, 0, MAX_RESULTS);
+    }
+
+    @Test
+    void fullTextSearchIncludingSnapshotsSearchesIndexIncludingSnapshots() {
+        when(indexMock.isReady()).thenReturn(true);
+
+        sut.fullTextSearchIncludingSnapshots("building");
+        verify(indexMock).search("building", LANGUAGE, true, 0, MAX_RESULTS);
+    }
+
+    @Test
+    void fullTextSearchFallsBackToQueryBasedSearchWhenIndexIsNotReady() {
+        when(indexMock.isReady()).thenReturn(false);
+        when(emMock.createNativeQuery(any(), eq("FullTextSearchResult"))).thenReturn(queryMock);
+
+        sut.fullTextSearch("building");
+        verify(emMock).createNativeQuery(any(), eq("FullTextSearchResult"));
+        verify(indexMock, never()).search(anyString(), anyString(), anyBoolean(), anyInt(), anyInt());
+    }
+
+    @Test
+    void fullTextSearchOfTermsPassesPageSpecificationToIndex() {
+        when(indexMock.isReady()).thenReturn(true);
+        final Set<URI> vocabularies = Set.of(Generator.generateUri());
+        final Pageable pageSpec = PageRequest.of(3, 10);
+        final Page<FullTextSearchResult> page = new PageImpl<>(List.of(result()), pageSpec, 31);
+        when(indexMock.searchTerms("building", LANGUAGE, vocabularies, pageSpec)).thenReturn(page);
+
+        assertEquals(page, sut.fullTextSearchOfTerms("building", vocabularies, pageSpec));
+    }
+
+    @Test
+    void fullTextSearchOfTermsLimitsUnpagedSearchByMaximumNumberOfResults() {
+        when(indexMock.isReady()).thenReturn(true);
+        final Set<URI> vocabularies = Set.of(Generator.generateUri());
+
+        sut.fullTextSearchOfTerms("building", vocabularies, Pageable.unpaged());
+        verify(indexMock).searchTerms("building", LANGUAGE, vocabularies, PageRequest.of(0, MAX_RESULTS));
+    }
+
+    @Test
+    void fullTextSearchOfTermsLimitsPageSizeByMaximumNumberOfResultsAndKeepsPageNumber() {
+        when(indexMock.isReady()).thenReturn(true);
+        final Set<URI> vocabularies = Set.of(Generator.generateUri());
+
+        sut.fullTextSearchOfTerms("building", vocabularies, PageRequest.of(2, MAX_RESULTS * 2));
+        verify(indexMock).searchTerms("building", LANGUAGE, vocabularies, PageRequest.of(2, MAX_RESULTS));
+    }
+
+    @Test
+    void fullTextSearchOfTermsFallsBackToQueryBasedSearchWhenIndexIsNotReady() {
+        when(indexMock.isReady()).thenReturn(false);
+        when(emMock.createNativeQuery(any(), eq("FullTextSearchResult"))).thenReturn(queryMock);
+        // Queries are loaded after construction by the container
+        ReflectionTestUtils.setField(sut, "ftsTermsQuery", "SELECT ?entity WHERE { VALUES ?vocabularyUri { } }");
+        final Set<URI> vocabularies = Set.of(Generator.generateUri());
+
+        sut.fullTextSearchOfTerms("building", vocabularies, PageRequest.of(0, 10));
+        verify(emMock).createNativeQuery(any(), eq("FullTextSearchResult"));
+        verify(indexMock, never()).searchTerms(anyString(), anyString(), any(), any());
+    }
+
+    private static FullTextSearchResult result() {
+        return new FullTextSearchResult(Generator.generateUri(), "Building", null, null, SKOS.CONCEPT, "label",
+                                        "Building", 1.0);
+    }
+}
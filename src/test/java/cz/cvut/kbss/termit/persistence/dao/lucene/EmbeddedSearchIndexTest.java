@@ -0,0 +1,240 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.lucene;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.dto.search.FullTextSearchResult;
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddedSearchIndexTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DescriptorFactory descriptorFactory;
+
+    private Vocabulary vocabulary;
+
+    private EmbeddedSearchIndex sut;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.vocabulary = Generator.generateVocabularyWithId();
+        transactional(() -> em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary)));
+        this.sut = new EmbeddedSearchIndex(em, new ByteBuffersDirectory());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        sut.close();
+        // Each test indexes the whole repository
+        transactional(() -> {
+            try (final RepositoryConnection connection = em.unwrap(Repository.class).getConnection()) {
+                connection.clear();
+            }
+        });
+        em.getEntityManagerFactory().getCache().evictAll();
+    }
+
+    private Term persistTerm(String label, String definition) {
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        term.setLabel(MultilingualString.create(label, Environment.LANGUAGE));
+        term.setDefinition(MultilingualString.create(definition, Environment.LANGUAGE));
+        vocabulary.getGlossary().addRootTerm(term);
+        transactional(() -> {
+            em.persist(term, descriptorFactory.termDescriptor(term));
+            Generator.addTermInVocabularyRelationship(term, vocabulary.getUri(), em);
+        });
+        return term;
+    }
+
+    @Test
+    void rebuildMakesIndexReady() {
+        persistTerm("Building", "A structure with a roof.");
+        assertFalse(sut.isReady());
+        sut.rebuild();
+        assertTrue(sut.isReady());
+    }
+
+    @Test
+    void searchFindsTermsByIncompleteLastWord() {
+        final Term building = persistTerm("Building permit", "Permission to construct a structure.");
+        persistTerm("Road", "A way leading from one place to another.");
+        sut.rebuild();
+
+        final List<FullTextSearchResult> result = sut.search("building perm", Environment.LANGUAGE, false, 0, 10);
+        assertEquals(1, result.size());
+        assertEquals(building.getUri(), result.get(0).getUri());
+        assertEquals(vocabulary.getUri(), result.get(0).getVocabulary());
+        assertTrue(result.get(0).hasType(SKOS.CONCEPT));
+    }
+
+    @Test
+    void searchIgnoresCaseAndDiacritics() {
+        final Term term = persistTerm("Stavební povolení", "Povolení stavby.");
+        sut.rebuild();
+
+        final List<FullTextSearchResult> result = sut.search("STAVEBNI", Environment.LANGUAGE, false, 0, 10);
+        assertEquals(1, result.size());
+        assertEquals(term.getUri(), result.get(0).getUri());
+    }
+
+    @Test
+    void searchRanksExactLabelMatchFirst() {
+        persistTerm("Building permit", "Permission to construct a building.");
+        final Term exact = persistTerm("Building", "A structure with a roof.");
+        persistTerm("Building plot", "Land on which a building can be constructed.");
+        sut.rebuild();
+
+        final List<FullTextSearchResult> result = sut.search("building", Environment.LANGUAGE, false, 0, 10);
+        assertEquals(3, result.size());
+        assertEquals(exact.getUri(), result.get(0).getUri());
+    }
+
+    @Test
+    void searchReturnsHighlightedSnippetOfMatchingField() {
+        final Term term = persistTerm("Road", "A way leading from one place to another.");
+        sut.rebuild();
+
+        final List<FullTextSearchResult> result = sut.search("leading", Environment.LANGUAGE, false, 0, 10);
+        assertEquals(1, result.size());
+        assertEquals(term.getUri(), result.get(0).getUri());
+        assertEquals("definition", result.get(0).getSnippetField());
+        assertThat(result.get(0).getSnippetText(), containsString("<em>leading</em>"));
+        assertEquals("Road", result.get(0).getLabel());
+    }
+
+    @Test
+    void searchReturnsRequestedPageOfResults() {
+        for (int i = 0; i < 5; i++) {
+            persistTerm("Building " + i, "A structure.");
+        }
+        sut.rebuild();
+
+        final List<FullTextSearchResult> all = sut.search("building", Environment.LANGUAGE, false, 0, 10);
+        final List<FullTextSearchResult> page = sut.search("building", Environment.LANGUAGE, false, 2, 2);
+        assertEquals(5, all.size());
+        assertEquals(all.subList(2, 4).stream().map(FullTextSearchResult::getUri).toList(),
+                     page.stream().map(FullTextSearchResult::getUri).toList());
+    }
+
+    @Test
+    void searchTermsReturnsTermsFromSpecifiedVocabulariesWithTotalCount() {
+        for (int i = 0; i < 3; i++) {
+            persistTerm("Building " + i, "A structure.");
+        }
+        sut.rebuild();
+
+        final Page<FullTextSearchResult> result = sut.searchTerms("building", Environment.LANGUAGE,
+                                                                  Set.of(vocabulary.getUri()),
+                                                                  PageRequest.of(0, 2));
+        assertEquals(2, result.getNumberOfElements());
+        assertEquals(3, result.getTotalElements());
+        assertTrue(result.getContent().stream().allMatch(r -> vocabulary.getUri().equals(r.getVocabulary())));
+        assertTrue(sut.searchTerms("building", Environment.LANGUAGE, Set.of(Generator.generateUri()),
+                                     PageRequest.of(0, 2))
+                      .isEmpty());
+    }
+
+    @Test
+    void searchTermsReturnsPageWithSpecifiedPageable() {
+        for (int i = 0; i < 5; i++) {
+            persistTerm("Building " + i, "A structure.");
+        }
+        sut.rebuild();
+
+        final List<FullTextSearchResult> all = sut.search("building", Environment.LANGUAGE, false, 0, 10);
+        final Pageable pageSpec = PageRequest.of(1, 2);
+        final Page<FullTextSearchResult> result = sut.searchTerms("building", Environment.LANGUAGE,
+                                                                  Set.of(vocabulary.getUri()), pageSpec);
+        assertEquals(pageSpec, result.getPageable());
+        assertEquals(5, result.getTotalElements());
+        assertEquals(all.subList(2, 4).stream().map(FullTextSearchResult::getUri).toList(),
+                     result.stream().map(FullTextSearchResult::getUri).toList());
+    }
+
+    @Test
+    void searchTermsThrowsIllegalArgumentExceptionForUnpagedRequest() {
+        assertThrows(IllegalArgumentException.class,
+                     () -> sut.searchTerms("building", Environment.LANGUAGE, Set.of(vocabulary.getUri()),
+                                           Pageable.unpaged()));
+    }
+
+    @Test
+    void searchFindsVocabulariesByTitle() {
+        sut.rebuild();
+
+        final String title = vocabulary.getLabel().get(Environment.LANGUAGE);
+        final List<FullTextSearchResult> result = sut.search(title, Environment.LANGUAGE, false, 0, 10);
+        assertTrue(result.stream().anyMatch(r -> r.getUri().equals(vocabulary.getUri())));
+    }
+
+    @Test
+    void reindexRemovesAssetWhichNoLongerExists() {
+        final Term term = persistTerm("Building", "A structure with a roof.");
+        sut.rebuild();
+        assertEquals(1, sut.search("building", Environment.LANGUAGE, false, 0, 10).size());
+        transactional(() -> em.remove(em.find(Term.class, term.getUri())));
+
+        sut.reindex(term.getUri());
+        assertTrue(sut.search("building", Environment.LANGUAGE, false, 0, 10).isEmpty());
+    }
+
+    @Test
+    void reindexUpdatesIndexedLabels() {
+        final Term term = persistTerm("Building", "A structure with a roof.");
+        sut.rebuild();
+        transactional(() -> {
+            final Term toUpdate = em.find(Term.class, term.getUri(), descriptorFactory.termDescriptor(term));
+            toUpdate.setLabel(MultilingualString.create("House", Environment.LANGUAGE));
+        });
+
+        sut.reindex(term.getUri());
+        assertTrue(sut.search("building", Environment.LANGUAGE, false, 0, 10).isEmpty());
+        assertEquals(1, sut.search("house", Environment.LANGUAGE, false, 0, 10).size());
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.search;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.dto.search.MatchType;
+import cz.cvut.kbss.termit.dto.search.SearchParam;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.AssetPersistEvent;
+import cz.cvut.kbss.termit.event.AssetUpdateEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyWillBeRemovedEvent;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.context.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The index is not a bean in tests, so event handlers are invoked directly.
+ */
+class TermFacetIndexTest extends BaseDaoTestRunner {
+
+    private static final URI HAS_STATE = URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_stav_pojmu);
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DescriptorFactory descriptorFactory;
+
+    @Autowired
+    private Configuration config;
+
+    private Vocabulary vocabulary;
+
+    private final TaskScheduler scheduler = mock(TaskScheduler.class);
+
+    private TermFacetIndex sut;
+
+    @BeforeEach
+    void setUp() {
+        this.vocabulary = Generator.generateVocabularyWithId();
+        transactional(() -> em.persist(vocabulary, descriptorFactory.vocabularyDescriptor(vocabulary)));
+        this.sut = new TermFacetIndex(em, config, scheduler);
+    }
+
+    private Term persistTerm(URI state) {
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        term.setState(state);
+        vocabulary.getGlossary().addRootTerm(term);
+        transactional(() -> {
+            em.persist(term, descriptorFactory.termDescriptor(term));
+            Generator.addTermInVocabularyRelationship(term, vocabulary.getUri(), em);
+        });
+        return term;
+    }
+
+    private List<URI> findInVocabulary(SearchParam... params) {
+        final SearchParam vocabularyParam = new SearchParam(
+                URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku),
+                Set.of(vocabulary.getUri().toString()), MatchType.IRI);
+        final List<SearchParam> searchParams = new ArrayList<>(List.of(params));
+        searchParams.add(vocabularyParam);
+        return sut.find(searchParams, null, Constants.DEFAULT_PAGE_SPEC);
+    }
+
+    private static SearchParam stateParam(URI state) {
+        return new SearchParam(HAS_STATE, Set.of(state.toString()), MatchType.IRI);
+    }
+
+    @Test
+    void loadIndexesExistingTerms() {
+        final Term term = persistTerm(Generator.TERM_STATES[0]);
+
+        sut.load();
+        assertTrue(sut.isReady());
+        assertEquals(List.of(term.getUri()), findInVocabulary(stateParam(Generator.TERM_STATES[0])));
+    }
+
+    @Test
+    void afterSingletonsInstantiatedLoadsIndexInBackground() {
+        final Term term = persistTerm(Generator.TERM_STATES[0]);
+
+        sut.afterSingletonsInstantiated();
+        assertFalse(sut.isReady());
+        final ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(captor.capture(), any(Instant.class));
+        captor.getValue().run();
+        assertTrue(sut.isReady());
+        assertEquals(List.of(term.getUri()), findInVocabulary());
+    }
+
+    @Test
+    void loadLeavesIndexNotReadyWhenLoadingFails() {
+        final EntityManager failingEm = mock(EntityManager.class);
+        when(failingEm.createNativeQuery(anyString())).thenThrow(IllegalStateException.class);
+        final TermFacetIndex index = new TermFacetIndex(failingEm, config, scheduler);
+
+        index.load();
+        assertFalse(index.isReady());
+    }
+
+    @Test
+    void onAssetPersistedAddsTermToIndex() {
+        sut.load();
+        final Term term = persistTerm(Generator.TERM_STATES[0]);
+        assertTrue(findInVocabulary().isEmpty());
+
+        sut.onAssetPersisted(new AssetPersistEvent(this, term));
+        assertEquals(List.of(term.getUri()), findInVocabulary());
+    }
+
+    @Test
+    void onAssetUpdatedReplacesIndexedValuesOfTerm() {
+        final Term term = persistTerm(Generator.TERM_STATES[0]);
+        sut.load();
+        transactional(() -> {
+            final Term toUpdate = em.find(Term.class, term.getUri(), descriptorFactory.termDescriptor(term));
+            toUpdate.setState(Generator.TERM_STATES[1]);
+        });
+
+        sut.onAssetUpdated(new AssetUpdateEvent(this, term));
+        assertTrue(findInVocabulary(stateParam(Generator.TERM_STATES[0])).isEmpty());
+        assertEquals(List.of(term.getUri()), findInVocabulary(stateParam(Generator.TERM_STATES[1])));
+    }
+
+    @Test
+    void onVocabularyContentModifiedRemovesTermsWhichNoLongerExist() {
+        final Term removed = persistTerm(Generator.TERM_STATES[0]);
+        final Term kept = persistTerm(Generator.TERM_STATES[0]);
+        sut.load();
+        transactional(() -> em.remove(em.find(Term.class, removed.getUri(),
+                                              descriptorFactory.termDescriptor(removed))));
+
+        sut.onVocabularyContentModified(new VocabularyContentModifiedEvent(this, vocabulary.getUri()));
+        assertEquals(List.of(kept.getUri()), findInVocabulary());
+    }
+
+    @Test
+    void onRemoteVocabularyContentModifiedReloadsTermsOfVocabulary() {
+        sut.load();
+        final Term term = persistTerm(Generator.TERM_STATES[0]);
+
+        sut.onVocabularyContentModified(new VocabularyContentModifiedEvent(this, vocabulary.getUri(), true));
+        assertEquals(List.of(term.getUri()), findInVocabulary());
+    }
+
+    @Test
+    void onVocabularyRemovedRemovesTermsOfVocabularyFromIndex() {
+        persistTerm(Generator.TERM_STATES[0]);
+        sut.load();
+        assertEquals(1, findInVocabulary().size());
+
+        sut.onVocabularyRemoved(new VocabularyWillBeRemovedEvent(this, vocabulary.getUri()));
+        assertTrue(findInVocabulary().isEmpty());
+        assertTrue(sut.countFacets(List.of(), null, v -> vocabulary.getUri().equals(v)).get(HAS_STATE).isEmpty());
+    }
+}
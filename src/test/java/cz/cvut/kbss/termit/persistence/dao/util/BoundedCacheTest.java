@@ -0,0 +1,113 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BoundedCacheTest {
+
+    @Mock
+    Function<String, String> supplier;
+
+    @Test
+    void getOrComputeReturnsCachedValue() {
+        final BoundedCache<String, String> sut = new BoundedCache<>(10);
+        when(supplier.apply(anyString())).thenAnswer(inv -> inv.getArgument(0, String.class).toUpperCase());
+
+        assertEquals("A", sut.getOrCompute("a", supplier));
+        assertEquals("A", sut.getOrCompute("a", supplier));
+        verify(supplier).apply("a");
+    }
+
+    @Test
+    void putEvictsLeastRecentlyUsedEntryWhenCapacityIsExceeded() {
+        final BoundedCache<String, String> sut = new BoundedCache<>(2);
+        sut.put("a", "A");
+        sut.put("b", "B");
+        // Access a, so that b becomes the least recently used entry
+        sut.getAllPresent(List.of("a"));
+        sut.put("c", "C");
+
+        assertEquals(2, sut.size());
+        assertEquals(Map.of("a", "A", "c", "C"), sut.getAllPresent(List.of("a", "b", "c")));
+    }
+
+    @Test
+    void zeroCapacityCachesNothing() {
+        final BoundedCache<String, String> sut = new BoundedCache<>(0);
+        when(supplier.apply(anyString())).thenReturn("A");
+
+        sut.getOrCompute("a", supplier);
+        sut.getOrCompute("a", supplier);
+        verify(supplier, times(2)).apply("a");
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    void evictAllWithPredicateRemovesOnlyMatchingEntries() {
+        final BoundedCache<String, String> sut = new BoundedCache<>(10);
+        sut.put("a", "A");
+        sut.put("ab", "AB");
+        sut.put("b", "B");
+
+        sut.evictAll(k -> k.startsWith("a"));
+        assertEquals(Map.of("b", "B"), sut.getAllPresent(List.of("a", "ab", "b")));
+    }
+
+    @Test
+    void getReturnsEmptyForEntryWhoseTimeToLiveHasElapsed() {
+        final Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(0L, 999L, 1000L);
+        final BoundedCache<String, String> sut = new BoundedCache<>(10, Duration.ofSeconds(1), clock);
+        sut.put("a", "A");
+
+        assertEquals(Optional.of("A"), sut.get("a"));
+        assertEquals(Optional.empty(), sut.get("a"));
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    void getOrComputeRecomputesValueWhoseTimeToLiveHasElapsed() {
+        final Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(0L, 1000L);
+        final BoundedCache<String, String> sut = new BoundedCache<>(10, Duration.ofSeconds(1), clock);
+        when(supplier.apply(anyString())).thenReturn("A");
+
+        sut.getOrCompute("a", supplier);
+        sut.getOrCompute("a", supplier);
+        verify(supplier, times(2)).apply("a");
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.monitoring;
+
+import cz.cvut.kbss.jopa.exceptions.NoResultException;
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QueryInstrumentationTest {
+
+    @Mock
+    private EntityManager emMock;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    private Query queryMock;
+
+    private QueryStatistics statistics;
+
+    private EntityManager sut;
+
+    @BeforeEach
+    void setUp() {
+        this.statistics = new QueryStatistics(new Configuration());
+        this.sut = new QueryInstrumentation(statistics).instrument(emMock);
+    }
+
+    @Test
+    void recordsQueryExecutionUnderIdOfMethodCreatingQuery() {
+        when(emMock.createNativeQuery(anyString())).thenReturn(queryMock);
+        when(queryMock.getResultList()).thenReturn(List.of("a", "b"));
+
+        final List<?> result = sut.createNativeQuery("SELECT ?x WHERE { ?x a ?type . }").setParameter("type", "test")
+                                  .getResultList();
+        assertEquals(2, result.size());
+        verify(queryMock).setParameter("type", "test");
+        final Map<String, Long> queryStatistics = statistics.getQueryStatistics().get(
+                "QueryInstrumentationTest.recordsQueryExecutionUnderIdOfMethodCreatingQuery");
+        assertEquals(1L, queryStatistics.get("executions"));
+        assertEquals(0L, queryStatistics.get("failures"));
+        assertEquals(2L, queryStatistics.get("rows"));
+    }
+
+    @Test
+    void recordsNoResultOfSingleResultQueryAsSuccessfulExecutionWithoutRows() {
+        when(emMock.createNativeQuery(anyString())).thenReturn(queryMock);
+        when(queryMock.getSingleResult()).thenThrow(new NoResultException("No result."));
+
+        final Query query = sut.createNativeQuery("SELECT ?x WHERE { ?x a ?type . }");
+        assertThrows(NoResultException.class, query::getSingleResult);
+        final Map<String, Long> queryStatistics = statistics.getQueryStatistics().values().iterator().next();
+        assertEquals(1L, queryStatistics.get("executions"));
+        assertEquals(0L, queryStatistics.get("failures"));
+        assertEquals(0L, queryStatistics.get("rows"));
+    }
+
+    @Test
+    void countsRowsOfStreamedResultWhenStreamIsConsumed() {
+        when(emMock.createNativeQuery(anyString())).thenReturn(queryMock);
+        when(queryMock.getResultStream()).thenReturn(Stream.of(1, 2, 3));
+
+        final Stream<?> result = sut.createNativeQuery("SELECT ?x WHERE { ?x a ?type . }").getResultStream();
+        assertTrue(statistics.getQueryStatistics().isEmpty());
+        assertEquals(3, result.toList().size());
+        final Map<String, Long> queryStatistics = statistics.getQueryStatistics().values().iterator().next();
+        assertEquals(1L, queryStatistics.get("executions"));
+        assertEquals(3L, queryStatistics.get("rows"));
+    }
+
+    @Test
+    void countsQueriesIssuedDuringRequest() {
+        when(emMock.createNativeQuery(anyString())).thenReturn(queryMock);
+        statistics.startRequest();
+        sut.createNativeQuery("SELECT ?x WHERE { ?x a ?type . }").getResultList();
+        sut.createNativeQuery("SELECT ?y WHERE { ?y a ?type . }").getResultList();
+
+        assertEquals(2, statistics.finishRequest().getCount());
+        assertEquals(1L, statistics.getRequestQueryCounts().get("<=2"));
+        assertEquals(2L, statistics.getQueryCount());
+    }
+
+    @Test
+    void countsQueriesIssuedByRequestProcessingResumedInAnotherThread() throws Exception {
+        when(emMock.createNativeQuery(anyString())).thenReturn(queryMock);
+        final QueryStatistics.RequestQueries request = statistics.startRequest();
+        sut.createNativeQuery("SELECT ?x WHERE { ?x a ?type . }").getResultList();
+        statistics.suspendRequest();
+        final Thread asyncThread = new Thread(() -> {
+            statistics.resumeRequest(request);
+            sut.createNativeQuery("SELECT ?y WHERE { ?y a ?type . }").getResultList();
+            statistics.suspendRequest();
+        });
+        asyncThread.start();
+        asyncThread.join();
+
+        statistics.resumeRequest(request);
+        assertEquals(2, statistics.finishRequest().getCount());
+        assertEquals(1L, statistics.getRequestQueryCounts().get("<=2"));
+    }
+
+    @Test
+    void countsQueriesRunningLongerThanSlowQueryThreshold() {
+        when(emMock.createNativeQuery(anyString())).thenReturn(queryMock);
+        when(queryMock.getResultList()).thenAnswer(inv -> {
+            Thread.sleep(10);
+            return List.of();
+        });
+        statistics.setSlowQueryThresholdMillis(5);
+
+        sut.createNativeQuery("SELECT ?x WHERE { ?x a ?type . }").setParameter("type", "test").getResultList();
+        assertEquals(1L, statistics.getSlowQueryCount());
+    }
+
+    @Test
+    void recordsEvaluationOfQueriesOnUnwrappedRepositoryConnections() {
+        final Repository repositoryMock = mock(Repository.class);
+        final RepositoryConnection connectionMock = mock(RepositoryConnection.class);
+        final TupleQuery tupleQueryMock = mock(TupleQuery.class);
+        final TupleQueryResult resultMock = mock(TupleQueryResult.class);
+        when(emMock.unwrap(Repository.class)).thenReturn(repositoryMock);
+        when(repositoryMock.getConnection()).thenReturn(connectionMock);
+        when(connectionMock.prepareTupleQuery(anyString())).thenReturn(tupleQueryMock);
+        when(tupleQueryMock.evaluate()).thenReturn(resultMock);
+        when(resultMock.hasNext()).thenReturn(true, true, false);
+        when(resultMock.next()).thenReturn(mock(BindingSet.class));
+
+        try (final RepositoryConnection connection = sut.unwrap(Repository.class).getConnection()) {
+            final TupleQuery query = connection.prepareTupleQuery("SELECT ?x WHERE { ?x a ?type . }");
+            try (final TupleQueryResult result = query.evaluate()) {
+                while (result.hasNext()) {
+                    result.next();
+                }
+            }
+        }
+        verify(resultMock).close();
+        final Map<String, Long> queryStatistics = statistics.getQueryStatistics().get(
+                "QueryInstrumentationTest.recordsEvaluationOfQueriesOnUnwrappedRepositoryConnections");
+        assertEquals(1L, queryStatistics.get("executions"));
+        assertEquals(2L, queryStatistics.get("rows"));
+    }
+}
@@ -39,6 +39,7 @@ import org.springframework.test.web.servlet.MvcResult;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -113,6 +114,20 @@ class DataControllerTest extends BaseControllerTestRunner {
         mockMvc.perform(get("/data/label").param("iri", uri.toString())).andExpect(status().isNotFound());
     }
 
+    @Test
+    void getLabelsReturnsLabelsOfResourcesWithSpecifiedIds() throws Exception {
+        final URI uriOne = Generator.generateUri();
+        final URI uriTwo = Generator.generateUri();
+        final Map<URI, String> labels = Map.of(uriOne, "Term one", uriTwo, "Term two");
+        when(dataServiceMock.getLabels(List.of(uriOne, uriTwo), Environment.LANGUAGE)).thenReturn(labels);
+        final MvcResult mvcResult = mockMvc.perform(post("/data/labels").content(toJson(List.of(uriOne, uriTwo)))
+                                                                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                                                                        .param("language", Environment.LANGUAGE))
+                                           .andExpect(status().isOk()).andReturn();
+        assertEquals(labels, readValue(mvcResult, new TypeReference<Map<URI, String>>() {
+        }));
+    }
+
     @Test
     void createPropertySavesResource() throws Exception {
         final RdfsResource property = create(RDFS.RANGE, "Range", "Property range");
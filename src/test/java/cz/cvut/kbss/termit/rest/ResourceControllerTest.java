@@ -71,6 +71,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -166,6 +167,47 @@ class ResourceControllerTest extends BaseControllerTestRunner {
         verify(resourceServiceMock).getContent(file, new ResourceRetrievalSpecification(Optional.empty(), false));
     }
 
+    @Test
+    void getContentReturnsNotModifiedWhenContentMatchesSpecifiedEntityTag() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(any(), eq(FILE_NAME)))
+                .thenReturn(file.getUri());
+        when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        when(resourceServiceMock.getContentTag(eq(file), any(ResourceRetrievalSpecification.class)))
+                .thenReturn(Optional.of("abcd"));
+        mockMvc.perform(get(PATH + "/" + FILE_NAME + "/content").header(HttpHeaders.IF_NONE_MATCH, "\"abcd\""))
+               .andExpect(status().isNotModified());
+        verify(resourceServiceMock, never()).getContent(any(), any());
+    }
+
+    @Test
+    void getContentReturnsEntityTagOfContent() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(any(), eq(FILE_NAME)))
+                .thenReturn(file.getUri());
+        when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        when(resourceServiceMock.getContentTag(eq(file), any(ResourceRetrievalSpecification.class)))
+                .thenReturn(Optional.of("abcd"));
+        when(resourceServiceMock.getContent(eq(file), any(ResourceRetrievalSpecification.class)))
+                .thenReturn(new TypeAwareFileSystemResource(createTemporaryHtmlFile(), MediaType.TEXT_HTML_VALUE));
+        mockMvc.perform(get(PATH + "/" + FILE_NAME + "/content").header(HttpHeaders.IF_NONE_MATCH, "\"efgh\""))
+               .andExpect(status().isOk()).andExpect(header().string(HttpHeaders.ETAG, "\"abcd\""));
+    }
+
+    @Test
+    void getContentReturnsRequestedRangeOfContent() throws Exception {
+        final File file = generateFile();
+        when(identifierResolverMock.resolveIdentifier(any(), eq(FILE_NAME)))
+                .thenReturn(file.getUri());
+        when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
+        when(resourceServiceMock.getContent(eq(file), any(ResourceRetrievalSpecification.class)))
+                .thenReturn(new TypeAwareFileSystemResource(createTemporaryHtmlFile(), MediaType.TEXT_HTML_VALUE));
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/" + FILE_NAME + "/content")
+                                                            .header(HttpHeaders.RANGE, "bytes=0-9"))
+                                           .andExpect(status().isPartialContent()).andReturn();
+        assertEquals(HTML_CONTENT.substring(0, 10), mvcResult.getResponse().getContentAsString());
+    }
+
     private static java.io.File createTemporaryHtmlFile() throws Exception {
         final java.io.File file = Files.createTempFile("document", ".html").toFile();
         file.deleteOnExit();
@@ -200,7 +242,7 @@ class ResourceControllerTest extends BaseControllerTestRunner {
         when(resourceServiceMock.findRequired(file.getUri())).thenReturn(file);
         mockMvc.perform(put(PATH + "/" + FILE_NAME + "/text-analysis").param(QueryParams.NAMESPACE, RESOURCE_NAMESPACE))
                .andExpect(status().isNoContent());
-        verify(resourceServiceMock).runTextAnalysis(file, Collections.emptySet());
+        verify(resourceServiceMock).runTextAnalysis(file, Collections.emptySet(), false);
     }
 
     @Test
@@ -215,7 +257,7 @@ class ResourceControllerTest extends BaseControllerTestRunner {
                                                                              vocabularies.toArray(new String[0])))
                .andExpect(status().isNoContent());
         verify(resourceServiceMock)
-                .runTextAnalysis(file, vocabularies.stream().map(URI::create).collect(Collectors.toSet()));
+                .runTextAnalysis(file, vocabularies.stream().map(URI::create).collect(Collectors.toSet()), false);
     }
 
     @Test
@@ -35,6 +35,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
@@ -43,6 +44,7 @@ import org.springframework.test.web.servlet.MvcResult;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -97,14 +99,40 @@ class SearchControllerTest extends BaseControllerTestRunner {
         final List<FullTextSearchResult> expected = Collections
                 .singletonList(new FullTextSearchResult(Generator.generateUri(), "test", vocabularyIri, null,
                                                         SKOS.CONCEPT, "test", "test", 1.0));
-        when(searchServiceMock.fullTextSearchOfTerms(any(), any())).thenReturn(expected);
+        when(searchServiceMock.fullTextSearchOfTerms(any(), any(), any())).thenReturn(new PageImpl<>(expected));
         final String searchString = "test";
 
         mockMvc.perform(get(PATH + "/fts/terms")
                                 .param("searchString", searchString)
                                 .param("vocabulary", vocabularyIri.toString()))
                .andExpect(status().isOk()).andReturn();
-        verify(searchServiceMock).fullTextSearchOfTerms(searchString, Collections.singleton(vocabularyIri));
+        verify(searchServiceMock).fullTextSearchOfTerms(searchString, Collections.singleton(vocabularyIri),
+                                                        Constants.DEFAULT_PAGE_SPEC);
+    }
+
+    @Test
+    void fullTextSearchOfTermsPassesPageSpecificationToServiceAndReturnsTotalCountInHeader() throws Exception {
+        final URI vocabularyIri = URI.create("https://test.org/vocabulary");
+        final Pageable pageSpec = PageRequest.of(2, 5);
+        final List<FullTextSearchResult> expected = List.of(
+                new FullTextSearchResult(Generator.generateUri(), "test", vocabularyIri, null, SKOS.CONCEPT, "test",
+                                         "test", 1.0));
+        when(searchServiceMock.fullTextSearchOfTerms(any(), any(), any())).thenReturn(
+                new PageImpl<>(expected, pageSpec, 117));
+        final String searchString = "test";
+
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/fts/terms")
+                                                            .param("searchString", searchString)
+                                                            .param("vocabulary", vocabularyIri.toString())
+                                                            .param(Constants.QueryParams.PAGE_SIZE, "5")
+                                                            .param(Constants.QueryParams.PAGE, "2"))
+                                           .andExpect(status().isOk()).andReturn();
+        assertEquals("117", mvcResult.getResponse().getHeader(Constants.X_TOTAL_COUNT_HEADER));
+        final List<FullTextSearchResult> result = readValue(mvcResult,
+                                                            new TypeReference<List<FullTextSearchResult>>() {
+                                                            });
+        assertEquals(1, result.size());
+        verify(searchServiceMock).fullTextSearchOfTerms(searchString, Collections.singleton(vocabularyIri), pageSpec);
     }
 
     @Test
@@ -150,4 +178,22 @@ class SearchControllerTest extends BaseControllerTestRunner {
                .andExpect(status().isBadRequest());
         verify(searchServiceMock, never()).facetedTermSearch(anyCollection(), any());
     }
+
+    @Test
+    void facetCountsReturnsFacetValueCountsFromService() throws Exception {
+        final List<SearchParam> searchParams = List.of(
+                new SearchParam(URI.create(RDF.TYPE), Set.of(Generator.generateUri().toString()), MatchType.IRI));
+        final String vocabulary = Generator.generateUri().toString();
+        final URI inVocabulary = URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku);
+        when(searchServiceMock.countFacets(anyCollection())).thenReturn(Map.of(inVocabulary, Map.of(vocabulary, 5)));
+
+        final MvcResult mvcResult = mockMvc.perform(
+                post(PATH + "/faceted/terms/counts").content(toJson(searchParams)).contentType(
+                        MediaType.APPLICATION_JSON)).andExpect(status().isOk()).andReturn();
+        final Map<URI, Map<String, Integer>> result = readValue(mvcResult,
+                                                                new TypeReference<Map<URI, Map<String, Integer>>>() {
+                                                                });
+        assertEquals(Map.of(inVocabulary, Map.of(vocabulary, 5)), result);
+        verify(searchServiceMock).countFacets(searchParams);
+    }
 }
@@ -35,7 +35,9 @@ import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.changetracking.UpdateChangeRecord;
 import cz.cvut.kbss.termit.model.comment.Comment;
 import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.persistence.dao.TermFetchProfile;
 import cz.cvut.kbss.termit.rest.handler.ErrorInfo;
+import cz.cvut.kbss.termit.rest.util.JsonArrayStreamWriter;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.TermService;
 import cz.cvut.kbss.termit.service.export.ExportConfig;
@@ -45,6 +47,7 @@ import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Constants.QueryParams;
 import cz.cvut.kbss.termit.util.TypeAwareByteArrayResource;
+import cz.cvut.kbss.termit.util.TypeAwareStreamingResource;
 import cz.cvut.kbss.termit.util.Utils;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
@@ -56,6 +59,7 @@ import org.mockito.Answers;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -76,6 +80,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -90,21 +95,25 @@ import static cz.cvut.kbss.termit.util.Constants.QueryParams.PAGE_SIZE;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyCollection;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -127,6 +136,10 @@ class TermControllerTest extends BaseControllerTestRunner {
     @Mock
     private TermService termServiceMock;
 
+    @Spy
+    private JsonArrayStreamWriter streamWriter = new JsonArrayStreamWriter(Environment.getObjectMapper(),
+                                                                           Environment.getJsonLdObjectMapper());
+
     @InjectMocks
     private TermController sut;
 
@@ -225,7 +238,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         final URI termUri = initTermUriResolution();
         final Term term = Generator.generateTerm();
         term.setUri(termUri);
-        when(termServiceMock.findRequired(term.getUri())).thenReturn(term);
+        when(termServiceMock.findRequired(term.getUri(), TermFetchProfile.HIERARCHY)).thenReturn(term);
         final List<Term> children = Generator.generateTermsWithIds(3);
         when(termServiceMock.findSubTerms(term)).thenReturn(children);
 
@@ -243,7 +256,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         final URI termUri = initTermUriResolution();
         final Term term = Generator.generateTerm();
         term.setUri(termUri);
-        when(termServiceMock.findRequired(termUri)).thenReturn(term);
+        when(termServiceMock.findRequired(termUri, TermFetchProfile.HIERARCHY)).thenReturn(term);
         final MvcResult mvcResult = mockMvc
                 .perform(get(PATH + VOCABULARY_NAME + "/terms/" + TERM_NAME + "/subterms"))
                 .andExpect(status().isOk()).andReturn();
@@ -306,6 +319,31 @@ class TermControllerTest extends BaseControllerTestRunner {
         verify(termServiceMock).findAllIncludingImported(vocabulary);
     }
 
+    @Test
+    void getAllStreamsTermsFromVocabularyWhenStreamParameterIsSpecified() throws Exception {
+        when(idResolverMock.resolveIdentifier(Environment.BASE_URI, VOCABULARY_NAME))
+                .thenReturn(URI.create(VOCABULARY_URI));
+        final List<TermDto> terms = termsToDtos(Generator.generateTermsWithIds(5));
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        doAnswer(inv -> {
+            final Consumer<TermDto> consumer = inv.getArgument(2);
+            terms.forEach(consumer);
+            return null;
+        }).when(termServiceMock).forEachTerm(eq(vocabulary), eq(false), any());
+
+        final MvcResult asyncResult = mockMvc.perform(
+                                                     get(PATH + VOCABULARY_NAME + "/terms")
+                                                             .param(QueryParams.NAMESPACE, Environment.BASE_URI)
+                                                             .param("stream", Boolean.TRUE.toString()))
+                                             .andExpect(request().asyncStarted()).andReturn();
+        final MvcResult mvcResult = mockMvc.perform(asyncDispatch(asyncResult)).andExpect(status().isOk())
+                                           .andReturn();
+        final List<TermDto> result = readValue(mvcResult, new TypeReference<List<TermDto>>() {
+        });
+        assertEquals(terms, result);
+        verify(termServiceMock, never()).findAll(vocabulary);
+    }
+
     @Test
     void getAllUsesSearchStringToFindMatchingTerms() throws Exception {
         when(idResolverMock.resolveIdentifier(Environment.BASE_URI, VOCABULARY_NAME))
@@ -333,7 +371,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         when(idResolverMock.buildNamespace(VOCABULARY_URI, config.getNamespace().getTerm().getSeparator()))
                 .thenReturn(VOCABULARY_URI);
         when(idResolverMock.resolveIdentifier(VOCABULARY_URI, parent.getLabel().get())).thenReturn(parent.getUri());
-        when(termServiceMock.findRequired(parent.getUri())).thenReturn(parent);
+        when(termServiceMock.findRequired(parent.getUri(), TermFetchProfile.HIERARCHY)).thenReturn(parent);
         final List<Term> children = Generator.generateTermsWithIds(5);
         when(termServiceMock.findSubTerms(parent)).thenReturn(children);
 
@@ -345,7 +383,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         });
         assertEquals(children.size(), result.size());
         assertTrue(children.containsAll(result));
-        verify(termServiceMock).findRequired(parent.getUri());
+        verify(termServiceMock).findRequired(parent.getUri(), TermFetchProfile.HIERARCHY);
         verify(termServiceMock).findSubTerms(parent);
     }
 
@@ -490,7 +528,7 @@ class TermControllerTest extends BaseControllerTestRunner {
                 .thenReturn(VOCABULARY_URI + s);
         when(idResolverMock.resolveIdentifier(VOCABULARY_URI + s, TERM_NAME))
                 .thenReturn(parent.getUri());
-        when(termServiceMock.findRequired(parent.getUri())).thenReturn(parent);
+        when(termServiceMock.findRequired(parent.getUri(), TermFetchProfile.MINIMAL)).thenReturn(parent);
         final Term newTerm = Generator.generateTermWithId();
         mockMvc.perform(
                        post(PATH + VOCABULARY_NAME + "/terms/" + TERM_NAME + "/subterms").content(toJson(newTerm))
@@ -510,7 +548,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         when(idResolverMock.buildNamespace(VOCABULARY_URI, s)).thenReturn(VOCABULARY_URI + s);
         when(idResolverMock.resolveIdentifier(VOCABULARY_URI + s, TERM_NAME))
                 .thenReturn(parent.getUri());
-        when(termServiceMock.findRequired(parent.getUri())).thenReturn(parent);
+        when(termServiceMock.findRequired(parent.getUri(), TermFetchProfile.MINIMAL)).thenReturn(parent);
         final Term newTerm = Generator.generateTerm();
         final String name = "child-term";
         newTerm.setUri(URI.create(NAMESPACE + name));
@@ -575,6 +613,29 @@ class TermControllerTest extends BaseControllerTestRunner {
                    containsString("filename=\"" + VOCABULARY_NAME + ExportFormat.TURTLE.getFileExtension() + "\""));
     }
 
+    @Test
+    void getAllStreamsExportedTermsIntoResponseWhenExportIsStreaming() throws Exception {
+        initNamespaceAndIdentifierResolution();
+        final cz.cvut.kbss.termit.model.Vocabulary vocabulary = Generator.generateVocabulary();
+        vocabulary.setUri(URI.create(VOCABULARY_URI));
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        final byte[] content = prepareTurtle().getByteArray();
+        final TypeAwareStreamingResource export = new TypeAwareStreamingResource(out -> out.write(content),
+                                                                                 ExportFormat.TURTLE.getMediaType(),
+                                                                                 ExportFormat.TURTLE.getFileExtension());
+        when(termServiceMock.exportGlossary(eq(vocabulary), any(ExportConfig.class))).thenReturn(Optional.of(export));
+
+        final MvcResult asyncResult = mockMvc.perform(get(PATH + VOCABULARY_NAME + "/terms")
+                                                              .accept(ExportFormat.TURTLE.getMediaType())
+                                                              .queryParam("exportType", ExportType.SKOS.toString()))
+                                             .andExpect(request().asyncStarted()).andReturn();
+        final MvcResult mvcResult = mockMvc.perform(asyncDispatch(asyncResult)).andExpect(status().isOk())
+                                           .andReturn();
+        assertArrayEquals(content, mvcResult.getResponse().getContentAsByteArray());
+        assertThat(mvcResult.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION),
+                   containsString("filename=\"" + VOCABULARY_NAME + ExportFormat.TURTLE.getFileExtension() + "\""));
+    }
+
     @Test
     void getByIdAtStandaloneEndpointResolvesTermIdentifierAndReturnsTerm() throws Exception {
         final URI termUri = URI.create(NAMESPACE + TERM_NAME);
@@ -601,7 +662,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         when(idResolverMock.resolveIdentifier(Environment.BASE_URI, VOCABULARY_NAME))
                 .thenReturn(URI.create(VOCABULARY_URI));
         when(idResolverMock.buildNamespace(VOCABULARY_URI, "/pojem")).thenReturn(NAMESPACE);
-        when(termServiceMock.findRequired(termUri)).thenReturn(term);
+        when(termServiceMock.findRequired(termUri, TermFetchProfile.HIERARCHY)).thenReturn(term);
         mockMvc.perform(delete("/vocabularies/" + VOCABULARY_NAME + "/terms/" + TERM_NAME)
                                 .param(QueryParams.NAMESPACE, Environment.BASE_URI))
                .andExpect(status().isNoContent());
@@ -619,7 +680,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         when(idResolverMock.resolveIdentifier(Environment.BASE_URI, VOCABULARY_NAME))
                 .thenReturn(URI.create(VOCABULARY_URI));
         when(idResolverMock.buildNamespace(VOCABULARY_URI, "/pojem")).thenReturn(NAMESPACE);
-        when(termServiceMock.findRequired(termUri)).thenThrow(NotFoundException.class);
+        when(termServiceMock.findRequired(termUri, TermFetchProfile.HIERARCHY)).thenThrow(NotFoundException.class);
         mockMvc.perform(delete("/vocabularies/" + VOCABULARY_NAME + "/terms/" + TERM_NAME)
                                 .param(QueryParams.NAMESPACE, Environment.BASE_URI))
                .andExpect(status().isNotFound());
@@ -645,7 +706,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         final Term term = Generator.generateTerm();
         term.setUri(termUri);
         when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
-        when(termServiceMock.findRequired(term.getUri())).thenReturn(term);
+        when(termServiceMock.findRequired(term.getUri(), TermFetchProfile.HIERARCHY)).thenReturn(term);
         final List<Term> children = Generator.generateTermsWithIds(3);
         when(termServiceMock.findSubTerms(term)).thenReturn(children);
 
@@ -666,7 +727,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         final Term term = Generator.generateTerm();
         term.setUri(termUri);
         when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
-        when(termServiceMock.findRequired(term.getUri())).thenReturn(term);
+        when(termServiceMock.findRequired(term.getUri(), TermFetchProfile.MINIMAL)).thenReturn(term);
 
         final Term newTerm = Generator.generateTermWithId();
         mockMvc.perform(post("/terms/" + TERM_NAME + "/subterms").param(QueryParams.NAMESPACE, NAMESPACE)
@@ -682,7 +743,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         final Term term = Generator.generateTerm();
         term.setUri(termUri);
         when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
-        when(termServiceMock.findRequired(term.getUri())).thenReturn(term);
+        when(termServiceMock.findRequired(term.getUri(), TermFetchProfile.MINIMAL)).thenReturn(term);
 
         final Term newTerm = Generator.generateTerm();
         final String name = "child-term";
@@ -732,7 +793,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         when(idResolverMock.buildNamespace(VOCABULARY_URI, s))
                 .thenReturn(NAMESPACE);
         when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
-        when(termServiceMock.findRequired(termUri)).thenReturn(toRemove);
+        when(termServiceMock.findRequired(termUri, TermFetchProfile.HIERARCHY)).thenReturn(toRemove);
 
         mockMvc.perform(
                        delete(PATH + VOCABULARY_NAME + "/terms/" + TERM_NAME))
@@ -749,7 +810,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         when(idResolverMock.buildNamespace(VOCABULARY_URI, s))
                 .thenReturn(NAMESPACE);
         when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
-        when(termServiceMock.findRequired(termUri)).thenThrow(NotFoundException.class);
+        when(termServiceMock.findRequired(termUri, TermFetchProfile.HIERARCHY)).thenThrow(NotFoundException.class);
 
         mockMvc.perform(
                        delete(PATH + VOCABULARY_NAME + "/terms/" + TERM_NAME))
@@ -768,7 +829,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         when(idResolverMock.buildNamespace(VOCABULARY_URI, separator))
                 .thenReturn(NAMESPACE);
         when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
-        when(termServiceMock.findRequired(termUri)).thenReturn(toAnalyze);
+        when(termServiceMock.findRequired(termUri, TermFetchProfile.MINIMAL)).thenReturn(toAnalyze);
 
         mockMvc.perform(
                        put(PATH + VOCABULARY_NAME + "/terms/" + TERM_NAME + "/text-analysis"))
@@ -782,7 +843,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         final Term term = Generator.generateTerm();
         term.setUri(termUri);
         when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
-        when(termServiceMock.findRequired(termUri)).thenReturn(term);
+        when(termServiceMock.findRequired(termUri, TermFetchProfile.MINIMAL)).thenReturn(term);
         final TermDefinitionSource source = new TermDefinitionSource();
         final File file = Generator.generateFileWithId("test.html");
         source.setTarget(new FileOccurrenceTarget(file));
@@ -801,7 +862,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         final URI termUri = initTermUriResolution();
         final Term term = Generator.generateTerm();
         term.setUri(termUri);
-        when(termServiceMock.findRequired(term.getUri())).thenReturn(term);
+        when(termServiceMock.findRequired(term.getUri(), TermFetchProfile.MINIMAL)).thenReturn(term);
         final List<AbstractChangeRecord> records = generateChangeRecords(term);
         when(termServiceMock.getChanges(term)).thenReturn(records);
 
@@ -831,7 +892,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         final Term term = Generator.generateTerm();
         term.setUri(termUri);
         when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
-        when(termServiceMock.findRequired(termUri)).thenReturn(term);
+        when(termServiceMock.findRequired(termUri, TermFetchProfile.MINIMAL)).thenReturn(term);
         final List<AbstractChangeRecord> records = generateChangeRecords(term);
         when(termServiceMock.getChanges(term)).thenReturn(records);
 
@@ -865,7 +926,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         final URI termUri = initTermUriResolution();
         final Term term = Generator.generateTerm();
         term.setUri(termUri);
-        when(termServiceMock.findRequired(term.getUri())).thenReturn(term);
+        when(termServiceMock.findRequired(term.getUri(), TermFetchProfile.MINIMAL)).thenReturn(term);
         final List<Comment> comments = generateComments(term);
         when(termServiceMock.getComments(eq(term), any(Instant.class), any(Instant.class))).thenReturn(comments);
 
@@ -884,7 +945,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         final URI termUri = initTermUriResolution();
         final Term term = Generator.generateTerm();
         term.setUri(termUri);
-        when(termServiceMock.findRequired(term.getUri())).thenReturn(term);
+        when(termServiceMock.findRequired(term.getUri(), TermFetchProfile.MINIMAL)).thenReturn(term);
         final List<Comment> comments = generateComments(term);
         when(termServiceMock.getComments(eq(term), any(Instant.class), any(Instant.class))).thenReturn(comments);
         final Instant from = Utils.timestamp().minus(Generator.randomInt(50, 100), ChronoUnit.DAYS);
@@ -916,7 +977,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         final Term term = Generator.generateTerm();
         term.setUri(termUri);
         when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
-        when(termServiceMock.findRequired(term.getUri())).thenReturn(term);
+        when(termServiceMock.findRequired(term.getUri(), TermFetchProfile.MINIMAL)).thenReturn(term);
         final List<Comment> comments = generateComments(term);
         when(termServiceMock.getComments(eq(term), any(Instant.class), any(Instant.class))).thenReturn(comments);
 
@@ -937,7 +998,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         final Term term = Generator.generateTerm();
         term.setUri(termUri);
         when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
-        when(termServiceMock.findRequired(term.getUri())).thenReturn(term);
+        when(termServiceMock.findRequired(term.getUri(), TermFetchProfile.MINIMAL)).thenReturn(term);
         final List<Comment> comments = generateComments(term);
         when(termServiceMock.getComments(eq(term), any(Instant.class), any(Instant.class))).thenReturn(comments);
         final Instant from = Utils.timestamp().minus(Generator.randomInt(50, 100), ChronoUnit.DAYS);
@@ -960,7 +1021,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         final URI termUri = initTermUriResolution();
         final Term term = Generator.generateTerm();
         term.setUri(termUri);
-        when(termServiceMock.findRequired(term.getUri())).thenReturn(term);
+        when(termServiceMock.findRequired(term.getUri(), TermFetchProfile.MINIMAL)).thenReturn(term);
         final Comment comment = generateComment(null, null);
         comment.setUri(Generator.generateUri());
 
@@ -976,7 +1037,7 @@ class TermControllerTest extends BaseControllerTestRunner {
         final URI termUri = initTermUriResolutionForStandalone();
         final Term term = Generator.generateTerm();
         term.setUri(termUri);
-        when(termServiceMock.findRequired(term.getUri())).thenReturn(term);
+        when(termServiceMock.findRequired(term.getUri(), TermFetchProfile.MINIMAL)).thenReturn(term);
         final Comment comment = generateComment(null, null);
         final String name = "comment-12345";
         final String namespace = Vocabulary.ONTOLOGY_IRI_GLOSAR + "/comment/";
@@ -993,7 +1054,7 @@ class TermControllerTest extends BaseControllerTestRunner {
     @Test
     void addCommentStandaloneAddsSpecifiedCommentToSpecifiedTerm() throws Exception {
         final Term term = generateTermForStandalone();
-        when(termServiceMock.findRequired(term.getUri())).thenReturn(term);
+        when(termServiceMock.findRequired(term.getUri(), TermFetchProfile.MINIMAL)).thenReturn(term);
         final Comment comment = generateComment(null, null);
         comment.setUri(Generator.generateUri());
 
@@ -1016,7 +1077,7 @@ class TermControllerTest extends BaseControllerTestRunner {
     @Test
     void addCommentStandaloneReturnsLocationHeaderWithGeneratedIdentifier() throws Exception {
         final Term term = generateTermForStandalone();
-        when(termServiceMock.findRequired(term.getUri())).thenReturn(term);
+        when(termServiceMock.findRequired(term.getUri(), TermFetchProfile.MINIMAL)).thenReturn(term);
         final Comment comment = generateComment(null, null);
         final String name = "comment-12345";
         final String namespace = Vocabulary.ONTOLOGY_IRI_GLOSAR + "/comment/";
@@ -1096,32 +1157,32 @@ class TermControllerTest extends BaseControllerTestRunner {
     @Test
     void removeTermDefinitionSourceInvokesServiceWithTermCorrespondingToSpecifiedIdentifier() throws Exception {
         final Term term = generateTermForStandalone();
-        when(termServiceMock.findRequired(TERM_URI)).thenReturn(term);
+        when(termServiceMock.findRequired(TERM_URI, TermFetchProfile.MINIMAL)).thenReturn(term);
 
         mockMvc.perform(
                        delete("/terms/" + TERM_NAME + "/definition-source").queryParam(QueryParams.NAMESPACE, NAMESPACE))
                .andExpect(status().isNoContent());
-        verify(termServiceMock).findRequired(TERM_URI);
+        verify(termServiceMock).findRequired(TERM_URI, TermFetchProfile.MINIMAL);
         verify(termServiceMock).removeTermDefinitionSource(term);
     }
 
     @Test
     void updateStateSetsTermStateToSpecifiedValue() throws Exception {
         final Term term = generateTermForStandalone();
-        when(termServiceMock.findRequired(term.getUri())).thenReturn(term);
+        when(termServiceMock.findRequired(term.getUri(), TermFetchProfile.HIERARCHY)).thenReturn(term);
 
         mockMvc.perform(put("/terms/" + TERM_NAME + "/state").queryParam(QueryParams.NAMESPACE, NAMESPACE)
                                                              .content(Generator.TERM_STATES[1].toString())
                                                              .contentType(MediaType.TEXT_PLAIN))
                .andExpect(status().isNoContent());
-        verify(termServiceMock).findRequired(TERM_URI);
+        verify(termServiceMock).findRequired(TERM_URI, TermFetchProfile.HIERARCHY);
         verify(termServiceMock).setState(term, TERM_STATES[1]);
     }
 
     @Test
     void getSnapshotsStandaloneReturnsListOfTermSnapshotsWhenFilterInstantIsNotProvided() throws Exception {
         final Term term = generateTermForStandalone();
-        when(termServiceMock.findRequired(TERM_URI)).thenReturn(term);
+        when(termServiceMock.findRequired(TERM_URI, TermFetchProfile.MINIMAL)).thenReturn(term);
         final List<Snapshot> snapshots = IntStream.range(0, 5).mapToObj(i -> {
             final Snapshot snapshot = new Snapshot();
             snapshot.setUri(Generator.generateUri());
@@ -1147,7 +1208,7 @@ class TermControllerTest extends BaseControllerTestRunner {
     @Test
     void getSnapshotsReturnsVocabularySnapshotValidAtSpecifiedInstant() throws Exception {
         final Term term = generateTermForStandalone();
-        when(termServiceMock.findRequired(TERM_URI)).thenReturn(term);
+        when(termServiceMock.findRequired(TERM_URI, TermFetchProfile.MINIMAL)).thenReturn(term);
         final Term snapshot = new Term();
         final Instant instant = Instant.now().truncatedTo(ChronoUnit.SECONDS);
         snapshot.setUri(URI.create(term.getUri().toString() + "/version/" + instant));
@@ -1169,7 +1230,7 @@ class TermControllerTest extends BaseControllerTestRunner {
     @Test
     void getSnapshotsThrowsBadRequestWhenAtIsNotValidInstantString() throws Exception {
         final Term term = generateTermForStandalone();
-        when(termServiceMock.findRequired(TERM_URI)).thenReturn(term);
+        when(termServiceMock.findRequired(TERM_URI, TermFetchProfile.MINIMAL)).thenReturn(term);
         final Instant instant = Instant.now().truncatedTo(ChronoUnit.SECONDS);
         mockMvc.perform(get("/terms/" + TERM_NAME + "/versions").param(QueryParams.NAMESPACE, NAMESPACE)
                                                                 .param("at", Date.from(instant).toString()))
@@ -419,7 +419,14 @@ class VocabularyControllerTest extends BaseControllerTestRunner {
     @Test
     void runTextAnalysisOnAllVocabulariesInvokesTextAnalysisOnAllVocabulariesFromService() throws Exception {
         mockMvc.perform(get(PATH + "/text-analysis")).andExpect(status().isAccepted());
-        verify(serviceMock).runTextAnalysisOnAllVocabularies();
+        verify(serviceMock).runTextAnalysisOnAllVocabularies(false);
+    }
+
+    @Test
+    void runTextAnalysisOnAllVocabulariesPassesForceFlagToService() throws Exception {
+        mockMvc.perform(get(PATH + "/text-analysis").param("force", Boolean.TRUE.toString()))
+               .andExpect(status().isAccepted());
+        verify(serviceMock).runTextAnalysisOnAllVocabularies(true);
     }
 
     @Test
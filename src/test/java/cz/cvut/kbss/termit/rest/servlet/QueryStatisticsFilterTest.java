@@ -0,0 +1,102 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.rest.servlet;
+
+import cz.cvut.kbss.termit.persistence.monitoring.QueryStatistics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QueryStatisticsFilterTest {
+
+    @Mock
+    private HttpServletRequest requestMock;
+
+    @Mock
+    private HttpServletResponse responseMock;
+
+    @Mock
+    private FilterChain chainMock;
+
+    @Mock
+    private QueryStatistics queryStatistics;
+
+    @Test
+    void countsQueriesIssuedWhileProcessingChain() throws Exception {
+        when(queryStatistics.finishRequest()).thenReturn(new QueryStatistics.RequestQueries());
+        final QueryStatisticsFilter sut = new QueryStatisticsFilter(queryStatistics);
+
+        sut.doFilter(requestMock, responseMock, chainMock);
+        final InOrder inOrder = inOrder(queryStatistics, chainMock);
+        inOrder.verify(queryStatistics).startRequest();
+        inOrder.verify(chainMock).doFilter(requestMock, responseMock);
+        inOrder.verify(queryStatistics).finishRequest();
+    }
+
+    @Test
+    void finishesQueryCountingWhenChainThrowsException() throws Exception {
+        when(queryStatistics.finishRequest()).thenReturn(new QueryStatistics.RequestQueries());
+        doThrow(new ServletException()).when(chainMock).doFilter(requestMock, responseMock);
+        final QueryStatisticsFilter sut = new QueryStatisticsFilter(queryStatistics);
+
+        assertThrows(ServletException.class, () -> sut.doFilter(requestMock, responseMock, chainMock));
+        verify(queryStatistics).finishRequest();
+    }
+
+    @Test
+    void suspendsQueryCountingWithoutRecordingRequestWhenAsyncProcessingStarted() throws Exception {
+        final QueryStatistics.RequestQueries queries = new QueryStatistics.RequestQueries();
+        when(queryStatistics.startRequest()).thenReturn(queries);
+        when(requestMock.isAsyncStarted()).thenReturn(true);
+        final QueryStatisticsFilter sut = new QueryStatisticsFilter(queryStatistics);
+
+        sut.doFilter(requestMock, responseMock, chainMock);
+        verify(requestMock).setAttribute(QueryStatisticsFilter.REQUEST_QUERIES_ATTRIBUTE, queries);
+        verify(queryStatistics).suspendRequest();
+        verify(queryStatistics, never()).finishRequest();
+    }
+
+    @Test
+    void resumesQueryCountingOfRequestOnAsyncDispatch() throws Exception {
+        final QueryStatistics.RequestQueries queries = new QueryStatistics.RequestQueries();
+        when(requestMock.getAttribute(QueryStatisticsFilter.REQUEST_QUERIES_ATTRIBUTE)).thenReturn(queries);
+        when(queryStatistics.finishRequest()).thenReturn(queries);
+        final QueryStatisticsFilter sut = new QueryStatisticsFilter(queryStatistics);
+
+        sut.doFilter(requestMock, responseMock, chainMock);
+        final InOrder inOrder = inOrder(queryStatistics, chainMock);
+        inOrder.verify(queryStatistics).resumeRequest(queries);
+        inOrder.verify(chainMock).doFilter(requestMock, responseMock);
+        inOrder.verify(queryStatistics).finishRequest();
+        verify(queryStatistics, never()).startRequest();
+    }
+}
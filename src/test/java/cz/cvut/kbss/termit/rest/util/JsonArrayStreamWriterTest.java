@@ -0,0 +1,52 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.rest.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.cvut.kbss.jsonld.JsonLd;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonArrayStreamWriterTest {
+
+    private final JsonArrayStreamWriter sut = new JsonArrayStreamWriter(new ObjectMapper(), new ObjectMapper());
+
+    @Test
+    void writeWritesElementsSuppliedByProducerAsJsonArray() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sut.<String>write(JsonLd.MEDIA_TYPE, consumer -> List.of("a", "b").forEach(consumer)).writeTo(out);
+        assertEquals("[\"a\",\"b\"]", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writeRethrowsProducerExceptionAndLeavesArrayUnterminated() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThrows(PersistenceException.class, () -> sut.<String>write(JsonLd.MEDIA_TYPE, consumer -> {
+            consumer.accept("a");
+            throw new PersistenceException(new IllegalStateException());
+        }).writeTo(out));
+        assertEquals("[\"a\"", out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -66,6 +66,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -111,7 +112,7 @@ class JwtAuthorizationFilterTest {
         this.objectMapper = Environment.getObjectMapper();
         this.signingKey = Keys.hmacShaKeyFor(config.getJwt().getSecretKey().getBytes(StandardCharsets.UTF_8));
         this.jwtUtilsSpy = spy(new JwtUtils(objectMapper, config));
-        this.termitJwtDecoder = new TermitJwtDecoder(jwtUtilsSpy, detailsServiceMock);
+        this.termitJwtDecoder = new TermitJwtDecoder(jwtUtilsSpy, detailsServiceMock, new UserDetailsCache(config));
         this.sut = new JwtAuthorizationFilter(authManagerMock, jwtUtilsSpy, objectMapper, termitJwtDecoder);
     }
 
@@ -181,6 +182,31 @@ class JwtAuthorizationFilterTest {
         verify(jwtUtilsSpy).refreshToken(any());
     }
 
+    @Test
+    void doFilterInternalDoesNotRefreshTokenWhenItsRemainingLifetimeIsAboveThreshold() throws Exception {
+        when(detailsServiceMock.loadUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
+        final String token = Jwts.builder().setSubject(user.getUsername())
+                                 .setId(user.getUri().toString())
+                                 .setIssuedAt(Date.from(tokenIssued))
+                                 .setExpiration(Date.from(tokenIssued.plusMillis(SecurityConstants.SESSION_TIMEOUT)))
+                                 .signWith(signingKey, JwtUtils.SIGNATURE_ALGORITHM).compact();
+        mockRequest.addHeader(HttpHeaders.AUTHORIZATION, SecurityConstants.JWT_TOKEN_PREFIX + token);
+        sut.doFilterInternal(mockRequest, mockResponse, chainMock);
+        assertFalse(mockResponse.containsHeader(HttpHeaders.AUTHORIZATION));
+        verify(jwtUtilsSpy, never()).refreshToken(any());
+        verify(chainMock).doFilter(mockRequest, mockResponse);
+    }
+
+    @Test
+    void doFilterInternalReusesCachedUserDetailsForSubsequentRequests() throws Exception {
+        when(detailsServiceMock.loadUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
+        generateJwtIntoRequest();
+        sut.doFilterInternal(mockRequest, mockResponse, chainMock);
+        sut.doFilterInternal(mockRequest, new MockHttpServletResponse(), chainMock);
+        verify(detailsServiceMock).loadUserByUsername(user.getUsername());
+        assertEquals(user, Environment.getCurrentUser());
+    }
+
     @Test
     void doFilterInternalReturnsUnauthorizedWhenTokenIsExpired() throws Exception {
         final String token = Jwts.builder().setSubject(user.getUsername())
@@ -0,0 +1,75 @@
+package cz.cvut.kbss.termit.security;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.UserAccountUpdatedEvent;
+import cz.cvut.kbss.termit.model.UserAccount;
+import cz.cvut.kbss.termit.security.model.TermItUserDetails;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserDetailsCacheTest {
+
+    private final Configuration config = new Configuration();
+
+    private UserAccount user;
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private final Function<String, TermItUserDetails> loader = username -> {
+        loadCount.incrementAndGet();
+        return new TermItUserDetails(user);
+    };
+
+    @BeforeEach
+    void setUp() {
+        this.user = Generator.generateUserAccount();
+        config.getJwt().setPrincipalCacheTtl(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void getReturnsCachedDetailsCopyWithinTtl() {
+        final UserDetailsCache sut = new UserDetailsCache(config);
+        final TermItUserDetails first = sut.get(user.getUsername(), loader);
+        final TermItUserDetails second = sut.get(user.getUsername(), loader);
+        assertEquals(1, loadCount.get());
+        assertEquals(first.getUser(), second.getUser());
+        assertNotSame(first.getUser(), second.getUser());
+        assertEquals(1, sut.getHitCount());
+        assertEquals(1, sut.getMissCount());
+        assertEquals(0.5, sut.getHitRate());
+    }
+
+    @Test
+    void getReloadsDetailsWhenCachedEntryExpired() {
+        final Instant now = Instant.now();
+        final Clock clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(now, now.plusSeconds(10), now.plusSeconds(60));
+        final UserDetailsCache sut = new UserDetailsCache(config, clock);
+        sut.get(user.getUsername(), loader);
+        sut.get(user.getUsername(), loader);
+        assertEquals(1, loadCount.get());
+        sut.get(user.getUsername(), loader);
+        assertEquals(2, loadCount.get());
+    }
+
+    @Test
+    void onUserAccountUpdatedEvictsCachedDetails() {
+        final UserDetailsCache sut = new UserDetailsCache(config);
+        sut.get(user.getUsername(), loader);
+        sut.onUserAccountUpdated(new UserAccountUpdatedEvent(user));
+        sut.get(user.getUsername(), loader);
+        assertEquals(2, loadCount.get());
+    }
+}
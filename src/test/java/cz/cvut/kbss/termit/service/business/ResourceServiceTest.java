@@ -31,6 +31,7 @@ import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.resource.Resource;
 import cz.cvut.kbss.termit.service.document.DocumentManager;
+import cz.cvut.kbss.termit.service.document.FileMetadata;
 import cz.cvut.kbss.termit.service.document.ResourceRetrievalSpecification;
 import cz.cvut.kbss.termit.service.document.TextAnalysisService;
 import cz.cvut.kbss.termit.service.repository.ChangeRecordService;
@@ -63,14 +64,19 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyBoolean;
 import static org.mockito.Mockito.anySet;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -197,32 +203,32 @@ class ResourceServiceTest {
         file.setDocument(Generator.generateDocumentWithId());
         final Vocabulary vocabulary = Generator.generateVocabularyWithId();
         file.getDocument().setVocabulary(vocabulary.getUri());
-        sut.runTextAnalysis(file, Collections.emptySet());
-        verify(textAnalysisService).analyzeFile(file, Collections.singleton(vocabulary.getUri()));
+        sut.runTextAnalysis(file, Collections.emptySet(), false);
+        verify(textAnalysisService).analyzeFile(file, Collections.singleton(vocabulary.getUri()), false);
     }
 
     @Test
     void runTextAnalysisThrowsUnsupportedAssetOperationWhenResourceIsNotFile() {
         final Resource resource = Generator.generateResourceWithId();
         assertThrows(UnsupportedAssetOperationException.class,
-                     () -> sut.runTextAnalysis(resource, Collections.emptySet()));
-        verify(textAnalysisService, never()).analyzeFile(any(), anySet());
+                     () -> sut.runTextAnalysis(resource, Collections.emptySet(), false));
+        verify(textAnalysisService, never()).analyzeFile(any(), anySet(), anyBoolean());
     }
 
     @Test
     void runTextAnalysisThrowsUnsupportedAssetOperationWhenFileHasNoVocabularyAndNoVocabulariesAreSpecifiedEither() {
         final File file = Generator.generateFileWithId("test.html");
         assertThrows(UnsupportedAssetOperationException.class,
-                     () -> sut.runTextAnalysis(file, Collections.emptySet()));
-        verify(textAnalysisService, never()).analyzeFile(any(), anySet());
+                     () -> sut.runTextAnalysis(file, Collections.emptySet(), false));
+        verify(textAnalysisService, never()).analyzeFile(any(), anySet(), anyBoolean());
     }
 
     @Test
     void runTextAnalysisInvokesAnalysisWithCustomVocabulariesWhenSpecified() {
         final File file = Generator.generateFileWithId("test.html");
         final Set<URI> vocabularies = new HashSet<>(Arrays.asList(Generator.generateUri(), Generator.generateUri()));
-        sut.runTextAnalysis(file, vocabularies);
-        verify(textAnalysisService).analyzeFile(file, vocabularies);
+        sut.runTextAnalysis(file, vocabularies, false);
+        verify(textAnalysisService).analyzeFile(file, vocabularies, false);
     }
 
     @Test
@@ -235,10 +241,10 @@ class ResourceServiceTest {
         when(vocabularyService.getReference(vocabulary.getUri())).thenReturn(vocabulary);
         when(vocabularyService.getTransitivelyImportedVocabularies(vocabulary)).thenReturn(imported);
 
-        sut.runTextAnalysis(file, Collections.emptySet());
+        sut.runTextAnalysis(file, Collections.emptySet(), false);
         final Set<URI> expected = new HashSet<>(imported);
         expected.add(vocabulary.getUri());
-        verify(textAnalysisService).analyzeFile(file, expected);
+        verify(textAnalysisService).analyzeFile(file, expected, false);
         verify(vocabularyService).getTransitivelyImportedVocabularies(vocabulary);
     }
 
@@ -254,12 +260,12 @@ class ResourceServiceTest {
         when(vocabularyService.getReference(vTwo.getUri())).thenReturn(vTwo);
         when(vocabularyService.getTransitivelyImportedVocabularies(vTwo)).thenReturn(vTwoImports);
 
-        sut.runTextAnalysis(file, new HashSet<>(Arrays.asList(vOne.getUri(), vTwo.getUri())));
+        sut.runTextAnalysis(file, new HashSet<>(Arrays.asList(vOne.getUri(), vTwo.getUri())), false);
         final Set<URI> expected = new HashSet<>(vOneImports);
         expected.addAll(vTwoImports);
         expected.add(vOne.getUri());
         expected.add(vTwo.getUri());
-        verify(textAnalysisService).analyzeFile(file, expected);
+        verify(textAnalysisService).analyzeFile(file, expected, false);
         verify(vocabularyService).getTransitivelyImportedVocabularies(vOne);
         verify(vocabularyService).getTransitivelyImportedVocabularies(vTwo);
     }
@@ -508,11 +514,36 @@ class ResourceServiceTest {
         try (final InputStream is = Environment.loadFile("data/rdfa-simple.html")) {
             content = new TypeAwareByteArrayResource(is.readAllBytes(), MediaType.TEXT_HTML_VALUE, ".html");
         }
-        when(documentManager.getAsResource(file)).thenReturn(content);
+        final TypeAwareResource source = content;
+        when(documentManager.getRendition(eq(file), anyString(), any())).thenAnswer(
+                inv -> inv.<UnaryOperator<TypeAwareResource>>getArgument(2).apply(source));
 
         final TypeAwareResource result = sut.getContent(file,
                                                         new ResourceRetrievalSpecification(Optional.empty(), true));
         final org.jsoup.nodes.Document doc = Jsoup.parse(result.getInputStream(), StandardCharsets.UTF_8.name(), "");
         assertTrue(doc.select("span[score]").isEmpty());
     }
+
+    @Test
+    void getContentTagReturnsContentHashDistinguishedByRendition() {
+        final File file = Generator.generateFileWithId("test.html");
+        when(documentManager.getMetadata(file)).thenReturn(
+                new FileMetadata(MediaType.TEXT_HTML_VALUE, 100, "abcd", System.currentTimeMillis()));
+
+        final Optional<String> original = sut.getContentTag(file,
+                                                            new ResourceRetrievalSpecification(Optional.empty(), false));
+        final Optional<String> rendition = sut.getContentTag(file,
+                                                             new ResourceRetrievalSpecification(Optional.empty(), true));
+        assertEquals(Optional.of("abcd"), original);
+        assertTrue(rendition.isPresent());
+        assertNotEquals(original, rendition);
+    }
+
+    @Test
+    void getContentTagReturnsEmptyOptionalForOlderVersionOfContent() {
+        final File file = Generator.generateFileWithId("test.html");
+        assertTrue(sut.getContentTag(file, new ResourceRetrievalSpecification(Optional.of(Utils.timestamp()), false))
+                      .isEmpty());
+        verify(documentManager, never()).getMetadata(any());
+    }
 }
@@ -28,26 +28,34 @@ import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.exception.ValidationException;
 import cz.cvut.kbss.termit.persistence.dao.SearchDao;
+import cz.cvut.kbss.termit.service.security.authorization.SearchAuthorizationService;
 import cz.cvut.kbss.termit.util.Constants;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.net.URI;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyCollection;
+import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -58,47 +66,47 @@ class SearchServiceTest {
     @Mock
     private SearchDao searchDao;
 
+    @Mock
+    private SearchAuthorizationService searchAuthorizationService;
+
     @InjectMocks
     private SearchService sut;
 
     @Test
-    void fullTextSearchFiltersResultsFromNonMatchingVocabularies() {
+    void fullTextSearchOfTermsSearchesInReadableVocabularies() {
         final String searchString = "test";
         final URI vocabulary = Generator.generateUri();
         final FullTextSearchResult ftsr = new FullTextSearchResult(
                 Generator.generateUri(),
                 "test",
                 vocabulary,
-                null,
+                Generator.generateUri(),
                 SKOS.CONCEPT,
                 "test",
                 "test",
                 1.0);
-        when(searchDao.fullTextSearchIncludingSnapshots(searchString)).thenReturn(Collections.singletonList(ftsr));
-        final List<FullTextSearchResult> result = sut.fullTextSearchOfTerms(searchString, Collections.singleton(
-                Generator.generateUri()));
-        assertTrue(result.isEmpty());
-        verify(searchDao).fullTextSearchIncludingSnapshots(searchString);
+        final Pageable pageSpec = PageRequest.of(0, 10);
+        when(searchAuthorizationService.canSearchIn(vocabulary)).thenReturn(true);
+        when(searchDao.fullTextSearchOfTerms(searchString, Set.of(vocabulary), pageSpec))
+                .thenReturn(new PageImpl<>(List.of(ftsr), pageSpec, 1));
+        final Page<FullTextSearchResult> result = sut.fullTextSearchOfTerms(searchString, Set.of(vocabulary),
+                                                                            pageSpec);
+        assertEquals(List.of(ftsr), result.getContent());
+        verify(searchDao).fullTextSearchOfTerms(searchString, Set.of(vocabulary), pageSpec);
     }
 
     @Test
-    void fullTextSearchReturnsResultsFromMatchingVocabularies() {
+    void fullTextSearchOfTermsDoesNotSearchInVocabulariesCurrentUserCannotRead() {
         final String searchString = "test";
-        final URI vocabulary = Generator.generateUri();
-        final FullTextSearchResult ftsr = new FullTextSearchResult(
-                Generator.generateUri(),
-                "test",
-                vocabulary,
-                Generator.generateUri(),
-                SKOS.CONCEPT,
-                "test",
-                "test",
-                1.0);
-        when(searchDao.fullTextSearchIncludingSnapshots(searchString)).thenReturn(Collections.singletonList(ftsr));
-        final List<FullTextSearchResult> result = sut.fullTextSearchOfTerms(searchString,
-                                                                            Collections.singleton(vocabulary));
-        assertEquals(Collections.singletonList(ftsr), result);
-        verify(searchDao).fullTextSearchIncludingSnapshots(searchString);
+        final URI readable = Generator.generateUri();
+        final URI unreadable = Generator.generateUri();
+        when(searchAuthorizationService.canSearchIn(readable)).thenReturn(true);
+        when(searchAuthorizationService.canSearchIn(unreadable)).thenReturn(false);
+        when(searchDao.fullTextSearchOfTerms(anyString(), anyCollection(), any(Pageable.class)))
+                .thenReturn(Page.empty());
+
+        sut.fullTextSearchOfTerms(searchString, Set.of(readable, unreadable), Constants.DEFAULT_PAGE_SPEC);
+        verify(searchDao).fullTextSearchOfTerms(searchString, Set.of(readable), Constants.DEFAULT_PAGE_SPEC);
     }
 
     @Test
@@ -125,4 +133,19 @@ class SearchServiceTest {
         assertEquals(List.of(item), result);
         verify(searchDao).facetedTermSearch(Set.of(spOne), pageSpec);
     }
+
+    @Test
+    void countFacetsCountsOnlyTermsFromVocabulariesCurrentUserCanRead() {
+        final URI readable = Generator.generateUri();
+        final URI unreadable = Generator.generateUri();
+        when(searchAuthorizationService.canSearchIn(readable)).thenReturn(true);
+        when(searchAuthorizationService.canSearchIn(unreadable)).thenReturn(false);
+        when(searchDao.countFacets(anyCollection(), any())).thenReturn(Map.of());
+
+        sut.countFacets(List.of());
+        final ArgumentCaptor<Predicate<URI>> captor = ArgumentCaptor.forClass(Predicate.class);
+        verify(searchDao).countFacets(eq(List.of()), captor.capture());
+        assertTrue(captor.getValue().test(readable));
+        assertFalse(captor.getValue().test(unreadable));
+    }
 }
@@ -32,6 +32,7 @@ import cz.cvut.kbss.termit.model.assignment.FileOccurrenceTarget;
 import cz.cvut.kbss.termit.model.assignment.TermDefinitionSource;
 import cz.cvut.kbss.termit.model.comment.Comment;
 import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.dao.TermFetchProfile;
 import cz.cvut.kbss.termit.service.comment.CommentService;
 import cz.cvut.kbss.termit.service.document.TextAnalysisService;
 import cz.cvut.kbss.termit.service.export.ExportConfig;
@@ -46,6 +47,7 @@ import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.TypeAwareByteArrayResource;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
 import cz.cvut.kbss.termit.util.Utils;
+import cz.cvut.kbss.termit.util.throttle.NewTransactionExecutor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InOrder;
@@ -61,6 +63,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -113,6 +116,9 @@ class TermServiceTest {
     @Mock
     private LanguageService languageService;
 
+    @Mock
+    private NewTransactionExecutor transactionExecutor;
+
     @Spy
     private Configuration configuration = new Configuration();
 
@@ -213,7 +219,7 @@ class TermServiceTest {
     @Test
     void updateUsesRepositoryServiceToUpdateTerm() {
         final Term term = generateTermWithId();
-        when(termRepositoryService.findRequired(term.getUri())).thenReturn(term);
+        when(termRepositoryService.findRequired(term.getUri(), TermFetchProfile.HIERARCHY)).thenReturn(term);
         when(termRepositoryService.update(term)).thenReturn(term);
         sut.update(term);
         verify(termRepositoryService).update(term);
@@ -232,7 +238,7 @@ class TermServiceTest {
         configuration.getPersistence().setLanguage("en");
         final List<Term> children = IntStream.range(0, 5).mapToObj(i -> {
             final Term child = generateTermWithId();
-            when(termRepositoryService.find(child.getUri())).thenReturn(Optional.of(child));
+            when(termRepositoryService.findRequired(child.getUri(), TermFetchProfile.HIERARCHY)).thenReturn(child);
             return child;
         }).toList();
         parent.setSubTerms(children.stream().map(TermInfo::new).collect(Collectors.toSet()));
@@ -312,11 +318,21 @@ class TermServiceTest {
     void runTextAnalysisInvokesTextAnalysisOnSpecifiedTerm() {
         when(vocabularyContextMapper.getVocabularyContext(vocabulary.getUri())).thenReturn(vocabulary.getUri());
         final Term toAnalyze = generateTermWithId();
-        when(termRepositoryService.findRequired(toAnalyze.getUri())).thenReturn(toAnalyze);
+        when(termRepositoryService.findRequired(toAnalyze.getUri(), TermFetchProfile.MINIMAL)).thenReturn(toAnalyze);
         sut.analyzeTermDefinition(toAnalyze, vocabulary.getUri());
         verify(textAnalysisService).analyzeTermDefinition(toAnalyze, vocabulary.getUri());
     }
 
+    @Test
+    void analyzeTermDefinitionsInvokesBatchTextAnalysisWithVocabularyContextsInSeparateTransactions() {
+        final URI context = Generator.generateUri();
+        when(vocabularyContextMapper.getVocabularyContext(vocabulary.getUri())).thenReturn(context);
+        final Term toAnalyze = generateTermWithId();
+
+        sut.analyzeTermDefinitions(Map.of(toAnalyze, vocabulary.getUri()));
+        verify(textAnalysisService).analyzeTermDefinitions(Map.of(toAnalyze, context), transactionExecutor);
+    }
+
     @Test
     void persistChildInvokesTextAnalysisOnAllTermsInVocabulary() {
         when(vocabularyService.findRequired(vocabulary.getUri())).thenReturn(vocabulary);
@@ -342,7 +358,7 @@ class TermServiceTest {
         toUpdate.setLabel(original.getLabel());
         final String newDefinition = "This term has acquired a new definition";
         toUpdate.setVocabulary(vocabulary.getUri());
-        when(termRepositoryService.findRequired(toUpdate.getUri())).thenReturn(original);
+        when(termRepositoryService.findRequired(toUpdate.getUri(), TermFetchProfile.HIERARCHY)).thenReturn(original);
         toUpdate.setDefinition(MultilingualString.create(newDefinition, Environment.LANGUAGE));
         when(termRepositoryService.update(toUpdate)).thenReturn(toUpdate);
         sut.update(toUpdate);
@@ -357,7 +373,7 @@ class TermServiceTest {
         final String newDefinition = "This term has acquired a new definition";
         toUpdate.setVocabulary(vocabulary.getUri());
         toUpdate.setDefinition(MultilingualString.create(newDefinition, Environment.LANGUAGE));
-        when(termRepositoryService.findRequired(toUpdate.getUri())).thenReturn(original);
+        when(termRepositoryService.findRequired(toUpdate.getUri(), TermFetchProfile.HIERARCHY)).thenReturn(original);
         when(termRepositoryService.update(toUpdate)).thenReturn(toUpdate);
         when(vocabularyService.getReference(vocabulary.getUri())).thenReturn(vocabulary);
         sut.update(toUpdate);
@@ -437,7 +453,7 @@ class TermServiceTest {
 
         final List<Term> children = IntStream.range(0, 5).mapToObj(i -> {
             final Term child = generateTermWithId();
-            when(termRepositoryService.find(child.getUri())).thenReturn(Optional.of(child));
+            when(termRepositoryService.findRequired(child.getUri(), TermFetchProfile.HIERARCHY)).thenReturn(child);
             return child;
         }).collect(Collectors.toList());
         parent.setSubTerms(children.stream().map(TermInfo::new).collect(Collectors.toSet()));
@@ -489,7 +505,7 @@ class TermServiceTest {
         update.setDefinition(new MultilingualString(original.getDefinition().getValue()));
         update.setDescription(new MultilingualString(original.getDescription().getValue()));
         update.setVocabulary(vocabulary.getUri());
-        when(termRepositoryService.findRequired(original.getUri())).thenReturn(original);
+        when(termRepositoryService.findRequired(original.getUri(), TermFetchProfile.HIERARCHY)).thenReturn(original);
         when(vocabularyService.getReference(vocabulary.getUri())).thenReturn(vocabulary);
         when(termRepositoryService.update(update)).thenReturn(update);
         update.getLabel().set(Environment.LANGUAGE, "updatedLabel");
@@ -648,7 +664,7 @@ class TermServiceTest {
     @Test
     void updateVerifiesThatStateExistsTermState() {
         final Term original = generateTermWithId(vocabulary.getUri());
-        when(termRepositoryService.findRequired(original.getUri())).thenReturn(original);
+        when(termRepositoryService.findRequired(original.getUri(), TermFetchProfile.HIERARCHY)).thenReturn(original);
         final Term update = new Term(original.getUri());
         update.setLabel(new MultilingualString(original.getLabel().getValue()));
         update.setDefinition(new MultilingualString(original.getDefinition().getValue()));
@@ -707,7 +723,7 @@ class TermServiceTest {
         term.setState(terminalState.getUri());
 
         when(languageService.getTermStates()).thenReturn(states);
-        when(termRepositoryService.findRequired(term.getUri())).thenReturn(original);
+        when(termRepositoryService.findRequired(term.getUri(), TermFetchProfile.HIERARCHY)).thenReturn(original);
         assertThrows(InvalidTermStateException.class, () -> sut.update(term));
         verify(termRepositoryService, never()).update(term);
     }
@@ -23,6 +23,7 @@ import cz.cvut.kbss.termit.dto.mapper.DtoMapper;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.event.LoginAttemptsThresholdExceeded;
+import cz.cvut.kbss.termit.event.UserAccountUpdatedEvent;
 import cz.cvut.kbss.termit.exception.AuthorizationException;
 import cz.cvut.kbss.termit.exception.InvalidPasswordChangeRequestException;
 import cz.cvut.kbss.termit.exception.NotFoundException;
@@ -50,6 +51,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.net.URI;
 import java.util.Arrays;
@@ -104,6 +106,9 @@ class UserServiceTest {
     @Mock
     PasswordChangeNotifier passwordChangeNotifier;
 
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService sut;
 
@@ -241,6 +246,17 @@ class UserServiceTest {
         assertFalse(captor.getValue().isEnabled());
     }
 
+    @Test
+    void disablePublishesUserAccountUpdatedEvent() {
+        when(securityUtilsMock.isAuthenticated()).thenReturn(true);
+        when(securityUtilsMock.getCurrentUser()).thenReturn(Generator.generateUserAccount());
+        final UserAccount account = Generator.generateUserAccount();
+        sut.disable(account);
+        final ArgumentCaptor<UserAccountUpdatedEvent> captor = ArgumentCaptor.forClass(UserAccountUpdatedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals(account, captor.getValue().getUser());
+    }
+
     @Test
     void disableThrowsUnsupportedOperationExceptionWhenAttemptingToDisableOwnAccount() {
         final UserAccount account = Generator.generateUserAccount();
@@ -62,6 +62,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static cz.cvut.kbss.termit.environment.Environment.termsToDtos;
@@ -75,6 +76,7 @@ import static org.mockito.Mockito.anyBoolean;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -124,11 +126,31 @@ class VocabularyServiceTest {
         when(contextMapper.getVocabularyContext(vocabulary.getUri())).thenReturn(vocabulary.getUri());
         when(repositoryService.getTransitivelyImportedVocabularies(vocabulary)).thenReturn(Collections.emptyList());
         when(repositoryService.findRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        when(appContext.getBean(Configuration.class)).thenReturn(new Configuration());
         sut.runTextAnalysisOnAllTerms(vocabulary);
         verify(termService).analyzeTermDefinition(termOne, vocabulary.getUri());
         verify(termService).analyzeTermDefinition(termTwo, vocabulary.getUri());
     }
 
+    @Test
+    void runTextAnalysisOnAllTermsAnalyzesAllTermsInSingleBatchWhenBatchAnalysisIsEnabled() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final Term termOne = Generator.generateTermWithId(vocabulary.getUri());
+        final Term termTwo = Generator.generateTermWithId(vocabulary.getUri());
+        List<TermDto> terms = termsToDtos(Arrays.asList(termOne, termTwo));
+        when(termService.findAll(vocabulary)).thenReturn(terms);
+        when(repositoryService.getTransitivelyImportedVocabularies(vocabulary)).thenReturn(Collections.emptyList());
+        when(repositoryService.findRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        final Configuration config = new Configuration();
+        config.getTextAnalysis().setBatchTermDefinitionAnalysis(true);
+        when(appContext.getBean(Configuration.class)).thenReturn(config);
+
+        sut.runTextAnalysisOnAllTerms(vocabulary);
+        verify(termService).analyzeTermDefinitions(Map.of(new TermDto(termOne), vocabulary.getUri(),
+                                                          new TermDto(termTwo), vocabulary.getUri()));
+        verify(termService, never()).analyzeTermDefinition(any(), any());
+    }
+
     @Test
     void runTextAnalysisOnAllTermsInvokesTextAnalysisOnAllVocabularies() {
         final Vocabulary v = Generator.generateVocabularyWithId();
@@ -138,11 +160,31 @@ class VocabularyServiceTest {
         when(repositoryService.findAll()).thenReturn(vocabularies);
         when(contextMapper.getVocabularyContext(v.getUri())).thenReturn(v.getUri());
         when(termService.findAll(v)).thenReturn(Collections.singletonList(new TermDto(term)));
-        sut.runTextAnalysisOnAllVocabularies();
+        when(appContext.getBean(Configuration.class)).thenReturn(new Configuration());
+        sut.runTextAnalysisOnAllVocabularies(false);
 
         verify(termService).analyzeTermDefinition(term, v.getUri());
     }
 
+    @Test
+    void runTextAnalysisOnAllVocabulariesAnalyzesEachTermOnlyOnce() {
+        final Vocabulary vOne = Generator.generateVocabularyWithId();
+        final Vocabulary vTwo = Generator.generateVocabularyWithId();
+        when(repositoryService.findAll()).thenReturn(
+                List.of(Environment.getDtoMapper().vocabularyToVocabularyDto(vOne),
+                        Environment.getDtoMapper().vocabularyToVocabularyDto(vTwo)));
+        final Term tOne = Generator.generateTermWithId(vOne.getUri());
+        final Term tTwo = Generator.generateTermWithId(vTwo.getUri());
+        when(contextMapper.getVocabularyContext(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(termService.findAll(vOne)).thenReturn(Collections.singletonList(new TermDto(tOne)));
+        when(termService.findAll(vTwo)).thenReturn(Collections.singletonList(new TermDto(tTwo)));
+        when(appContext.getBean(Configuration.class)).thenReturn(new Configuration());
+        sut.runTextAnalysisOnAllVocabularies(false);
+
+        verify(termService).analyzeTermDefinition(tOne, vOne.getUri());
+        verify(termService).analyzeTermDefinition(tTwo, vTwo.getUri());
+    }
+
     @Test
     void createSnapshotCreatesSnapshotOfSpecifiedVocabulary() {
         final Vocabulary vocabulary = Generator.generateVocabularyWithId();
@@ -0,0 +1,197 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.cluster;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.AccessControlListModifiedEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
+import cz.cvut.kbss.termit.event.UserAccountUpdatedEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModifiedEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.model.UserAccount;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.dao.UserAccountDao;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.throttle.ReadOnlyTransactionExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterInvalidationBusTest {
+
+    @Mock
+    private ClusterTransport transport;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManager em;
+
+    @Mock
+    private VocabularyContextMapper contextMapper;
+
+    @Mock
+    private UserAccountDao userAccountDao;
+
+    @Mock
+    private ObjectProvider<CacheManager> cacheManager;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private ClusterInvalidationBus sut;
+
+    @BeforeEach
+    void setUp() {
+        this.sut = new ClusterInvalidationBus(transport, eventPublisher, em, contextMapper, userAccountDao,
+                                              new ReadOnlyTransactionExecutor(), cacheManager, taskScheduler,
+                                              new Configuration());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Invalidation> sentInvalidations() {
+        final ArgumentCaptor<Collection<Invalidation>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(transport).send(captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    void synchronizeSendsPendingInvalidationsCoalesced() {
+        final URI vocabulary = Generator.generateUri();
+        sut.onVocabularyContentModified(new VocabularyContentModifiedEvent(this, vocabulary));
+        sut.onVocabularyContentModified(new VocabularyContentModifiedEvent(this, vocabulary));
+        sut.onRefreshLastModified(new RefreshLastModifiedEvent(this));
+        sut.onRefreshLastModified(new RefreshLastModifiedEvent(this));
+
+        sut.synchronize();
+        assertEquals(List.of(Invalidation.of(Invalidation.Type.VOCABULARY_CONTENT_MODIFIED, vocabulary),
+                             Invalidation.of(Invalidation.Type.LAST_MODIFIED)), List.copyOf(sentInvalidations()));
+    }
+
+    @Test
+    void evictAllInvalidationSupersedesOtherPendingInvalidations() {
+        sut.onVocabularyContentModified(new VocabularyContentModifiedEvent(this, Generator.generateUri()));
+        sut.onEvictCache(new EvictCacheEvent(this));
+        sut.onRefreshLastModified(new RefreshLastModifiedEvent(this));
+
+        sut.synchronize();
+        assertEquals(List.of(Invalidation.of(Invalidation.Type.EVICT_ALL)), List.copyOf(sentInvalidations()));
+    }
+
+    @Test
+    void synchronizeDoesNotSendEventsPublishedForInvalidationsReceivedFromOtherNodes() {
+        sut.onEvictCache(new EvictCacheEvent(sut, true));
+        sut.onVocabularyContentModified(new VocabularyContentModifiedEvent(sut, Generator.generateUri(), true));
+        sut.onUserAccountUpdated(new UserAccountUpdatedEvent(Generator.generateUserAccount(), true));
+
+        sut.synchronize();
+        verify(transport, never()).send(anyCollection());
+    }
+
+    @Test
+    void synchronizeAppliesReceivedInvalidationsByPublishingEventsOnBehalfOfOtherNode() {
+        final URI vocabulary = Generator.generateUri();
+        final URI context = Generator.generateUri();
+        when(contextMapper.getVocabularyContext(vocabulary)).thenReturn(context);
+        when(transport.receive()).thenReturn(
+                List.of(Invalidation.of(Invalidation.Type.VOCABULARY_CONTENT_MODIFIED, vocabulary)));
+
+        sut.synchronize();
+        final ArgumentCaptor<VocabularyContentModifiedEvent> captor =
+                ArgumentCaptor.forClass(VocabularyContentModifiedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals(vocabulary, captor.getValue().getVocabularyIri());
+        assertSame(sut, captor.getValue().getSource());
+        assertTrue(captor.getValue().isRemote());
+        verify(em.getEntityManagerFactory().getCache()).evict(context);
+    }
+
+    @Test
+    void synchronizeSendsUserAccountModifiedInvalidationOnUserAccountUpdate() {
+        final UserAccount account = Generator.generateUserAccount();
+        sut.onUserAccountUpdated(new UserAccountUpdatedEvent(account));
+
+        sut.synchronize();
+        assertEquals(List.of(Invalidation.of(Invalidation.Type.USER_ACCOUNT_MODIFIED, account.getUri())),
+                     List.copyOf(sentInvalidations()));
+    }
+
+    @Test
+    void synchronizeAppliesUserAccountModifiedInvalidationByEvictingAccountAndPublishingRemoteUpdateEvent() {
+        final UserAccount account = Generator.generateUserAccount();
+        when(userAccountDao.find(account.getUri())).thenReturn(Optional.of(account));
+        when(transport.receive()).thenReturn(
+                List.of(Invalidation.of(Invalidation.Type.USER_ACCOUNT_MODIFIED, account.getUri())));
+
+        sut.synchronize();
+        final ArgumentCaptor<UserAccountUpdatedEvent> captor = ArgumentCaptor.forClass(UserAccountUpdatedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals(account, captor.getValue().getUser());
+        assertTrue(captor.getValue().isRemote());
+        verify(em.getEntityManagerFactory().getCache()).evict(UserAccount.class, account.getUri(), null);
+    }
+
+    @Test
+    void synchronizeSendsAccessControlListModifiedInvalidationForSubjectCarriedByEvent() {
+        final URI subject = Generator.generateUri();
+        sut.onAccessControlListModified(
+                new AccessControlListModifiedEvent(this, Generator.generateAccessControlList(false), subject));
+
+        sut.synchronize();
+        assertEquals(List.of(Invalidation.of(Invalidation.Type.ACL_MODIFIED, subject)),
+                     List.copyOf(sentInvalidations()));
+    }
+
+    @Test
+    void synchronizeKeepsInvalidationsPendingWhenSendingFails() {
+        sut.onRefreshLastModified(new RefreshLastModifiedEvent(this));
+        doThrow(PersistenceException.class).doNothing().when(transport).send(any());
+        sut.synchronize();
+
+        sut.synchronize();
+        verify(transport, times(2)).send(List.of(Invalidation.of(Invalidation.Type.LAST_MODIFIED)));
+    }
+}
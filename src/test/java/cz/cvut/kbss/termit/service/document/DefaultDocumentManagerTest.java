@@ -39,15 +39,20 @@ import org.springframework.util.MimeTypeUtils;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.security.MessageDigest;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.TemporalAccessor;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
 
 import static cz.cvut.kbss.termit.environment.Environment.loadFile;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -206,6 +211,52 @@ class DefaultDocumentManagerTest extends BaseServiceTestRunner {
         assertFalse(result.isEmpty());
     }
 
+    @Test
+    void saveFileContentStoresMetadataOfSavedContent() throws Exception {
+        final File file = new File();
+        file.setUri(Generator.generateUri());
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        sut.saveFileContent(file, new ByteArrayInputStream(CONTENT.getBytes(StandardCharsets.UTF_8)));
+
+        final java.io.File metadataDir = new java.io.File(configuration.getFile().getStorage(),
+                                                          DefaultDocumentManager.METADATA_DIRECTORY);
+        assertNotNull(metadataDir.listFiles());
+        assertEquals(1, metadataDir.listFiles().length);
+        final FileMetadata result = sut.getMetadata(file);
+        assertEquals(MediaType.TEXT_HTML_VALUE, result.mediaType());
+        assertEquals(CONTENT.getBytes(StandardCharsets.UTF_8).length, result.size());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(
+                CONTENT.getBytes(StandardCharsets.UTF_8))), result.hash());
+    }
+
+    @Test
+    void getRenditionRendersContentOnlyOnceForEachContentVersion() throws Exception {
+        final File file = new File();
+        file.setUri(Generator.generateUri());
+        final java.io.File physicalFile = generateFile();
+        file.setLabel(physicalFile.getName());
+        document.addFile(file);
+        file.setDocument(document);
+        final AtomicInteger renderCount = new AtomicInteger();
+        final UnaryOperator<TypeAwareResource> renderer = r -> {
+            renderCount.incrementAndGet();
+            return r;
+        };
+
+        final TypeAwareResource first = sut.getRendition(file, "test", renderer);
+        final TypeAwareResource second = sut.getRendition(file, "test", renderer);
+        assertEquals(1, renderCount.get());
+        assertEquals(first.getFile(), second.getFile());
+        assertEquals(MediaType.TEXT_HTML_VALUE, second.getMediaType().orElse(null));
+        sut.saveFileContent(file, new ByteArrayInputStream((CONTENT + CONTENT).getBytes(StandardCharsets.UTF_8)));
+        sut.getRendition(file, "test", renderer);
+        assertEquals(2, renderCount.get());
+        assertFalse(first.exists());
+    }
+
     @Test
     void createBackupCreatesBackupFileWithIdenticalContent() throws Exception {
         final File file = new File();
@@ -0,0 +1,65 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.AbstractTerm;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.util.Constants;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TermDefinitionBatchTest {
+
+    @Test
+    void composeDoesNotEscapeDefinitionMarkup() {
+        final Term term = Generator.generateTermWithId();
+        term.getDefinition().set(Environment.LANGUAGE, "Definition with <em>emphasis</em> &amp; entity");
+        final TermDefinitionBatch sut = new TermDefinitionBatch(List.of(term), Environment.LANGUAGE);
+
+        final String result = sut.compose();
+        assertThat(result, containsString("<em>emphasis</em>"));
+        assertThat(result, not(containsString("&lt;em&gt;")));
+    }
+
+    @Test
+    void splitReturnsAnnotatedDefinitionsWithoutAddingWhitespace() {
+        final Term term = Generator.generateTermWithId();
+        final TermDefinitionBatch sut = new TermDefinitionBatch(List.of(term), Environment.LANGUAGE);
+        final String annotated = "<span about=\"_:1\">Metropolitan</span> <span about=\"_:2\">plan</span>";
+        final String result = "<html prefix=\"ddo: http://onto.fel.cvut.cz/ontologies/application/termit/pojem/\">" +
+                "<body><div " + TermDefinitionBatch.TERM_ATTRIBUTE + "=\"" + term.getUri() + "\">" + annotated +
+                "</div></body></html>";
+
+        final Map<AbstractTerm, String> definitions = sut.split(
+                new ByteArrayInputStream(result.getBytes(StandardCharsets.UTF_8)));
+        assertEquals("<div " + Constants.RDFa.PREFIX +
+                             "=\"ddo: http://onto.fel.cvut.cz/ontologies/application/termit/pojem/\">" + annotated +
+                             "</div>", definitions.get(term));
+    }
+}
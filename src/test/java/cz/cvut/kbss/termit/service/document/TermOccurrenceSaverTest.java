@@ -4,17 +4,31 @@ import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.assignment.TermOccurrence;
 import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
+import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceBatchWriter;
 import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
+import cz.cvut.kbss.termit.util.Configuration;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class TermOccurrenceSaverTest {
@@ -22,6 +36,9 @@ class TermOccurrenceSaverTest {
     @Mock
     private TermOccurrenceDao occurrenceDao;
 
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private Configuration config;
+
     @InjectMocks
     private TermOccurrenceSaver sut;
 
@@ -39,4 +56,63 @@ class TermOccurrenceSaverTest {
         inOrder.verify(occurrenceDao).removeAll(asset);
         occurrences.forEach(to -> inOrder.verify(occurrenceDao).persist(to));
     }
+
+    @Test
+    void saveFromQueueRemovesExistingOccurrencesAndWritesQueuedOnesUsingBatchWriter() throws Exception {
+        final Term t = Generator.generateTermWithId();
+        final File asset = Generator.generateFileWithId("test.html");
+        final TermOccurrenceBatchWriter writer = mock(TermOccurrenceBatchWriter.class);
+        when(config.getTextAnalysis().getTermOccurrenceBatchSize()).thenReturn(10);
+        when(occurrenceDao.createBatchWriter(asset, 10)).thenReturn(writer);
+        final List<TermOccurrence> occurrences = List.of(
+                Generator.generateTermOccurrence(t, asset, true),
+                Generator.generateTermOccurrence(t, asset, true)
+        );
+        final BlockingQueue<TermOccurrence> queue = new ArrayBlockingQueue<>(occurrences.size());
+        queue.addAll(occurrences);
+
+        sut.saveFromQueue(asset, new AtomicBoolean(true), queue);
+        final InOrder inOrder = inOrder(writer);
+        inOrder.verify(writer).removeAll();
+        occurrences.forEach(to -> inOrder.verify(writer).write(to));
+        inOrder.verify(writer).commit();
+        inOrder.verify(writer).close();
+        verify(occurrenceDao, never()).persist(any());
+        verify(occurrenceDao, never()).exists(any());
+    }
+
+    @Test
+    void saveFromQueueWritesOnlyDifferenceWhenIncrementalSavingIsEnabled() throws Exception {
+        final Term t = Generator.generateTermWithId();
+        final File asset = Generator.generateFileWithId("test.html");
+        final TermOccurrenceBatchWriter writer = mock(TermOccurrenceBatchWriter.class);
+        when(config.getTextAnalysis().getTermOccurrenceBatchSize()).thenReturn(10);
+        when(config.getTextAnalysis().isIncrementalOccurrenceSaving()).thenReturn(true);
+        when(occurrenceDao.createBatchWriter(asset, 10)).thenReturn(writer);
+        final TermOccurrence unchanged = generateOccurrence(t, asset, "unchanged", true);
+        final TermOccurrence approved = generateOccurrence(t, asset, "approved", true);
+        final TermOccurrence obsolete = generateOccurrence(t, asset, "obsolete", true);
+        when(occurrenceDao.findAllTargeting(asset)).thenReturn(List.of(unchanged, approved, obsolete));
+        final TermOccurrence newOne = generateOccurrence(t, asset, "new", true);
+        final BlockingQueue<TermOccurrence> queue = new ArrayBlockingQueue<>(3);
+        queue.addAll(List.of(generateOccurrence(t, asset, "unchanged", true),
+                             generateOccurrence(t, asset, "approved", false), newOne));
+
+        sut.saveFromQueue(asset, new AtomicBoolean(true), queue);
+        verify(writer, never()).removeAll();
+        verify(writer).write(newOne);
+        verify(writer).updateSuggested(approved, false);
+        verify(writer).remove(obsolete);
+        verify(writer, never()).remove(unchanged);
+        verify(writer, never()).remove(approved);
+        verify(writer).commit();
+        verify(writer).close();
+    }
+
+    private static TermOccurrence generateOccurrence(Term term, File asset, String text, boolean suggested) {
+        final TermOccurrence occurrence = Generator.generateTermOccurrence(term, asset, suggested);
+        occurrence.setUri(URI.create(TermOccurrence.resolveContext(asset.getUri()) + "/" + text));
+        occurrence.getTarget().setSelectors(Set.of(new TextQuoteSelector(text)));
+        return occurrence;
+    }
 }
@@ -0,0 +1,143 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document;
+
+import cz.cvut.kbss.termit.dto.TermLabel;
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.VocabularyContentModifiedEvent;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import cz.cvut.kbss.termit.persistence.dao.TextAnalysisRecordDao;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TextAnalysisFingerprintsTest {
+
+    @Mock
+    private TermDao termDao;
+
+    @Mock
+    private TextAnalysisRecordDao recordDao;
+
+    @Mock
+    private VocabularyContextMapper contextMapper;
+
+    private final Configuration config = new Configuration();
+
+    private TextAnalysisFingerprints sut;
+
+    private final URI vocabulary = Generator.generateUri();
+
+    @BeforeEach
+    void setUp() {
+        this.sut = new TextAnalysisFingerprints(termDao, recordDao, contextMapper, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(sut);
+    }
+
+    @Test
+    void vocabularyFingerprintCachesLabelSetVersionOfVocabularyContext() {
+        when(termDao.findAllLabels(vocabulary, Environment.LANGUAGE)).thenReturn(
+                List.of(new TermLabel(Generator.generateUri(), "plán", true)));
+
+        sut.vocabularyFingerprint(Set.of(vocabulary), Environment.LANGUAGE);
+        sut.vocabularyFingerprint(Set.of(vocabulary), Environment.LANGUAGE);
+        verify(termDao).findAllLabels(vocabulary, Environment.LANGUAGE);
+    }
+
+    @Test
+    void vocabularyFingerprintDoesNotCacheLabelSetVersionOfVocabularyModifiedInCurrentTransaction() {
+        when(contextMapper.getVocabularyContext(vocabulary)).thenReturn(vocabulary);
+        TransactionSynchronizationManager.initSynchronization();
+        sut.onVocabularyContentModifiedInTransaction(new VocabularyContentModifiedEvent(this, vocabulary));
+
+        sut.vocabularyFingerprint(Set.of(vocabulary), Environment.LANGUAGE);
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(
+                TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        sut.vocabularyFingerprint(Set.of(vocabulary), Environment.LANGUAGE);
+        verify(termDao, times(2)).findAllLabels(vocabulary, Environment.LANGUAGE);
+    }
+
+    @Test
+    void isDefinitionUpToDateComparesFingerprintWithPersistedOne() {
+        final URI term = Generator.generateUri();
+        when(recordDao.findDefinitionFingerprints(Set.of(term))).thenReturn(Map.of(term, "fingerprint"));
+
+        assertTrue(sut.isDefinitionUpToDate(term, "fingerprint"));
+        assertFalse(sut.isDefinitionUpToDate(term, "changed"));
+        assertEquals(1, sut.getSkippedCount());
+        assertEquals(1, sut.getAnalyzedCount());
+    }
+
+    @Test
+    void findUpToDateDefinitionsLoadsPersistedFingerprintsOfAllTermsAtOnce() {
+        final URI unchanged = Generator.generateUri();
+        final URI changed = Generator.generateUri();
+        final URI notAnalyzed = Generator.generateUri();
+        final Map<URI, String> fingerprints = Map.of(unchanged, "unchanged", changed, "changed", notAnalyzed, "new");
+        when(recordDao.findDefinitionFingerprints(fingerprints.keySet())).thenReturn(
+                Map.of(unchanged, "unchanged", changed, "previous"));
+
+        assertEquals(Set.of(unchanged), sut.findUpToDateDefinitions(fingerprints));
+        verify(recordDao).findDefinitionFingerprints(fingerprints.keySet());
+        assertEquals(1, sut.getSkippedCount());
+        assertEquals(2, sut.getAnalyzedCount());
+    }
+
+    @Test
+    void definitionAnalyzedPersistsFingerprint() {
+        final URI term = Generator.generateUri();
+
+        sut.definitionAnalyzed(term, "fingerprint");
+        verify(recordDao).saveDefinitionFingerprints(Map.of(term, "fingerprint"));
+    }
+
+    @Test
+    void clearDefinitionFingerprintsRemovesPersistedFingerprints() {
+        sut.clearDefinitionFingerprints();
+        verify(recordDao).removeDefinitionFingerprints();
+    }
+}
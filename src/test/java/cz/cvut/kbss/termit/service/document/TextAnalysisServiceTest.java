@@ -20,20 +20,26 @@ package cz.cvut.kbss.termit.service.document;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import cz.cvut.kbss.jopa.model.MultilingualString;
+import cz.cvut.kbss.termit.dto.TermLabel;
 import cz.cvut.kbss.termit.dto.TextAnalysisInput;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.environment.PropertyMockingApplicationContextInitializer;
 import cz.cvut.kbss.termit.event.FileTextAnalysisFinishedEvent;
 import cz.cvut.kbss.termit.event.TermDefinitionTextAnalysisFinishedEvent;
+import cz.cvut.kbss.termit.event.VocabularyContentModifiedEvent;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.exception.WebServiceIntegrationException;
+import cz.cvut.kbss.termit.model.AbstractTerm;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.TextAnalysisRecord;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.dao.TermDao;
 import cz.cvut.kbss.termit.persistence.dao.TextAnalysisRecordDao;
 import cz.cvut.kbss.termit.service.BaseServiceTestRunner;
+import cz.cvut.kbss.termit.service.document.html.EmbeddedTermAnnotator;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Utils;
 import org.junit.jupiter.api.BeforeEach;
@@ -52,6 +58,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 
@@ -62,8 +69,12 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.nio.file.Files;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -74,12 +85,17 @@ import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
@@ -117,6 +133,15 @@ class TextAnalysisServiceTest extends BaseServiceTestRunner {
     @Mock
     private TextAnalysisRecordDao textAnalysisRecordDao;
 
+    @Mock
+    private EmbeddedTermAnnotator embeddedAnnotatorMock;
+
+    @Mock
+    private TermDao termDao;
+
+    @Mock
+    private VocabularyContextMapper contextMapper;
+
     private TextAnalysisService sut;
 
     private MockRestServiceServer mockServer;
@@ -142,8 +167,10 @@ class TextAnalysisServiceTest extends BaseServiceTestRunner {
         this.documentManagerSpy = spy(documentManager);
         doCallRealMethod().when(documentManagerSpy).loadFileContent(any());
         doNothing().when(documentManagerSpy).createBackup(any());
+        config.getTextAnalysis().setAnnotator(Configuration.TextAnalysis.AnnotatorType.REMOTE);
         this.sut = new TextAnalysisService(restTemplate, config, documentManagerSpy, annotationGeneratorMock,
-                textAnalysisRecordDao, eventPublisher);
+                textAnalysisRecordDao, eventPublisher, embeddedAnnotatorMock,
+                new TextAnalysisFingerprints(termDao, textAnalysisRecordDao, contextMapper, config));
     }
 
     @Test
@@ -325,6 +352,84 @@ class TextAnalysisServiceTest extends BaseServiceTestRunner {
         verify(textAnalysisRecordDao).persist(captor.capture());
         assertEquals(file, captor.getValue().getAnalyzedResource());
         assertEquals(Collections.singleton(vocabulary.getUri()), captor.getValue().getVocabularies());
+        assertNotNull(captor.getValue().getContentFingerprint());
+        assertNotNull(captor.getValue().getVocabularyFingerprint());
+    }
+
+    @Test
+    void analyzeFileSkipsAnalysisWhenContentAndVocabulariesDidNotChangeSinceLatestAnalysis() {
+        final TextAnalysisRecord record = analyzeFileAndCaptureRecord();
+        when(textAnalysisRecordDao.findLatest(file)).thenReturn(Optional.of(record));
+
+        sut.analyzeFile(file, Collections.singleton(vocabulary.getUri()));
+        mockServer.verify();
+        verify(annotationGeneratorMock).generateAnnotations(any(), eq(file));
+        verify(eventPublisher, times(2)).publishEvent(any(FileTextAnalysisFinishedEvent.class));
+    }
+
+    @Test
+    void analyzeFileAnalyzesContentWhenVocabularyLabelsChangedSinceLatestAnalysis() {
+        final TextAnalysisRecord record = analyzeFileAndCaptureRecord();
+        when(textAnalysisRecordDao.findLatest(file)).thenReturn(Optional.of(record));
+        when(termDao.findAllLabels(vocabulary.getUri(), Environment.LANGUAGE)).thenReturn(
+                List.of(new TermLabel(Generator.generateUri(), "Metropolitan plan", true)));
+        when(contextMapper.getVocabularyContext(vocabulary.getUri())).thenReturn(vocabulary.getUri());
+        mockServer.expect(requestTo(config.getTextAnalysis().getUrl()))
+                  .andExpect(method(HttpMethod.POST))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+        // Label-set versions are discarded when vocabulary content changes
+        fingerprints().onVocabularyContentModified(new VocabularyContentModifiedEvent(this, vocabulary.getUri()));
+
+        sut.analyzeFile(file, Collections.singleton(vocabulary.getUri()));
+        mockServer.verify();
+        verify(annotationGeneratorMock, times(2)).generateAnnotations(any(), eq(file));
+    }
+
+    @Test
+    void analyzeFileAnalyzesUnchangedContentWhenForced() {
+        final TextAnalysisRecord record = analyzeFileAndCaptureRecord();
+        when(textAnalysisRecordDao.findLatest(file)).thenReturn(Optional.of(record));
+        mockServer.expect(requestTo(config.getTextAnalysis().getUrl()))
+                  .andExpect(method(HttpMethod.POST))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+
+        sut.analyzeFile(file, Collections.singleton(vocabulary.getUri()), true);
+        mockServer.verify();
+        verify(annotationGeneratorMock, times(2)).generateAnnotations(any(), eq(file));
+    }
+
+    @Test
+    void analyzeTermDefinitionSkipsAnalysisOfUnchangedDefinition() {
+        final Term term = Generator.generateTermWithId(vocabulary.getUri());
+        final Map<URI, String> storedFingerprints = new HashMap<>();
+        when(textAnalysisRecordDao.findDefinitionFingerprints(anyCollection())).thenAnswer(
+                inv -> new HashMap<>(storedFingerprints));
+        doAnswer(inv -> {
+            storedFingerprints.putAll(inv.getArgument(0));
+            return null;
+        }).when(textAnalysisRecordDao).saveDefinitionFingerprints(anyMap());
+        doAnswer(inv -> {
+            storedFingerprints.clear();
+            return null;
+        }).when(textAnalysisRecordDao).removeDefinitionFingerprints();
+        mockServer.expect(requestTo(config.getTextAnalysis().getUrl()))
+                  .andExpect(method(HttpMethod.POST))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+        sut.analyzeTermDefinition(term, vocabulary.getUri());
+        sut.analyzeTermDefinition(term, vocabulary.getUri());
+        mockServer.verify();
+        verify(annotationGeneratorMock).generateAnnotations(any(), eq(term));
+        assertEquals(1, fingerprints().getSkippedCount());
+        assertEquals(1, fingerprints().getAnalyzedCount());
+
+        mockServer.reset();
+        mockServer.expect(requestTo(config.getTextAnalysis().getUrl()))
+                  .andExpect(method(HttpMethod.POST))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+        sut.clearTermDefinitionFingerprints();
+        sut.analyzeTermDefinition(term, vocabulary.getUri());
+        mockServer.verify();
+        verify(annotationGeneratorMock, times(2)).generateAnnotations(any(), eq(term));
     }
 
     @Test
@@ -450,4 +555,72 @@ class TextAnalysisServiceTest extends BaseServiceTestRunner {
         assertEquals(term.getUri(), eventCaptor.getValue().getTermUri());
         assertEquals(vocabulary.getUri(), eventCaptor.getValue().getVocabularyIri());
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void analyzeTermDefinitionsInvokesTextAnalysisServiceOnceForBatchAndPassesSplitResultToAnnotationGenerator() {
+        final Term termOne = Generator.generateTermWithId(vocabulary.getUri());
+        final Term termTwo = Generator.generateTermWithId(vocabulary.getUri());
+        final String result = "<html><body>" +
+                "<div " + TermDefinitionBatch.TERM_ATTRIBUTE + "=\"" + termOne.getUri() + "\">First</div>" +
+                "<div " + TermDefinitionBatch.TERM_ATTRIBUTE + "=\"" + termTwo.getUri() + "\">Second</div>" +
+                "</body></html>";
+        mockServer.expect(requestTo(config.getTextAnalysis().getUrl()))
+                  .andExpect(method(HttpMethod.POST))
+                  .andExpect(content().string(containsString(termOne.getDefinition().get(Environment.LANGUAGE))))
+                  .andExpect(content().string(containsString(termTwo.getDefinition().get(Environment.LANGUAGE))))
+                  .andRespond(withSuccess(result, MediaType.APPLICATION_XML));
+
+        sut.analyzeTermDefinitions(Map.of(termOne, vocabulary.getUri(), termTwo, vocabulary.getUri()));
+        mockServer.verify();
+        final ArgumentCaptor<Map<AbstractTerm, String>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(annotationGeneratorMock).generateAnnotations(captor.capture());
+        assertEquals(Set.of(termOne, termTwo), captor.getValue().keySet());
+        assertThat(captor.getValue().get(termOne), containsString("First"));
+        assertThat(captor.getValue().get(termTwo), containsString("Second"));
+        verify(eventPublisher, times(2)).publishEvent(any(TermDefinitionTextAnalysisFinishedEvent.class));
+    }
+
+    @Test
+    void analyzeTermDefinitionsRunsEachBatchUsingSpecifiedExecutor() {
+        config.getTextAnalysis().setTermDefinitionBatchSize(1);
+        final Term termOne = Generator.generateTermWithId(vocabulary.getUri());
+        final Term termTwo = Generator.generateTermWithId(vocabulary.getUri());
+        final Executor executor = mock(Executor.class);
+
+        sut.analyzeTermDefinitions(Map.of(termOne, vocabulary.getUri(), termTwo, vocabulary.getUri()), executor);
+        verify(executor, times(2)).execute(any(Runnable.class));
+        mockServer.verify();
+    }
+
+    @Test
+    void analyzeFileUsesEmbeddedAnnotatorInsteadOfRemoteServiceWhenConfigured() throws Exception {
+        config.getTextAnalysis().setAnnotator(Configuration.TextAnalysis.AnnotatorType.EMBEDDED);
+        final String annotated = "<html><body><span about=\"_:1\">Metropolitan plan</span></body></html>";
+        when(embeddedAnnotatorMock.annotate(CONTENT, Environment.LANGUAGE, Set.of(vocabulary.getUri())))
+                .thenReturn(annotated);
+
+        sut.analyzeFile(file, Collections.singleton(vocabulary.getUri()));
+        mockServer.verify();
+        final ArgumentCaptor<InputStream> captor = ArgumentCaptor.forClass(InputStream.class);
+        verify(annotationGeneratorMock).generateAnnotations(captor.capture(), eq(file));
+        final String result = new BufferedReader(new InputStreamReader(captor.getValue())).lines().collect(
+                Collectors.joining("\n"));
+        assertEquals(annotated, result);
+    }
+
+    private TextAnalysisRecord analyzeFileAndCaptureRecord() {
+        mockServer.expect(requestTo(config.getTextAnalysis().getUrl()))
+                  .andExpect(method(HttpMethod.POST))
+                  .andRespond(withSuccess(CONTENT, MediaType.APPLICATION_XML));
+        sut.analyzeFile(file, Collections.singleton(vocabulary.getUri()));
+        final ArgumentCaptor<TextAnalysisRecord> captor = ArgumentCaptor.forClass(TextAnalysisRecord.class);
+        verify(textAnalysisRecordDao).persist(captor.capture());
+        mockServer.reset();
+        return captor.getValue();
+    }
+
+    private TextAnalysisFingerprints fingerprints() {
+        return (TextAnalysisFingerprints) ReflectionTestUtils.getField(sut, "fingerprints");
+    }
 }
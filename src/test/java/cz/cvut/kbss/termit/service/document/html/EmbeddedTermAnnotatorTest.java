@@ -0,0 +1,158 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.document.html;
+
+import cz.cvut.kbss.termit.dto.TermLabel;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.VocabularyContentModifiedEvent;
+import cz.cvut.kbss.termit.persistence.context.VocabularyContextMapper;
+import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmbeddedTermAnnotatorTest {
+
+    private static final String LANGUAGE = "cs";
+
+    @Mock
+    private TermDao termDao;
+
+    @Mock
+    private VocabularyContextMapper contextMapper;
+
+    private EmbeddedTermAnnotator sut;
+
+    private final URI context = Generator.generateUri();
+
+    private final URI plan = Generator.generateUri();
+
+    private final URI landPlan = Generator.generateUri();
+
+    @BeforeEach
+    void setUp() {
+        this.sut = new EmbeddedTermAnnotator(termDao, contextMapper);
+        when(termDao.findAllLabels(context, LANGUAGE)).thenReturn(List.of(
+                new TermLabel(plan, "plán", true),
+                new TermLabel(landPlan, "Územní plán", true),
+                new TermLabel(landPlan, "ÚP", false)));
+    }
+
+    private Elements annotate(String content) {
+        final Document result = Jsoup.parse(sut.annotate(content, LANGUAGE, Set.of(context)));
+        return result.getElementsByAttribute(Constants.RDFa.ABOUT);
+    }
+
+    @Test
+    void annotateMarksTermOccurrencesUsingRdfaConsumedByOccurrenceResolver() {
+        final String content = "<html><body><p>Metropolitní plán hlavního města Prahy.</p></body></html>";
+        final Document result = Jsoup.parse(sut.annotate(content, LANGUAGE, Set.of(context)));
+
+        assertEquals(EmbeddedTermAnnotator.TERMIT_PREFIX + ": " + EmbeddedTermAnnotator.TERMIT_NAMESPACE,
+                     result.body().attr(Constants.RDFa.PREFIX));
+        final Elements annotations = result.getElementsByAttribute(Constants.RDFa.ABOUT);
+        assertEquals(1, annotations.size());
+        assertEquals("plán", annotations.get(0).text());
+        assertEquals(plan.toString(), annotations.get(0).attr(Constants.RDFa.RESOURCE));
+        assertEquals("termit:výskyt-termu", annotations.get(0).attr(Constants.RDFa.TYPE));
+        assertTrue(annotations.get(0).attr(Constants.RDFa.ABOUT).startsWith("_:"));
+        assertEquals("Metropolitní plán hlavního města Prahy.", result.body().text());
+    }
+
+    @Test
+    void annotatePrefersLongestMatchAndIgnoresCharacterCase() {
+        final Elements annotations = annotate("<p>ÚZEMNÍ PLÁN a ÚP, ale ne plánování.</p>");
+
+        assertEquals(2, annotations.size());
+        assertEquals("ÚZEMNÍ PLÁN", annotations.get(0).text());
+        assertEquals(landPlan.toString(), annotations.get(0).attr(Constants.RDFa.RESOURCE));
+        assertEquals("ÚP", annotations.get(1).text());
+        assertEquals(landPlan.toString(), annotations.get(1).attr(Constants.RDFa.RESOURCE));
+    }
+
+    @Test
+    void annotateLeavesExistingAnnotationsIntactAndGeneratesUniqueIdentifiers() {
+        final Elements annotations = annotate(
+                "<p><span about=\"_:1\" resource=\"" + landPlan + "\">územní plán</span> a plán</p>");
+
+        assertEquals(2, annotations.size());
+        assertEquals("_:1", annotations.get(0).attr(Constants.RDFa.ABOUT));
+        assertEquals("územní plán", annotations.get(0).text());
+        assertEquals("_:2", annotations.get(1).attr(Constants.RDFa.ABOUT));
+        assertEquals(plan.toString(), annotations.get(1).attr(Constants.RDFa.RESOURCE));
+    }
+
+    @Test
+    void annotateReusesDictionaryUntilVocabularyContentIsModified() {
+        final URI vocabulary = Generator.generateUri();
+        when(contextMapper.getVocabularyContext(vocabulary)).thenReturn(context);
+        annotate("<p>plán</p>");
+        annotate("<p>plán</p>");
+        verify(termDao).findAllLabels(context, LANGUAGE);
+
+        sut.onVocabularyContentModified(new VocabularyContentModifiedEvent(this, vocabulary));
+        annotate("<p>plán</p>");
+        verify(termDao, times(2)).findAllLabels(context, LANGUAGE);
+    }
+
+    @Test
+    void annotateReloadsOnlyLabelsOfModifiedTermWhenSingleTermIsModified() {
+        final URI vocabulary = Generator.generateUri();
+        when(contextMapper.getVocabularyContext(vocabulary)).thenReturn(context);
+        when(termDao.findAllLabels(context, Set.of(plan), LANGUAGE)).thenReturn(
+                List.of(new TermLabel(plan, "plánek", true)));
+        assertEquals(1, annotate("<p>plán</p>").size());
+
+        sut.onVocabularyContentModified(new VocabularyContentModifiedEvent(this, vocabulary, plan));
+        assertTrue(annotate("<p>plán</p>").isEmpty());
+        final Elements annotations = annotate("<p>plánek a územní plán</p>");
+        assertEquals(2, annotations.size());
+        assertEquals(plan.toString(), annotations.get(0).attr(Constants.RDFa.RESOURCE));
+        assertEquals(landPlan.toString(), annotations.get(1).attr(Constants.RDFa.RESOURCE));
+        verify(termDao).findAllLabels(context, LANGUAGE);
+        verify(termDao).findAllLabels(context, Set.of(plan), LANGUAGE);
+    }
+
+    @Test
+    void annotateMarksOccurrencesWithTermAssignmentProperty() {
+        final Elements annotations = annotate("<p>plán</p>");
+
+        assertEquals(EmbeddedTermAnnotator.TERMIT_PREFIX + ":" +
+                             Vocabulary.s_p_je_prirazenim_termu.substring(
+                                     EmbeddedTermAnnotator.TERMIT_NAMESPACE.length()),
+                     annotations.get(0).attr(Constants.RDFa.PROPERTY));
+    }
+}
@@ -203,4 +203,30 @@ class HtmlTermOccurrenceResolverTest {
         assertEquals(1, annotations.size());
         assertFalse(annotations.get(0).hasAttr("score"));
     }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS) // TODO: https://github.com/kbss-cvut/termit/issues/275
+    void findTermOccurrencesReusesIdentifierOfExistingOccurrenceWithSameContent() throws Exception {
+        when(termService.exists(TERM_URI)).thenReturn(true);
+        final File file = initFile();
+        final TermOccurrence existing = Generator.generateTermOccurrence(new Term(TERM_URI), file, true);
+        existing.setUri(URI.create(TermOccurrence.resolveContext(file.getUri()) + "/existing"));
+        final Selector quoteSelector = new TextQuoteSelector("Územní plán", "RDFa simple", "hlavního města Prahy.");
+        final Selector posSelector = new TextPositionSelector(21, 32);
+        existing.getTarget().setSelectors(Set.of(quoteSelector, posSelector));
+        final InputStream is = cz.cvut.kbss.termit.environment.Environment.loadFile("data/rdfa-simple.html");
+        sut.parseContent(is, file);
+        sut.setExistingOccurrences(List.of(existing));
+
+        AtomicInteger resultSize = new AtomicInteger(0);
+        sut.findTermOccurrences(to -> {
+            resultSize.incrementAndGet();
+            assertEquals(existing.getUri(), to.getUri());
+        });
+        assertEquals(1, resultSize.get());
+        final org.jsoup.nodes.Document document = Jsoup.parse(sut.getContent(), StandardCharsets.UTF_8.name(), "");
+        final Elements annotations = document.select("span[about]");
+        assertEquals(1, annotations.size());
+        assertEquals("_:existing", annotations.get(0).attr("about"));
+    }
 }
@@ -31,8 +31,10 @@ import cz.cvut.kbss.termit.service.BaseServiceTestRunner;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
+import cz.cvut.kbss.termit.util.TypeAwareStreamingResource;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
@@ -52,19 +54,23 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.MediaType;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -535,4 +541,34 @@ class SKOSVocabularyExporterTest extends BaseServiceTestRunner {
                                                                                    .toString()), RDF.TYPE,
                                                      SKOS.CONCEPT_SCHEME)));
     }
+
+    @Test
+    void exportGlossaryWithReferencesWritesTermsReferencedWithinExportedGlossaryOnlyOnce() throws Exception {
+        final List<Term> terms = generateTerms(vocabulary);
+        final IRI property = REFERENCING_PROPERTIES[Generator.randomIndex(REFERENCING_PROPERTIES)];
+        generateReferences(terms, terms, property);
+
+        final ExportConfig config = new ExportConfig(ExportType.SKOS_WITH_REFERENCES,
+                                                     ExportFormat.TURTLE.getMediaType(),
+                                                     Collections.singleton(property.stringValue()));
+        final TypeAwareResource result = sut.exportGlossary(vocabulary, config);
+        final List<Statement> statements = new ArrayList<>();
+        final RDFParser parser = Rio.createParser(RDFFormat.TURTLE);
+        parser.setRDFHandler(new StatementCollector(statements));
+        parser.parse(result.getInputStream(), "");
+        assertEquals(new HashSet<>(statements).size(), statements.size());
+    }
+
+    @Test
+    void exportGlossaryWritesExportInReadOnlyTransaction() throws Exception {
+        final TypeAwareResource result = sut.exportGlossary(vocabulary, exportConfig());
+        final AtomicBoolean readOnly = new AtomicBoolean();
+        ((TypeAwareStreamingResource) result).writeTo(new OutputStream() {
+            @Override
+            public void write(int b) {
+                readOnly.set(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            }
+        });
+        assertTrue(readOnly.get());
+    }
 }
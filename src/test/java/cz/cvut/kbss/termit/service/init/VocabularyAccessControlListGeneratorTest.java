@@ -18,40 +18,45 @@
 package cz.cvut.kbss.termit.service.init;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.jopa.model.query.TypedQuery;
 import cz.cvut.kbss.termit.environment.Generator;
-import cz.cvut.kbss.termit.model.Asset;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.acl.AccessControlList;
 import cz.cvut.kbss.termit.service.business.AccessControlListService;
-import cz.cvut.kbss.termit.service.repository.VocabularyRepositoryService;
+import cz.cvut.kbss.termit.util.Utils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.net.URI;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class VocabularyAccessControlListGeneratorTest {
 
-    @Mock
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private EntityManager em;
 
-    @Mock
-    private VocabularyRepositoryService vocabularyService;
-
     @Mock
     private AccessControlListService aclService;
 
@@ -60,22 +65,50 @@ class VocabularyAccessControlListGeneratorTest {
 
     @Test
     void generateMissingAccessControlListsGeneratesAccessControlListsForVocabulariesWithoutACLs() {
-        final List<Vocabulary> vocabs = List.of(Generator.generateVocabularyWithId(), Generator.generateVocabularyWithId());
-        final List<AccessControlList> acls = List.of(Generator.generateAccessControlList(false), Generator.generateAccessControlList(false));
-        assertEquals(vocabs.size(), acls.size());
+        final List<URI> vocabs = List.of(Generator.generateUri(), Generator.generateUri());
+        final TypedQuery<URI> query = mock(TypedQuery.class);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(em.createNativeQuery(anyString(), eq(URI.class))).thenReturn(query);
+        when(query.getResultList()).thenReturn(vocabs);
+        final Map<URI, AccessControlList> acls = new LinkedHashMap<>();
+        vocabs.forEach(v -> acls.put(v, Generator.generateAccessControlList(false)));
+        when(aclService.createFor(vocabs)).thenReturn(acls);
+        final Query update = mockUpdate();
+
+        sut.generateMissingAccessControlLists();
+        verify(aclService).createFor(vocabs);
+        final ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(em).createNativeQuery(captor.capture());
+        acls.forEach((v, acl) -> assertThat(captor.getValue(), containsString(
+                "(" + Utils.uriToString(v) + " " + Utils.uriToString(acl.getUri()) + ")")));
+        verify(update).executeUpdate();
+        verify(em.getEntityManagerFactory().getCache()).evict(Vocabulary.class);
+    }
+
+    private Query mockUpdate() {
+        final Query update = mock(Query.class);
+        when(update.setParameter(anyString(), any())).thenReturn(update);
+        when(em.createNativeQuery(anyString())).thenReturn(update);
+        return update;
+    }
+
+    @Test
+    void generateMissingAccessControlListsCreatesAccessControlListsInBatches() {
+        final List<URI> vocabs = IntStream.range(0, VocabularyAccessControlListGenerator.BATCH_SIZE + 1)
+                                          .mapToObj(i -> Generator.generateUri()).toList();
         final TypedQuery<URI> query = mock(TypedQuery.class);
         when(query.setParameter(anyString(), any())).thenReturn(query);
         when(em.createNativeQuery(anyString(), eq(URI.class))).thenReturn(query);
-        when(query.getResultList()).thenReturn(vocabs.stream().map(Asset::getUri).collect(Collectors.toList()));
-        for (int i = 0; i < vocabs.size(); i++) {
-            when(vocabularyService.findRequired(vocabs.get(i).getUri())).thenReturn(vocabs.get(i));
-            when(aclService.createFor(vocabs.get(i))).thenReturn(acls.get(i));
-        }
+        when(query.getResultList()).thenReturn(vocabs);
+        when(aclService.createFor(anyList())).thenAnswer(inv -> {
+            final List<URI> batch = inv.getArgument(0);
+            return batch.stream().collect(Collectors.toMap(v -> v, v -> Generator.generateAccessControlList(false)));
+        });
+        final Query update = mockUpdate();
 
         sut.generateMissingAccessControlLists();
-        for (int i = 0; i < vocabs.size(); i++) {
-            verify(aclService).createFor(vocabs.get(i));
-            assertEquals(acls.get(i).getUri(), vocabs.get(i).getAcl());
-        }
+        verify(aclService).createFor(vocabs.subList(0, VocabularyAccessControlListGenerator.BATCH_SIZE));
+        verify(aclService).createFor(vocabs.subList(VocabularyAccessControlListGenerator.BATCH_SIZE, vocabs.size()));
+        verify(update, times(2)).executeUpdate();
     }
 }
@@ -0,0 +1,214 @@
+package cz.cvut.kbss.termit.service.mail;
+
+import cz.cvut.kbss.termit.util.Configuration;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MailOutboxTest {
+
+    @TempDir
+    Path outboxDir;
+
+    private final Configuration config = new Configuration();
+
+    private final Clock clock = mock(Clock.class);
+
+    private Instant now;
+
+    private RecordingMailSender mailSender;
+
+    private Postman postman;
+
+    @BeforeEach
+    void setUp() {
+        config.getMail().getOutbox().setDirectory(outboxDir.toString());
+        config.getMail().getOutbox().setRetryDelay(Duration.ofMinutes(1));
+        this.now = Instant.now();
+        when(clock.instant()).thenAnswer(inv -> now);
+        this.mailSender = new RecordingMailSender();
+        this.postman = new Postman(new MockEnvironment(), mailSender);
+        ReflectionTestUtils.setField(postman, "sender", "termit@example.org");
+    }
+
+    private MailOutbox createOutbox() {
+        return new MailOutbox(config, postman, clock);
+    }
+
+    @Test
+    void dispatchSendsEnqueuedMessageToAllItsRecipients() throws Exception {
+        final MailOutbox sut = createOutbox();
+        sut.enqueue(Message.to("one@example.org", "two@example.org").subject("Test").content("Content").build());
+
+        sut.dispatch();
+        assertEquals(1, mailSender.sent.size());
+        final List<String> recipients = Arrays.stream(mailSender.sent.get(0).getAllRecipients()).map(Address::toString)
+                                              .collect(Collectors.toList());
+        assertEquals(List.of("one@example.org", "two@example.org"), recipients);
+        assertEquals(0, sut.getPendingCount());
+    }
+
+    @Test
+    void outboxDirectoryDefaultsToDirectoryInFileStorage() {
+        config.getMail().getOutbox().setDirectory(null);
+        config.getFile().setStorage(outboxDir.toString());
+        final MailOutbox sut = createOutbox();
+        sut.enqueue(Message.to("one@example.org").subject("Test").content("Content").build());
+
+        assertTrue(Files.isDirectory(outboxDir.resolve(MailOutbox.DEFAULT_DIRECTORY)));
+        assertEquals(1, sut.getPendingCount());
+    }
+
+    @Test
+    void enqueueDropsMessageWhenMailServerIsNotConfigured() {
+        this.postman = new Postman(new MockEnvironment(), null);
+        final MailOutbox sut = createOutbox();
+        sut.enqueue(Message.to("one@example.org").subject("Test").content("Content").build());
+
+        assertEquals(0, sut.getPendingCount());
+    }
+
+    @Test
+    void enqueueStoresMessageOnlyAfterActiveTransactionCommits() {
+        final MailOutbox sut = createOutbox();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            sut.enqueue(Message.to("one@example.org").subject("Test").content("Content").build());
+            assertEquals(0, sut.getPendingCount());
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1, sut.getPendingCount());
+    }
+
+    @Test
+    void dispatchKeepsMessagesInOutboxWhenMailServerIsNotConfigured() {
+        createOutbox().enqueue(Message.to("one@example.org").subject("Test").content("Content").build());
+        this.postman = new Postman(new MockEnvironment(), null);
+        final MailOutbox sut = createOutbox();
+
+        sut.dispatch();
+        assertEquals(1, sut.getPendingCount());
+    }
+
+    @Test
+    void dispatchSendsMessagesEnqueuedByPreviousOutboxInstance() {
+        createOutbox().enqueue(Message.to("one@example.org").subject("Test").content("Content").build());
+
+        final MailOutbox sut = createOutbox();
+        assertEquals(1, sut.getPendingCount());
+        sut.dispatch();
+        assertEquals(1, mailSender.sent.size());
+        assertEquals(0, sut.getPendingCount());
+    }
+
+    @Test
+    void dispatchSendsMessagesInBatchesOfConfiguredSize() {
+        config.getMail().getOutbox().setBatchSize(2);
+        final MailOutbox sut = createOutbox();
+        sut.enqueue(Message.to("one@example.org").subject("Test").content("Content").build());
+        sut.enqueue(Message.to("two@example.org").subject("Test").content("Content").build());
+        sut.enqueue(Message.to("three@example.org").subject("Test").content("Content").build());
+
+        sut.dispatch();
+        assertEquals(List.of(2, 1), mailSender.batchSizes);
+    }
+
+    @Test
+    void dispatchRetriesFailedMessageWithExponentialBackoff() {
+        final MailOutbox sut = createOutbox();
+        sut.enqueue(Message.to("one@example.org").subject("Test").content("Content").build());
+        mailSender.fail = true;
+
+        sut.dispatch();
+        assertEquals(1, sut.getPendingCount());
+        // First retry is due after the base delay
+        now = now.plus(Duration.ofSeconds(59));
+        sut.dispatch();
+        assertEquals(1, mailSender.batchSizes.size());
+        now = now.plus(Duration.ofSeconds(1));
+        sut.dispatch();
+        assertEquals(2, mailSender.batchSizes.size());
+        // Second retry is due after twice the base delay
+        now = now.plus(Duration.ofMinutes(1));
+        sut.dispatch();
+        assertEquals(2, mailSender.batchSizes.size());
+        now = now.plus(Duration.ofMinutes(1));
+        mailSender.fail = false;
+        sut.dispatch();
+        assertEquals(1, mailSender.sent.size());
+        assertEquals(0, sut.getPendingCount());
+    }
+
+    @Test
+    void dispatchMovesMessageAsideWhenMaxAttemptsIsReached() throws Exception {
+        config.getMail().getOutbox().setMaxAttempts(2);
+        final MailOutbox sut = createOutbox();
+        sut.enqueue(Message.to("one@example.org").subject("Test").content("Content").build());
+        mailSender.fail = true;
+
+        sut.dispatch();
+        now = now.plus(Duration.ofMinutes(1));
+        sut.dispatch();
+        assertEquals(0, sut.getPendingCount());
+        try (var failed = Files.list(outboxDir.resolve(MailOutbox.FAILED_DIRECTORY))) {
+            assertEquals(1, failed.count());
+        }
+        now = now.plus(Duration.ofDays(1));
+        sut.dispatch();
+        assertEquals(2, mailSender.batchSizes.size());
+    }
+
+    /**
+     * Mail sender stand-in which records messages instead of passing them to an SMTP server.
+     */
+    private static class RecordingMailSender extends JavaMailSenderImpl {
+
+        private final List<MimeMessage> sent = new ArrayList<>();
+
+        private final List<Integer> batchSizes = new ArrayList<>();
+
+        private boolean fail;
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            batchSizes.add(mimeMessages.length);
+            if (fail) {
+                throw new MailSendException("Connection refused");
+            }
+            try {
+                for (MimeMessage m : mimeMessages) {
+                    m.saveChanges();
+                }
+            } catch (MessagingException e) {
+                throw new MailSendException("Invalid message", e);
+            }
+            sent.addAll(Arrays.stream(mimeMessages).collect(Collectors.toList()));
+        }
+    }
+}
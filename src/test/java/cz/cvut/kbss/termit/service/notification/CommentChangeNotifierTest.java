@@ -50,6 +50,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -61,6 +62,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -94,10 +96,8 @@ class CommentChangeNotifierTest {
     void resolveCommentsRetrievesCommentsInIntervalAndMapsThemByTerm() {
         final List<Term> terms = List.of(Generator.generateTermWithId(), Generator.generateTermWithId());
         final Map<Term, List<Comment>> expected = new HashMap<>();
-        terms.forEach(t -> {
-            when(termService.find(t.getUri())).thenReturn(Optional.of(t));
-            expected.put(t, Generator.generateComments(t));
-        });
+        terms.forEach(t -> expected.put(t, Generator.generateComments(t)));
+        when(termService.findAllById(anyCollection())).thenReturn(terms);
         final Instant from = Utils.timestamp().minus(5, ChronoUnit.DAYS);
         final Instant to = Utils.timestamp();
         when(commentService.findAll(null, from, to)).thenReturn(
@@ -107,7 +107,7 @@ class CommentChangeNotifierTest {
         final Map<Asset<?>, List<Comment>> result = sut.findChangedComments(from, to);
         assertEquals(expected, result);
         verify(commentService).findAll(null, from, to);
-        terms.forEach(t -> verify(termService).find(t.getUri()));
+        verify(termService).findAllById(Set.of(terms.get(0).getUri(), terms.get(1).getUri()));
     }
 
     @Test
@@ -135,14 +135,13 @@ class CommentChangeNotifierTest {
         admin.addType(Vocabulary.s_c_administrator_termitu);
         final User author = Generator.generateUserWithId();
         when(userService.findAll()).thenReturn(Collections.singletonList(admin));
-        when(changeRecordService.getAuthors(any(Asset.class))).thenReturn(Collections.singleton(author));
+        when(changeRecordService.getAuthors(anyCollection())).thenReturn(Collections.singleton(author));
 
         final List<User> result = sut.resolveNotificationRecipients(
                 Map.of(tOne, Collections.singletonList(Generator.generateComment(null, tOne)),
                        tTwo, Collections.singletonList(Generator.generateComment(null, tTwo))));
         assertThat(result, hasItems(admin.toUser(), author));
-        verify(changeRecordService).getAuthors(new cz.cvut.kbss.termit.model.Vocabulary(tOne.getVocabulary()));
-        verify(changeRecordService).getAuthors(new cz.cvut.kbss.termit.model.Vocabulary(tTwo.getVocabulary()));
+        verify(changeRecordService).getAuthors(Set.of(tOne.getVocabulary(), tTwo.getVocabulary()));
     }
 
     @Test
@@ -178,19 +177,19 @@ class CommentChangeNotifierTest {
         configField.setAccessible(true);
         configField.set(term, new Configuration());
         final Comment comment = Generator.generateComment(author.toUser(), term);
-        when(termService.find(term.getUri())).thenReturn(Optional.of(term));
-        when(changeRecordService.getAuthors(any())).thenReturn(Collections.singleton(author.toUser()));
+        when(termService.findAllById(anyCollection())).thenReturn(List.of(term));
+        when(changeRecordService.getAuthors(anyCollection())).thenReturn(Collections.singleton(author.toUser()));
         when(commentService.findAll(any(), any(Instant.class), any(Instant.class))).thenReturn(
                 Collections.singletonList(comment));
         final String link = "http://localhost/termit";
-        when(messageAssetFactory.create(term)).thenReturn(
-                new MessageAssetFactory.MessageAsset(term.getPrimaryLabel(), link));
+        when(messageAssetFactory.createAll(anyCollection())).thenReturn(
+                Map.of(term, new MessageAssetFactory.MessageAsset(term.getPrimaryLabel(), link)));
         when(messageComposer.composeMessage(any(), anyMap())).thenReturn("Test message content");
 
         final Optional<Message> result = sut.createCommentChangesMessage(from, to);
         assertTrue(result.isPresent());
         assertEquals(Collections.singletonList(author.getUsername()), result.get().getRecipients());
-        verify(changeRecordService).getAuthors(new cz.cvut.kbss.termit.model.Vocabulary(term.getVocabulary()));
+        verify(changeRecordService).getAuthors(Set.of(term.getVocabulary()));
         verify(commentService).findAll(null, from, to);
         final ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
         verify(messageComposer).composeMessage(eq(COMMENT_CHANGES_TEMPLATE), captor.capture());
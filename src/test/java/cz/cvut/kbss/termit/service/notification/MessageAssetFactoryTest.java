@@ -19,6 +19,7 @@ package cz.cvut.kbss.termit.service.notification;
 
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.Asset;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.service.mail.ApplicationLinkBuilder;
@@ -32,9 +33,14 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.lang.reflect.Field;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -78,4 +84,25 @@ class MessageAssetFactoryTest {
         assertEquals(term.getPrimaryLabel() + " (" + vocabularyLabel + ")", result.getLabel());
         assertEquals(term.getUri().toString(), result.getLink());
     }
+
+    @Test
+    void createAllResolvesLabelOfVocabularySharedByTermsOnlyOnce() throws Exception {
+        final String vocabularyLabel = "Vocabulary " + Generator.randomInt(0, 1000);
+        final URI vocabularyUri = Generator.generateUri();
+        final List<Term> terms = List.of(Generator.generateTermWithId(vocabularyUri),
+                                         Generator.generateTermWithId(vocabularyUri));
+        final Field configField = Term.class.getDeclaredField("config");
+        configField.setAccessible(true);
+        for (Term t : terms) {
+            configField.set(t, new Configuration());
+            when(linkBuilder.linkTo(t)).thenReturn(t.getUri().toString());
+        }
+        when(dataService.getLabel(vocabularyUri, null)).thenReturn(Optional.of(vocabularyLabel));
+
+        final Map<Asset<?>, MessageAssetFactory.MessageAsset> result = sut.createAll(terms);
+        assertEquals(terms.size(), result.size());
+        terms.forEach(t -> assertEquals(t.getPrimaryLabel() + " (" + vocabularyLabel + ")",
+                                         result.get(t).getLabel()));
+        verify(dataService, times(1)).getLabel(vocabularyUri, null);
+    }
 }
@@ -18,7 +18,7 @@
 package cz.cvut.kbss.termit.service.notification;
 
 import cz.cvut.kbss.termit.service.mail.Message;
-import cz.cvut.kbss.termit.service.mail.Postman;
+import cz.cvut.kbss.termit.service.mail.MailOutbox;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Utils;
 import org.junit.jupiter.api.Test;
@@ -50,7 +50,7 @@ class NotificationServiceTest {
     private CommentChangeNotifier commentChangeNotifier;
 
     @Mock
-    private Postman postman;
+    private MailOutbox mailOutbox;
 
     @Spy
     private Configuration configuration = new Configuration();
@@ -76,7 +76,7 @@ class NotificationServiceTest {
     }
 
     @Test
-    void notifyOfCommentChangesSendsMessageProvidedByChangeNotifier() {
+    void notifyOfCommentChangesEnqueuesMessageProvidedByChangeNotifier() {
         final String cronExpr = "0 1 5 * * MON";
         configuration.getSchedule().getCron().getNotification().setComments(cronExpr);
         final Message testMessage = Message.to("test@example.org").content("Test message").subject("Test").build();
@@ -84,7 +84,7 @@ class NotificationServiceTest {
                 Optional.of(testMessage));
 
         sut.notifyOfCommentChanges();
-        verify(postman).sendMessage(testMessage);
+        verify(mailOutbox).enqueue(testMessage);
     }
 
     @Test
@@ -95,6 +95,6 @@ class NotificationServiceTest {
                 Optional.empty());
 
         sut.notifyOfCommentChanges();
-        verify(postman, never()).sendMessage(any());
+        verify(mailOutbox, never()).enqueue(any());
     }
 }
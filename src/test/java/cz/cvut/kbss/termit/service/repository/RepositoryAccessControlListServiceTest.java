@@ -19,6 +19,7 @@ package cz.cvut.kbss.termit.service.repository;
 
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.AccessControlListModifiedEvent;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.exception.UnsupportedOperationException;
 import cz.cvut.kbss.termit.model.User;
@@ -41,10 +42,16 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -57,6 +64,8 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -72,6 +81,12 @@ class RepositoryAccessControlListServiceTest {
     @Mock
     private UserRoleRepositoryService userRoleService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<CacheManager> cacheManager;
+
     @Spy
     private Configuration configuration = new Configuration();
 
@@ -98,6 +113,24 @@ class RepositoryAccessControlListServiceTest {
         assertThat(captor.getValue().getRecords(), hasItem(toAdd));
     }
 
+    @Test
+    void addRecordPublishesAccessControlListModifiedEvent() {
+        final AccessControlList acl = generateAcl();
+        final AccessControlRecord<UserRole> toAdd = new RoleAccessControlRecord();
+        toAdd.setAccessLevel(AccessLevel.READ);
+        toAdd.setHolder(new UserRole());
+        toAdd.getHolder().setUri(URI.create(Vocabulary.s_c_omezeny_uzivatel_termitu));
+        final URI subject = Generator.generateUri();
+        when(dao.resolveSubjectOf(acl)).thenReturn(Optional.of(subject));
+
+        sut.addRecord(acl, toAdd);
+        final ArgumentCaptor<AccessControlListModifiedEvent> captor =
+                ArgumentCaptor.forClass(AccessControlListModifiedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertEquals(acl.getUri(), captor.getValue().getAcl().getUri());
+        assertEquals(subject, captor.getValue().getSubject());
+    }
+
     private AccessControlList generateAcl() {
         final AccessControlList acl = Generator.generateAccessControlList(false);
         when(dao.find(acl.getUri())).thenReturn(Optional.of(acl));
@@ -210,6 +243,56 @@ class RepositoryAccessControlListServiceTest {
         verify(dao).persist(result);
     }
 
+    @Test
+    void createForCollectionCreatesAccessControlListsWithAuthorsAndRolesResolvedOnceForAllSubjects() {
+        final URI subjectOne = Generator.generateUri();
+        final URI subjectTwo = Generator.generateUri();
+        final User author = Generator.generateUserWithId();
+        final UserRole editor = new UserRole(cz.cvut.kbss.termit.security.model.UserRole.FULL_USER);
+        final UserRole reader = new UserRole(cz.cvut.kbss.termit.security.model.UserRole.RESTRICTED_USER);
+        when(changeRecordService.getAuthorsByAsset(List.of(subjectOne, subjectTwo))).thenReturn(
+                Map.of(subjectOne, Set.of(author)));
+        when(userRoleService.findAll()).thenReturn(List.of(reader, editor));
+
+        final Map<URI, AccessControlList> result = sut.createFor(List.of(subjectOne, subjectTwo));
+        assertEquals(Set.of(subjectOne, subjectTwo), result.keySet());
+        assertThat(result.get(subjectOne).getRecords(), hasItems(
+                new UserAccessControlRecord(AccessLevel.SECURITY, author),
+                new RoleAccessControlRecord(configuration.getAcl().getDefaultEditorAccessLevel(), editor),
+                new RoleAccessControlRecord(configuration.getAcl().getDefaultReaderAccessLevel(), reader)
+        ));
+        assertThat(result.get(subjectTwo).getRecords(),
+                   not(hasItem(new UserAccessControlRecord(AccessLevel.SECURITY, author))));
+        verify(userRoleService).findAll();
+        verify(dao).persist(result.get(subjectOne));
+        verify(dao).persist(result.get(subjectTwo));
+    }
+
+    @Test
+    void prefetchLoadsAccessControlListsOfSubjectsNotInCacheAndPutsThemIntoCache() {
+        final Cache cache = new ConcurrentMapCache(RepositoryAccessControlListService.CACHE_NAME);
+        final CacheManager cm = mock(CacheManager.class);
+        when(cm.getCache(RepositoryAccessControlListService.CACHE_NAME)).thenReturn(cache);
+        when(cacheManager.getIfAvailable()).thenReturn(cm);
+        final cz.cvut.kbss.termit.model.Vocabulary cached = Generator.generateVocabularyWithId();
+        final AccessControlList cachedAcl = Generator.generateAccessControlList(false);
+        cache.put(cached.getUri(), cachedAcl);
+        final cz.cvut.kbss.termit.model.Vocabulary missing = Generator.generateVocabularyWithId();
+        final AccessControlList missingAcl = Generator.generateAccessControlList(false);
+        when(dao.findAllFor(List.of(missing.getUri()))).thenReturn(Map.of(missing.getUri(), missingAcl));
+
+        sut.prefetch(List.of(cached, missing));
+        verify(dao).findAllFor(List.of(missing.getUri()));
+        assertEquals(missingAcl, cache.get(missing.getUri(), AccessControlList.class));
+        assertEquals(cachedAcl, cache.get(cached.getUri(), AccessControlList.class));
+    }
+
+    @Test
+    void prefetchDoesNothingWhenCachingIsDisabled() {
+        sut.prefetch(List.of(Generator.generateVocabularyWithId()));
+        verify(dao, never()).findAllFor(any());
+    }
+
     @Test
     void removeRecordThrowsUnsupportedOperationExceptionWhenAttemptingToRemoveRoleRecord() {
         final AccessControlList acl = generateAcl();
@@ -0,0 +1,97 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.repository;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.longrunning.LongRunningTasksRegistry;
+import cz.cvut.kbss.termit.util.throttle.SynchronousTransactionExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TermOccurrenceOrphanCleanupTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private TermOccurrenceDao termOccurrenceDao;
+
+    @Mock
+    private LongRunningTasksRegistry registry;
+
+    private TermOccurrenceOrphanCleanup sut;
+
+    @BeforeEach
+    void setUp() {
+        final Configuration config = new Configuration();
+        config.getTextAnalysis().setOrphanCleanupBatchSize(BATCH_SIZE);
+        config.getTextAnalysis().setOrphanCleanupLatencyThreshold(Duration.ofMinutes(1));
+        this.sut = new TermOccurrenceOrphanCleanup(termOccurrenceDao, new SynchronousTransactionExecutor(), registry,
+                                                   config);
+    }
+
+    @Test
+    void runFindsOrphanedSourcesOnceAndRemovesThemInBatches() {
+        final List<URI> orphans = IntStream.range(0, 5).mapToObj(i -> Generator.generateUri()).toList();
+        when(termOccurrenceDao.findOrphanedSources()).thenReturn(orphans);
+
+        sut.run();
+        verify(termOccurrenceDao).findOrphanedSources();
+        final InOrder inOrder = inOrder(termOccurrenceDao);
+        inOrder.verify(termOccurrenceDao).removeAllOrphanedOf(orphans.subList(0, 2));
+        inOrder.verify(termOccurrenceDao).removeAllOrphanedOf(orphans.subList(2, 4));
+        inOrder.verify(termOccurrenceDao).removeAllOrphanedOf(orphans.subList(4, 5));
+    }
+
+    @Test
+    void runDoesNothingWhenThereAreNoOrphanedSources() {
+        when(termOccurrenceDao.findOrphanedSources()).thenReturn(Collections.emptyList());
+
+        sut.run();
+        verify(termOccurrenceDao, never()).removeAllOrphanedOf(any());
+    }
+
+    @Test
+    void runReportsTaskProgressToRegistry() {
+        final List<URI> orphans = IntStream.range(0, 4).mapToObj(i -> Generator.generateUri()).toList();
+        when(termOccurrenceDao.findOrphanedSources()).thenReturn(orphans);
+
+        sut.run();
+        // Start, one notification per batch and finish
+        verify(registry, times(4)).onTaskChanged(any());
+    }
+}
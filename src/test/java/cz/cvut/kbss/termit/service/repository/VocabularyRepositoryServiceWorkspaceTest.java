@@ -24,6 +24,7 @@ import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.persistence.dao.VocabularyDao;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Utils;
 import cz.cvut.kbss.termit.workspace.EditableVocabularies;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -33,6 +34,7 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -42,6 +44,7 @@ import java.util.stream.IntStream;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
@@ -68,20 +71,27 @@ public class VocabularyRepositoryServiceWorkspaceTest {
     @Test
     void findAllAddsReadOnlyTypeToNotEditedVocabulariesWhenNotAllVocabulariesAreEditable() {
         configuration.getWorkspace().setAllVocabulariesEditable(false);
-        final List<Vocabulary> vocabularies = IntStream.range(0, 5).mapToObj(i -> Generator.generateVocabularyWithId())
-                                                       .collect(Collectors.toList());
-        when(dao.findAll()).thenReturn(vocabularies);
-        final Set<Vocabulary> readOnly = vocabularies.stream().filter(v -> Generator.randomBoolean())
-                                                     .collect(Collectors.toSet());
-        final Set<VocabularyDto> dtos = readOnly.stream()
-                                                .map(v -> Environment.getDtoMapper().vocabularyToVocabularyDto(v))
-                                                .collect(Collectors.toSet());
-        when(editableVocabularies.isEditable(any(Vocabulary.class))).thenReturn(true);
-        readOnly.forEach(v -> when(editableVocabularies.isEditable(v)).thenReturn(false));
+        final List<VocabularyDto> vocabularies = IntStream.range(0, 5).mapToObj(
+                i -> Environment.getDtoMapper().vocabularyToVocabularyDto(Generator.generateVocabularyWithId()))
+                                                          .collect(Collectors.toList());
+        when(dao.findAllDtos()).thenReturn(vocabularies);
+        final Set<URI> readOnly = vocabularies.stream().filter(v -> Generator.randomBoolean())
+                                              .map(VocabularyDto::getUri).collect(Collectors.toSet());
+        when(editableVocabularies.isEditable(any(URI.class))).thenAnswer(inv -> !readOnly.contains(inv.getArgument(0)));
 
         final List<VocabularyDto> result = sut.findAll();
-        result.stream().filter(dtos::contains)
-              .forEach(v -> assertThat(v.getTypes(), hasItem(cz.cvut.kbss.termit.util.Vocabulary.s_c_pouze_pro_cteni)));
+        assertEquals(vocabularies.size(), result.size());
+        result.forEach(v -> {
+            if (readOnly.contains(v.getUri())) {
+                assertThat(v.getTypes(), hasItem(cz.cvut.kbss.termit.util.Vocabulary.s_c_pouze_pro_cteni));
+            } else {
+                assertThat(Utils.emptyIfNull(v.getTypes()),
+                           not(hasItem(cz.cvut.kbss.termit.util.Vocabulary.s_c_pouze_pro_cteni)));
+            }
+        });
+        // Cached listing DTOs must not be modified
+        vocabularies.forEach(v -> assertThat(Utils.emptyIfNull(v.getTypes()),
+                                             not(hasItem(cz.cvut.kbss.termit.util.Vocabulary.s_c_pouze_pro_cteni))));
     }
 
     @Test
@@ -26,6 +26,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
@@ -79,6 +82,32 @@ class TermAuthorizationServiceTest {
         verify(vocabularyAuthorizationService).canModify(new Vocabulary(term.getVocabulary()));
     }
 
+    @Test
+    void canModifyAllChecksEachVocabularyOfSpecifiedTermsOnce() {
+        final Vocabulary vOne = Generator.generateVocabularyWithId();
+        final Vocabulary vTwo = Generator.generateVocabularyWithId();
+        final List<Term> terms = List.of(Generator.generateTermWithId(vOne.getUri()),
+                                         Generator.generateTermWithId(vOne.getUri()),
+                                         Generator.generateTermWithId(vTwo.getUri()));
+        when(vocabularyAuthorizationService.canModify(any(Vocabulary.class))).thenReturn(true);
+
+        assertTrue(sut.canModifyAll(terms));
+        verify(vocabularyAuthorizationService).canModify(vOne);
+        verify(vocabularyAuthorizationService).canModify(vTwo);
+    }
+
+    @Test
+    void canModifyAllReturnsFalseWhenUserCannotModifyVocabularyOfAnyOfSpecifiedTerms() {
+        final Vocabulary vOne = Generator.generateVocabularyWithId();
+        final Vocabulary vTwo = Generator.generateVocabularyWithId();
+        final List<Term> terms = List.of(Generator.generateTermWithId(vOne.getUri()),
+                                         Generator.generateTermWithId(vTwo.getUri()));
+        when(vocabularyAuthorizationService.canModify(vOne)).thenReturn(true);
+        when(vocabularyAuthorizationService.canModify(vTwo)).thenReturn(false);
+
+        assertFalse(sut.canModifyAll(terms));
+    }
+
     @Test
     void canRemoveChecksIfUserCanRemoveTermVocabulary() {
         when(vocabularyAuthorizationService.canRemove(any(Vocabulary.class))).thenReturn(true);
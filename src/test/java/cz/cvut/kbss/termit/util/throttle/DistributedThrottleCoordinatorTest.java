@@ -0,0 +1,250 @@
+package cz.cvut.kbss.termit.util.throttle;
+
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.longrunning.LongRunningTask;
+import cz.cvut.kbss.termit.util.longrunning.LongRunningTasksRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DistributedThrottleCoordinatorTest {
+
+    private static final String TASK = "group|task";
+
+    private static final String NODE = "A";
+
+    @Mock
+    private ThrottleLeaseStore leaseStore;
+
+    @Mock
+    private TaskScheduler scheduler;
+
+    @Mock
+    private LongRunningTasksRegistry registry;
+
+    private final Instant now = Instant.now();
+
+    private final Configuration.Cluster config = new Configuration.Cluster();
+
+    private DistributedThrottleCoordinator sut;
+
+    @BeforeEach
+    void setUp() {
+        config.setNodeId(NODE);
+        config.setSyncInterval(Duration.ofMillis(1));
+        this.sut = new DistributedThrottleCoordinator(leaseStore, scheduler, registry, config,
+                                                      Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private void mockRenewalScheduling() {
+        doReturn(mock(ScheduledFuture.class)).when(scheduler)
+                                             .scheduleAtFixedRate(any(Runnable.class), any(Instant.class),
+                                                                  any(Duration.class));
+    }
+
+    private void mockStoreTime(Instant storeNow) {
+        when(leaseStore.currentTime()).thenReturn(storeNow);
+    }
+
+    @Test
+    void executeRunsTaskUnderAcquiredLeaseAndReleasesItAsCompleted() {
+        mockRenewalScheduling();
+        mockStoreTime(now);
+        when(leaseStore.find(TASK)).thenReturn(Optional.empty());
+        when(leaseStore.tryAcquire(TASK, "Task", NODE, config.getLeaseDuration())).thenReturn(true);
+        final AtomicBoolean executed = new AtomicBoolean();
+
+        assertTrue(sut.execute(TASK, "Task", now, () -> {
+            executed.set(true);
+            return true;
+        }, () -> {}));
+        assertTrue(executed.get());
+        verify(leaseStore).tryAcquire(TASK, "Task", NODE, config.getLeaseDuration());
+        verify(leaseStore).release(TASK, NODE, true);
+    }
+
+    @Test
+    void executeReleasesLeaseAsNotCompletedWhenTaskFails() {
+        mockRenewalScheduling();
+        mockStoreTime(now);
+        when(leaseStore.find(TASK)).thenReturn(Optional.empty());
+        when(leaseStore.tryAcquire(eq(TASK), any(), eq(NODE), any())).thenReturn(true);
+
+        sut.execute(TASK, "Task", now, () -> false, () -> {});
+        verify(leaseStore).release(TASK, NODE, false);
+    }
+
+    @Test
+    void executeSkipsTaskWhenRunCompletedOnAnotherInstanceStartedAfterRequest() {
+        mockStoreTime(now);
+        when(leaseStore.find(TASK)).thenReturn(
+                Optional.of(new ThrottleLease(TASK, "Task", null, null, null, now.plusSeconds(1), false)));
+        final AtomicBoolean executed = new AtomicBoolean();
+
+        assertFalse(sut.execute(TASK, "Task", now, () -> {
+            executed.set(true);
+            return true;
+        }, () -> {}));
+        assertFalse(executed.get());
+        verify(leaseStore, never()).tryAcquire(anyString(), any(), anyString(), any());
+    }
+
+    @Test
+    void executeComparesRequestTimeWithCompletedRunsUsingClockOfLeaseStore() {
+        // Store clock is ten seconds ahead, so the run started one second after request in local time is stale
+        mockStoreTime(now.plusSeconds(10));
+        mockRenewalScheduling();
+        when(leaseStore.find(TASK)).thenReturn(
+                Optional.of(new ThrottleLease(TASK, "Task", null, null, null, now.plusSeconds(1), false)));
+        when(leaseStore.tryAcquire(eq(TASK), any(), eq(NODE), any())).thenReturn(true);
+        final AtomicBoolean executed = new AtomicBoolean();
+
+        assertTrue(sut.execute(TASK, "Task", now, () -> {
+            executed.set(true);
+            return true;
+        }, () -> {}));
+        assertTrue(executed.get());
+    }
+
+    @Test
+    void executeWaitsWhileLeaseIsHeldByAnotherInstance() {
+        mockStoreTime(now);
+        final ThrottleLease held = new ThrottleLease(TASK, "Task", "B", now, now.plusSeconds(60), null, true);
+        final ThrottleLease released = new ThrottleLease(TASK, "Task", null, null, null, now, false);
+        when(leaseStore.find(TASK)).thenReturn(Optional.of(held), Optional.of(held), Optional.of(released));
+
+        assertFalse(sut.execute(TASK, "Task", now, () -> true, () -> {}));
+        verify(leaseStore, times(3)).find(TASK);
+        verify(leaseStore, never()).tryAcquire(anyString(), any(), anyString(), any());
+    }
+
+    @Test
+    void executeTakesOverExpiredLeaseOfAnotherInstance() {
+        mockRenewalScheduling();
+        mockStoreTime(now);
+        final ThrottleLease expired = new ThrottleLease(TASK, "Task", "B", now.minusSeconds(600),
+                                                        now.minusSeconds(1), null, false);
+        when(leaseStore.find(TASK)).thenReturn(Optional.of(expired));
+        when(leaseStore.tryAcquire(eq(TASK), any(), eq(NODE), any())).thenReturn(true);
+
+        assertTrue(sut.execute(TASK, "Task", now, () -> true, () -> {}));
+    }
+
+    @Test
+    void executeRunsTaskWithoutCoordinationWhenLeaseStoreIsUnavailable() {
+        when(leaseStore.currentTime()).thenThrow(PersistenceException.class);
+        final AtomicBoolean executed = new AtomicBoolean();
+
+        assertTrue(sut.execute(TASK, "Task", now, () -> {
+            executed.set(true);
+            return true;
+        }, () -> {}));
+        assertTrue(executed.get());
+    }
+
+    @Test
+    void executeRunsTaskWithoutRequestTimeEvenWhenRunCompletedOnAnotherInstance() {
+        mockRenewalScheduling();
+        when(leaseStore.find(TASK)).thenReturn(
+                Optional.of(new ThrottleLease(TASK, "Task", null, null, null, now.plusSeconds(1), false)));
+        when(leaseStore.tryAcquire(eq(TASK), any(), eq(NODE), any())).thenReturn(true);
+        final AtomicBoolean executed = new AtomicBoolean();
+
+        assertTrue(sut.execute(TASK, "Task", null, () -> {
+            executed.set(true);
+            return true;
+        }, () -> {}));
+        assertTrue(executed.get());
+        verify(leaseStore).release(TASK, NODE, true);
+    }
+
+    @Test
+    void executeAbortsTaskWhenLeaseIsLostDuringRenewal() {
+        final ArgumentCaptor<Runnable> renewal = ArgumentCaptor.forClass(Runnable.class);
+        doReturn(mock(ScheduledFuture.class)).when(scheduler)
+                                             .scheduleAtFixedRate(renewal.capture(), any(Instant.class),
+                                                                  any(Duration.class));
+        mockStoreTime(now);
+        when(leaseStore.find(TASK)).thenReturn(Optional.empty());
+        when(leaseStore.tryAcquire(eq(TASK), any(), eq(NODE), any())).thenReturn(true);
+        when(leaseStore.renew(TASK, NODE, config.getLeaseDuration())).thenReturn(false);
+        final AtomicBoolean aborted = new AtomicBoolean();
+        final AtomicBoolean interrupted = new AtomicBoolean();
+
+        sut.execute(TASK, "Task", now, () -> {
+            renewal.getValue().run();
+            interrupted.set(Thread.currentThread().isInterrupted());
+            return false;
+        }, () -> aborted.set(true));
+        assertTrue(aborted.get());
+        assertTrue(interrupted.get());
+        assertFalse(Thread.currentThread().isInterrupted());
+        verify(leaseStore, never()).release(anyString(), anyString(), anyBoolean());
+    }
+
+    @Test
+    void executeDoesNotAbortTaskWhenRenewalFailsBeforeLeaseExpires() {
+        final ArgumentCaptor<Runnable> renewal = ArgumentCaptor.forClass(Runnable.class);
+        doReturn(mock(ScheduledFuture.class)).when(scheduler)
+                                             .scheduleAtFixedRate(renewal.capture(), any(Instant.class),
+                                                                  any(Duration.class));
+        mockStoreTime(now);
+        when(leaseStore.find(TASK)).thenReturn(Optional.empty());
+        when(leaseStore.tryAcquire(eq(TASK), any(), eq(NODE), any())).thenReturn(true);
+        when(leaseStore.renew(TASK, NODE, config.getLeaseDuration())).thenThrow(PersistenceException.class);
+        final AtomicBoolean aborted = new AtomicBoolean();
+
+        sut.execute(TASK, "Task", now, () -> {
+            renewal.getValue().run();
+            return true;
+        }, () -> aborted.set(true));
+        assertFalse(aborted.get());
+        verify(leaseStore).release(TASK, NODE, true);
+    }
+
+    @Test
+    void refreshRemoteTasksReportsTasksRunningOnOtherInstancesUntilTheirLeasesAreReleased() {
+        when(leaseStore.findHeld()).thenReturn(
+                List.of(new ThrottleLease(TASK, "Task", "B", now, now.plusSeconds(60), null, true),
+                        new ThrottleLease("local", "Local task", NODE, now, now.plusSeconds(60), null, true)))
+                                   .thenReturn(List.of());
+
+        sut.refreshRemoteTasks();
+        final ArgumentCaptor<LongRunningTask> captor = ArgumentCaptor.forClass(LongRunningTask.class);
+        verify(registry).onTaskChanged(captor.capture());
+        final LongRunningTask remote = captor.getValue();
+        assertTrue(remote.isRunning());
+
+        sut.refreshRemoteTasks();
+        verify(registry, times(2)).onTaskChanged(remote);
+        assertTrue(remote.isDone());
+    }
+}
@@ -10,11 +10,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
 import org.springframework.expression.spel.SpelParseException;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.support.TaskUtils;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
@@ -23,6 +25,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -31,6 +34,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -45,10 +49,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -911,4 +918,78 @@ class ThrottleAspectTest {
 
         assertEquals(2, taskSchedulerTasks.size()); // new task scheduled after the old one finished
     }
+
+    @Test
+    void distributedTaskIdentifierIncludesArgumentsOfCall() throws Throwable {
+        final DistributedThrottleCoordinator coordinator = mock(DistributedThrottleCoordinator.class);
+        when(coordinator.execute(any(), any(), any(), any(), any())).then(
+                invocation -> invocation.getArgument(3, BooleanSupplier.class).getAsBoolean());
+        sut.setCoordinator(coordinator);
+
+        when(joinPointA.getArgs()).thenReturn(new Object[]{Set.of("b", "a"), false});
+        sut.throttleMethodCall(joinPointA, throttleA);
+        executeScheduledTasks();
+        skipThreshold();
+        addSecond();
+        when(joinPointA.getArgs()).thenReturn(new Object[]{Set.of("a", "b"), true});
+        sut.throttleMethodCall(joinPointA, throttleA);
+        executeScheduledTasks();
+
+        final ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(coordinator, times(2)).execute(captor.capture(), any(), notNull(), any(), any());
+        assertTrue(captor.getAllValues().get(0).endsWith("|[a,b],false"));
+        assertTrue(captor.getAllValues().get(1).endsWith("|[a,b],true"));
+    }
+
+    @Test
+    void distributedTaskWithArgumentsNotIdentifiableAcrossInstancesIsNotSatisfiedByRunsOfOtherInstances()
+            throws Throwable {
+        final DistributedThrottleCoordinator coordinator = mock(DistributedThrottleCoordinator.class);
+        when(coordinator.execute(any(), any(), any(), any(), any())).then(
+                invocation -> invocation.getArgument(3, BooleanSupplier.class).getAsBoolean());
+        sut.setCoordinator(coordinator);
+        final Object content = new ByteArrayInputStream(new byte[0]);
+        when(joinPointA.getArgs()).thenReturn(new Object[]{content, "file"});
+
+        sut.throttleMethodCall(joinPointA, throttleA);
+        executeScheduledTasks();
+
+        final ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(coordinator).execute(captor.capture(), any(), isNull(), any(), any());
+        assertTrue(captor.getValue().endsWith("|?,file"));
+    }
+
+    @Test
+    void distributedTaskReturningFutureIsCoordinatedWithoutBeingSatisfiedByRunsOfOtherInstances() throws Throwable {
+        final DistributedThrottleCoordinator coordinator = mock(DistributedThrottleCoordinator.class);
+        when(coordinator.execute(any(), any(), any(), any(), any())).then(
+                invocation -> invocation.getArgument(3, BooleanSupplier.class).getAsBoolean());
+        sut.setCoordinator(coordinator);
+        signatureA.setReturnType(Future.class);
+        when(joinPointA.getArgs()).thenReturn(new Object[]{"vocabulary", false});
+        when(joinPointA.proceed()).then(invocation -> ThrottledFuture.of(() -> "result"));
+
+        final Future<?> result = (Future<?>) sut.throttleMethodCall(joinPointA, throttleA);
+        executeScheduledTasks();
+
+        verify(coordinator).execute(any(), any(), isNull(), any(), any());
+        assertEquals("result", result.get());
+    }
+
+    @Test
+    void distributedTaskIsCanceledWhenCoordinatorAbortsIt() throws Throwable {
+        final DistributedThrottleCoordinator coordinator = mock(DistributedThrottleCoordinator.class);
+        when(coordinator.execute(any(), any(), any(), any(), any())).then(invocation -> {
+            invocation.getArgument(4, Runnable.class).run();
+            return true;
+        });
+        sut.setCoordinator(coordinator);
+        signatureA.setReturnType(Future.class);
+        when(joinPointA.proceed()).then(invocation -> ThrottledFuture.of(() -> "result"));
+
+        final Future<?> result = (Future<?>) sut.throttleMethodCall(joinPointA, throttleA);
+        executeScheduledTasks();
+
+        assertTrue(result.isCancelled());
+    }
 }
@@ -444,4 +444,19 @@ class ThrottledFutureTest {
 
         assertTrue(taskExecuted.get());
     }
+
+    @Test
+    void skipCompletesFutureWithoutExecutingTaskAndInvokesCallbacks() {
+        final AtomicBoolean taskExecuted = new AtomicBoolean(false);
+        final AtomicBoolean callbackExecuted = new AtomicBoolean(false);
+        final ThrottledFuture<Void> future = ThrottledFuture.of(() -> taskExecuted.set(true));
+        future.then(ignored -> callbackExecuted.set(true));
+
+        future.skip();
+
+        assertTrue(future.isDone());
+        assertFalse(future.isCancelled());
+        assertFalse(taskExecuted.get());
+        assertTrue(callbackExecuted.get());
+    }
 }
@@ -2,6 +2,7 @@ package cz.cvut.kbss.termit.websocket;
 
 import cz.cvut.kbss.termit.environment.config.TestRestSecurityConfig;
 import cz.cvut.kbss.termit.environment.config.TestWebSocketConfig;
+import cz.cvut.kbss.termit.persistence.monitoring.QueryStatistics;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.longrunning.LongRunningTasksRegistry;
@@ -57,6 +58,9 @@ public abstract class BaseWebSocketControllerTestRunner {
     @MockBean
     protected LongRunningTasksRegistry longRunningTasksRegistry;
 
+    @MockBean
+    protected QueryStatistics queryStatistics;
+
     /**
      * Simulated messages from client to server
      */
@@ -17,18 +17,19 @@
  */
 package cz.cvut.kbss.termit.workspace;
 
+import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.UserAccount;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.util.Configuration;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.context.ApplicationContext;
-import org.springframework.mock.web.MockHttpServletRequest;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
-import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.security.authentication.event.LogoutSuccessEvent;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.net.URI;
+import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -39,20 +40,21 @@ class EditableVocabulariesTest {
 
     private Configuration configuration;
 
-    private ApplicationContext appContext;
+    private WorkspaceStateStore stateStore;
 
     private EditableVocabularies sut;
 
     @BeforeEach
     void setUp() {
         this.configuration = new Configuration();
-        final AnnotationConfigWebApplicationContext appCtx = new AnnotationConfigWebApplicationContext();
-        appCtx.register(EditableVocabulariesHolder.class);
-        appCtx.refresh();
-        this.appContext = appCtx;
-        MockHttpServletRequest request = new MockHttpServletRequest();
-        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
-        this.sut = new EditableVocabularies(configuration, appCtx.getBeanProvider(EditableVocabulariesHolder.class));
+        this.stateStore = new InMemoryWorkspaceStateStore(configuration);
+        Environment.setCurrentUser(Generator.generateUserAccountWithPassword());
+        this.sut = new EditableVocabularies(configuration, stateStore);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Environment.resetCurrentUser();
     }
 
     @Test
@@ -67,7 +69,7 @@ class EditableVocabulariesTest {
     @Test
     void isEditableReturnsTrueForUnregisteredVocabularyWhenAllVocabulariesAreEditable() {
         configuration.getWorkspace().setAllVocabulariesEditable(true);
-        this.sut = new EditableVocabularies(configuration, appContext.getBeanProvider(EditableVocabulariesHolder.class));
+        this.sut = new EditableVocabularies(configuration, stateStore);
         final Vocabulary vocabulary = Generator.generateVocabularyWithId();
 
         assertTrue(sut.isEditable(vocabulary));
@@ -76,7 +78,7 @@ class EditableVocabulariesTest {
     @Test
     void isEditableReturnsFalseForUnregisteredVocabularyWhenAllVocabulariesAreNotEditable() {
         configuration.getWorkspace().setAllVocabulariesEditable(false);
-        this.sut = new EditableVocabularies(configuration, appContext.getBeanProvider(EditableVocabulariesHolder.class));
+        this.sut = new EditableVocabularies(configuration, stateStore);
         final Vocabulary vocabulary = Generator.generateVocabularyWithId();
 
         assertFalse(sut.isEditable(vocabulary));
@@ -92,4 +94,59 @@ class EditableVocabulariesTest {
         sut.clear();
         assertTrue(sut.getRegisteredContexts().isEmpty());
     }
+
+    @Test
+    void registeredVocabulariesAreSeparatedPerUser() {
+        configuration.getWorkspace().setAllVocabulariesEditable(false);
+        this.sut = new EditableVocabularies(configuration, stateStore);
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final URI context = Generator.generateUri();
+        sut.registerEditableVocabulary(vocabulary.getUri(), context);
+
+        final UserAccount another = Generator.generateUserAccountWithPassword();
+        Environment.setCurrentUser(another);
+        assertFalse(sut.isEditable(vocabulary));
+        assertEquals(Optional.empty(), sut.getVocabularyContext(vocabulary));
+    }
+
+    @Test
+    void registeredVocabulariesAreAvailableThroughAnotherInstanceSharingStateStore() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        final URI context = Generator.generateUri();
+        sut.registerEditableVocabulary(vocabulary.getUri(), context);
+
+        final EditableVocabularies other = new EditableVocabularies(configuration, stateStore);
+        assertEquals(Optional.of(context), other.getVocabularyContext(vocabulary));
+    }
+
+    @Test
+    void isEditableReturnsFalseWhenNoUserIsAuthenticated() {
+        configuration.getWorkspace().setAllVocabulariesEditable(false);
+        this.sut = new EditableVocabularies(configuration, stateStore);
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        sut.registerEditableVocabulary(vocabulary.getUri(), Generator.generateUri());
+
+        Environment.resetCurrentUser();
+        assertFalse(sut.isEditable(vocabulary));
+    }
+
+    @Test
+    void onLogoutClearsWorkspaceOfUserWhoLoggedOut() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        sut.registerEditableVocabulary(vocabulary.getUri(), Generator.generateUri());
+
+        sut.onLogout(new LogoutSuccessEvent(SecurityContextHolder.getContext().getAuthentication()));
+        assertTrue(sut.getRegisteredContexts().isEmpty());
+    }
+
+    @Test
+    void workspaceStateIsNotStoredUnderUsername() {
+        final UserAccount user = Generator.generateUserAccountWithPassword();
+        Environment.setCurrentUser(user);
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        sut.registerEditableVocabulary(vocabulary.getUri(), Generator.generateUri());
+
+        assertFalse(sut.getRegisteredContexts().isEmpty());
+        assertTrue(stateStore.get(user.getUsername()).isEmpty());
+    }
 }
@@ -0,0 +1,102 @@
+/*
+ * TermIt
+ * Copyright (C) 2023 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.workspace;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InMemoryWorkspaceStateStoreTest {
+
+    private static final String WORKSPACE = "workspace";
+
+    private static final Duration TIME_TO_LIVE = Duration.ofHours(1);
+
+    private final Instant now = Instant.now();
+
+    private Clock clock;
+
+    private InMemoryWorkspaceStateStore sut;
+
+    @BeforeEach
+    void setUp() {
+        this.clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(now);
+        this.sut = new InMemoryWorkspaceStateStore(TIME_TO_LIVE, clock);
+    }
+
+    @Test
+    void registerKeepsRegistrationsOfOtherVocabularies() {
+        final URI vocabularyOne = Generator.generateUri();
+        final URI contextOne = Generator.generateUri();
+        final URI vocabularyTwo = Generator.generateUri();
+        final URI contextTwo = Generator.generateUri();
+        sut.register(WORKSPACE, vocabularyOne, contextOne);
+        sut.register(WORKSPACE, vocabularyTwo, contextTwo);
+
+        assertEquals(Map.of(vocabularyOne, contextOne, vocabularyTwo, contextTwo), sut.get(WORKSPACE));
+    }
+
+    @Test
+    void concurrentRegistrationsInSameWorkspaceAreNotLost() {
+        final List<URI> vocabularies = IntStream.range(0, 100).mapToObj(i -> Generator.generateUri()).toList();
+
+        vocabularies.parallelStream().forEach(v -> sut.register(WORKSPACE, v, v));
+        assertEquals(vocabularies.size(), sut.get(WORKSPACE).size());
+    }
+
+    @Test
+    void getReturnsEmptyMapWhenStateHasExpired() {
+        sut.register(WORKSPACE, Generator.generateUri(), Generator.generateUri());
+
+        when(clock.instant()).thenReturn(now.plus(TIME_TO_LIVE));
+        assertTrue(sut.get(WORKSPACE).isEmpty());
+    }
+
+    @Test
+    void registerDoesNotReviveExpiredRegistrations() {
+        sut.register(WORKSPACE, Generator.generateUri(), Generator.generateUri());
+        when(clock.instant()).thenReturn(now.plus(TIME_TO_LIVE));
+        final URI vocabulary = Generator.generateUri();
+        final URI context = Generator.generateUri();
+
+        sut.register(WORKSPACE, vocabulary, context);
+        assertEquals(Map.of(vocabulary, context), sut.get(WORKSPACE));
+    }
+
+    @Test
+    void clearRemovesAllRegistrations() {
+        sut.register(WORKSPACE, Generator.generateUri(), Generator.generateUri());
+
+        sut.clear(WORKSPACE);
+        assertTrue(sut.get(WORKSPACE).isEmpty());
+    }
+}